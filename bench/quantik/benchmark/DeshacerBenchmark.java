@@ -0,0 +1,130 @@
+package quantik.benchmark;
+
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import quantik.control.Partida;
+import quantik.excepcion.CoordenadasIncorrectasException;
+import quantik.modelo.Movimiento;
+import quantik.undo.MaquinaDelTiempoConJugadas;
+import quantik.undo.MaquinaDelTiempoConPartidas;
+import quantik.undo.MecanismoDeDeshacer;
+import quantik.util.Color;
+
+/**
+ * Pruebas de rendimiento de los dos mecanismos de deshacer.
+ * 
+ * @author <a href="apo1004@alu.ubu.es"> Amanda Pérez Olmos </a>
+ * @since 3.0
+ * @version 3.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DeshacerBenchmark {
+
+	/**
+	 * Mecanismo de deshacer que se mide, con los nombres que usa la interfaz de texto.
+	 */
+	@Param({ "jugadas", "partidas" })
+	public String mecanismo;
+	
+	/**
+	 * Fase de la partida en la que se mide.
+	 */
+	@Param({ "INICIO", "MEDIO", "FINAL" })
+	public Fase fase;
+	
+	/**
+	 * Mecanismo de deshacer con las jugadas de la fase realizadas.
+	 */
+	private MecanismoDeDeshacer deshacer;
+	
+	/**
+	 * Siguiente jugada legal desde la posición de la fase.
+	 */
+	private int siguienteJugada;
+	
+	/**
+	 * Color del jugador con el turno en la posición de la fase.
+	 */
+	private Color turno;
+	
+	/**
+	 * Crea el mecanismo y realiza las jugadas de la fase.
+	 * 
+	 * @throws CoordenadasIncorrectasException si alguna jugada está fuera del tablero
+	 */
+	@Setup(Level.Trial)
+	public void preparar() throws CoordenadasIncorrectasException {
+		
+		deshacer = (mecanismo.equals("jugadas") ? new MaquinaDelTiempoConJugadas(new Date(), 4, 4)
+				: new MaquinaDelTiempoConPartidas(new Date(), 4, 4));
+		turno = Color.BLANCO;
+		
+		for (int jugada : fase.obtenerJugadas()) {
+			hacerJugada(jugada);
+		}
+		
+		Partida partida = fase.crearPartida();
+		int[] buffer = new int[Movimiento.NUM_MOVIMIENTOS];
+		partida.generarJugadasLegalesEnTurnoActual(buffer);
+		siguienteJugada = buffer[0];
+	}
+	
+	/**
+	 * Realiza una jugada empaquetada en el mecanismo con el turno actual y pasa el turno.
+	 * 
+	 * @param jugada jugada según {@link Movimiento}
+	 * @throws CoordenadasIncorrectasException si la jugada está fuera del tablero
+	 */
+	private void hacerJugada (int jugada) throws CoordenadasIncorrectasException {
+		
+		deshacer.hacerJugada(Movimiento.consultarFila(jugada), Movimiento.consultarColumna(jugada),
+				Movimiento.consultarFigura(jugada), turno);
+		turno = turno.obtenerContrario();
+	}
+	
+	/**
+	 * Mide {@link MecanismoDeDeshacer#consultarPartidaActual()}.
+	 * 
+	 * @return partida actual
+	 */
+	@Benchmark
+	public Partida consultarPartidaActual() {
+		return deshacer.consultarPartidaActual();
+	}
+	
+	/**
+	 * Mide {@link MecanismoDeDeshacer#hacerJugada(int, int, quantik.util.Figura, Color)}
+	 * seguida de {@link MecanismoDeDeshacer#deshacerJugada()}, para que el histórico no crezca
+	 * entre invocaciones.
+	 * 
+	 * @return número de jugadas del histórico tras deshacer
+	 * @throws CoordenadasIncorrectasException si la jugada está fuera del tablero
+	 */
+	@Benchmark
+	public int hacerYDeshacerJugada() throws CoordenadasIncorrectasException {
+		
+		deshacer.hacerJugada(Movimiento.consultarFila(siguienteJugada), Movimiento.consultarColumna(siguienteJugada),
+				Movimiento.consultarFigura(siguienteJugada), turno);
+		deshacer.deshacerJugada();
+		return deshacer.consultarNumeroJugadasEnHistorico();
+	}
+}
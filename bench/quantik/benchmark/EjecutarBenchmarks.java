@@ -0,0 +1,33 @@
+package quantik.benchmark;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Ejecuta todas las pruebas de rendimiento con el perfilador de memoria de JMH, que añade a
+ * cada resultado los bytes reservados por operación y la tasa de reserva.
+ * 
+ * @author <a href="apo1004@alu.ubu.es"> Amanda Pérez Olmos </a>
+ * @since 3.0
+ * @version 3.0
+ */
+public class EjecutarBenchmarks {
+
+	/**
+	 * Método raíz.
+	 * 
+	 * @param args expresión regular opcional con las pruebas que se ejecutan
+	 * @throws RunnerException si falla la ejecución de JMH
+	 */
+	public static void main(String[] args) throws RunnerException {
+		
+		Options opciones = new OptionsBuilder()
+				.include(args.length > 0 ? args[0] : EjecutarBenchmarks.class.getPackageName() + ".*")
+				.addProfiler(GCProfiler.class)
+				.build();
+		new Runner(opciones).run();
+	}
+}
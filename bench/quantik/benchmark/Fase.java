@@ -0,0 +1,111 @@
+package quantik.benchmark;
+
+import java.util.Random;
+
+import quantik.control.Partida;
+import quantik.modelo.Caja;
+import quantik.modelo.Movimiento;
+import quantik.modelo.Tablero;
+import quantik.util.Color;
+
+/**
+ * Enumeración de los momentos de la partida en los que se miden las pruebas de rendimiento.
+ * <p>
+ * Cada fase corresponde a una partida reproducible con un número fijo de jugadas legales
+ * elegidas al azar con semilla fija, que no está acabada.
+ * 
+ * @author <a href="apo1004@alu.ubu.es"> Amanda Pérez Olmos </a>
+ * @since 3.0
+ * @version 3.0
+ */
+public enum Fase {
+
+	/**
+	 * Principio de la partida.
+	 */
+	INICIO (2),
+	
+	/**
+	 * Mitad de la partida.
+	 */
+	MEDIO (6),
+	
+	/**
+	 * Final de la partida.
+	 */
+	FINAL (10);
+	
+	/**
+	 * Semilla de la primera partida que se intenta generar.
+	 */
+	private final static long SEMILLA = 2023L;
+	
+	/**
+	 * Número de jugadas de la fase.
+	 */
+	private final int numJugadas;
+	
+	/**
+	 * Constructor que inicializa el número de jugadas de la fase.
+	 * 
+	 * @param numJugadas número de jugadas realizadas en la fase
+	 */
+	private Fase (int numJugadas) {
+		this.numJugadas = numJugadas;
+	}
+	
+	/**
+	 * Obtiene las jugadas empaquetadas que llevan a la posición de la fase.
+	 * <p>
+	 * Se prueban semillas consecutivas hasta obtener una partida que no acabe antes de
+	 * realizar todas las jugadas ni justo después.
+	 * 
+	 * @return jugadas según {@link Movimiento}, en orden
+	 */
+	public int[] obtenerJugadas() {
+		
+		int[] buffer = new int[Movimiento.NUM_MOVIMIENTOS];
+		
+		for (long semilla = SEMILLA; ; semilla++) {
+			
+			Random aleatorio = new Random(semilla);
+			Partida partida = crearPartidaVacia();
+			int[] jugadas = new int[numJugadas];
+			int i = 0;
+			
+			while (i < numJugadas && !partida.estaAcabadaPartida()) {
+				
+				int numLegales = partida.generarJugadasLegalesEnTurnoActual(buffer);
+				jugadas[i] = buffer[aleatorio.nextInt(numLegales)];
+				partida.aplicarJugada(jugadas[i++]);
+			}
+			if (i == numJugadas && !partida.estaAcabadaPartida()) {
+				return jugadas;
+			}
+		}
+	}
+	
+	/**
+	 * Crea una partida en la posición de la fase.
+	 * 
+	 * @return partida con las jugadas de la fase realizadas
+	 */
+	public Partida crearPartida() {
+		
+		Partida partida = crearPartidaVacia();
+		
+		for (int jugada : obtenerJugadas()) {
+			partida.aplicarJugada(jugada);
+		}
+		return partida;
+	}
+	
+	/**
+	 * Crea una partida sin jugadas.
+	 * 
+	 * @return partida en la posición inicial
+	 */
+	static Partida crearPartidaVacia() {
+		return new Partida(new Tablero(), new Caja(Color.BLANCO), new Caja(Color.NEGRO));
+	}
+}
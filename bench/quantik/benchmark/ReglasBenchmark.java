@@ -0,0 +1,126 @@
+package quantik.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import quantik.control.Partida;
+import quantik.excepcion.CoordenadasIncorrectasException;
+import quantik.util.Color;
+import quantik.util.Figura;
+
+/**
+ * Pruebas de rendimiento de las consultas de reglas de {@link Partida} y del tablero.
+ * 
+ * @author <a href="apo1004@alu.ubu.es"> Amanda Pérez Olmos </a>
+ * @since 3.0
+ * @version 3.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ReglasBenchmark {
+
+	/**
+	 * Fase de la partida en la que se mide.
+	 */
+	@Param({ "INICIO", "MEDIO", "FINAL" })
+	public Fase fase;
+	
+	/**
+	 * Partida en la posición de la fase.
+	 */
+	private Partida partida;
+	
+	/**
+	 * Prepara la partida de la fase.
+	 */
+	@Setup(Level.Trial)
+	public void preparar() {
+		partida = fase.crearPartida();
+	}
+	
+	/**
+	 * Comprueba la legalidad de todas las combinaciones de figura y celda, como hacen las
+	 * interfaces para saber qué jugadas ofrecer.
+	 * 
+	 * @param agujero sumidero de resultados
+	 * @throws CoordenadasIncorrectasException si las coordenadas están fuera del tablero
+	 */
+	@Benchmark
+	public void esJugadaLegalEnTurnoActual (Blackhole agujero) throws CoordenadasIncorrectasException {
+		
+		for (Figura figura : Figura.values()) {
+			for (int fila = 0; fila < 4; fila++) {
+				for (int columna = 0; columna < 4; columna++) {
+					agujero.consume(partida.esJugadaLegalEnTurnoActual(fila, columna, figura));
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Mide {@link Partida#estaBloqueadoTurnoActual()}.
+	 * 
+	 * @return resultado de la consulta
+	 */
+	@Benchmark
+	public boolean estaBloqueadoTurnoActual() {
+		return partida.estaBloqueadoTurnoActual();
+	}
+	
+	/**
+	 * Mide {@link Partida#estaAcabadaPartida()}.
+	 * 
+	 * @return resultado de la consulta
+	 */
+	@Benchmark
+	public boolean estaAcabadaPartida() {
+		return partida.estaAcabadaPartida();
+	}
+	
+	/**
+	 * Mide {@link Partida#consultarGanador()}.
+	 * 
+	 * @return resultado de la consulta
+	 */
+	@Benchmark
+	public Color consultarGanador() {
+		return partida.consultarGanador();
+	}
+	
+	/**
+	 * Mide {@link Partida#clonar()}.
+	 * 
+	 * @return clon de la partida
+	 */
+	@Benchmark
+	public Partida clonar() {
+		return partida.clonar();
+	}
+	
+	/**
+	 * Mide {@link quantik.modelo.Tablero#aTexto()} sobre la vista del tablero, sin copiarlo.
+	 * 
+	 * @return texto del tablero
+	 */
+	@Benchmark
+	public String aTexto() {
+		return partida.consultarVistaTablero().aTexto();
+	}
+}
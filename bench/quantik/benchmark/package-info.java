@@ -0,0 +1,7 @@
+/**
+ * Conjunto de pruebas de rendimiento con JMH de las reglas y del mecanismo de deshacer del juego Quantik.
+ * 
+ * @author <a href="apo1004@alu.ubu.es"> Amanda Pérez Olmos </a>
+ * @version 3.0
+ */
+package quantik.benchmark;
\ No newline at end of file
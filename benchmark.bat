@@ -0,0 +1,14 @@
+REM Pruebas de rendimiento con JMH.
+REM Requiere compilar antes el proyecto con compilar.bat y copiar en .\lib\jmh los jar
+REM jmh-core, jmh-generator-annprocess, jopt-simple y commons-math3.
+REM Se puede pasar como argumento una expresion regular con las pruebas a ejecutar.
+
+if not exist "bin-bench" mkdir bin-bench
+
+javac -classpath .\bin;.\lib\*;.\lib\jmh\* ^
+-encoding UTF-8 ^
+-d bin-bench ^
+-sourcepath .\bench ^
+.\bench\quantik\benchmark\*.java
+
+java -classpath .\bin;.\bin-bench;.\lib\*;.\lib\jmh\* quantik.benchmark.EjecutarBenchmarks %*
\ No newline at end of file
@@ -9,4 +9,13 @@ javac -classpath .\bin;.\lib\* ^
 .\src\quantik\control\*.java ^
 .\src\quantik\textui\*.java ^
 .\src\quantik\excepcion\*.java ^
-.\src\quantik\undo\*.java
\ No newline at end of file
+.\src\quantik\undo\*.java ^
+.\src\quantik\transposicion\*.java ^
+.\src\quantik\solucionador\*.java ^
+.\src\quantik\ia\*.java ^
+.\src\quantik\finales\*.java ^
+.\src\quantik\aperturas\*.java ^
+.\src\quantik\ordenacion\*.java ^
+.\src\quantik\lotes\*.java ^
+.\src\quantik\torneo\*.java ^
+.\src\quantik\herramientas\*.java
\ No newline at end of file
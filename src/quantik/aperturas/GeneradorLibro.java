@@ -0,0 +1,227 @@
+package quantik.aperturas;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import quantik.control.Partida;
+import quantik.finales.GeneradorFinales;
+import quantik.modelo.TableroDeBits;
+import quantik.solucionador.ResultadoSolucion;
+import quantik.solucionador.Solucionador;
+import quantik.transposicion.TablaProyectada;
+import quantik.transposicion.TablaTransposicion;
+
+/**
+ * Generador de ficheros de {@link LibroAperturas}.
+ * <p>
+ * Enumera las formas canónicas de todas las posiciones no acabadas con hasta un número de
+ * piezas, con {@link GeneradorFinales#enumerar(int, int, ForkJoinPool, PrintStream)},
+ * y resuelve cada una con un {@link Solucionador}. Las posiciones se reparten entre los hilos
+ * de un {@link ForkJoinPool} y todos los solucionadores comparten una tabla de transposición.
+ * Se resuelven primero las de más piezas, de modo que al llegar a las de menos la tabla ya
+ * tiene los resultados de sus sucesoras.
+ * <p>
+ * Uso: {@code java quantik.aperturas.GeneradorLibro maxPiezas fichero [-hilos n] [-megas n]}
+ * 
+ * @author <a href="apo1004@alu.ubu.es"> Amanda Pérez Olmos </a>
+ * @since 3.0
+ * @version 3.0
+ */
+public class GeneradorLibro {
+
+	/**
+	 * Número de posiciones por debajo del cual las tareas paralelas trabajan en secuencia.
+	 */
+	private final static int UMBRAL_SECUENCIAL = 16;
+	
+	/**
+	 * Tamaño por defecto de la tabla de transposición en megabytes.
+	 */
+	private final static int MEGAS_POR_DEFECTO = 256;
+	
+	/**
+	 * Resuelve todas las posiciones no acabadas con hasta un número de piezas y las escribe en
+	 * un libro de aperturas.
+	 * 
+	 * @param maxPiezas número máximo de piezas, entre 0 y {@value TableroDeBits#NUM_CASILLAS} menos uno
+	 * @param fichero ruta del fichero que se crea o sobrescribe
+	 * @param pool pool de hilos en el que se reparte el trabajo
+	 * @param tabla tabla de transposición compartida por todos los hilos
+	 * @param progreso salida donde se informa del avance, o null para no informar
+	 * @return número de posiciones escritas
+	 * @throws IOException si no se puede escribir el fichero
+	 * @throws IllegalArgumentException si el máximo de piezas está fuera de rango o las
+	 * posiciones no caben en un fichero proyectable
+	 */
+	public static long generar (int maxPiezas, Path fichero, ForkJoinPool pool, TablaTransposicion tabla,
+			PrintStream progreso) throws IOException {
+		
+		if (maxPiezas < 0 || maxPiezas >= TableroDeBits.NUM_CASILLAS) {
+			throw new IllegalArgumentException("Número máximo de piezas fuera de rango: " + maxPiezas);
+		}
+		
+		long[][] niveles = GeneradorFinales.enumerar(0, maxPiezas, pool, progreso);
+		long[][] entradas = new long[maxPiezas + 1][];
+		long inicio = System.nanoTime();
+		
+		for (int n = maxPiezas; n >= 0; n--) {
+			
+			entradas[n] = new long[niveles[n].length];
+			pool.invoke(new TareaLibro(niveles[n], entradas[n], tabla, 0, niveles[n].length));
+			
+			if (progreso != null) {
+				progreso.printf("[%8.1f s] resueltas %d posiciones con %d piezas%n", (System.nanoTime() - inicio) / 1e9,
+						niveles[n].length, n);
+			}
+		}
+		
+		return TablaProyectada.escribir(fichero, LibroAperturas.MAGIA, maxPiezas, entradas, LibroAperturas.DESCRIPCION);
+	}
+	
+	/**
+	 * Muestra el uso de la herramienta.
+	 */
+	private static void mostrarUso() {
+		
+		System.err.println("Uso: GeneradorLibro maxPiezas fichero [-hilos n] [-megas n]");
+		System.err.println("  maxPiezas  número máximo de piezas de las posiciones, entre 0 y " + (TableroDeBits.NUM_CASILLAS - 1));
+		System.err.println("  fichero    ruta del libro de aperturas que se crea");
+		System.err.println("  -hilos n   reparte el trabajo entre n hilos (todos los procesadores por defecto)");
+		System.err.println("  -megas n   tamaño de la tabla de transposición en megabytes (" + MEGAS_POR_DEFECTO + " por defecto)");
+	}
+	
+	/**
+	 * Genera un libro de aperturas informando del avance por la salida estándar.
+	 * <p>
+	 * Termina con código 1 si no se puede escribir el fichero y con código 2 si los argumentos
+	 * no son válidos.
+	 * 
+	 * @param args argumentos de entrada
+	 */
+	public static void main(String[] args) {
+		
+		int maxPiezas = -1;
+		Path fichero = null;
+		int hilos = Runtime.getRuntime().availableProcessors();
+		long megas = MEGAS_POR_DEFECTO;
+		
+		try {
+			for (int i = 0; i < args.length; i++) {
+				
+				if (args[i].equalsIgnoreCase("-hilos")) {
+					hilos = Integer.parseInt(args[++i]);
+				}
+				else if (args[i].equalsIgnoreCase("-megas")) {
+					megas = Long.parseLong(args[++i]);
+				}
+				else if (maxPiezas < 0) {
+					maxPiezas = Integer.parseInt(args[i]);
+				}
+				else {
+					fichero = Paths.get(args[i]);
+				}
+			}
+		}
+		catch (RuntimeException ex) {
+			maxPiezas = -1;
+		}
+		
+		if (maxPiezas < 0 || maxPiezas >= TableroDeBits.NUM_CASILLAS || fichero == null || hilos < 1 || megas < 1) {
+			mostrarUso();
+			System.exit(2);
+		}
+		
+		ForkJoinPool pool = new ForkJoinPool(hilos);
+		
+		try {
+			long numEntradas = generar(maxPiezas, fichero, pool, new TablaTransposicion(megas << 20), System.out);
+			System.out.printf("Escritas %d posiciones en %s%n", numEntradas, fichero);
+		}
+		catch (IOException ex) {
+			System.err.println("No se ha podido escribir el libro de aperturas: " + ex.getMessage());
+			System.exit(1);
+		}
+		finally {
+			pool.shutdown();
+		}
+	}
+	
+	/**
+	 * Tarea fork/join que resuelve un tramo de posiciones de un nivel.
+	 */
+	private static class TareaLibro extends RecursiveAction {
+		
+		/**
+		 * Identificador de versión de la serialización.
+		 */
+		private static final long serialVersionUID = 1L;
+		
+		/**
+		 * Formas canónicas del nivel.
+		 */
+		private final long[] nivel;
+		
+		/**
+		 * Entradas del nivel, que se rellenan en el tramo.
+		 */
+		private final long[] entradas;
+		
+		/**
+		 * Tabla de transposición compartida.
+		 */
+		private final TablaTransposicion tabla;
+		
+		/**
+		 * Primera posición del tramo.
+		 */
+		private final int desde;
+		
+		/**
+		 * Posición siguiente a la última del tramo.
+		 */
+		private final int hasta;
+		
+		/**
+		 * Crea la tarea de un tramo.
+		 * 
+		 * @param nivel formas canónicas del nivel
+		 * @param entradas entradas del nivel
+		 * @param tabla tabla de transposición compartida
+		 * @param desde primera posición del tramo
+		 * @param hasta posición siguiente a la última del tramo
+		 */
+		TareaLibro (long[] nivel, long[] entradas, TablaTransposicion tabla, int desde, int hasta) {
+			
+			this.nivel = nivel;
+			this.entradas = entradas;
+			this.tabla = tabla;
+			this.desde = desde;
+			this.hasta = hasta;
+		}
+		
+		@Override
+		protected void compute() {
+			
+			if (hasta - desde > UMBRAL_SECUENCIAL) {
+				
+				int medio = (desde + hasta) >>> 1;
+				invokeAll(new TareaLibro(nivel, entradas, tabla, desde, medio), new TareaLibro(nivel, entradas, tabla, medio, hasta));
+				return;
+			}
+			
+			Solucionador solucionador = new Solucionador(tabla);
+			
+			// La partida de una forma canónica tiene el turno de las blancas, así que la mejor
+			// jugada ya está expresada sobre la forma canónica.
+			for (int i = desde; i < hasta; i++) {
+				
+				ResultadoSolucion resultado = solucionador.resolver(Partida.decodificar(nivel[i]));
+				entradas[i] = LibroAperturas.empaquetar(nivel[i], resultado.esVictoria(), resultado.consultarMejorJugada());
+			}
+		}
+	}
+}
@@ -0,0 +1,176 @@
+package quantik.aperturas;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import quantik.control.Partida;
+import quantik.modelo.Movimiento;
+import quantik.modelo.Simetria;
+import quantik.modelo.TableroDeBits;
+import quantik.transposicion.TablaProyectada;
+
+/**
+ * Libro de aperturas: resultado con juego perfecto y mejor jugada de todas las posiciones no
+ * acabadas de las primeras jugadas, leído de un fichero generado por {@link GeneradorLibro}.
+ * <p>
+ * El fichero tiene el formato de {@link TablaProyectada}: el parámetro de la cabecera es el
+ * máximo de piezas y el dato de cada entrada es la mejor jugada sobre la forma canónica más
+ * uno, para que nunca sea cero. Proyectarlo en memoria al abrirlo no lee nada, así que abrir
+ * el libro no retrasa el arranque.
+ * <p>
+ * Las consultas hacen un número de accesos acotado por la ocupación de la tabla, por lo que su
+ * coste es constante, y se pueden hacer desde varios hilos a la vez.
+ * 
+ * @author <a href="apo1004@alu.ubu.es"> Amanda Pérez Olmos </a>
+ * @since 3.0
+ * @version 3.0
+ */
+public class LibroAperturas {
+
+	/**
+	 * Valor devuelto por las consultas cuando la posición no está en el libro.
+	 */
+	public final static long SIN_DATOS = TablaProyectada.SIN_DATOS;
+	
+	/**
+	 * Número mágico al principio del fichero, que identifica el formato y su versión.
+	 */
+	final static long MAGIA = 0x5154_4B41_5045_0001L;
+	
+	/**
+	 * Nombre del tipo de fichero en los mensajes de error.
+	 */
+	final static String DESCRIPCION = "libro de aperturas";
+	
+	/**
+	 * Tabla proyectada del fichero.
+	 */
+	private final TablaProyectada tabla;
+	
+	/**
+	 * Crea un libro sobre un fichero ya proyectado y validado.
+	 * 
+	 * @param tabla tabla proyectada del fichero
+	 */
+	private LibroAperturas (TablaProyectada tabla) {
+		this.tabla = tabla;
+	}
+	
+	/**
+	 * Abre un libro de aperturas y lo proyecta en memoria en modo de solo lectura.
+	 * 
+	 * @param fichero ruta del fichero generado por {@link GeneradorLibro}
+	 * @return libro de aperturas
+	 * @throws IOException si el fichero no se puede leer o no tiene el formato esperado
+	 */
+	public static LibroAperturas abrir (Path fichero) throws IOException {
+		return new LibroAperturas(TablaProyectada.abrir(fichero, MAGIA, 0, TableroDeBits.NUM_CASILLAS - 1, DESCRIPCION));
+	}
+	
+	/**
+	 * Empaqueta una entrada del libro.
+	 * 
+	 * @param codigo codificación canónica de la posición
+	 * @param victoria true si gana el jugador con el turno
+	 * @param jugada mejor jugada empaquetada sobre la forma canónica
+	 * @return entrada empaquetada
+	 */
+	static long empaquetar (long codigo, boolean victoria, int jugada) {
+		return TablaProyectada.empaquetar(codigo, victoria, jugada + 1);
+	}
+	
+	/**
+	 * Comprueba si una entrada corresponde a una posición ganada por el jugador con el turno.
+	 * 
+	 * @param entrada entrada devuelta por una consulta
+	 * @return true si gana el jugador con el turno y false si pierde
+	 */
+	public static boolean esVictoria (long entrada) {
+		return TablaProyectada.esVictoria(entrada);
+	}
+	
+	/**
+	 * Obtiene la mejor jugada de una entrada, expresada sobre la forma canónica de la posición.
+	 * 
+	 * @param entrada entrada devuelta por una consulta
+	 * @return jugada empaquetada según {@link Movimiento}
+	 */
+	public static int consultarJugadaCanonica (long entrada) {
+		return TablaProyectada.consultarDato(entrada) - 1;
+	}
+	
+	/**
+	 * Devuelve el número máximo de piezas de las posiciones del libro.
+	 * 
+	 * @return máximo de piezas
+	 */
+	public int consultarMaxPiezas() {
+		return tabla.consultarParametro();
+	}
+	
+	/**
+	 * Devuelve el número de posiciones guardadas.
+	 * 
+	 * @return número de entradas
+	 */
+	public long consultarNumeroEntradas() {
+		return tabla.consultarNumeroEntradas();
+	}
+	
+	/**
+	 * Busca una posición por su codificación canónica.
+	 * 
+	 * @param codigo codificación canónica de la posición
+	 * @return entrada de la posición o {@link #SIN_DATOS} si no está en el libro
+	 */
+	public long consultar (long codigo) {
+		return tabla.consultar(codigo);
+	}
+	
+	/**
+	 * Busca la posición actual de una partida.
+	 * <p>
+	 * Con más de {@link #consultarMaxPiezas()} piezas en el tablero no se calcula la forma
+	 * canónica, así que consultar el libro en cada turno apenas cuesta pasada la apertura.
+	 * 
+	 * @param partida partida cuya posición se busca
+	 * @return entrada de la posición o {@link #SIN_DATOS} si no está en el libro
+	 */
+	public long consultar (Partida partida) {
+		
+		if (!estaEnRango(partida)) {
+			return SIN_DATOS;
+		}
+		return consultar(partida.calcularCodigoCanonico());
+	}
+	
+	/**
+	 * Obtiene la mejor jugada del turno actual según el libro.
+	 * 
+	 * @param partida partida cuya posición se busca, que no se modifica
+	 * @return jugada empaquetada según {@link Movimiento} sobre la posición de la partida, o
+	 * {@link Movimiento#NINGUNO} si la posición no está en el libro
+	 */
+	public int consultarJugada (Partida partida) {
+		
+		if (!estaEnRango(partida)) {
+			return Movimiento.NINGUNO;
+		}
+		
+		Simetria simetria = partida.consultarSimetriaCanonica();
+		long entrada = consultar(simetria.transformar(partida.consultarVistaTablero().consultarTableroDeBits()));
+		return (entrada == SIN_DATOS ? Movimiento.NINGUNO : simetria.deshacerJugada(consultarJugadaCanonica(entrada)));
+	}
+	
+	/**
+	 * Comprueba si la posición de una partida puede estar en el libro.
+	 * 
+	 * @param partida partida
+	 * @return true si no está acabada y no tiene más piezas de las del libro
+	 */
+	private boolean estaEnRango (Partida partida) {
+		
+		int piezas = Integer.bitCount(partida.consultarVistaTablero().consultarTableroDeBits().consultarOcupadas());
+		return piezas <= consultarMaxPiezas() && !partida.estaAcabadaPartida();
+	}
+}
@@ -0,0 +1,284 @@
+package quantik.control;
+
+import java.util.Objects;
+
+import quantik.excepcion.CoordenadasIncorrectasException;
+import quantik.modelo.Caja;
+import quantik.modelo.Movimiento;
+import quantik.modelo.Pieza;
+import quantik.modelo.Tablero;
+import quantik.modelo.TableroDeBits;
+import quantik.util.Color;
+import quantik.util.Figura;
+
+/**
+ * Estado inmutable de una partida que comparte estructura con el estado anterior.
+ * <p>
+ * Cada estado guarda las piezas colocadas de cada color en el mismo formato que
+ * {@link TableroDeBits} (una máscara de 16 bits por figura dentro de un long), el contenido
+ * de las cajas codificado con {@link Caja#codificar()}, el turno, el color del último jugador
+ * que ha colocado una pieza, el número de jugadas y una referencia al estado del que procede. Las cajas se guardan aparte porque una jugada sobre
+ * una celda ocupada retira la pieza de la caja sin colocarla, y la pieza se pierde; por eso
+ * tampoco se puede deducir del turno quién colocó la última pieza. Hacer una
+ * jugada crea un único objeto pequeño y no copia nada de los estados previos, que quedan
+ * compartidos.
+ * 
+ * @author <a href="apo1004@alu.ubu.es"> Amanda Pérez Olmos </a>
+ * @since 3.0
+ * @version 3.0
+ */
+public final class EstadoPartida {
+
+	/**
+	 * Estado de una partida sin jugadas, compartido por todos los históricos.
+	 */
+	private final static EstadoPartida INICIAL = new EstadoPartida(null, 0L, 0L, new Caja(Color.BLANCO).codificar(),
+			new Caja(Color.NEGRO).codificar(), Color.BLANCO, null, 0);
+	
+	/**
+	 * Estado del que procede este, o null si es el inicial.
+	 */
+	private final EstadoPartida anterior;
+	
+	/**
+	 * Máscaras por figura de las piezas blancas colocadas.
+	 */
+	private final long blancas;
+	
+	/**
+	 * Máscaras por figura de las piezas negras colocadas.
+	 */
+	private final long negras;
+	
+	/**
+	 * Codificación de la caja de las piezas blancas.
+	 */
+	private final long cajaBlancas;
+	
+	/**
+	 * Codificación de la caja de las piezas negras.
+	 */
+	private final long cajaNegras;
+	
+	/**
+	 * Color del jugador con el turno.
+	 */
+	private final Color turno;
+	
+	/**
+	 * Color del jugador que ha colocado la última pieza, o null si no se ha colocado ninguna.
+	 */
+	private final Color turnoUltimaJugada;
+	
+	/**
+	 * Número de jugadas que se han llevado a cabo.
+	 */
+	private final int numJugadas;
+	
+	/**
+	 * Inicializa todos los atributos del estado.
+	 * 
+	 * @param anterior estado del que procede
+	 * @param blancas máscaras por figura de las piezas blancas
+	 * @param negras máscaras por figura de las piezas negras
+	 * @param cajaBlancas codificación de la caja de las piezas blancas
+	 * @param cajaNegras codificación de la caja de las piezas negras
+	 * @param turno color del jugador con el turno
+	 * @param turnoUltimaJugada color del jugador que ha colocado la última pieza, o null
+	 * @param numJugadas número de jugadas realizadas
+	 */
+	private EstadoPartida (EstadoPartida anterior, long blancas, long negras, long cajaBlancas, long cajaNegras, Color turno,
+			Color turnoUltimaJugada, int numJugadas) {
+		
+		this.anterior = anterior;
+		this.blancas = blancas;
+		this.negras = negras;
+		this.cajaBlancas = cajaBlancas;
+		this.cajaNegras = cajaNegras;
+		this.turno = turno;
+		this.turnoUltimaJugada = turnoUltimaJugada;
+		this.numJugadas = numJugadas;
+	}
+	
+	/**
+	 * Obtiene el estado de una partida sin jugadas.
+	 * 
+	 * @return estado inicial compartido
+	 */
+	public static EstadoPartida obtenerInicial() {
+		return INICIAL;
+	}
+	
+	/**
+	 * Devuelve el estado del que procede el actual.
+	 * 
+	 * @return estado anterior o null si es el estado inicial
+	 */
+	public EstadoPartida consultarAnterior() {
+		return anterior;
+	}
+	
+	/**
+	 * Devuelve el número de jugadas realizadas hasta este estado.
+	 * 
+	 * @return número de jugadas
+	 */
+	public int consultarNumeroJugada() {
+		return numJugadas;
+	}
+	
+	/**
+	 * Devuelve el turno que puede realizar la siguiente jugada.
+	 * 
+	 * @return turno
+	 */
+	public Color consultarTurno() {
+		return turno;
+	}
+	
+	/**
+	 * Crea una partida modificable con el contenido de este estado.
+	 * <p>
+	 * El coste está acotado por el tamaño del tablero y no depende de la longitud del histórico.
+	 * 
+	 * @return nueva partida en este estado
+	 */
+	public Partida crearPartida() {
+		
+		Tablero tablero = new Tablero();
+		
+		try {
+			colocarPiezas(tablero, Color.BLANCO, blancas);
+			colocarPiezas(tablero, Color.NEGRO, negras);
+		}
+		catch (CoordenadasIncorrectasException ex) {
+			throw new RuntimeException("Error grave en el código.",ex);
+		}
+		
+		Partida partida = new Partida(tablero, Caja.decodificar(cajaBlancas), Caja.decodificar(cajaNegras));
+		partida.fijarEstado(turno, numJugadas, turnoUltimaJugada);
+		return partida;
+	}
+	
+	/**
+	 * Coloca en el tablero las piezas de un color indicadas por sus máscaras.
+	 * 
+	 * @param tablero tablero donde se colocan
+	 * @param color color de las piezas
+	 * @param piezas máscaras por figura de las piezas
+	 * @throws CoordenadasIncorrectasException si las coordenadas están fuera del tablero
+	 */
+	private static void colocarPiezas (Tablero tablero, Color color, long piezas) throws CoordenadasIncorrectasException {
+		
+		for (Figura figura : Movimiento.FIGURAS) {
+			
+			int mascara = consultarMascara(piezas, figura);
+			
+			while (mascara != 0) {
+				
+				int casilla = Integer.numberOfTrailingZeros(mascara);
+				tablero.colocar(casilla / TableroDeBits.NUM_COLUMNAS, casilla % TableroDeBits.NUM_COLUMNAS, Pieza.obtener(figura, color));
+				mascara &= mascara - 1;
+			}
+		}
+	}
+	
+	/**
+	 * Extrae la máscara de una figura de las máscaras empaquetadas de un color.
+	 * 
+	 * @param piezas máscaras por figura
+	 * @param figura figura buscada
+	 * @return máscara de 16 bits de la figura
+	 */
+	private static int consultarMascara (long piezas, Figura figura) {
+		return (int) (piezas >>> (figura.ordinal() * TableroDeBits.BITS_POR_FIGURA)) & TableroDeBits.TODAS_LAS_CASILLAS;
+	}
+	
+	/**
+	 * Calcula la máscara de casillas ocupadas superponiendo las máscaras de las cuatro figuras.
+	 * 
+	 * @param piezas máscaras por figura
+	 * @return máscara de 16 bits de casillas ocupadas
+	 */
+	private static int calcularOcupadas (long piezas) {
+		
+		long plegadas = piezas | piezas >>> (2 * TableroDeBits.BITS_POR_FIGURA);
+		plegadas |= plegadas >>> TableroDeBits.BITS_POR_FIGURA;
+		return (int) plegadas & TableroDeBits.TODAS_LAS_CASILLAS;
+	}
+	
+	/**
+	 * Obtiene el estado resultante de colocar una pieza del turno actual y pasar el turno.
+	 * <p>
+	 * Sigue el mismo criterio que {@link Partida#colocarPiezaEnTurnoActual(int, int, Figura)}:
+	 * si quedan piezas de esa figura se retira una de la caja, que solo se coloca si la celda
+	 * está vacía, y la jugada se cuenta en cualquier caso. El estado actual no se modifica.
+	 * 
+	 * @param fila fila de la celda donde se coloca la pieza
+	 * @param columna columna de la celda donde se coloca la pieza
+	 * @param figura figura de la pieza
+	 * @return nuevo estado cuyo anterior es el actual
+	 * @throws CoordenadasIncorrectasException si las coordenadas están fuera del tablero
+	 */
+	public EstadoPartida jugar (int fila, int columna, Figura figura) throws CoordenadasIncorrectasException {
+		
+		if (fila < 0 || fila >= TableroDeBits.NUM_FILAS || columna < 0 || columna >= TableroDeBits.NUM_COLUMNAS) {
+			throw new CoordenadasIncorrectasException("Coordenadas fuera de los límites del tablero.");
+		}
+		
+		long nuevasBlancas = blancas;
+		long nuevasNegras = negras;
+		long nuevaCajaBlancas = cajaBlancas;
+		long nuevaCajaNegras = cajaNegras;
+		Color nuevoTurnoUltimaJugada = turnoUltimaJugada;
+		Caja caja = Caja.decodificar(turno == Color.BLANCO ? cajaBlancas : cajaNegras);
+		int casilla = TableroDeBits.calcularCasilla(fila, columna);
+		boolean vacia = (calcularOcupadas(blancas | negras) & (1 << casilla)) == 0;
+		
+		if (caja.retirar(figura) != null) {
+			
+			long bit = (vacia ? 1L << (figura.ordinal() * TableroDeBits.BITS_POR_FIGURA + casilla) : 0L);
+			
+			if (vacia) {
+				nuevoTurnoUltimaJugada = turno;
+			}
+			
+			if (turno == Color.BLANCO) {
+				nuevasBlancas |= bit;
+				nuevaCajaBlancas = caja.codificar();
+			}
+			else {
+				nuevasNegras |= bit;
+				nuevaCajaNegras = caja.codificar();
+			}
+		}
+		return new EstadoPartida(this, nuevasBlancas, nuevasNegras, nuevaCajaBlancas, nuevaCajaNegras, turno.obtenerContrario(),
+				nuevoTurnoUltimaJugada, numJugadas + 1);
+	}
+	
+	@Override
+	public int hashCode() {
+		return Objects.hash(blancas, negras, cajaBlancas, cajaNegras, numJugadas, turno, turnoUltimaJugada);
+	}
+	
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj)
+			return true;
+		if (obj == null)
+			return false;
+		if (getClass() != obj.getClass())
+			return false;
+		EstadoPartida other = (EstadoPartida) obj;
+		return blancas == other.blancas && negras == other.negras && cajaBlancas == other.cajaBlancas
+				&& cajaNegras == other.cajaNegras && numJugadas == other.numJugadas && turno == other.turno
+				&& turnoUltimaJugada == other.turnoUltimaJugada;
+	}
+	
+	@Override
+	public String toString() {
+		return "EstadoPartida [blancas=" + Long.toHexString(blancas) + ", negras=" + Long.toHexString(negras)
+				+ ", cajaBlancas=" + Long.toHexString(cajaBlancas) + ", cajaNegras=" + Long.toHexString(cajaNegras)
+				+ ", turno=" + turno + ", turnoUltimaJugada=" + turnoUltimaJugada + ", numJugadas=" + numJugadas + "]";
+	}
+}
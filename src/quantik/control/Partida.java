@@ -4,9 +4,14 @@ import java.util.Objects;
 
 import quantik.excepcion.CoordenadasIncorrectasException;
 import quantik.modelo.Caja;
-import quantik.modelo.Celda;
 import quantik.modelo.GestorGrupos;
+import quantik.modelo.Movimiento;
+import quantik.modelo.Pieza;
+import quantik.modelo.Simetria;
 import quantik.modelo.Tablero;
+import quantik.modelo.TableroDeBits;
+import quantik.modelo.VistaCaja;
+import quantik.modelo.VistaTablero;
 import quantik.util.Color;
 import quantik.util.Figura;
 
@@ -14,10 +19,26 @@ import quantik.util.Figura;
  * Gestión del funcionamiento de la partida.
  * 
  * @author <a href="apo1004@alu.ubu.es"> Amanda Pérez Olmos </a>
- * @version 2.0
+ * @since 1.0
+ * @version 3.0
  */
 public class Partida {
 
+	/**
+	 * Posición del bit del turno en la codificación de la partida.
+	 */
+	private final static int BIT_TURNO = TableroDeBits.BITS_CODIFICACION;
+	
+	/**
+	 * Posición del número de jugadas en la codificación de la partida.
+	 */
+	private final static int BITS_NUM_JUGADAS = BIT_TURNO + 1;
+	
+	/**
+	 * Mayor número de jugadas que admite la codificación de la partida.
+	 */
+	private final static int MAX_NUM_JUGADAS_CODIFICABLES = (1 << (Long.SIZE - 1 - BITS_NUM_JUGADAS)) - 1;
+	
 	/**
 	 * Caja de piezas blancas.
 	 */
@@ -43,6 +64,17 @@ public class Partida {
 	 */
 	private Color turno;
 	
+	/**
+	 * Parte de la clave de Zobrist correspondiente al turno actual.
+	 */
+	private long claveTurno;
+	
+	/**
+	 * Color de las piezas del jugador que ha colocado la última pieza, o null si no se ha
+	 * colocado ninguna.
+	 */
+	private Color turnoUltimaJugada;
+	
 	/**
 	 * Gestor de los grupos del tablero.
 	 */
@@ -53,6 +85,27 @@ public class Partida {
 	 */
 	private Tablero tablero;
 	
+	/**
+	 * Vista de solo lectura del tablero.
+	 */
+	private VistaTablero vistaTablero;
+	
+	/**
+	 * Vista de solo lectura de la caja de piezas blancas.
+	 */
+	private VistaCaja vistaCajaBlancas;
+	
+	/**
+	 * Vista de solo lectura de la caja de piezas negras.
+	 */
+	private VistaCaja vistaCajaNegras;
+	
+	/**
+	 * Representación en bits del tablero, mantenida por el propio tablero, sobre la que se
+	 * resuelven las consultas de legalidad y bloqueo.
+	 */
+	private TableroDeBits bits;
+	
 	/**
 	 * Número de jugadas que se han llevado a cabo en la partida.
 	 */
@@ -68,17 +121,118 @@ public class Partida {
 	public Partida (Tablero tablero, Caja cajaBlancas, Caja cajaNegras) {
 		
 		this.tablero = tablero;
+		this.bits = tablero.consultarTableroDeBits();
 		this.cajaBlancas = cajaBlancas;
 		this.cajaNegras = cajaNegras;
 		
+		vistaTablero = tablero.crearVista();
+		vistaCajaBlancas = cajaBlancas.crearVista();
+		vistaCajaNegras = cajaNegras.crearVista();
+		
 		gestor = new GestorGrupos(tablero);
 		jugadorA = Color.BLANCO;
 		jugadorB = Color.NEGRO;
-
+		
 		// Se le da el primer turno al jugador con piezas blancas.
 		turno = (jugadorA == Color.BLANCO ? jugadorA : jugadorB);
 	}
 	
+	/**
+	 * Aplica una jugada del turno actual: coloca la pieza, la retira de la caja, cuenta la
+	 * jugada y cambia el turno.
+	 * <p>
+	 * Junto con {@link #revertirJugada(int, int)} permite recorrer el árbol de jugadas sobre
+	 * una única partida, sin clonarla ni crear objetos. No comprueba los conflictos en los
+	 * grupos; para ello se dispone de {@link #esJugadaLegalEnTurnoActual(int, int, Figura)}.
+	 * 
+	 * @param fila fila de la celda donde se coloca la pieza
+	 * @param columna columna de la celda donde se coloca la pieza
+	 * @param figura figura de la pieza que se coloca
+	 * @throws CoordenadasIncorrectasException si las coordenadas están fuera del tablero
+	 * @throws IllegalArgumentException si la celda está ocupada o la figura no está disponible
+	 */
+	public void aplicarJugada (int fila, int columna, Figura figura) throws CoordenadasIncorrectasException {
+		
+		Caja cajaActual = (turno == Color.BLANCO ? cajaBlancas : cajaNegras);
+		
+		if (!tablero.estaEnTablero(fila,columna)){
+			throw new CoordenadasIncorrectasException("Coordenadas fuera de los límites del tablero.");
+		}
+		if (!bits.estaVacia(TableroDeBits.calcularCasilla(fila, columna)) || !cajaActual.estaDisponible(figura)) {
+			throw new IllegalArgumentException("La jugada no se puede aplicar en el estado actual de la partida.");
+		}
+		tablero.colocar(fila, columna, cajaActual.retirar(figura));
+		numJugadas++;
+		turnoUltimaJugada = turno;
+		cambiarTurno();
+	}
+	
+	/**
+	 * Aplica una jugada empaquetada del turno actual, igual que
+	 * {@link #aplicarJugada(int, int, Figura)}.
+	 * 
+	 * @param movimiento jugada empaquetada según {@link Movimiento}
+	 * @throws IllegalArgumentException si el valor no es una jugada, la celda está ocupada o la
+	 * figura no está disponible
+	 */
+	public void aplicarJugada (int movimiento) {
+		
+		if (!Movimiento.esValido(movimiento)) {
+			throw new IllegalArgumentException("Jugada empaquetada no válida: " + movimiento);
+		}
+		try {
+			aplicarJugada(Movimiento.consultarFila(movimiento), Movimiento.consultarColumna(movimiento), Movimiento.consultarFigura(movimiento));
+		}
+		catch (CoordenadasIncorrectasException ex) {
+			throw new RuntimeException("Error grave en el código.",ex);
+		}
+	}
+	
+	/**
+	 * Revierte la última jugada aplicada con {@link #aplicarJugada(int, int, Figura)}: retira
+	 * la pieza del tablero, la devuelve a su caja, descuenta la jugada y restaura el turno.
+	 * 
+	 * @param fila fila de la celda de la jugada que se revierte
+	 * @param columna columna de la celda de la jugada que se revierte
+	 * @throws CoordenadasIncorrectasException si las coordenadas están fuera del tablero
+	 * @throws IllegalArgumentException si la celda no contiene una pieza del jugador que movió
+	 */
+	public void revertirJugada (int fila, int columna) throws CoordenadasIncorrectasException {
+		
+		Color turnoJugada = (turno == jugadorA ? jugadorB : jugadorA);
+		Caja cajaJugada = (turnoJugada == Color.BLANCO ? cajaBlancas : cajaNegras);
+		Pieza pieza = tablero.consultarPieza(fila, columna);
+		
+		if (pieza == null || pieza.consultarColor() != turnoJugada) {
+			throw new IllegalArgumentException("La celda no contiene una pieza del jugador que realizó la última jugada.");
+		}
+		tablero.retirar(fila, columna);
+		cajaJugada.devolver(pieza.consultarFigura());
+		numJugadas--;
+		turnoUltimaJugada = (bits.consultarOcupadas() != 0 ? turno : null);
+		cambiarTurno();
+	}
+	
+	/**
+	 * Revierte la última jugada aplicada, empaquetada, igual que {@link #revertirJugada(int, int)}.
+	 * 
+	 * @param movimiento jugada empaquetada según {@link Movimiento}
+	 * @throws IllegalArgumentException si el valor no es una jugada o la celda no contiene una
+	 * pieza del jugador que movió
+	 */
+	public void revertirJugada (int movimiento) {
+		
+		if (!Movimiento.esValido(movimiento)) {
+			throw new IllegalArgumentException("Jugada empaquetada no válida: " + movimiento);
+		}
+		try {
+			revertirJugada(Movimiento.consultarFila(movimiento), Movimiento.consultarColumna(movimiento));
+		}
+		catch (CoordenadasIncorrectasException ex) {
+			throw new RuntimeException("Error grave en el código.",ex);
+		}
+	}
+	
 	/**
 	 * Cambia el turno actual al otro jugador.
 	 */
@@ -90,6 +244,7 @@ public class Partida {
 		else {
 			turno = jugadorA;
 		}
+		claveTurno ^= TableroDeBits.CLAVE_TURNO_NEGRAS;
 	}
 	
 	/**
@@ -102,10 +257,135 @@ public class Partida {
 		Partida partidaClon = new Partida(consultarTablero(),consultarCajaBlancas(),consultarCajaNegras());
 		partidaClon.numJugadas = consultarNumeroJugada();
 		partidaClon.turno = consultarTurno();
+		partidaClon.claveTurno = claveTurno;
+		partidaClon.turnoUltimaJugada = turnoUltimaJugada;
 		
 		return partidaClon;
 	}
 	
+	/**
+	 * Fija el turno, el número de jugadas y el jugador que ha colocado la última pieza, al
+	 * restaurar una partida desde un estado guardado.
+	 * 
+	 * @param turno color del jugador con el turno
+	 * @param numJugadas número de jugadas realizadas
+	 * @param turnoUltimaJugada color del jugador que ha colocado la última pieza, o null si no
+	 * se ha colocado ninguna
+	 */
+	void fijarEstado (Color turno, int numJugadas, Color turnoUltimaJugada) {
+		
+		this.turno = turno;
+		this.numJugadas = numJugadas;
+		this.turnoUltimaJugada = turnoUltimaJugada;
+		claveTurno = (turno == Color.NEGRO ? TableroDeBits.CLAVE_TURNO_NEGRAS : 0L);
+	}
+	
+	/**
+	 * Devuelve la clave de Zobrist de la posición: piezas colocadas y turno.
+	 * <p>
+	 * La parte del tablero la mantiene el propio tablero al colocar piezas y la del turno se
+	 * actualiza en {@link #cambiarTurno()}, por lo que la consulta no recorre nada. Dos
+	 * posiciones iguales tienen la misma clave con independencia de las jugadas que llevaron
+	 * a ellas.
+	 * 
+	 * @return clave de 64 bits de la posición
+	 */
+	public long consultarClave() {
+		return bits.consultarClave() ^ claveTurno;
+	}
+	
+	/**
+	 * Obtiene la simetría que lleva la posición actual a su forma canónica.
+	 * <p>
+	 * Sirve para traducir a la posición actual las jugadas calculadas sobre la forma canónica,
+	 * con {@link Simetria#deshacerJugada(int)}.
+	 * 
+	 * @return simetría de la posición actual a su forma canónica
+	 */
+	public Simetria consultarSimetriaCanonica() {
+		return Simetria.obtenerCanonica(bits, turno);
+	}
+	
+	/**
+	 * Calcula la codificación de la forma canónica de la posición actual, común a todas las
+	 * posiciones equivalentes por simetría y válida como clave exacta en cachés y libros.
+	 * 
+	 * @return codificación del tablero canónico, con el turno de las blancas
+	 */
+	public long calcularCodigoCanonico() {
+		return Simetria.calcularCodigoCanonico(bits, turno);
+	}
+	
+	/**
+	 * Codifica el estado de la partida en un long.
+	 * <p>
+	 * Los {@value TableroDeBits#BITS_CODIFICACION} bits inferiores contienen la codificación
+	 * del tablero, el siguiente bit vale 1 si el turno es de las negras y los siguientes el
+	 * número de jugadas. El contenido de las cajas no se guarda porque se deduce del tablero.
+	 * 
+	 * @return codificación de la partida
+	 * @throws IllegalStateException si las cajas no se corresponden con las piezas del tablero
+	 * o el número de jugadas no cabe en la codificación
+	 */
+	public long codificar() {
+		
+		for (Figura fig : Figura.values()) {
+			
+			if (cajaBlancas.consultarNumeroPiezas(fig) + Integer.bitCount(bits.consultarMascara(fig, Color.BLANCO)) != Caja.NUM_FIGURAS_TIPO
+					|| cajaNegras.consultarNumeroPiezas(fig) + Integer.bitCount(bits.consultarMascara(fig, Color.NEGRO)) != Caja.NUM_FIGURAS_TIPO) {
+				throw new IllegalStateException("Las cajas no se corresponden con las piezas del tablero.");
+			}
+		}
+		if (numJugadas < 0 || numJugadas > MAX_NUM_JUGADAS_CODIFICABLES) {
+			throw new IllegalStateException("Número de jugadas no codificable: " + numJugadas);
+		}
+		return bits.codificar() | (turno == Color.NEGRO ? 1L : 0L) << BIT_TURNO | (long) numJugadas << BITS_NUM_JUGADAS;
+	}
+	
+	/**
+	 * Crea una partida a partir de su codificación, de modo que
+	 * {@code Partida.decodificar(p.codificar())} es igual a {@code p}.
+	 * 
+	 * @param codigo codificación obtenida con {@link #codificar()}
+	 * @return partida en el estado codificado
+	 * @throws IllegalArgumentException si el valor no es una codificación de partida
+	 */
+	public static Partida decodificar (long codigo) {
+		
+		if (codigo < 0) {
+			throw new IllegalArgumentException("Codificación de partida fuera de rango: " + codigo);
+		}
+		
+		Tablero tablero = Tablero.decodificar(codigo & ((1L << BIT_TURNO) - 1));
+		Caja cajaBlancas = new Caja(Color.BLANCO);
+		Caja cajaNegras = new Caja(Color.NEGRO);
+		TableroDeBits bitsTablero = tablero.consultarTableroDeBits();
+		
+		for (Figura fig : Figura.values()) {
+			
+			int colocadasBlancas = Integer.bitCount(bitsTablero.consultarMascara(fig, Color.BLANCO));
+			int colocadasNegras = Integer.bitCount(bitsTablero.consultarMascara(fig, Color.NEGRO));
+			
+			if (colocadasBlancas > Caja.NUM_FIGURAS_TIPO || colocadasNegras > Caja.NUM_FIGURAS_TIPO) {
+				throw new IllegalArgumentException("Codificación de partida con más piezas de las disponibles: " + codigo);
+			}
+			for (int i = 0; i < colocadasBlancas; i++) {
+				cajaBlancas.retirar(fig);
+			}
+			for (int i = 0; i < colocadasNegras; i++) {
+				cajaNegras.retirar(fig);
+			}
+		}
+		
+		Partida partida = new Partida(tablero, cajaBlancas, cajaNegras);
+		Color turno = (((codigo >>> BIT_TURNO) & 1) == 0 ? Color.BLANCO : Color.NEGRO);
+		Color turnoUltimaJugada = (bitsTablero.consultarOcupadas() != 0 ? turno.obtenerContrario() : null);
+		
+		// La codificación no guarda el histórico: si hay piezas, la última la ha colocado el jugador sin el turno.
+		partida.fijarEstado(turno, (int) (codigo >>> BITS_NUM_JUGADAS), turnoUltimaJugada);
+		return partida;
+	}
+	
 	/**
 	 * Coloca una pieza del turno actual en las coordenadas indicadas.
 	 * 
@@ -121,8 +401,14 @@ public class Partida {
 		if (!tablero.estaEnTablero(fila,columna)){
 			throw new CoordenadasIncorrectasException("Coordenadas fuera de los límites del tablero.");
 		}
+		int ocupadas = bits.consultarOcupadas();
+		
 		tablero.colocar(fila, columna, cajaActual.retirar(figura));
 		numJugadas++;
+		
+		if (bits.consultarOcupadas() != ocupadas) {
+			turnoUltimaJugada = turno;
+		}
 	}
 	
 	/**
@@ -143,23 +429,39 @@ public class Partida {
 		return cajaNegras.clonar();
 	}
 	
+	/**
+	 * Devuelve una vista de solo lectura de la caja blanca, sin clonarla.
+	 * <p>
+	 * La vista refleja los cambios posteriores de la partida.
+	 * 
+	 * @return vista de la caja blanca
+	 */
+	public VistaCaja consultarVistaCajaBlancas() {
+		return vistaCajaBlancas;
+	}
+	
+	/**
+	 * Devuelve una vista de solo lectura de la caja negra, sin clonarla.
+	 * <p>
+	 * La vista refleja los cambios posteriores de la partida.
+	 * 
+	 * @return vista de la caja negra
+	 */
+	public VistaCaja consultarVistaCajaNegras() {
+		return vistaCajaNegras;
+	}
+	
 	/**
 	 * Consulta el turno que ha ganado la partida siempre y cuando esta haya finalizado.
+	 * <p>
+	 * Gana el jugador que ha colocado la última pieza, tanto si ha completado un grupo como
+	 * si el rival no puede colocar ninguna, así que el resultado no depende de si se ha
+	 * cambiado ya el turno tras la última jugada.
 	 * 
 	 * @return turno ganador de la partida o null si no ha finalizado aún
 	 */
 	public Color consultarGanador() {
-				
-		if (estaAcabadaPartida()) {
-
-			if (hayAlgunGrupoCompleto()) {
-				return turno;
-			}
-			else if (estaBloqueadoTurnoActual()) {
-				return turno.obtenerContrario();
-			}
-		}
-		return null;
+		return (estaAcabadaPartida() ? turnoUltimaJugada : null);
 	}
 	
 	/**
@@ -180,6 +482,17 @@ public class Partida {
 		return tablero.clonar();
 	}
 	
+	/**
+	 * Devuelve una vista de solo lectura del tablero, sin clonarlo.
+	 * <p>
+	 * La vista refleja los cambios posteriores de la partida.
+	 * 
+	 * @return vista del tablero
+	 */
+	public VistaTablero consultarVistaTablero() {
+		return vistaTablero;
+	}
+	
 	/**
 	 * Devuelve el turno actual que puede realizar la siguiente jugada.
 	 * 
@@ -204,23 +517,8 @@ public class Partida {
 		
 		Caja cajaActual = (turno == Color.BLANCO ? cajaBlancas : cajaNegras);
 		
-		if (tablero.estaEnTablero(fila,columna)) {
-			
-			try {
-				
-				Celda celda = tablero.consultarCelda(fila,columna);
-				
-				if (celda.estaVacia() && cajaActual.estaDisponible(figura)
-					&& !gestor.hayConflictoEnGruposDeCelda(celda, figura, turno)) {
-					
-					return true;
-				}
-			}
-			catch (CoordenadasIncorrectasException ex) {
-				throw new RuntimeException("Error grave en el código.",ex);
-			}
-		}
-		return false;
+		return tablero.estaEnTablero(fila,columna) && cajaActual.estaDisponible(figura)
+				&& bits.esColocable(TableroDeBits.calcularCasilla(fila, columna), figura, turno);
 	}
 	
 	/**
@@ -242,23 +540,70 @@ public class Partida {
 	 * @return true si el turno está bloqueado y falso si no
 	 */
 	public boolean estaBloqueadoTurnoActual() {
+		return consultarJugadasLegalesEnTurnoActual() == 0;
+	}
+	
+	/**
+	 * Obtiene todas las jugadas legales del turno actual como máscaras de casillas por figura.
+	 * <p>
+	 * La máscara de la figura de ordinal {@code f} ocupa los bits {@code [16 * f, 16 * f + 15]},
+	 * y en ella el bit {@code fila * 4 + columna} indica que la jugada es legal. Las figuras
+	 * agotadas en la caja del turno actual quedan con su máscara a cero.
+	 * 
+	 * @return máscaras de casillas legales de cada figura
+	 */
+	public long consultarJugadasLegalesEnTurnoActual() {
 		
 		Caja cajaActual = (turno == Color.BLANCO ? cajaBlancas : cajaNegras);
-		int jugadasLegales = 0;
+		return bits.consultarCasillasLegales(turno, cajaActual.consultarFigurasDisponibles());
+	}
+	
+	/**
+	 * Obtiene las jugadas legales del turno actual que completan un grupo y ganan la partida,
+	 * con el mismo formato que {@link #consultarJugadasLegalesEnTurnoActual()}.
+	 * 
+	 * @return máscaras de casillas ganadoras de cada figura
+	 */
+	public long consultarJugadasGanadorasEnTurnoActual() {
+		return consultarJugadasLegalesEnTurnoActual() & bits.consultarCasillasGanadoras();
+	}
+	
+	/**
+	 * Escribe en un buffer las jugadas legales del turno actual, empaquetadas según
+	 * {@link Movimiento} y ordenadas por figura y casilla.
+	 * <p>
+	 * No crea ningún objeto, por lo que el buffer se puede reutilizar en cada llamada.
+	 * 
+	 * @param buffer array de al menos {@value Movimiento#NUM_MOVIMIENTOS} posiciones donde se
+	 * escriben las jugadas desde la primera
+	 * @return número de jugadas escritas
+	 */
+	public int generarJugadasLegalesEnTurnoActual (int[] buffer) {
+		return Movimiento.generar(consultarJugadasLegalesEnTurnoActual(), buffer, 0);
+	}
+	
+	/**
+	 * Comprueba si una jugada empaquetada es legal en el turno actual.
+	 * 
+	 * @param movimiento jugada empaquetada según {@link Movimiento}
+	 * @return true si la jugada es legal y false en caso contrario
+	 */
+	public boolean esJugadaLegalEnTurnoActual (int movimiento) {
 		
-		// Se recorre todo el tablero con las diferentes figuras y se cuentan las jugadas legales.
-		for (Figura fig : Figura.values()) {
-			
-			for (int i = 0; i < tablero.consultarNumeroFilas(); i++) {
-				for (int j = 0; j < tablero.consultarNumeroColumnas(); j++) {
-					
-					if (esJugadaLegalEnTurnoActual(i,j,fig)) {
-						jugadasLegales++;
-					}
-				}
-			}
+		if (!Movimiento.esValido(movimiento)) {
+			return false;
 		}
-		return (jugadasLegales == 0 || cajaActual.contarPiezasActuales() == 0);
+		int bit = Movimiento.consultarFigura(movimiento).ordinal() * TableroDeBits.BITS_POR_FIGURA + Movimiento.consultarCasilla(movimiento);
+		return (consultarJugadasLegalesEnTurnoActual() >>> bit & 1) != 0;
+	}
+	
+	/**
+	 * Cuenta las jugadas legales del turno actual.
+	 * 
+	 * @return número de jugadas legales
+	 */
+	public int contarJugadasLegalesEnTurnoActual() {
+		return Long.bitCount(consultarJugadasLegalesEnTurnoActual());
 	}
 	
 	/**
@@ -269,12 +614,12 @@ public class Partida {
 	public boolean hayAlgunGrupoCompleto() {
 		return gestor.hayGrupoGanador();
 	}
-
+	
 	@Override
 	public int hashCode() {
-		return Objects.hash(cajaBlancas, cajaNegras, gestor, jugadorA, jugadorB, numJugadas, tablero, turno);
+		return 31 * Long.hashCode(consultarClave()) + numJugadas;
 	}
-
+	
 	@Override
 	public boolean equals(Object obj) {
 		if (this == obj)
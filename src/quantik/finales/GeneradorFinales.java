@@ -0,0 +1,450 @@
+package quantik.finales;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+
+import quantik.control.Partida;
+import quantik.modelo.Caja;
+import quantik.modelo.Movimiento;
+import quantik.modelo.Tablero;
+import quantik.modelo.TableroDeBits;
+import quantik.transposicion.TablaProyectada;
+import quantik.util.Color;
+
+/**
+ * Generador de ficheros de {@link TablaFinales} mediante análisis retrógrado.
+ * <p>
+ * La generación tiene dos fases, ambas repartidas entre los hilos de un {@link ForkJoinPool}:
+ * <ol>
+ * <li>Enumeración: desde el tablero vacío se obtienen, jugada a jugada, las formas canónicas
+ * de todas las posiciones no acabadas alcanzables, quitando las repetidas en cada nivel. Se
+ * guardan, ordenadas, las de los niveles con como mucho el número de casillas vacías pedido.</li>
+ * <li>Análisis retrógrado: desde el nivel más profundo hacia arriba, el resultado de cada
+ * posición se calcula con el de sus sucesoras, que están en el nivel siguiente y ya están
+ * resueltas. Una jugada que acaba la partida gana a distancia 1; si no, se gana si alguna
+ * sucesora es derrota del rival, a la menor distancia posible, y en caso contrario se pierde
+ * a la mayor.</li>
+ * </ol>
+ * Como cada jugada llena una casilla, las posiciones de cada nivel solo dependen de las del
+ * siguiente, así que basta con recorrer los niveles una vez.
+ * <p>
+ * Uso: {@code java quantik.finales.GeneradorFinales maxVacias fichero [-hilos n]}
+ * 
+ * @author <a href="apo1004@alu.ubu.es"> Amanda Pérez Olmos </a>
+ * @since 3.0
+ * @version 3.0
+ */
+public class GeneradorFinales {
+
+	/**
+	 * Número de posiciones por debajo del cual las tareas paralelas trabajan en secuencia.
+	 */
+	private final static int UMBRAL_SECUENCIAL = 1 << 10;
+	
+	/**
+	 * Bit del resultado de una posición que indica que gana el jugador con el turno. Los bits
+	 * inferiores guardan la distancia al final.
+	 */
+	private final static int VICTORIA = 0x80;
+	
+	/**
+	 * Máscara de la distancia al final en el resultado de una posición.
+	 */
+	private final static int MASCARA_DISTANCIA = 0x7F;
+	
+	/**
+	 * Enumera y resuelve todas las posiciones no acabadas con como mucho un número de casillas
+	 * vacías y las escribe en un fichero de finales.
+	 * 
+	 * @param maxVacias número máximo de casillas vacías, entre 1 y {@value TableroDeBits#NUM_CASILLAS}
+	 * @param fichero ruta del fichero que se crea o sobrescribe
+	 * @param pool pool de hilos en el que se reparte el trabajo
+	 * @param progreso salida donde se informa del avance, o null para no informar
+	 * @return número de posiciones escritas
+	 * @throws IOException si no se puede escribir el fichero
+	 * @throws IllegalArgumentException si el máximo de casillas vacías está fuera de rango o
+	 * las posiciones no caben en un fichero proyectable
+	 */
+	public static long generar (int maxVacias, Path fichero, ForkJoinPool pool, PrintStream progreso) throws IOException {
+		
+		if (maxVacias < 1 || maxVacias > TableroDeBits.NUM_CASILLAS) {
+			throw new IllegalArgumentException("Número máximo de casillas vacías fuera de rango: " + maxVacias);
+		}
+		
+		int primerNivel = TableroDeBits.NUM_CASILLAS - maxVacias;
+		long inicio = System.nanoTime();
+		long[][] niveles = enumerar(primerNivel, TableroDeBits.NUM_CASILLAS, pool, progreso);
+		byte[][] resultados = new byte[TableroDeBits.NUM_CASILLAS + 1][];
+		resultados[TableroDeBits.NUM_CASILLAS] = new byte[niveles[TableroDeBits.NUM_CASILLAS].length];
+		
+		for (int n = TableroDeBits.NUM_CASILLAS - 1; n >= primerNivel; n--) {
+			
+			resultados[n] = new byte[niveles[n].length];
+			pool.invoke(new TareaResultados(niveles[n], resultados[n], niveles[n + 1], resultados[n + 1], 0, niveles[n].length));
+			informar(progreso, inicio, "resueltas %d posiciones con %d piezas", niveles[n].length, n);
+		}
+		
+		// Ya resueltos todos los niveles, las codificaciones se sustituyen por sus entradas para
+		// no duplicar la memoria.
+		for (int n = primerNivel; n <= TableroDeBits.NUM_CASILLAS; n++) {
+			for (int i = 0; i < niveles[n].length; i++) {
+				niveles[n][i] = TablaFinales.empaquetar(niveles[n][i], (resultados[n][i] & VICTORIA) != 0,
+						resultados[n][i] & MASCARA_DISTANCIA);
+			}
+		}
+		
+		long numEntradas = TablaProyectada.escribir(fichero, TablaFinales.MAGIA, maxVacias, niveles, TablaFinales.DESCRIPCION);
+		informar(progreso, inicio, "escritas %d posiciones en %s", numEntradas, fichero);
+		return numEntradas;
+	}
+	
+	/**
+	 * Enumera las formas canónicas de todas las posiciones no acabadas alcanzables desde el
+	 * tablero vacío con un número de piezas dentro de un rango.
+	 * <p>
+	 * Hay que recorrer también los niveles anteriores al rango, aunque no se devuelvan.
+	 * 
+	 * @param minPiezas número mínimo de piezas
+	 * @param maxPiezas número máximo de piezas
+	 * @param pool pool de hilos en el que se reparte el trabajo
+	 * @param progreso salida donde se informa del avance, o null para no informar
+	 * @return formas canónicas ordenadas de cada nivel, indexadas por número de piezas, con
+	 * null fuera del rango
+	 */
+	public static long[][] enumerar (int minPiezas, int maxPiezas, ForkJoinPool pool, PrintStream progreso) {
+		
+		long[][] niveles = new long[TableroDeBits.NUM_CASILLAS + 1][];
+		long[] nivel = { new Partida(new Tablero(), new Caja(Color.BLANCO), new Caja(Color.NEGRO)).calcularCodigoCanonico() };
+		long inicio = System.nanoTime();
+		
+		for (int n = 0; n <= maxPiezas; n++) {
+			
+			if (n >= minPiezas) {
+				niveles[n] = nivel;
+			}
+			informar(progreso, inicio, "enumeradas %d posiciones con %d piezas", nivel.length, n);
+			
+			if (n < maxPiezas) {
+				nivel = quitarRepetidas(pool.invoke(new TareaSucesoras(nivel, 0, nivel.length)));
+			}
+		}
+		return niveles;
+	}
+	
+	/**
+	 * Informa del avance de la generación.
+	 * 
+	 * @param progreso salida, o null para no informar
+	 * @param inicio instante de inicio según {@link System#nanoTime()}
+	 * @param formato formato del mensaje
+	 * @param argumentos argumentos del mensaje
+	 */
+	private static void informar (PrintStream progreso, long inicio, String formato, Object... argumentos) {
+		
+		if (progreso != null) {
+			progreso.printf("[%8.1f s] %s%n", (System.nanoTime() - inicio) / 1e9, String.format(formato, argumentos));
+		}
+	}
+	
+	/**
+	 * Ordena las codificaciones y quita las repetidas.
+	 * 
+	 * @param codigos codificaciones, que se ordenan en el propio array
+	 * @return codificaciones distintas en orden creciente
+	 */
+	private static long[] quitarRepetidas (long[] codigos) {
+		
+		Arrays.parallelSort(codigos);
+		int numDistintos = 0;
+		
+		for (int i = 0; i < codigos.length; i++) {
+			
+			if (numDistintos == 0 || codigos[i] != codigos[numDistintos - 1]) {
+				codigos[numDistintos++] = codigos[i];
+			}
+		}
+		return Arrays.copyOf(codigos, numDistintos);
+	}
+	
+	/**
+	 * Crea la partida de una forma canónica, con el turno de las blancas.
+	 * <p>
+	 * El número de jugadas de la partida no se corresponde con el de piezas, pero no influye
+	 * en las reglas.
+	 * 
+	 * @param codigo codificación canónica
+	 * @return partida en esa posición
+	 */
+	private static Partida crearPartida (long codigo) {
+		return Partida.decodificar(codigo);
+	}
+	
+	/**
+	 * Calcula el resultado de una posición a partir de los de sus sucesoras.
+	 * 
+	 * @param codigo codificación canónica de la posición
+	 * @param siguientes formas canónicas ordenadas del nivel siguiente
+	 * @param resultadosSiguientes resultado de cada posición del nivel siguiente
+	 * @param jugadas buffer de jugadas
+	 * @return resultado con el bit {@link #VICTORIA} y la distancia al final
+	 */
+	private static byte resolver (long codigo, long[] siguientes, byte[] resultadosSiguientes, int[] jugadas) {
+		
+		Partida partida = crearPartida(codigo);
+		int numJugadas = partida.generarJugadasLegalesEnTurnoActual(jugadas);
+		int distanciaVictoria = Integer.MAX_VALUE;
+		int distanciaDerrota = 0;
+		
+		for (int i = 0; i < numJugadas && distanciaVictoria > 1; i++) {
+			
+			partida.aplicarJugada(jugadas[i]);
+			
+			if (partida.estaAcabadaPartida()) {
+				distanciaVictoria = 1;
+			}
+			else {
+				int resultado = resultadosSiguientes[Arrays.binarySearch(siguientes, partida.calcularCodigoCanonico())];
+				int distancia = (resultado & MASCARA_DISTANCIA) + 1;
+				
+				if ((resultado & VICTORIA) == 0) {
+					distanciaVictoria = Math.min(distanciaVictoria, distancia);
+				}
+				else {
+					distanciaDerrota = Math.max(distanciaDerrota, distancia);
+				}
+			}
+			partida.revertirJugada(jugadas[i]);
+		}
+		return (byte) (distanciaVictoria != Integer.MAX_VALUE ? VICTORIA | distanciaVictoria : distanciaDerrota);
+	}
+	
+	/**
+	 * Muestra el uso de la herramienta.
+	 */
+	private static void mostrarUso() {
+		
+		System.err.println("Uso: GeneradorFinales maxVacias fichero [-hilos n]");
+		System.err.println("  maxVacias  número máximo de casillas vacías de las posiciones, entre 1 y " + TableroDeBits.NUM_CASILLAS);
+		System.err.println("  fichero    ruta del fichero de finales que se crea");
+		System.err.println("  -hilos n   reparte el trabajo entre n hilos (todos los procesadores por defecto)");
+	}
+	
+	/**
+	 * Genera un fichero de finales informando del avance por la salida estándar.
+	 * <p>
+	 * Termina con código 1 si no se puede escribir el fichero y con código 2 si los argumentos
+	 * no son válidos.
+	 * 
+	 * @param args argumentos de entrada
+	 */
+	public static void main(String[] args) {
+		
+		int maxVacias = -1;
+		Path fichero = null;
+		int hilos = Runtime.getRuntime().availableProcessors();
+		
+		try {
+			for (int i = 0; i < args.length; i++) {
+				
+				if (args[i].equalsIgnoreCase("-hilos")) {
+					hilos = Integer.parseInt(args[++i]);
+				}
+				else if (maxVacias < 0) {
+					maxVacias = Integer.parseInt(args[i]);
+				}
+				else {
+					fichero = Paths.get(args[i]);
+				}
+			}
+		}
+		catch (RuntimeException ex) {
+			maxVacias = -1;
+		}
+		
+		if (maxVacias < 1 || maxVacias > TableroDeBits.NUM_CASILLAS || fichero == null || hilos < 1) {
+			mostrarUso();
+			System.exit(2);
+		}
+		
+		ForkJoinPool pool = new ForkJoinPool(hilos);
+		
+		try {
+			generar(maxVacias, fichero, pool, System.out);
+		}
+		catch (IOException ex) {
+			System.err.println("No se ha podido escribir el fichero de finales: " + ex.getMessage());
+			System.exit(1);
+		}
+		finally {
+			pool.shutdown();
+		}
+	}
+	
+	/**
+	 * Tarea fork/join que obtiene las formas canónicas de las sucesoras no acabadas de un tramo
+	 * de posiciones, con repeticiones.
+	 */
+	private static class TareaSucesoras extends RecursiveTask<long[]> {
+		
+		/**
+		 * Identificador de versión de la serialización.
+		 */
+		private static final long serialVersionUID = 1L;
+		
+		/**
+		 * Formas canónicas del nivel.
+		 */
+		private final long[] nivel;
+		
+		/**
+		 * Primera posición del tramo.
+		 */
+		private final int desde;
+		
+		/**
+		 * Posición siguiente a la última del tramo.
+		 */
+		private final int hasta;
+		
+		/**
+		 * Crea la tarea de un tramo.
+		 * 
+		 * @param nivel formas canónicas del nivel
+		 * @param desde primera posición del tramo
+		 * @param hasta posición siguiente a la última del tramo
+		 */
+		TareaSucesoras (long[] nivel, int desde, int hasta) {
+			
+			this.nivel = nivel;
+			this.desde = desde;
+			this.hasta = hasta;
+		}
+		
+		@Override
+		protected long[] compute() {
+			
+			if (hasta - desde > UMBRAL_SECUENCIAL) {
+				
+				int medio = (desde + hasta) >>> 1;
+				TareaSucesoras primera = new TareaSucesoras(nivel, desde, medio);
+				primera.fork();
+				long[] segundas = new TareaSucesoras(nivel, medio, hasta).compute();
+				long[] primeras = primera.join();
+				long[] todas = Arrays.copyOf(primeras, primeras.length + segundas.length);
+				System.arraycopy(segundas, 0, todas, primeras.length, segundas.length);
+				return todas;
+			}
+			
+			int[] jugadas = new int[Movimiento.NUM_MOVIMIENTOS];
+			long[] sucesoras = new long[(hasta - desde) * 4];
+			int numSucesoras = 0;
+			
+			for (int i = desde; i < hasta; i++) {
+				
+				Partida partida = crearPartida(nivel[i]);
+				int numJugadas = partida.generarJugadasLegalesEnTurnoActual(jugadas);
+				
+				for (int j = 0; j < numJugadas; j++) {
+					
+					partida.aplicarJugada(jugadas[j]);
+					
+					if (!partida.estaAcabadaPartida()) {
+						
+						if (numSucesoras == sucesoras.length) {
+							sucesoras = Arrays.copyOf(sucesoras, sucesoras.length * 2);
+						}
+						sucesoras[numSucesoras++] = partida.calcularCodigoCanonico();
+					}
+					partida.revertirJugada(jugadas[j]);
+				}
+			}
+			return Arrays.copyOf(sucesoras, numSucesoras);
+		}
+	}
+	
+	/**
+	 * Tarea fork/join que resuelve un tramo de posiciones de un nivel.
+	 */
+	private static class TareaResultados extends RecursiveAction {
+		
+		/**
+		 * Identificador de versión de la serialización.
+		 */
+		private static final long serialVersionUID = 1L;
+		
+		/**
+		 * Formas canónicas del nivel.
+		 */
+		private final long[] nivel;
+		
+		/**
+		 * Resultados del nivel, que se rellenan en el tramo.
+		 */
+		private final byte[] resultados;
+		
+		/**
+		 * Formas canónicas ordenadas del nivel siguiente.
+		 */
+		private final long[] siguientes;
+		
+		/**
+		 * Resultados del nivel siguiente.
+		 */
+		private final byte[] resultadosSiguientes;
+		
+		/**
+		 * Primera posición del tramo.
+		 */
+		private final int desde;
+		
+		/**
+		 * Posición siguiente a la última del tramo.
+		 */
+		private final int hasta;
+		
+		/**
+		 * Crea la tarea de un tramo.
+		 * 
+		 * @param nivel formas canónicas del nivel
+		 * @param resultados resultados del nivel
+		 * @param siguientes formas canónicas ordenadas del nivel siguiente
+		 * @param resultadosSiguientes resultados del nivel siguiente
+		 * @param desde primera posición del tramo
+		 * @param hasta posición siguiente a la última del tramo
+		 */
+		TareaResultados (long[] nivel, byte[] resultados, long[] siguientes, byte[] resultadosSiguientes, int desde,
+				int hasta) {
+			
+			this.nivel = nivel;
+			this.resultados = resultados;
+			this.siguientes = siguientes;
+			this.resultadosSiguientes = resultadosSiguientes;
+			this.desde = desde;
+			this.hasta = hasta;
+		}
+		
+		@Override
+		protected void compute() {
+			
+			if (hasta - desde > UMBRAL_SECUENCIAL) {
+				
+				int medio = (desde + hasta) >>> 1;
+				invokeAll(new TareaResultados(nivel, resultados, siguientes, resultadosSiguientes, desde, medio),
+						new TareaResultados(nivel, resultados, siguientes, resultadosSiguientes, medio, hasta));
+				return;
+			}
+			
+			int[] jugadas = new int[Movimiento.NUM_MOVIMIENTOS];
+			
+			for (int i = desde; i < hasta; i++) {
+				resultados[i] = resolver(nivel[i], siguientes, resultadosSiguientes, jugadas);
+			}
+		}
+	}
+}
@@ -0,0 +1,189 @@
+package quantik.finales;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import quantik.control.Partida;
+import quantik.modelo.Movimiento;
+import quantik.modelo.TableroDeBits;
+import quantik.transposicion.TablaProyectada;
+
+/**
+ * Tabla de finales: resultado con juego perfecto de todas las posiciones no acabadas con pocas
+ * casillas vacías, leída de un fichero generado por {@link GeneradorFinales}.
+ * <p>
+ * El fichero tiene el formato de {@link TablaProyectada}: el parámetro de la cabecera es el
+ * máximo de casillas vacías y el dato de cada entrada es la distancia al final, el número de
+ * jugadas que quedan si el ganador acaba lo antes posible y el perdedor resiste lo máximo
+ * posible, que nunca es cero.
+ * <p>
+ * Las consultas devuelven la entrada, de la que se extraen los datos con
+ * {@link #esVictoria(long)} y {@link #consultarDistancia(long)}, o {@link #SIN_DATOS} si la
+ * posición no está en la tabla. Cada consulta calcula la forma canónica y hace un número
+ * de accesos acotado por la ocupación de la tabla, por lo que su coste es constante. Se
+ * pueden hacer consultas desde varios hilos a la vez.
+ * 
+ * @author <a href="apo1004@alu.ubu.es"> Amanda Pérez Olmos </a>
+ * @since 3.0
+ * @version 3.0
+ */
+public class TablaFinales {
+
+	/**
+	 * Valor devuelto por las consultas cuando la posición no está en la tabla.
+	 */
+	public final static long SIN_DATOS = TablaProyectada.SIN_DATOS;
+	
+	/**
+	 * Número mágico al principio del fichero, que identifica el formato y su versión.
+	 */
+	final static long MAGIA = 0x5154_4B46_494E_0001L;
+	
+	/**
+	 * Nombre del tipo de fichero en los mensajes de error.
+	 */
+	final static String DESCRIPCION = "fichero de finales";
+	
+	/**
+	 * Tabla proyectada del fichero.
+	 */
+	private final TablaProyectada tabla;
+	
+	/**
+	 * Crea una tabla sobre un fichero ya proyectado y validado.
+	 * 
+	 * @param tabla tabla proyectada del fichero
+	 */
+	private TablaFinales (TablaProyectada tabla) {
+		this.tabla = tabla;
+	}
+	
+	/**
+	 * Abre un fichero de finales y lo proyecta en memoria en modo de solo lectura.
+	 * 
+	 * @param fichero ruta del fichero generado por {@link GeneradorFinales}
+	 * @return tabla de finales
+	 * @throws IOException si el fichero no se puede leer o no tiene el formato esperado
+	 */
+	public static TablaFinales abrir (Path fichero) throws IOException {
+		return new TablaFinales(TablaProyectada.abrir(fichero, MAGIA, 1, TableroDeBits.NUM_CASILLAS, DESCRIPCION));
+	}
+	
+	/**
+	 * Empaqueta una entrada de la tabla.
+	 * 
+	 * @param codigo codificación canónica de la posición
+	 * @param victoria true si gana el jugador con el turno
+	 * @param distancia número de jugadas hasta el final, entre 1 y {@value TableroDeBits#NUM_CASILLAS}
+	 * @return entrada empaquetada
+	 */
+	static long empaquetar (long codigo, boolean victoria, int distancia) {
+		return TablaProyectada.empaquetar(codigo, victoria, distancia);
+	}
+	
+	/**
+	 * Comprueba si una entrada corresponde a una posición ganada por el jugador con el turno.
+	 * 
+	 * @param entrada entrada devuelta por una consulta
+	 * @return true si gana el jugador con el turno y false si pierde
+	 */
+	public static boolean esVictoria (long entrada) {
+		return TablaProyectada.esVictoria(entrada);
+	}
+	
+	/**
+	 * Obtiene el número de jugadas hasta el final de la partida con juego perfecto.
+	 * 
+	 * @param entrada entrada devuelta por una consulta
+	 * @return distancia al final
+	 */
+	public static int consultarDistancia (long entrada) {
+		return TablaProyectada.consultarDato(entrada);
+	}
+	
+	/**
+	 * Devuelve el número máximo de casillas vacías de las posiciones guardadas.
+	 * 
+	 * @return máximo de casillas vacías
+	 */
+	public int consultarMaxVacias() {
+		return tabla.consultarParametro();
+	}
+	
+	/**
+	 * Devuelve el número de posiciones guardadas.
+	 * 
+	 * @return número de entradas
+	 */
+	public long consultarNumeroEntradas() {
+		return tabla.consultarNumeroEntradas();
+	}
+	
+	/**
+	 * Busca una posición por su codificación canónica.
+	 * 
+	 * @param codigo codificación canónica de la posición
+	 * @return entrada de la posición o {@link #SIN_DATOS} si no está en la tabla
+	 */
+	public long consultar (long codigo) {
+		return tabla.consultar(codigo);
+	}
+	
+	/**
+	 * Busca la posición actual de una partida.
+	 * <p>
+	 * Solo están en la tabla las posiciones no acabadas con como mucho
+	 * {@link #consultarMaxVacias()} casillas vacías; para las demás no se calcula la forma canónica.
+	 * 
+	 * @param partida partida cuya posición se busca
+	 * @return entrada de la posición o {@link #SIN_DATOS} si no está en la tabla
+	 */
+	public long consultar (Partida partida) {
+		
+		int vacias = TableroDeBits.NUM_CASILLAS - Integer.bitCount(partida.consultarVistaTablero().consultarTableroDeBits().consultarOcupadas());
+		
+		if (vacias > consultarMaxVacias() || partida.estaAcabadaPartida()) {
+			return SIN_DATOS;
+		}
+		return consultar(partida.calcularCodigoCanonico());
+	}
+	
+	/**
+	 * Obtiene una jugada óptima del turno actual: si el jugador gana, la que acaba antes, y si
+	 * pierde, la que más alarga la partida.
+	 * 
+	 * @param partida partida no acabada cuya posición está en la tabla, que no se modifica
+	 * @return jugada empaquetada según {@link Movimiento}, o {@link Movimiento#NINGUNO} si la
+	 * posición no está en la tabla
+	 */
+	public int consultarMejorJugada (Partida partida) {
+		
+		if (consultar(partida) == SIN_DATOS) {
+			return Movimiento.NINGUNO;
+		}
+		
+		Partida copia = partida.clonar();
+		int[] jugadas = new int[Movimiento.NUM_MOVIMIENTOS];
+		int numJugadas = copia.generarJugadasLegalesEnTurnoActual(jugadas);
+		int mejorJugada = Movimiento.NINGUNO;
+		int mejorValor = Integer.MIN_VALUE;
+		
+		for (int i = 0; i < numJugadas; i++) {
+			
+			copia.aplicarJugada(jugadas[i]);
+			long entrada = consultar(copia);
+			copia.revertirJugada(jugadas[i]);
+			
+			// Una jugada que acaba la partida gana; si no, se prefiere dejar al rival perdido y
+			// después la distancia más corta si se gana y la más larga si se pierde.
+			int valor = (entrada == SIN_DATOS ? Integer.MAX_VALUE
+					: esVictoria(entrada) ? consultarDistancia(entrada) - TableroDeBits.NUM_CASILLAS : TableroDeBits.NUM_CASILLAS * 2 - consultarDistancia(entrada));
+			
+			if (valor > mejorValor) {
+				mejorValor = valor;
+				mejorJugada = jugadas[i];
+			}
+		}
+		return mejorJugada;
+	}
+}
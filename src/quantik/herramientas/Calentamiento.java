@@ -0,0 +1,96 @@
+package quantik.herramientas;
+
+import java.lang.management.CompilationMXBean;
+import java.lang.management.ManagementFactory;
+
+/**
+ * Calentamiento de la máquina virtual antes de medir, para que la compilación en caliente no
+ * cuente en las medidas.
+ * <p>
+ * Una sola ejecución no basta: el compilador optimiza los métodos en varias rondas según se
+ * van ejecutando, y algunas llegan al cabo de varios segundos. Por eso la tarea se repite al
+ * menos {@value #MILISEGUNDOS_MINIMOS} ms y después hasta que en {@value #VENTANAS_ESTABLES}
+ * ventanas seguidas de {@value #MILISEGUNDOS_VENTANA} ms el tiempo de compilación no crece más
+ * de un {@value #PORCENTAJE_COMPILACION} % de la ventana, sin pasar de
+ * {@value #MILISEGUNDOS_MAXIMOS} ms. Se piden varias ventanas porque tras una tranquila aún
+ * puede llegar otra ronda de compilación. Si la máquina virtual no informa del tiempo de
+ * compilación se calienta solo durante el tiempo mínimo.
+ * 
+ * @author <a href="apo1004@alu.ubu.es"> Amanda Pérez Olmos </a>
+ * @since 3.0
+ * @version 3.0
+ */
+final class Calentamiento {
+
+	/**
+	 * Tiempo mínimo de calentamiento en milisegundos.
+	 */
+	final static long MILISEGUNDOS_MINIMOS = 2_000;
+	
+	/**
+	 * Tiempo máximo de calentamiento en milisegundos.
+	 */
+	final static long MILISEGUNDOS_MAXIMOS = 30_000;
+	
+	/**
+	 * Duración mínima en milisegundos de la ventana en la que se comprueba la compilación.
+	 */
+	final static long MILISEGUNDOS_VENTANA = 1_000;
+	
+	/**
+	 * Porcentaje máximo de la ventana dedicado a compilar para dar por acabado el calentamiento.
+	 */
+	final static int PORCENTAJE_COMPILACION = 1;
+	
+	/**
+	 * Número de ventanas seguidas sin apenas compilación para dar por acabado el calentamiento.
+	 */
+	final static int VENTANAS_ESTABLES = 3;
+	
+	/**
+	 * Impide crear instancias.
+	 */
+	private Calentamiento() {
+	}
+	
+	/**
+	 * Repite una tarea hasta que la compilación en caliente se ha estabilizado.
+	 * 
+	 * @param tarea tarea representativa de lo que se va a medir
+	 * @return tiempo de calentamiento en milisegundos
+	 */
+	static long calentar (Runnable tarea) {
+		
+		CompilationMXBean compilador = ManagementFactory.getCompilationMXBean();
+		boolean medible = (compilador != null && compilador.isCompilationTimeMonitoringSupported());
+		long inicio = System.nanoTime();
+		long inicioVentana = inicio;
+		long compilacionVentana = (medible ? compilador.getTotalCompilationTime() : 0);
+		int estables = 0;
+		
+		while (true) {
+			
+			tarea.run();
+			
+			long ahora = System.nanoTime();
+			long transcurrido = (ahora - inicio) / 1_000_000;
+			long ventana = (ahora - inicioVentana) / 1_000_000;
+			
+			if (transcurrido >= MILISEGUNDOS_MAXIMOS || (!medible && transcurrido >= MILISEGUNDOS_MINIMOS)) {
+				return transcurrido;
+			}
+			if (medible && ventana >= MILISEGUNDOS_VENTANA) {
+				
+				long compilacion = compilador.getTotalCompilationTime();
+				
+				estables = ((compilacion - compilacionVentana) * 100 <= ventana * PORCENTAJE_COMPILACION ? estables + 1 : 0);
+				
+				if (transcurrido >= MILISEGUNDOS_MINIMOS && estables >= VENTANAS_ESTABLES) {
+					return transcurrido;
+				}
+				inicioVentana = ahora;
+				compilacionVentana = compilacion;
+			}
+		}
+	}
+}
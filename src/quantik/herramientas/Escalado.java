@@ -0,0 +1,161 @@
+package quantik.herramientas;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import quantik.control.Partida;
+import quantik.modelo.Caja;
+import quantik.modelo.Tablero;
+import quantik.solucionador.ResultadoSolucion;
+import quantik.solucionador.Solucionador;
+import quantik.solucionador.SolucionadorParalelo;
+import quantik.transposicion.TablaTransposicion;
+import quantik.util.Color;
+
+/**
+ * Medida de la aceleración del solucionador paralelo según el número de hilos.
+ * <p>
+ * Resuelve la misma posición primero con {@link Solucionador} y después con
+ * {@link SolucionadorParalelo} para cada número de hilos, siempre con una tabla de
+ * transposición vacía del mismo tamaño, y muestra el tiempo, los nodos y la aceleración y
+ * eficiencia respecto a la búsqueda secuencial. Comprueba además que todas las búsquedas
+ * obtienen el mismo valor. Antes de medir se resuelve la posición en secuencia tantas veces
+ * como haga falta para que la compilación en caliente se estabilice. Por defecto prueba
+ * potencias de dos hasta el número de procesadores disponibles.
+ * <p>
+ * Uso: {@code java quantik.herramientas.Escalado [-hilos n,m,...] [-megas n] [-partida codigo]}
+ * 
+ * @author <a href="apo1004@alu.ubu.es"> Amanda Pérez Olmos </a>
+ * @since 3.0
+ * @version 3.0
+ */
+public class Escalado {
+
+	/**
+	 * Obtiene los números de hilos por defecto: potencias de dos hasta el número de procesadores,
+	 * que se incluye siempre.
+	 * 
+	 * @return números de hilos en orden creciente
+	 */
+	private static List<Integer> obtenerHilosPorDefecto() {
+		
+		int procesadores = Runtime.getRuntime().availableProcessors();
+		List<Integer> hilos = new ArrayList<>();
+		
+		for (int n = 1; n < procesadores; n *= 2) {
+			hilos.add(n);
+		}
+		hilos.add(procesadores);
+		return hilos;
+	}
+	
+	/**
+	 * Muestra una línea de resultados.
+	 * 
+	 * @param etiqueta descripción de la búsqueda
+	 * @param resultado resultado de la búsqueda
+	 * @param nanosegundosSecuencial duración de la búsqueda secuencial
+	 * @param hilos número de hilos de la búsqueda
+	 */
+	private static void mostrarResultado (String etiqueta, ResultadoSolucion resultado, long nanosegundosSecuencial,
+			int hilos) {
+		
+		double aceleracion = (double) nanosegundosSecuencial / resultado.consultarNanosegundos();
+		System.out.printf("%-12s %6d %10.3f %14d %8.2f %8.0f%% %8.1f%%%n", etiqueta, resultado.consultarValor(),
+				resultado.consultarNanosegundos() / 1e9, resultado.consultarNodos(), aceleracion,
+				aceleracion / hilos * 100, resultado.consultarTasaAciertos() * 100);
+	}
+	
+	/**
+	 * Muestra el uso de la herramienta.
+	 */
+	private static void mostrarUso() {
+		
+		System.err.println("Uso: Escalado [-hilos n,m,...] [-megas n] [-partida codigo]");
+		System.err.println("  -hilos n,m,...   números de hilos a probar (potencias de dos por defecto)");
+		System.err.println("  -megas n         tamaño de la tabla de transposición en megabytes ("
+				+ Solucionador.MEGAS_TABLA_POR_DEFECTO + " por defecto)");
+		System.err.println("  -partida codigo  parte de la partida codificada con Partida.codificar()");
+	}
+	
+	/**
+	 * Resuelve la posición en secuencia y con cada número de hilos y muestra la aceleración.
+	 * <p>
+	 * Termina con código 1 si alguna búsqueda paralela obtiene un valor distinto del de la
+	 * secuencial y con código 2 si los argumentos no son válidos.
+	 * 
+	 * @param args argumentos de entrada
+	 */
+	public static void main(String[] args) {
+		
+		List<Integer> hilos = obtenerHilosPorDefecto();
+		long megas = Solucionador.MEGAS_TABLA_POR_DEFECTO;
+		Partida partida = new Partida(new Tablero(), new Caja(Color.BLANCO), new Caja(Color.NEGRO));
+		boolean validos = true;
+		
+		try {
+			for (int i = 0; i < args.length; i++) {
+				
+				if (args[i].equalsIgnoreCase("-hilos")) {
+					
+					hilos = new ArrayList<>();
+					for (String numero : args[++i].split(",")) {
+						hilos.add(Integer.parseInt(numero.trim()));
+					}
+				}
+				else if (args[i].equalsIgnoreCase("-megas")) {
+					megas = Long.parseLong(args[++i]);
+				}
+				else if (args[i].equalsIgnoreCase("-partida")) {
+					partida = Partida.decodificar(Long.parseLong(args[++i]));
+				}
+				else {
+					validos = false;
+				}
+			}
+		}
+		catch (RuntimeException ex) {
+			validos = false;
+		}
+		
+		if (!validos || megas < 1 || hilos.isEmpty() || hilos.stream().anyMatch(n -> n < 1)) {
+			mostrarUso();
+			System.exit(2);
+		}
+		
+		Partida posicion = partida;
+		long bytesTabla = megas << 20;
+		
+		Calentamiento.calentar(() -> new Solucionador(new TablaTransposicion(bytesTabla)).resolver(posicion));
+		
+		System.out.println("búsqueda      valor   segundos          nodos  acelera.  eficien.  aciertos");
+		
+		ResultadoSolucion secuencial = new Solucionador(new TablaTransposicion(megas << 20)).resolver(partida);
+		mostrarResultado("secuencial", secuencial, secuencial.consultarNanosegundos(), 1);
+		boolean correcto = true;
+		
+		for (int n : hilos) {
+			
+			SolucionadorParalelo solucionador = new SolucionadorParalelo(n, new TablaTransposicion(megas << 20));
+			ResultadoSolucion resultado;
+			
+			try {
+				resultado = solucionador.resolver(partida);
+			}
+			finally {
+				solucionador.cerrar();
+			}
+			mostrarResultado(n + " hilos", resultado, secuencial.consultarNanosegundos(), n);
+			
+			if (resultado.consultarValor() != secuencial.consultarValor()) {
+				System.out.printf("ERROR: con %d hilos se obtiene %d y en secuencia %d.%n", n, resultado.consultarValor(),
+						secuencial.consultarValor());
+				correcto = false;
+			}
+		}
+		
+		if (!correcto) {
+			System.exit(1);
+		}
+	}
+}
@@ -0,0 +1,145 @@
+package quantik.herramientas;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedWriter;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+import quantik.lotes.EvaluadorLotes;
+import quantik.lotes.FormatoPosiciones;
+import quantik.lotes.LectorPosiciones;
+import quantik.solucionador.Solucionador;
+
+/**
+ * Evaluación en paralelo de un lote de posiciones leídas de un fichero o de la entrada
+ * estándar, con {@link EvaluadorLotes}.
+ * <p>
+ * Escribe una línea por posición, en el mismo orden de la entrada, con el formato de
+ * {@link quantik.lotes.EvaluacionPosicion#aTexto(StringBuilder)}, y al acabar muestra por la
+ * salida de error el número de posiciones y las posiciones por segundo. Los resultados se
+ * escriben según se evalúan, así que la entrada puede ser tan grande como se quiera.
+ * <p>
+ * Uso: {@code java quantik.herramientas.EvaluacionLotes [-binario] [-resolver] [-hilos n] [-megas n] [-entrada fichero] [-salida fichero]}
+ * 
+ * @author <a href="apo1004@alu.ubu.es"> Amanda Pérez Olmos </a>
+ * @since 3.0
+ * @version 3.0
+ */
+public class EvaluacionLotes {
+
+	/**
+	 * Tamaño de los buffers de entrada y salida en bytes.
+	 */
+	private final static int TAMAÑO_BUFFER = 1 << 16;
+	
+	/**
+	 * Muestra el uso de la herramienta.
+	 */
+	private static void mostrarUso() {
+		
+		System.err.println("Uso: EvaluacionLotes [-binario] [-resolver] [-hilos n] [-megas n] [-entrada fichero] [-salida fichero]");
+		System.err.println("  -binario          la entrada son codificaciones de ocho bytes en lugar de una por línea");
+		System.err.println("  -resolver         calcula el valor con juego perfecto y la mejor jugada de cada posición");
+		System.err.println("  -hilos n          número de hilos (" + Runtime.getRuntime().availableProcessors()
+				+ " por defecto)");
+		System.err.println("  -megas n          tamaño de la tabla de transposición en megabytes ("
+				+ Solucionador.MEGAS_TABLA_POR_DEFECTO + " por defecto)");
+		System.err.println("  -entrada fichero  fichero de posiciones (entrada estándar por defecto)");
+		System.err.println("  -salida fichero   fichero de resultados (salida estándar por defecto)");
+	}
+	
+	/**
+	 * Evalúa las posiciones y escribe los resultados.
+	 * <p>
+	 * Termina con código 2 si los argumentos no son válidos y con código 1 si falla la lectura o
+	 * la escritura.
+	 * 
+	 * @param args argumentos de entrada
+	 */
+	public static void main(String[] args) {
+		
+		FormatoPosiciones formato = FormatoPosiciones.TEXTO;
+		boolean resolver = false;
+		int hilos = Runtime.getRuntime().availableProcessors();
+		long megas = Solucionador.MEGAS_TABLA_POR_DEFECTO;
+		String entrada = null;
+		String salida = null;
+		boolean validos = true;
+		
+		try {
+			for (int i = 0; i < args.length; i++) {
+				
+				if (args[i].equalsIgnoreCase("-binario")) {
+					formato = FormatoPosiciones.BINARIO;
+				}
+				else if (args[i].equalsIgnoreCase("-resolver")) {
+					resolver = true;
+				}
+				else if (args[i].equalsIgnoreCase("-hilos")) {
+					hilos = Integer.parseInt(args[++i]);
+				}
+				else if (args[i].equalsIgnoreCase("-megas")) {
+					megas = Long.parseLong(args[++i]);
+				}
+				else if (args[i].equalsIgnoreCase("-entrada")) {
+					entrada = args[++i];
+				}
+				else if (args[i].equalsIgnoreCase("-salida")) {
+					salida = args[++i];
+				}
+				else {
+					validos = false;
+				}
+			}
+		}
+		catch (RuntimeException ex) {
+			validos = false;
+		}
+		
+		if (!validos || hilos < 1 || megas < 1) {
+			mostrarUso();
+			System.exit(2);
+		}
+		
+		EvaluadorLotes evaluador = new EvaluadorLotes(hilos, resolver ? megas << 20 : 0);
+		
+		try (InputStream flujoEntrada = (entrada != null ? new FileInputStream(entrada) : System.in);
+				OutputStream flujoSalida = (salida != null ? new FileOutputStream(salida) : System.out);
+				Writer escritor = new BufferedWriter(new OutputStreamWriter(flujoSalida, StandardCharsets.UTF_8), TAMAÑO_BUFFER)) {
+			
+			LectorPosiciones lector = new LectorPosiciones(new BufferedInputStream(flujoEntrada, TAMAÑO_BUFFER), formato);
+			StringBuilder linea = new StringBuilder();
+			long inicio = System.nanoTime();
+			
+			long numPosiciones = evaluador.evaluar(lector, evaluacion -> {
+				linea.setLength(0);
+				evaluacion.aTexto(linea).append(System.lineSeparator());
+				try {
+					escritor.append(linea);
+				}
+				catch (IOException ex) {
+					throw new UncheckedIOException(ex);
+				}
+			});
+			escritor.flush();
+			
+			double segundos = (System.nanoTime() - inicio) / 1e9;
+			System.err.printf("%d posiciones en %.2f s con %d hilos: %.0f posiciones/s%n", numPosiciones, segundos, hilos,
+					numPosiciones / segundos);
+		}
+		catch (IOException | UncheckedIOException ex) {
+			System.err.println("Error de entrada/salida: " + ex.getMessage());
+			System.exit(1);
+		}
+		finally {
+			evaluador.cerrar();
+		}
+	}
+}
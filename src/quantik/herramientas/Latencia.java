@@ -0,0 +1,309 @@
+package quantik.herramientas;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+import quantik.control.Partida;
+import quantik.modelo.Caja;
+import quantik.modelo.Movimiento;
+import quantik.modelo.Tablero;
+import quantik.solucionador.ResultadoSolucion;
+import quantik.solucionador.Solucionador;
+import quantik.transposicion.TablaTransposicion;
+import quantik.util.Color;
+import quantik.util.Estadistica;
+
+/**
+ * Medida de la latencia por jugada de la búsqueda con plazo del solucionador.
+ * <p>
+ * Juega partidas del solucionador contra sí mismo eligiendo cada jugada con
+ * {@link Solucionador#resolverConLimite(Partida, long)} y mide el tiempo de reloj de cada
+ * llamada. Las primeras jugadas de cada partida se eligen al azar para que no se repitan y
+ * antes de medir se juegan partidas hasta que la compilación en caliente se estabiliza. Al
+ * acabar muestra los percentiles 50, 90 y 99 y el máximo de la latencia, cuántas jugadas se
+ * han pasado del plazo y la profundidad media alcanzada en las jugadas no resueltas.
+ * <p>
+ * Cada hilo juega sus partidas con su propio solucionador y su propia tabla de transposición;
+ * con más hilos que procesadores se comprueba si el plazo se cumple con la máquina cargada.
+ * <p>
+ * Uso: {@code java quantik.herramientas.Latencia [-ms n] [-partidas n] [-hilos n] [-megas n] [-semilla n]}
+ * 
+ * @author <a href="apo1004@alu.ubu.es"> Amanda Pérez Olmos </a>
+ * @since 3.0
+ * @version 3.0
+ */
+public class Latencia {
+
+	/**
+	 * Plazo por defecto de cada jugada en milisegundos.
+	 */
+	private final static long MILISEGUNDOS_POR_DEFECTO = 50;
+	
+	/**
+	 * Número de partidas por defecto.
+	 */
+	private final static int PARTIDAS_POR_DEFECTO = 20;
+	
+	/**
+	 * Número de jugadas al azar al principio de cada partida.
+	 */
+	private final static int JUGADAS_ALEATORIAS = 2;
+	
+	/**
+	 * Juega varias partidas del solucionador contra sí mismo y anota la latencia de cada jugada.
+	 * 
+	 * @param partidas número de partidas
+	 * @param milisegundos plazo de cada jugada
+	 * @param megas tamaño de la tabla de transposición en megabytes
+	 * @param semilla semilla de las jugadas al azar
+	 * @return medidas de todas las jugadas buscadas
+	 */
+	private static Medidas jugar (int partidas, long milisegundos, long megas, long semilla) {
+		
+		Solucionador solucionador = new Solucionador(new TablaTransposicion(megas << 20));
+		Random aleatorio = new Random(semilla);
+		int[] jugadas = new int[Movimiento.NUM_MOVIMIENTOS];
+		Medidas medidas = new Medidas(partidas * Movimiento.NUM_MOVIMIENTOS / Color.values().length);
+		
+		for (int n = 0; n < partidas; n++) {
+			
+			Partida partida = new Partida(new Tablero(), new Caja(Color.BLANCO), new Caja(Color.NEGRO));
+			
+			for (int i = 0; i < JUGADAS_ALEATORIAS && !partida.estaAcabadaPartida(); i++) {
+				
+				int numJugadas = partida.generarJugadasLegalesEnTurnoActual(jugadas);
+				partida.aplicarJugada(jugadas[aleatorio.nextInt(numJugadas)]);
+			}
+			
+			while (!partida.estaAcabadaPartida()) {
+				
+				long inicio = System.nanoTime();
+				ResultadoSolucion resultado = solucionador.resolverConLimite(partida, milisegundos);
+				medidas.anotar(System.nanoTime() - inicio, resultado);
+				partida.aplicarJugada(resultado.consultarMejorJugada());
+			}
+		}
+		return medidas;
+	}
+	
+	/**
+	 * Muestra el uso de la herramienta.
+	 */
+	private static void mostrarUso() {
+		
+		System.err.println("Uso: Latencia [-ms n] [-partidas n] [-hilos n] [-megas n] [-semilla n]");
+		System.err.println("  -ms n        plazo de cada jugada en milisegundos (" + MILISEGUNDOS_POR_DEFECTO + " por defecto)");
+		System.err.println("  -partidas n  número de partidas, repartidas entre los hilos (" + PARTIDAS_POR_DEFECTO
+				+ " por defecto)");
+		System.err.println("  -hilos n     número de partidas simultáneas (1 por defecto)");
+		System.err.println("  -megas n     tamaño de la tabla de transposición de cada hilo en megabytes ("
+				+ Solucionador.MEGAS_TABLA_POR_DEFECTO + " por defecto)");
+		System.err.println("  -semilla n   semilla de las jugadas al azar del principio");
+	}
+	
+	/**
+	 * Juega las partidas y muestra la distribución de la latencia por jugada.
+	 * <p>
+	 * Termina con código 1 si el percentil 99 supera el plazo y con código 2 si los argumentos
+	 * no son válidos.
+	 * 
+	 * @param args argumentos de entrada
+	 */
+	public static void main(String[] args) {
+		
+		long milisegundos = MILISEGUNDOS_POR_DEFECTO;
+		int partidas = PARTIDAS_POR_DEFECTO;
+		int hilos = 1;
+		long megas = Solucionador.MEGAS_TABLA_POR_DEFECTO;
+		long semilla = System.nanoTime();
+		boolean validos = true;
+		
+		try {
+			for (int i = 0; i < args.length; i++) {
+				
+				if (args[i].equalsIgnoreCase("-ms")) {
+					milisegundos = Long.parseLong(args[++i]);
+				}
+				else if (args[i].equalsIgnoreCase("-partidas")) {
+					partidas = Integer.parseInt(args[++i]);
+				}
+				else if (args[i].equalsIgnoreCase("-hilos")) {
+					hilos = Integer.parseInt(args[++i]);
+				}
+				else if (args[i].equalsIgnoreCase("-megas")) {
+					megas = Long.parseLong(args[++i]);
+				}
+				else if (args[i].equalsIgnoreCase("-semilla")) {
+					semilla = Long.parseLong(args[++i]);
+				}
+				else {
+					validos = false;
+				}
+			}
+		}
+		catch (RuntimeException ex) {
+			validos = false;
+		}
+		
+		if (!validos || milisegundos < 1 || partidas < 1 || hilos < 1 || megas < 1) {
+			mostrarUso();
+			System.exit(2);
+		}
+		
+		long plazo = milisegundos;
+		long megasHilo = megas;
+		long semillaInicial = semilla;
+		List<Callable<Medidas>> tareas = new ArrayList<>();
+		
+		// Cada partida de calentamiento es distinta para que se compilen todos los caminos de la búsqueda.
+		Random semillas = new Random(semillaInicial);
+		Calentamiento.calentar(() -> jugar(1, plazo, megasHilo, semillas.nextLong()));
+		
+		for (int i = 0; i < hilos; i++) {
+			
+			int partidasHilo = partidas / hilos + (i < partidas % hilos ? 1 : 0);
+			long semillaHilo = semillaInicial + i;
+			tareas.add(() -> jugar(partidasHilo, plazo, megasHilo, semillaHilo));
+		}
+		
+		ForkJoinPool pool = new ForkJoinPool(hilos);
+		Medidas medidas = new Medidas(0);
+		
+		try {
+			for (Future<Medidas> resultado : pool.invokeAll(tareas)) {
+				medidas.añadir(resultado.get());
+			}
+		}
+		catch (InterruptedException | ExecutionException ex) {
+			throw new IllegalStateException("Error al jugar las partidas", ex);
+		}
+		finally {
+			pool.shutdown();
+		}
+		
+		long[] latencias = medidas.obtenerLatenciasOrdenadas();
+		long limite = milisegundos * 1_000_000;
+		long fueraDePlazo = Arrays.stream(latencias).filter(latencia -> latencia > limite).count();
+		long p99 = Estadistica.calcularPercentil(latencias, 99);
+		
+		System.out.printf("%d jugadas en %d partidas con %d hilos y un plazo de %d ms%n", latencias.length, partidas, hilos,
+				milisegundos);
+		System.out.printf("latencia: p50 %.2f ms, p90 %.2f ms, p99 %.2f ms, máximo %.2f ms%n",
+				Estadistica.calcularPercentil(latencias, 50) / 1e6, Estadistica.calcularPercentil(latencias, 90) / 1e6, p99 / 1e6,
+				latencias[latencias.length - 1] / 1e6);
+		System.out.printf("fuera de plazo: %d (%.2f%%)%n", fueraDePlazo, 100.0 * fueraDePlazo / latencias.length);
+		System.out.printf("resueltas: %d, profundidad media de las demás: %.2f%n", medidas.consultarResueltas(),
+				medidas.calcularProfundidadMedia());
+		
+		if (p99 > limite) {
+			System.out.println("ERROR: el percentil 99 supera el plazo.");
+			System.exit(1);
+		}
+	}
+	
+	/**
+	 * Latencias y profundidades de las jugadas buscadas por un hilo.
+	 */
+	private final static class Medidas {
+		
+		/**
+		 * Latencia de cada jugada en nanosegundos.
+		 */
+		private long[] latencias;
+		
+		/**
+		 * Número de jugadas anotadas.
+		 */
+		private int numJugadas;
+		
+		/**
+		 * Número de jugadas cuya posición se ha resuelto.
+		 */
+		private int resueltas;
+		
+		/**
+		 * Suma de las profundidades alcanzadas en las jugadas no resueltas.
+		 */
+		private long sumaProfundidades;
+		
+		/**
+		 * Crea unas medidas vacías.
+		 * 
+		 * @param capacidad número de jugadas que se espera anotar
+		 */
+		Medidas (int capacidad) {
+			latencias = new long[Math.max(1, capacidad)];
+		}
+		
+		/**
+		 * Anota una jugada.
+		 * 
+		 * @param latencia tiempo de reloj de la búsqueda en nanosegundos
+		 * @param resultado resultado de la búsqueda
+		 */
+		void anotar (long latencia, ResultadoSolucion resultado) {
+			
+			if (numJugadas == latencias.length) {
+				latencias = Arrays.copyOf(latencias, latencias.length * 2);
+			}
+			latencias[numJugadas++] = latencia;
+			
+			if (resultado.esVictoria() || resultado.esDerrota()) {
+				resueltas++;
+			}
+			else {
+				sumaProfundidades += resultado.consultarProfundidad();
+			}
+		}
+		
+		/**
+		 * Añade las jugadas de otras medidas.
+		 * 
+		 * @param otras medidas de otro hilo
+		 */
+		void añadir (Medidas otras) {
+			
+			latencias = Arrays.copyOf(latencias, numJugadas + otras.numJugadas);
+			System.arraycopy(otras.latencias, 0, latencias, numJugadas, otras.numJugadas);
+			numJugadas += otras.numJugadas;
+			resueltas += otras.resueltas;
+			sumaProfundidades += otras.sumaProfundidades;
+		}
+		
+		/**
+		 * Devuelve las latencias anotadas en orden creciente.
+		 * 
+		 * @return latencias en nanosegundos
+		 */
+		long[] obtenerLatenciasOrdenadas() {
+			
+			long[] ordenadas = Arrays.copyOf(latencias, numJugadas);
+			Arrays.sort(ordenadas);
+			return ordenadas;
+		}
+		
+		/**
+		 * Devuelve el número de jugadas cuya posición se ha resuelto.
+		 * 
+		 * @return jugadas resueltas
+		 */
+		int consultarResueltas() {
+			return resueltas;
+		}
+		
+		/**
+		 * Calcula la profundidad media alcanzada en las jugadas no resueltas.
+		 * 
+		 * @return profundidad media, o 0 si todas se han resuelto
+		 */
+		double calcularProfundidadMedia() {
+			return (numJugadas == resueltas ? 0.0 : (double) sumaProfundidades / (numJugadas - resueltas));
+		}
+	}
+}
@@ -0,0 +1,101 @@
+package quantik.herramientas;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+import quantik.control.Partida;
+import quantik.modelo.Caja;
+import quantik.modelo.Tablero;
+import quantik.ordenacion.Heuristica;
+import quantik.ordenacion.OrdenadorJugadas;
+import quantik.solucionador.ResultadoSolucion;
+import quantik.solucionador.Solucionador;
+import quantik.transposicion.TablaTransposicion;
+import quantik.util.Color;
+
+/**
+ * Estadísticas de la ordenación de jugadas al resolver una posición, para ajustar las
+ * heurísticas.
+ * <p>
+ * Resuelve la posición con {@link Solucionador} y un {@link OrdenadorJugadas} con las
+ * heurísticas indicadas, y muestra el resultado de la búsqueda y, para cada heurística, las
+ * jugadas probadas, los cortes que han provocado y el porcentaje de cortes con la primera
+ * jugada. Las estadísticas son de una sola resolución, hecha después de calentar la máquina
+ * virtual resolviendo la posición hasta que la compilación en caliente se estabiliza.
+ * <p>
+ * Uso: {@code java quantik.herramientas.Ordenacion [-sin heuristica,...] [-megas n] [-partida codigo]}
+ * 
+ * @author <a href="apo1004@alu.ubu.es"> Amanda Pérez Olmos </a>
+ * @since 3.0
+ * @version 3.0
+ */
+public class Ordenacion {
+
+	/**
+	 * Muestra el uso de la herramienta.
+	 */
+	private static void mostrarUso() {
+		
+		System.err.println("Uso: Ordenacion [-sin heuristica,...] [-megas n] [-partida codigo]");
+		System.err.println("  -sin heuristica,...  heurísticas que se desactivan, de entre " + EnumSet.allOf(Heuristica.class));
+		System.err.println("  -megas n             tamaño de la tabla de transposición en megabytes ("
+				+ Solucionador.MEGAS_TABLA_POR_DEFECTO + " por defecto)");
+		System.err.println("  -partida codigo      parte de la partida codificada con Partida.codificar()");
+	}
+	
+	/**
+	 * Resuelve la posición y muestra las estadísticas de la ordenación.
+	 * <p>
+	 * Termina con código 2 si los argumentos no son válidos.
+	 * 
+	 * @param args argumentos de entrada
+	 */
+	public static void main(String[] args) {
+		
+		Set<Heuristica> heuristicas = EnumSet.allOf(Heuristica.class);
+		long megas = Solucionador.MEGAS_TABLA_POR_DEFECTO;
+		Partida partida = new Partida(new Tablero(), new Caja(Color.BLANCO), new Caja(Color.NEGRO));
+		boolean validos = true;
+		
+		try {
+			for (int i = 0; i < args.length; i++) {
+				
+				if (args[i].equalsIgnoreCase("-sin")) {
+					for (String nombre : args[++i].split(",")) {
+						heuristicas.remove(Heuristica.valueOf(nombre.trim().toUpperCase()));
+					}
+				}
+				else if (args[i].equalsIgnoreCase("-megas")) {
+					megas = Long.parseLong(args[++i]);
+				}
+				else if (args[i].equalsIgnoreCase("-partida")) {
+					partida = Partida.decodificar(Long.parseLong(args[++i]));
+				}
+				else {
+					validos = false;
+				}
+			}
+		}
+		catch (RuntimeException ex) {
+			validos = false;
+		}
+		
+		if (!validos || megas < 1) {
+			mostrarUso();
+			System.exit(2);
+		}
+		
+		Partida posicion = partida;
+		long bytesTabla = megas << 20;
+		
+		Calentamiento.calentar(
+				() -> new Solucionador(new TablaTransposicion(bytesTabla), new OrdenadorJugadas(heuristicas)).resolver(posicion));
+		
+		OrdenadorJugadas ordenador = new OrdenadorJugadas(heuristicas);
+		ResultadoSolucion resultado = new Solucionador(new TablaTransposicion(bytesTabla), ordenador).resolver(posicion);
+		
+		System.out.println("heurísticas: " + heuristicas);
+		System.out.println(resultado);
+		System.out.print(ordenador.consultarEstadisticas());
+	}
+}
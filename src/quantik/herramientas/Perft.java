@@ -0,0 +1,536 @@
+package quantik.herramientas;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+import quantik.control.Partida;
+import quantik.excepcion.CoordenadasIncorrectasException;
+import quantik.modelo.Caja;
+import quantik.modelo.Celda;
+import quantik.modelo.Grupo;
+import quantik.modelo.Movimiento;
+import quantik.modelo.Pieza;
+import quantik.modelo.Tablero;
+import quantik.modelo.VistaTablero;
+import quantik.util.Color;
+import quantik.util.Figura;
+
+/**
+ * Recorrido completo del árbol de jugadas hasta una profundidad para contar posiciones.
+ * <p>
+ * Sirve para medir la velocidad de generación de jugadas y, sobre todo, como oráculo de
+ * regresión de las reglas: los recuentos desde la posición inicial están fijados en
+ * {@link #HOJAS_ESPERADAS} y {@link #FINALES_ESPERADOS} y cualquier optimización de
+ * {@link Partida}, {@link Caja} o de la gestión de grupos debe seguir obteniéndolos.
+ * <p>
+ * El modo de referencia no usa {@link Partida} ni el tablero de bits: copia la posición en
+ * sus propias {@link Celda} y {@link Grupo} independientes y comprueba la legalidad y el final
+ * de la partida recorriendo las celdas de cada grupo, como las reglas del juego. Sus recuentos
+ * se comparan con los del recorrido rápido, así que sirve de oráculo desde cualquier posición.
+ * <p>
+ * Una posición acabada no se expande. Como en Quantik la partida la gana siempre quien hace
+ * la última jugada, ya sea completando un grupo o dejando bloqueado al rival, las posiciones
+ * finales se clasifican por el color de ese jugador y por el motivo.
+ * <p>
+ * Uso: {@code java quantik.herramientas.Perft profundidad [-hilos n] [-referencia] [-partida codigo]}
+ * 
+ * @author <a href="apo1004@alu.ubu.es"> Amanda Pérez Olmos </a>
+ * @since 3.0
+ * @version 3.0
+ */
+public class Perft {
+
+	/**
+	 * Número de posiciones a cada profundidad desde la posición inicial, indexado por profundidad.
+	 */
+	public final static long[] HOJAS_ESPERADAS = { 1L, 64L, 3_392L, 167_552L, 6_776_960L, 231_883_776L };
+	
+	/**
+	 * Número de posiciones finales hasta cada profundidad desde la posición inicial, indexado
+	 * por profundidad.
+	 */
+	public final static long[] FINALES_ESPERADOS = { 0L, 0L, 0L, 0L, 6_912L, 1_057_536L };
+	
+	/**
+	 * Profundidad restante por debajo de la cual las tareas paralelas recorren el árbol en
+	 * secuencia.
+	 */
+	private final static int PROFUNDIDAD_SECUENCIAL = 3;
+	
+	/**
+	 * Cuenta las posiciones del árbol de jugadas de una partida hasta una profundidad, en el
+	 * hilo actual.
+	 * <p>
+	 * La partida se recorre aplicando y revirtiendo jugadas, así que al terminar queda en el
+	 * mismo estado en que estaba.
+	 * 
+	 * @param partida partida desde cuya posición actual se cuenta
+	 * @param profundidad número de jugadas que se recorren
+	 * @return recuentos del recorrido
+	 */
+	public static ResultadoPerft contar (Partida partida, int profundidad) {
+		
+		ResultadoPerft resultado = new ResultadoPerft();
+		recorrer(partida, profundidad, new int[profundidad + 1][Movimiento.NUM_MOVIMIENTOS], resultado);
+		return resultado;
+	}
+	
+	/**
+	 * Cuenta las posiciones del árbol de jugadas repartiendo las ramas entre los hilos de un
+	 * pool fork/join. Cada tarea trabaja sobre su propio clon de la partida.
+	 * 
+	 * @param partida partida desde cuya posición actual se cuenta, que no se modifica
+	 * @param profundidad número de jugadas que se recorren
+	 * @param pool pool donde se ejecutan las tareas
+	 * @return recuentos del recorrido
+	 */
+	public static ResultadoPerft contarEnParalelo (Partida partida, int profundidad, ForkJoinPool pool) {
+		return pool.invoke(new TareaPerft(partida.clonar(), profundidad));
+	}
+	
+	/**
+	 * Cuenta las posiciones del árbol de jugadas con el recorrido de referencia, que solo toma de
+	 * la partida las piezas, las cajas y el turno y aplica las reglas celda a celda sobre sus
+	 * propios grupos.
+	 * 
+	 * @param partida partida desde cuya posición actual se cuenta, que no se modifica
+	 * @param profundidad número de jugadas que se recorren
+	 * @return recuentos del recorrido
+	 */
+	public static ResultadoPerft contarConReferencia (Partida partida, int profundidad) {
+		
+		ResultadoPerft resultado = new ResultadoPerft();
+		
+		try {
+			new RecorridoReferencia(partida).recorrer(partida.consultarTurno(), profundidad, resultado);
+		}
+		catch (CoordenadasIncorrectasException ex) {
+			throw new RuntimeException("Error grave en el código.",ex);
+		}
+		return resultado;
+	}
+	
+	/**
+	 * Cuenta la posición actual y, si no está acabada ni es una hoja, sus sucesoras.
+	 * 
+	 * @param partida partida en la posición que se cuenta
+	 * @param restante número de jugadas que quedan por recorrer
+	 * @param buffers buffer de jugadas para cada nivel de profundidad restante
+	 * @param resultado recuentos donde se acumula
+	 */
+	private static void recorrer (Partida partida, int restante, int[][] buffers, ResultadoPerft resultado) {
+		
+		resultado.contarNodo(restante == 0);
+		
+		if (contarSiAcabada(partida, resultado) || restante == 0) {
+			return;
+		}
+		
+		int[] jugadas = buffers[restante];
+		int numJugadas = partida.generarJugadasLegalesEnTurnoActual(jugadas);
+		
+		for (int i = 0; i < numJugadas; i++) {
+			
+			partida.aplicarJugada(jugadas[i]);
+			recorrer(partida, restante - 1, buffers, resultado);
+			partida.revertirJugada(jugadas[i]);
+		}
+	}
+	
+	/**
+	 * Comprueba si la partida está acabada y, en ese caso, cuenta el final.
+	 * 
+	 * @param partida partida ya con el turno del jugador que debe mover
+	 * @param resultado recuentos donde se acumula
+	 * @return true si está acabada y false en caso contrario
+	 */
+	private static boolean contarSiAcabada (Partida partida, ResultadoPerft resultado) {
+		
+		if (!partida.estaAcabadaPartida()) {
+			return false;
+		}
+		resultado.contarFinal(partida.consultarGanador(), partida.hayAlgunGrupoCompleto());
+		return true;
+	}
+	
+	/**
+	 * Tarea fork/join que cuenta una rama del árbol.
+	 */
+	private static class TareaPerft extends RecursiveTask<ResultadoPerft> {
+		
+		/**
+		 * Identificador de versión de la serialización.
+		 */
+		private static final long serialVersionUID = 1L;
+		
+		/**
+		 * Partida propia de la tarea en la posición raíz de la rama.
+		 */
+		private final Partida partida;
+		
+		/**
+		 * Número de jugadas que se recorren desde la raíz de la rama.
+		 */
+		private final int profundidad;
+		
+		/**
+		 * Crea la tarea de una rama.
+		 * 
+		 * @param partida partida propia de la tarea
+		 * @param profundidad número de jugadas que se recorren
+		 */
+		TareaPerft (Partida partida, int profundidad) {
+			
+			this.partida = partida;
+			this.profundidad = profundidad;
+		}
+		
+		@Override
+		protected ResultadoPerft compute() {
+			
+			if (profundidad <= PROFUNDIDAD_SECUENCIAL) {
+				return contar(partida, profundidad);
+			}
+			
+			ResultadoPerft resultado = new ResultadoPerft();
+			resultado.contarNodo(false);
+			
+			if (contarSiAcabada(partida, resultado)) {
+				return resultado;
+			}
+			
+			int[] jugadas = new int[Movimiento.NUM_MOVIMIENTOS];
+			int numJugadas = partida.generarJugadasLegalesEnTurnoActual(jugadas);
+			TareaPerft[] tareas = new TareaPerft[numJugadas];
+			
+			for (int i = 0; i < numJugadas; i++) {
+				
+				Partida siguiente = partida.clonar();
+				siguiente.aplicarJugada(jugadas[i]);
+				tareas[i] = new TareaPerft(siguiente, profundidad - 1);
+				tareas[i].fork();
+			}
+			for (int i = numJugadas - 1; i >= 0; i--) {
+				resultado.acumular(tareas[i].join());
+			}
+			return resultado;
+		}
+	}
+	
+	/**
+	 * Recorrido de referencia sobre una copia de la posición en celdas y grupos independientes,
+	 * sin tablero de bits.
+	 */
+	private static class RecorridoReferencia {
+		
+		/**
+		 * Lado de los grupos cuadrados.
+		 */
+		private final static int LADO_CUADRADO = 2;
+		
+		/**
+		 * Celdas propias del recorrido, por fila y columna.
+		 */
+		private final Celda[][] celdas;
+		
+		/**
+		 * Grupos de celdas: filas, columnas y cuadrados.
+		 */
+		private final List<Grupo> grupos = new ArrayList<>();
+		
+		/**
+		 * Grupos a los que pertenece cada celda, por fila y columna.
+		 */
+		private final List<List<List<Grupo>>> gruposDeCelda = new ArrayList<>();
+		
+		/**
+		 * Cajas de las blancas y de las negras, en ese orden.
+		 */
+		private final Caja[] cajas;
+		
+		/**
+		 * Copia la posición de una partida.
+		 * 
+		 * @param partida partida cuyas piezas y cajas se copian
+		 * @throws CoordenadasIncorrectasException si las coordenadas están fuera del tablero
+		 */
+		RecorridoReferencia (Partida partida) throws CoordenadasIncorrectasException {
+			
+			VistaTablero tablero = partida.consultarVistaTablero();
+			int filas = tablero.consultarNumeroFilas();
+			int columnas = tablero.consultarNumeroColumnas();
+			
+			celdas = new Celda[filas][columnas];
+			cajas = new Caja[] {partida.consultarCajaBlancas(), partida.consultarCajaNegras()};
+			
+			for (int fila = 0; fila < filas; fila++) {
+				for (int columna = 0; columna < columnas; columna++) {
+					
+					celdas[fila][columna] = new Celda(fila, columna);
+					celdas[fila][columna].colocar(tablero.consultarPieza(fila, columna));
+				}
+			}
+			
+			for (int fila = 0; fila < filas; fila++) {
+				grupos.add(crearGrupo(fila, 0, 1, columnas));
+			}
+			for (int columna = 0; columna < columnas; columna++) {
+				grupos.add(crearGrupo(0, columna, filas, 1));
+			}
+			for (int fila = 0; fila < filas; fila += LADO_CUADRADO) {
+				for (int columna = 0; columna < columnas; columna += LADO_CUADRADO) {
+					grupos.add(crearGrupo(fila, columna, LADO_CUADRADO, LADO_CUADRADO));
+				}
+			}
+			
+			for (int fila = 0; fila < filas; fila++) {
+				
+				gruposDeCelda.add(new ArrayList<>());
+				
+				for (int columna = 0; columna < columnas; columna++) {
+					
+					List<Grupo> gruposCelda = new ArrayList<>();
+					
+					for (Grupo grupo : grupos) {
+						if (grupo.contieneCelda(celdas[fila][columna])) {
+							gruposCelda.add(grupo);
+						}
+					}
+					gruposDeCelda.get(fila).add(gruposCelda);
+				}
+			}
+		}
+		
+		/**
+		 * Crea un grupo independiente con las celdas de un rectángulo.
+		 * 
+		 * @param fila fila de la esquina superior izquierda
+		 * @param columna columna de la esquina superior izquierda
+		 * @param alto número de filas
+		 * @param ancho número de columnas
+		 * @return grupo con las celdas propias del recorrido
+		 */
+		private Grupo crearGrupo (int fila, int columna, int alto, int ancho) {
+			
+			List<Celda> celdasGrupo = new ArrayList<>();
+			
+			for (int i = fila; i < fila + alto; i++) {
+				for (int j = columna; j < columna + ancho; j++) {
+					celdasGrupo.add(celdas[i][j]);
+				}
+			}
+			return new Grupo(celdasGrupo);
+		}
+		
+		/**
+		 * Cuenta la posición actual y, si no está acabada ni es una hoja, sus sucesoras,
+		 * colocando y retirando las piezas en las celdas propias.
+		 * 
+		 * @param turno color del jugador que debe mover
+		 * @param restante número de jugadas que quedan por recorrer
+		 * @param resultado recuentos donde se acumula
+		 */
+		void recorrer (Color turno, int restante, ResultadoPerft resultado) {
+			
+			resultado.contarNodo(restante == 0);
+			
+			boolean grupoCompleto = hayGrupoCompleto();
+			
+			if (grupoCompleto || !tieneJugadaLegal(turno)) {
+				// La partida la gana quien ha colocado la última pieza, que no tiene el turno.
+				resultado.contarFinal(turno.obtenerContrario(), grupoCompleto);
+				return;
+			}
+			if (restante == 0) {
+				return;
+			}
+			
+			Caja caja = cajas[turno.ordinal()];
+			
+			for (Figura figura : Movimiento.FIGURAS) {
+				for (int fila = 0; fila < celdas.length; fila++) {
+					for (int columna = 0; columna < celdas[fila].length; columna++) {
+						
+						if (esLegal(fila, columna, figura, turno)) {
+							
+							celdas[fila][columna].colocar(caja.retirar(figura));
+							recorrer(turno.obtenerContrario(), restante - 1, resultado);
+							celdas[fila][columna].colocar(null);
+							caja.devolver(figura);
+						}
+					}
+				}
+			}
+		}
+		
+		/**
+		 * Comprueba si se puede colocar una figura en una celda: la celda está vacía, el jugador
+		 * tiene la figura en su caja y ningún grupo de la celda tiene esa figura del rival.
+		 * 
+		 * @param fila fila de la celda
+		 * @param columna columna de la celda
+		 * @param figura figura que se coloca
+		 * @param turno color del jugador que coloca
+		 * @return true si es legal y false si no
+		 */
+		private boolean esLegal (int fila, int columna, Figura figura, Color turno) {
+			
+			if (!celdas[fila][columna].estaVacia() || !cajas[turno.ordinal()].estaDisponible(figura)) {
+				return false;
+			}
+			for (Grupo grupo : gruposDeCelda.get(fila).get(columna)) {
+				if (grupo.existeMismaPiezaDelColorContrario(figura, turno)) {
+					return false;
+				}
+			}
+			return true;
+		}
+		
+		/**
+		 * Comprueba si un jugador puede colocar alguna pieza.
+		 * 
+		 * @param turno color del jugador
+		 * @return true si tiene alguna jugada legal y false si está bloqueado
+		 */
+		private boolean tieneJugadaLegal (Color turno) {
+			
+			for (Figura figura : Movimiento.FIGURAS) {
+				for (int fila = 0; fila < celdas.length; fila++) {
+					for (int columna = 0; columna < celdas[fila].length; columna++) {
+						if (esLegal(fila, columna, figura, turno)) {
+							return true;
+						}
+					}
+				}
+			}
+			return false;
+		}
+		
+		/**
+		 * Comprueba si algún grupo tiene cuatro figuras diferentes.
+		 * 
+		 * @return true si hay algún grupo completo y false si no
+		 */
+		private boolean hayGrupoCompleto() {
+			
+			for (Grupo grupo : grupos) {
+				if (grupo.estaCompletoConFigurasDiferentes()) {
+					return true;
+				}
+			}
+			return false;
+		}
+	}
+	
+	/**
+	 * Muestra los recuentos de un recorrido.
+	 * 
+	 * @param profundidad profundidad recorrida
+	 * @param resultado recuentos
+	 * @param nanosegundos duración del recorrido
+	 */
+	private static void mostrarResultado (int profundidad, ResultadoPerft resultado, long nanosegundos) {
+		
+		double segundos = nanosegundos / 1e9;
+		System.out.printf("%2d %14d %12d %10d/%-10d %10d/%-10d %14.0f%n", profundidad, resultado.consultarHojas(),
+				resultado.consultarFinales(),
+				resultado.consultarVictoriasPorGrupo(Color.BLANCO), resultado.consultarVictoriasPorBloqueo(Color.BLANCO),
+				resultado.consultarVictoriasPorGrupo(Color.NEGRO), resultado.consultarVictoriasPorBloqueo(Color.NEGRO),
+				segundos > 0 ? resultado.consultarNodos() / segundos : 0.0);
+	}
+	
+	/**
+	 * Muestra el uso de la herramienta.
+	 */
+	private static void mostrarUso() {
+		
+		System.err.println("Uso: Perft profundidad [-hilos n] [-referencia] [-partida codigo]");
+		System.err.println("  -hilos n         recorre el árbol en paralelo con n hilos");
+		System.err.println("  -referencia      usa el recorrido de referencia y lo compara con el rápido");
+		System.err.println("  -partida codigo  parte de la partida codificada con Partida.codificar()");
+	}
+	
+	/**
+	 * Recorre el árbol hasta cada profundidad entre 1 y la indicada y muestra los recuentos,
+	 * comprobándolos con los esperados si se parte de la posición inicial y, en el modo de
+	 * referencia, también con los del recorrido rápido.
+	 * <p>
+	 * Termina con código 1 si algún recuento no coincide y con código 2 si los argumentos no
+	 * son válidos.
+	 * 
+	 * @param args argumentos de entrada
+	 */
+	public static void main(String[] args) {
+		
+		int profundidad = -1;
+		int hilos = 1;
+		boolean referencia = false;
+		Partida partida = new Partida(new Tablero(), new Caja(Color.BLANCO), new Caja(Color.NEGRO));
+		boolean inicial = true;
+		
+		try {
+			for (int i = 0; i < args.length; i++) {
+				
+				if (args[i].equalsIgnoreCase("-hilos")) {
+					hilos = Integer.parseInt(args[++i]);
+				}
+				else if (args[i].equalsIgnoreCase("-referencia")) {
+					referencia = true;
+				}
+				else if (args[i].equalsIgnoreCase("-partida")) {
+					partida = Partida.decodificar(Long.parseLong(args[++i]));
+					inicial = false;
+				}
+				else {
+					profundidad = Integer.parseInt(args[i]);
+				}
+			}
+		}
+		catch (RuntimeException ex) {
+			profundidad = -1;
+		}
+		
+		if (profundidad < 1 || hilos < 1) {
+			mostrarUso();
+			System.exit(2);
+		}
+		
+		ForkJoinPool pool = (hilos > 1 ? new ForkJoinPool(hilos) : null);
+		boolean correcto = true;
+		
+		System.out.println(" p          hojas      finales  blancas grupo/bloqueo  negras grupo/bloqueo    nodos/s");
+		
+		for (int p = 1; p <= profundidad; p++) {
+			
+			long inicio = System.nanoTime();
+			ResultadoPerft resultado = (referencia ? contarConReferencia(partida, p)
+					: pool != null ? contarEnParalelo(partida, p, pool) : contar(partida, p));
+			mostrarResultado(p, resultado, System.nanoTime() - inicio);
+			
+			if (referencia) {
+				
+				ResultadoPerft rapido = (pool != null ? contarEnParalelo(partida, p, pool) : contar(partida, p));
+				
+				if (!resultado.equals(rapido)) {
+					System.out.printf("ERROR: el recorrido rápido obtiene %s a profundidad %d.%n", rapido, p);
+					correcto = false;
+				}
+			}
+			if (inicial && p < HOJAS_ESPERADAS.length && (resultado.consultarHojas() != HOJAS_ESPERADAS[p]
+					|| resultado.consultarFinales() != FINALES_ESPERADOS[p])) {
+				System.out.printf("ERROR: se esperaban %d hojas y %d finales a profundidad %d.%n", HOJAS_ESPERADAS[p],
+						FINALES_ESPERADOS[p], p);
+				correcto = false;
+			}
+		}
+		
+		if (pool != null) {
+			pool.shutdown();
+		}
+		if (!correcto) {
+			System.exit(1);
+		}
+	}
+}
@@ -0,0 +1,157 @@
+package quantik.herramientas;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+import quantik.util.Color;
+
+/**
+ * Recuento de posiciones obtenido al recorrer el árbol de jugadas con {@link Perft}.
+ * 
+ * @author <a href="apo1004@alu.ubu.es"> Amanda Pérez Olmos </a>
+ * @since 3.0
+ * @version 3.0
+ */
+public class ResultadoPerft {
+
+	/**
+	 * Número de posiciones visitadas a cualquier profundidad, incluida la inicial.
+	 */
+	private long nodos;
+	
+	/**
+	 * Número de posiciones alcanzadas exactamente a la profundidad pedida.
+	 */
+	private long hojas;
+	
+	/**
+	 * Número de partidas acabadas con un grupo completo, por ordinal del color ganador.
+	 */
+	private long[] victoriasPorGrupo = new long[Color.values().length];
+	
+	/**
+	 * Número de partidas acabadas por bloqueo del perdedor, por ordinal del color ganador.
+	 */
+	private long[] victoriasPorBloqueo = new long[Color.values().length];
+	
+	/**
+	 * Cuenta una posición visitada.
+	 * 
+	 * @param esHoja true si está a la profundidad pedida
+	 */
+	void contarNodo (boolean esHoja) {
+		
+		nodos++;
+		if (esHoja) {
+			hojas++;
+		}
+	}
+	
+	/**
+	 * Cuenta una partida acabada.
+	 * 
+	 * @param ganador color del jugador que ha ganado
+	 * @param porGrupo true si ha ganado completando un grupo y false si el rival está bloqueado
+	 */
+	void contarFinal (Color ganador, boolean porGrupo) {
+		
+		if (porGrupo) {
+			victoriasPorGrupo[ganador.ordinal()]++;
+		}
+		else {
+			victoriasPorBloqueo[ganador.ordinal()]++;
+		}
+	}
+	
+	/**
+	 * Suma a este resultado los recuentos de otro.
+	 * 
+	 * @param otro resultado que se acumula
+	 */
+	void acumular (ResultadoPerft otro) {
+		
+		nodos += otro.nodos;
+		hojas += otro.hojas;
+		for (int c = 0; c < victoriasPorGrupo.length; c++) {
+			victoriasPorGrupo[c] += otro.victoriasPorGrupo[c];
+			victoriasPorBloqueo[c] += otro.victoriasPorBloqueo[c];
+		}
+	}
+	
+	/**
+	 * Devuelve el número de posiciones visitadas, incluida la inicial.
+	 * 
+	 * @return número de nodos
+	 */
+	public long consultarNodos() {
+		return nodos;
+	}
+	
+	/**
+	 * Devuelve el número de posiciones alcanzadas a la profundidad pedida.
+	 * 
+	 * @return número de hojas
+	 */
+	public long consultarHojas() {
+		return hojas;
+	}
+	
+	/**
+	 * Devuelve el número de partidas acabadas a cualquier profundidad.
+	 * 
+	 * @return número de posiciones finales
+	 */
+	public long consultarFinales() {
+		
+		long finales = 0;
+		
+		for (int c = 0; c < victoriasPorGrupo.length; c++) {
+			finales += victoriasPorGrupo[c] + victoriasPorBloqueo[c];
+		}
+		return finales;
+	}
+	
+	/**
+	 * Devuelve el número de partidas ganadas por un color completando un grupo.
+	 * 
+	 * @param ganador color ganador
+	 * @return número de victorias por grupo
+	 */
+	public long consultarVictoriasPorGrupo (Color ganador) {
+		return victoriasPorGrupo[ganador.ordinal()];
+	}
+	
+	/**
+	 * Devuelve el número de partidas ganadas por un color por bloqueo del rival.
+	 * 
+	 * @param ganador color ganador
+	 * @return número de victorias por bloqueo
+	 */
+	public long consultarVictoriasPorBloqueo (Color ganador) {
+		return victoriasPorBloqueo[ganador.ordinal()];
+	}
+	
+	@Override
+	public int hashCode() {
+		return Objects.hash(hojas, nodos, Arrays.hashCode(victoriasPorBloqueo), Arrays.hashCode(victoriasPorGrupo));
+	}
+	
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj)
+			return true;
+		if (obj == null)
+			return false;
+		if (getClass() != obj.getClass())
+			return false;
+		ResultadoPerft other = (ResultadoPerft) obj;
+		return hojas == other.hojas && nodos == other.nodos
+				&& Arrays.equals(victoriasPorBloqueo, other.victoriasPorBloqueo)
+				&& Arrays.equals(victoriasPorGrupo, other.victoriasPorGrupo);
+	}
+	
+	@Override
+	public String toString() {
+		return "ResultadoPerft [nodos=" + nodos + ", hojas=" + hojas + ", finales=" + consultarFinales() + "]";
+	}
+}
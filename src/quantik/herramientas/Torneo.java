@@ -0,0 +1,249 @@
+package quantik.herramientas;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import quantik.aperturas.LibroAperturas;
+import quantik.torneo.EstadisticasTorneo;
+import quantik.torneo.OrganizadorTorneo;
+import quantik.torneo.Participante;
+import quantik.torneo.RegistroPartida;
+
+/**
+ * Torneo de todos contra todos entre jugadores artificiales, con {@link OrganizadorTorneo}.
+ * <p>
+ * Cada jugador se indica como {@code tipo[:milisegundos]}, donde el tipo es {@code aleatorio},
+ * {@code mcts} ({@link quantik.ia.MotorMcts}), {@code libro} (el mismo motor consultando el
+ * libro de aperturas) o {@code solucionador} (búsqueda con plazo de
+ * {@link quantik.solucionador.Solucionador}), y los milisegundos son el tiempo de cada jugada.
+ * Escribe cada partida en el archivo indicado, una por línea con el formato de
+ * {@link RegistroPartida#aTexto(StringBuilder)}, y al acabar muestra las estadísticas del torneo.
+ * <p>
+ * Uso: {@code java quantik.herramientas.Torneo [-jugadores tipo[:ms],...] [-rondas n] [-ms n] [-aperturas n] [-hilos n] [-megas n] [-libro fichero] [-archivo fichero] [-semilla n]}
+ * 
+ * @author <a href="apo1004@alu.ubu.es"> Amanda Pérez Olmos </a>
+ * @since 3.0
+ * @version 3.0
+ */
+public class Torneo {
+
+	/**
+	 * Jugadores por defecto.
+	 */
+	private final static String JUGADORES_POR_DEFECTO = "aleatorio,mcts,solucionador";
+	
+	/**
+	 * Número de rondas por defecto.
+	 */
+	private final static int RONDAS_POR_DEFECTO = 50;
+	
+	/**
+	 * Tiempo por defecto de cada jugada en milisegundos.
+	 */
+	private final static long MILISEGUNDOS_POR_DEFECTO = 10;
+	
+	/**
+	 * Tamaño por defecto de la tabla de transposición de cada jugador en megabytes.
+	 */
+	private final static int MEGAS_POR_DEFECTO = 16;
+	
+	/**
+	 * Archivo de partidas por defecto.
+	 */
+	private final static String ARCHIVO_POR_DEFECTO = "torneo.txt";
+	
+	/**
+	 * Muestra el uso de la herramienta.
+	 */
+	private static void mostrarUso() {
+		
+		System.err.println("Uso: Torneo [-jugadores tipo[:ms],...] [-rondas n] [-ms n] [-aperturas n] [-hilos n] [-megas n]"
+				+ " [-libro fichero] [-archivo fichero] [-semilla n]");
+		System.err.println("  -jugadores tipo[:ms],...  jugadores de entre aleatorio, mcts, libro y solucionador ("
+				+ JUGADORES_POR_DEFECTO + " por defecto)");
+		System.err.println("  -rondas n                 rondas, de dos partidas por pareja (" + RONDAS_POR_DEFECTO
+				+ " por defecto)");
+		System.err.println("  -ms n                     tiempo por jugada de los jugadores que no lo indican ("
+				+ MILISEGUNDOS_POR_DEFECTO + " por defecto)");
+		System.err.println("  -aperturas n              jugadas al azar al principio de cada partida ("
+				+ OrganizadorTorneo.APERTURAS_POR_DEFECTO + " por defecto)");
+		System.err.println("  -hilos n                  partidas simultáneas (" + Runtime.getRuntime().availableProcessors()
+				+ " por defecto)");
+		System.err.println("  -megas n                  tabla de transposición de cada solucionador en megabytes ("
+				+ MEGAS_POR_DEFECTO + " por defecto)");
+		System.err.println("  -libro fichero            libro de aperturas de los jugadores de tipo libro");
+		System.err.println("  -archivo fichero          archivo de partidas (" + ARCHIVO_POR_DEFECTO + " por defecto)");
+		System.err.println("  -semilla n                semilla de las aperturas y de los jugadores");
+	}
+	
+	/**
+	 * Crea los participantes a partir de su descripción.
+	 * 
+	 * @param descripcion lista de jugadores separados por comas
+	 * @param milisegundos tiempo por jugada de los jugadores que no lo indican
+	 * @param megas tamaño de la tabla de transposición de cada solucionador en megabytes
+	 * @param libro libro de aperturas, o null si no se ha indicado
+	 * @return participantes, con nombres distintos
+	 * @throws IllegalArgumentException si algún jugador no es válido
+	 */
+	private static List<Participante> crearParticipantes (String descripcion, long milisegundos, long megas,
+			LibroAperturas libro) {
+		
+		List<Participante> participantes = new ArrayList<>();
+		Set<String> nombres = new HashSet<>();
+		
+		for (String jugador : descripcion.split(",")) {
+			
+			String[] partes = jugador.trim().toLowerCase().split(":");
+			long ms = (partes.length > 1 ? Long.parseLong(partes[1]) : milisegundos);
+			String base = (partes[0].equals("aleatorio") ? partes[0] : partes[0] + ":" + ms);
+			String nombre = base;
+			
+			if (partes.length > 2 || ms < 1) {
+				throw new IllegalArgumentException("Jugador no válido: " + jugador);
+			}
+			for (int i = 2; !nombres.add(nombre); i++) {
+				nombre = base + "#" + i;
+			}
+			
+			switch (partes[0]) {
+				case "aleatorio":
+					participantes.add(Participante.crearAleatorio(nombre));
+					break;
+				case "mcts":
+					participantes.add(Participante.crearMcts(nombre, ms, null));
+					break;
+				case "libro":
+					if (libro == null) {
+						throw new IllegalArgumentException("Falta el libro de aperturas.");
+					}
+					participantes.add(Participante.crearMcts(nombre, ms, libro));
+					break;
+				case "solucionador":
+					participantes.add(Participante.crearSolucionador(nombre, ms, megas << 20));
+					break;
+				default:
+					throw new IllegalArgumentException("Jugador no válido: " + jugador);
+			}
+		}
+		return participantes;
+	}
+	
+	/**
+	 * Juega el torneo, escribe el archivo de partidas y muestra las estadísticas.
+	 * <p>
+	 * Termina con código 2 si los argumentos no son válidos y con código 1 si no se puede leer
+	 * el libro, escribir el archivo o falla algún jugador.
+	 * 
+	 * @param args argumentos de entrada
+	 */
+	public static void main(String[] args) {
+		
+		String jugadores = JUGADORES_POR_DEFECTO;
+		int rondas = RONDAS_POR_DEFECTO;
+		long milisegundos = MILISEGUNDOS_POR_DEFECTO;
+		int aperturas = OrganizadorTorneo.APERTURAS_POR_DEFECTO;
+		int hilos = Runtime.getRuntime().availableProcessors();
+		long megas = MEGAS_POR_DEFECTO;
+		String ficheroLibro = null;
+		String archivo = ARCHIVO_POR_DEFECTO;
+		long semilla = System.nanoTime();
+		OrganizadorTorneo organizador = null;
+		
+		try {
+			for (int i = 0; i < args.length; i++) {
+				
+				if (args[i].equalsIgnoreCase("-jugadores")) {
+					jugadores = args[++i];
+				}
+				else if (args[i].equalsIgnoreCase("-rondas")) {
+					rondas = Integer.parseInt(args[++i]);
+				}
+				else if (args[i].equalsIgnoreCase("-ms")) {
+					milisegundos = Long.parseLong(args[++i]);
+				}
+				else if (args[i].equalsIgnoreCase("-aperturas")) {
+					aperturas = Integer.parseInt(args[++i]);
+				}
+				else if (args[i].equalsIgnoreCase("-hilos")) {
+					hilos = Integer.parseInt(args[++i]);
+				}
+				else if (args[i].equalsIgnoreCase("-megas")) {
+					megas = Long.parseLong(args[++i]);
+				}
+				else if (args[i].equalsIgnoreCase("-libro")) {
+					ficheroLibro = args[++i];
+				}
+				else if (args[i].equalsIgnoreCase("-archivo")) {
+					archivo = args[++i];
+				}
+				else if (args[i].equalsIgnoreCase("-semilla")) {
+					semilla = Long.parseLong(args[++i]);
+				}
+				else {
+					throw new IllegalArgumentException("Argumento no válido: " + args[i]);
+				}
+			}
+			if (milisegundos < 1 || megas < 1) {
+				throw new IllegalArgumentException("Tiempo o tamaño de tabla no válido.");
+			}
+			
+			LibroAperturas libro = (ficheroLibro != null ? LibroAperturas.abrir(Path.of(ficheroLibro)) : null);
+			organizador = new OrganizadorTorneo(crearParticipantes(jugadores, milisegundos, megas, libro), rondas,
+					aperturas, hilos, semilla);
+		}
+		catch (IOException ex) {
+			System.err.println("No se puede leer el libro de aperturas: " + ex.getMessage());
+			System.exit(1);
+		}
+		catch (ArrayIndexOutOfBoundsException ex) {
+			System.err.println("Falta el valor del argumento " + args[args.length - 1] + ".");
+			mostrarUso();
+			System.exit(2);
+		}
+		catch (RuntimeException ex) {
+			System.err.println("Configuración del torneo no válida: " + ex.getMessage());
+			mostrarUso();
+			System.exit(2);
+		}
+		
+		System.out.printf("%d partidas entre %s con %d hilos, semilla %d%n", organizador.consultarNumeroPartidas(),
+				organizador.consultarParticipantes(), hilos, semilla);
+		
+		try (Writer escritor = Files.newBufferedWriter(Path.of(archivo), StandardCharsets.UTF_8)) {
+			
+			StringBuilder linea = new StringBuilder();
+			escritor.write(RegistroPartida.CABECERA + System.lineSeparator());
+			
+			EstadisticasTorneo estadisticas = organizador.jugar(registro -> {
+				linea.setLength(0);
+				registro.aTexto(linea).append(System.lineSeparator());
+				try {
+					escritor.append(linea);
+				}
+				catch (IOException ex) {
+					throw new UncheckedIOException(ex);
+				}
+			});
+			
+			System.out.println();
+			System.out.print(estadisticas);
+		}
+		catch (IOException | UncheckedIOException ex) {
+			System.err.println("Error al escribir el archivo de partidas: " + ex.getMessage());
+			System.exit(1);
+		}
+		catch (IllegalStateException ex) {
+			System.err.println(ex.getMessage() + (ex.getCause() != null ? ": " + ex.getCause() : ""));
+			System.exit(1);
+		}
+	}
+}
@@ -0,0 +1,7 @@
+/**
+ * Conjunto de herramientas de línea de comandos para analizar y medir el juego Quantik.
+ * 
+ * @author <a href="apo1004@alu.ubu.es"> Amanda Pérez Olmos </a>
+ * @version 3.0
+ */
+package quantik.herramientas;
\ No newline at end of file
@@ -0,0 +1,196 @@
+package quantik.ia;
+
+import quantik.modelo.Movimiento;
+
+/**
+ * Resultado de una búsqueda de {@link MotorMcts}: la jugada elegida, la distribución de visitas
+ * entre las jugadas de la raíz y las estadísticas de rendimiento.
+ * <p>
+ * Las jugadas de la raíz están ordenadas de más a menos visitadas, de modo que la primera es
+ * la elegida.
+ * 
+ * @author <a href="apo1004@alu.ubu.es"> Amanda Pérez Olmos </a>
+ * @since 3.0
+ * @version 3.0
+ */
+public class EstadisticasMcts {
+
+	/**
+	 * Número de jugadas de la raíz que se muestran en el texto.
+	 */
+	private final static int JUGADAS_EN_TEXTO = 5;
+	
+	/**
+	 * Jugadas empaquetadas de la raíz, de más a menos visitadas.
+	 */
+	private final int[] jugadas;
+	
+	/**
+	 * Visitas de cada jugada de la raíz.
+	 */
+	private final int[] visitas;
+	
+	/**
+	 * Victorias del jugador con el turno en las simulaciones de cada jugada de la raíz.
+	 */
+	private final int[] victorias;
+	
+	/**
+	 * Número total de simulaciones.
+	 */
+	private final long simulaciones;
+	
+	/**
+	 * Número de nodos del árbol, sumando todos los árboles si hay varios.
+	 */
+	private final long nodos;
+	
+	/**
+	 * Duración de la búsqueda en nanosegundos.
+	 */
+	private final long nanosegundos;
+	
+	/**
+	 * Inicializa todos los atributos, ordenando las jugadas de la raíz por visitas.
+	 * 
+	 * @param jugadas jugadas empaquetadas de la raíz
+	 * @param visitas visitas de cada jugada
+	 * @param victorias victorias del jugador con el turno en cada jugada
+	 * @param simulaciones número total de simulaciones
+	 * @param nodos número de nodos del árbol
+	 * @param nanosegundos duración de la búsqueda
+	 */
+	EstadisticasMcts (int[] jugadas, int[] visitas, int[] victorias, long simulaciones, long nodos, long nanosegundos) {
+		
+		this.jugadas = jugadas.clone();
+		this.visitas = visitas.clone();
+		this.victorias = victorias.clone();
+		this.simulaciones = simulaciones;
+		this.nodos = nodos;
+		this.nanosegundos = nanosegundos;
+		ordenarPorVisitas();
+	}
+	
+	/**
+	 * Ordena las jugadas de la raíz de más a menos visitadas por inserción, ya que son pocas.
+	 */
+	private void ordenarPorVisitas() {
+		
+		for (int i = 1; i < jugadas.length; i++) {
+			
+			int jugada = jugadas[i];
+			int visita = visitas[i];
+			int victoria = victorias[i];
+			int j = i - 1;
+			
+			for (; j >= 0 && visitas[j] < visita; j--) {
+				
+				jugadas[j + 1] = jugadas[j];
+				visitas[j + 1] = visitas[j];
+				victorias[j + 1] = victorias[j];
+			}
+			jugadas[j + 1] = jugada;
+			visitas[j + 1] = visita;
+			victorias[j + 1] = victoria;
+		}
+	}
+	
+	/**
+	 * Devuelve la jugada elegida, que es la más visitada.
+	 * 
+	 * @return jugada empaquetada según {@link Movimiento}
+	 */
+	public int consultarMejorJugada() {
+		return jugadas[0];
+	}
+	
+	/**
+	 * Devuelve el número de jugadas de la raíz.
+	 * 
+	 * @return número de jugadas legales de la posición buscada
+	 */
+	public int consultarNumeroJugadas() {
+		return jugadas.length;
+	}
+	
+	/**
+	 * Devuelve una jugada de la raíz.
+	 * 
+	 * @param indice posición de la jugada en el orden de visitas, desde 0
+	 * @return jugada empaquetada
+	 */
+	public int consultarJugada (int indice) {
+		return jugadas[indice];
+	}
+	
+	/**
+	 * Devuelve las visitas de una jugada de la raíz.
+	 * 
+	 * @param indice posición de la jugada en el orden de visitas, desde 0
+	 * @return número de simulaciones que empezaron con la jugada
+	 */
+	public int consultarVisitas (int indice) {
+		return visitas[indice];
+	}
+	
+	/**
+	 * Devuelve la proporción de simulaciones de una jugada de la raíz que ganó el jugador con
+	 * el turno.
+	 * 
+	 * @param indice posición de la jugada en el orden de visitas, desde 0
+	 * @return tasa de victorias entre 0 y 1
+	 */
+	public double consultarTasaVictorias (int indice) {
+		return (visitas[indice] == 0 ? 0.0 : (double) victorias[indice] / visitas[indice]);
+	}
+	
+	/**
+	 * Devuelve el número total de simulaciones.
+	 * 
+	 * @return simulaciones realizadas
+	 */
+	public long consultarSimulaciones() {
+		return simulaciones;
+	}
+	
+	/**
+	 * Devuelve el número de nodos del árbol, sumando todos los árboles si hay varios.
+	 * 
+	 * @return tamaño del árbol
+	 */
+	public long consultarNumeroNodos() {
+		return nodos;
+	}
+	
+	/**
+	 * Devuelve la duración de la búsqueda.
+	 * 
+	 * @return nanosegundos empleados
+	 */
+	public long consultarNanosegundos() {
+		return nanosegundos;
+	}
+	
+	/**
+	 * Devuelve la velocidad de la búsqueda.
+	 * 
+	 * @return simulaciones por segundo
+	 */
+	public double consultarSimulacionesPorSegundo() {
+		return (nanosegundos == 0 ? 0.0 : simulaciones * 1e9 / nanosegundos);
+	}
+	
+	@Override
+	public String toString() {
+		
+		StringBuilder texto = new StringBuilder(String.format("jugada=%s, simulaciones=%d (%.0f/s), nodos=%d, tiempo=%.3f s",
+				Movimiento.aTexto(consultarMejorJugada()), simulaciones, consultarSimulacionesPorSegundo(), nodos,
+				nanosegundos / 1e9));
+		
+		for (int i = 0; i < Math.min(JUGADAS_EN_TEXTO, jugadas.length); i++) {
+			texto.append(String.format("%n  %s: %d visitas, %.1f%% victorias", Movimiento.aTexto(jugadas[i]), visitas[i],
+					consultarTasaVictorias(i) * 100));
+		}
+		return texto.toString();
+	}
+}
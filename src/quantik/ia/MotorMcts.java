@@ -0,0 +1,461 @@
+package quantik.ia;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicLong;
+
+import quantik.aperturas.LibroAperturas;
+import quantik.control.Partida;
+import quantik.modelo.Movimiento;
+import quantik.modelo.TableroDeBits;
+
+/**
+ * Jugador artificial basado en búsqueda de árbol de Monte Carlo con selección UCT.
+ * <p>
+ * A diferencia del solucionador exacto, la búsqueda se puede cortar en cualquier momento y
+ * devuelve la jugada más visitada hasta entonces, por lo que sirve para jugar en tiempo real.
+ * Cada simulación:
+ * <ol>
+ * <li>Baja por el árbol eligiendo en cada nodo el hijo de mayor valor UCT.</li>
+ * <li>Amplía la hoja alcanzada si ya se había visitado antes.</li>
+ * <li>Juega al azar hasta el final, aplicando y revirtiendo jugadas sobre una partida propia
+ * del hilo. Si el jugador con el turno puede completar un grupo, la simulación acaba con su
+ * victoria sin buscar más.</li>
+ * <li>Suma la visita y, en su caso, la victoria a los nodos del camino.</li>
+ * </ol>
+ * Con varios hilos, la búsqueda se reparte según el {@link Paralelismo} indicado.
+ * <p>
+ * Un motor no debe usarse desde varios hilos a la vez.
+ * 
+ * @author <a href="apo1004@alu.ubu.es"> Amanda Pérez Olmos </a>
+ * @since 3.0
+ * @version 3.0
+ */
+public class MotorMcts {
+
+	/**
+	 * Constante de exploración por defecto de la fórmula UCT.
+	 */
+	public final static double CONSTANTE_EXPLORACION_POR_DEFECTO = Math.sqrt(2);
+	
+	/**
+	 * Número de visitas que necesita una hoja para ampliarse.
+	 */
+	private final static int UMBRAL_AMPLIACION = 2;
+	
+	/**
+	 * Número máximo de nodos del árbol, a partir del cual las hojas dejan de ampliarse para no
+	 * agotar la memoria.
+	 */
+	private final static long MAX_NODOS = 1L << 21;
+	
+	/**
+	 * Número de hilos de la búsqueda.
+	 */
+	private final int hilos;
+	
+	/**
+	 * Forma de repartir la búsqueda entre los hilos.
+	 */
+	private final Paralelismo paralelismo;
+	
+	/**
+	 * Peso del término de exploración de la fórmula UCT.
+	 */
+	private final double constanteExploracion;
+	
+	/**
+	 * Generador del que se obtiene uno independiente para cada hilo en cada búsqueda.
+	 */
+	private final SplittableRandom aleatorio;
+	
+	/**
+	 * Pool de hilos de la búsqueda, o null si se busca en el hilo que llama.
+	 */
+	private final ForkJoinPool pool;
+	
+	/**
+	 * Libro de aperturas que se consulta antes de buscar, o null si no se usa ninguno.
+	 */
+	private LibroAperturas libro;
+	
+	/**
+	 * Crea un motor de un solo hilo con la constante de exploración por defecto.
+	 */
+	public MotorMcts() {
+		this(1, Paralelismo.ARBOL, CONSTANTE_EXPLORACION_POR_DEFECTO, System.nanoTime());
+	}
+	
+	/**
+	 * Crea un motor con la configuración indicada.
+	 * <p>
+	 * Con un solo hilo y la misma semilla, la búsqueda limitada por número de simulaciones es
+	 * reproducible.
+	 * 
+	 * @param hilos número de hilos
+	 * @param paralelismo forma de repartir la búsqueda entre los hilos
+	 * @param constanteExploracion peso del término de exploración de la fórmula UCT
+	 * @param semilla semilla de las simulaciones
+	 * @throws IllegalArgumentException si el número de hilos no es positivo o la constante es negativa
+	 */
+	public MotorMcts (int hilos, Paralelismo paralelismo, double constanteExploracion, long semilla) {
+		
+		if (hilos < 1 || !(constanteExploracion >= 0)) {
+			throw new IllegalArgumentException("Configuración del motor no válida.");
+		}
+		this.hilos = hilos;
+		this.paralelismo = paralelismo;
+		this.constanteExploracion = constanteExploracion;
+		this.aleatorio = new SplittableRandom(semilla);
+		this.pool = (hilos > 1 ? new ForkJoinPool(hilos) : null);
+	}
+	
+	/**
+	 * Devuelve el número de hilos de la búsqueda.
+	 * 
+	 * @return número de hilos
+	 */
+	public int consultarNumeroHilos() {
+		return hilos;
+	}
+	
+	/**
+	 * Devuelve la forma de repartir la búsqueda entre los hilos.
+	 * 
+	 * @return paralelismo
+	 */
+	public Paralelismo consultarParalelismo() {
+		return paralelismo;
+	}
+	
+	/**
+	 * Fija el libro de aperturas que se consulta antes de buscar.
+	 * 
+	 * @param libro libro de aperturas, o null para no usar ninguno
+	 */
+	public void fijarLibro (LibroAperturas libro) {
+		this.libro = libro;
+	}
+	
+	/**
+	 * Elige la jugada del turno actual buscando durante el tiempo indicado.
+	 * <p>
+	 * Si hay libro de aperturas y según él la posición está ganada, se juega la jugada del libro
+	 * sin buscar. En una posición perdida cualquier jugada pierde contra un rival perfecto, así
+	 * que se busca igualmente para elegir la que más opciones da contra uno que no lo es.
+	 * 
+	 * @param partida partida no acabada, que no se modifica
+	 * @param milisegundos tiempo de búsqueda
+	 * @return jugada empaquetada según {@link Movimiento}
+	 */
+	public int elegirJugada (Partida partida, long milisegundos) {
+		
+		if (libro != null) {
+			
+			long entrada = libro.consultar(partida);
+			
+			if (entrada != LibroAperturas.SIN_DATOS && LibroAperturas.esVictoria(entrada)) {
+				return libro.consultarJugada(partida);
+			}
+		}
+		return buscar(partida, 0, milisegundos).consultarMejorJugada();
+	}
+	
+	/**
+	 * Busca la mejor jugada del turno actual hasta agotar el número de simulaciones o el tiempo,
+	 * lo que ocurra antes. Un límite no positivo no se tiene en cuenta.
+	 * 
+	 * @param partida partida no acabada, que no se modifica
+	 * @param maxSimulaciones número máximo de simulaciones
+	 * @param milisegundos tiempo máximo de búsqueda
+	 * @return jugada elegida y estadísticas de la búsqueda
+	 * @throws IllegalArgumentException si la partida está acabada o no hay ningún límite
+	 */
+	public EstadisticasMcts buscar (Partida partida, long maxSimulaciones, long milisegundos) {
+		
+		if (maxSimulaciones <= 0 && milisegundos <= 0) {
+			throw new IllegalArgumentException("Hace falta un límite de simulaciones o de tiempo.");
+		}
+		if (partida.estaAcabadaPartida()) {
+			throw new IllegalArgumentException("La partida está acabada.");
+		}
+		
+		long inicio = System.nanoTime();
+		long limite = (milisegundos > 0 ? inicio + milisegundos * 1_000_000L : Long.MAX_VALUE);
+		AtomicLong simulaciones = new AtomicLong();
+		AtomicLong nodos = new AtomicLong();
+		int[] buffer = new int[Movimiento.NUM_MOVIMIENTOS];
+		
+		NodoMcts[] raices = new NodoMcts[paralelismo == Paralelismo.RAIZ ? hilos : 1];
+		
+		for (int i = 0; i < raices.length; i++) {
+			
+			raices[i] = new NodoMcts(Movimiento.NINGUNO);
+			nodos.addAndGet(1 + raices[i].ampliar(partida, buffer));
+		}
+		
+		TareaMcts[] tareas = new TareaMcts[hilos];
+		
+		for (int i = 0; i < hilos; i++) {
+			tareas[i] = new TareaMcts(raices[i % raices.length], partida.clonar(), aleatorio.split(), constanteExploracion,
+					maxSimulaciones > 0 ? maxSimulaciones : Long.MAX_VALUE, limite, simulaciones, nodos);
+		}
+		
+		long realizadas = 0;
+		
+		if (pool == null) {
+			realizadas = tareas[0].invoke();
+		}
+		else {
+			for (TareaMcts tarea : tareas) {
+				pool.execute(tarea);
+			}
+			for (TareaMcts tarea : tareas) {
+				realizadas += tarea.join();
+			}
+		}
+		
+		return crearEstadisticas(raices, realizadas, nodos.get(), System.nanoTime() - inicio);
+	}
+	
+	/**
+	 * Suma las visitas y victorias de cada jugada de la raíz en todos los árboles.
+	 * <p>
+	 * Todas las raíces se amplían con las jugadas en el mismo orden, así que los hijos con el
+	 * mismo índice corresponden a la misma jugada.
+	 * 
+	 * @param raices raíces de los árboles
+	 * @param simulaciones número total de simulaciones
+	 * @param nodos número total de nodos
+	 * @param nanosegundos duración de la búsqueda
+	 * @return estadísticas de la búsqueda
+	 */
+	private static EstadisticasMcts crearEstadisticas (NodoMcts[] raices, long simulaciones, long nodos,
+			long nanosegundos) {
+		
+		NodoMcts[] hijos = raices[0].consultarHijos();
+		int[] jugadas = new int[hijos.length];
+		int[] visitas = new int[hijos.length];
+		int[] victorias = new int[hijos.length];
+		
+		for (int i = 0; i < hijos.length; i++) {
+			
+			jugadas[i] = hijos[i].consultarJugada();
+			
+			for (NodoMcts raiz : raices) {
+				
+				visitas[i] += raiz.consultarHijos()[i].consultarVisitas();
+				victorias[i] += raiz.consultarHijos()[i].consultarVictorias();
+			}
+		}
+		return new EstadisticasMcts(jugadas, visitas, victorias, simulaciones, nodos, nanosegundos);
+	}
+	
+	/**
+	 * Cierra el pool de hilos del motor.
+	 */
+	public void cerrar() {
+		
+		if (pool != null) {
+			pool.shutdown();
+		}
+	}
+	
+	/**
+	 * Tarea fork/join que realiza simulaciones desde una raíz hasta agotar los límites y
+	 * devuelve cuántas ha hecho.
+	 */
+	private static class TareaMcts extends RecursiveTask<Long> {
+		
+		/**
+		 * Identificador de versión de la serialización.
+		 */
+		private static final long serialVersionUID = 1L;
+		
+		/**
+		 * Raíz del árbol, propia o compartida con otras tareas.
+		 */
+		private final NodoMcts raiz;
+		
+		/**
+		 * Partida propia de la tarea en la posición de la raíz.
+		 */
+		private final Partida partida;
+		
+		/**
+		 * Tablero de bits de la partida propia.
+		 */
+		private final TableroDeBits bits;
+		
+		/**
+		 * Generador propio de la tarea.
+		 */
+		private final SplittableRandom aleatorio;
+		
+		/**
+		 * Peso del término de exploración de la fórmula UCT.
+		 */
+		private final double constanteExploracion;
+		
+		/**
+		 * Número máximo de simulaciones entre todas las tareas.
+		 */
+		private final long maxSimulaciones;
+		
+		/**
+		 * Instante, según {@link System#nanoTime()}, en el que se deja de simular.
+		 */
+		private final long limite;
+		
+		/**
+		 * Simulaciones empezadas por todas las tareas.
+		 */
+		private final AtomicLong simulaciones;
+		
+		/**
+		 * Nodos creados por todas las tareas.
+		 */
+		private final AtomicLong nodos;
+		
+		/**
+		 * Nodos del camino de la simulación actual, indexados por profundidad.
+		 */
+		private final NodoMcts[] camino = new NodoMcts[TableroDeBits.NUM_CASILLAS + 1];
+		
+		/**
+		 * Jugadas aplicadas en la simulación actual, en orden.
+		 */
+		private final int[] aplicadas = new int[TableroDeBits.NUM_CASILLAS];
+		
+		/**
+		 * Número de jugadas aplicadas en la simulación actual.
+		 */
+		private int numAplicadas;
+		
+		/**
+		 * Buffer de jugadas legales.
+		 */
+		private final int[] buffer = new int[Movimiento.NUM_MOVIMIENTOS];
+		
+		/**
+		 * Crea una tarea de simulación.
+		 * 
+		 * @param raiz raíz ya ampliada del árbol
+		 * @param partida partida propia en la posición de la raíz
+		 * @param aleatorio generador propio
+		 * @param constanteExploracion peso del término de exploración
+		 * @param maxSimulaciones número máximo de simulaciones entre todas las tareas
+		 * @param limite instante en el que se deja de simular
+		 * @param simulaciones contador compartido de simulaciones empezadas
+		 * @param nodos contador compartido de nodos creados
+		 */
+		TareaMcts (NodoMcts raiz, Partida partida, SplittableRandom aleatorio, double constanteExploracion,
+				long maxSimulaciones, long limite, AtomicLong simulaciones, AtomicLong nodos) {
+			
+			this.raiz = raiz;
+			this.partida = partida;
+			this.bits = partida.consultarVistaTablero().consultarTableroDeBits();
+			this.aleatorio = aleatorio;
+			this.constanteExploracion = constanteExploracion;
+			this.maxSimulaciones = maxSimulaciones;
+			this.limite = limite;
+			this.simulaciones = simulaciones;
+			this.nodos = nodos;
+		}
+		
+		@Override
+		protected Long compute() {
+			
+			long realizadas = 0;
+			
+			while (simulaciones.getAndIncrement() < maxSimulaciones && System.nanoTime() < limite) {
+				simular();
+				realizadas++;
+			}
+			return realizadas;
+		}
+		
+		/**
+		 * Realiza una simulación completa y deja la partida en la posición de la raíz.
+		 */
+		private void simular() {
+			
+			NodoMcts nodo = raiz;
+			numAplicadas = 0;
+			camino[0] = raiz;
+			raiz.visitar();
+			
+			while (true) {
+				
+				NodoMcts[] hijos = nodo.consultarHijos();
+				
+				if (hijos == null) {
+					
+					if (nodo.consultarVisitas() < UMBRAL_AMPLIACION || nodos.get() >= MAX_NODOS) {
+						break;
+					}
+					nodos.addAndGet(nodo.ampliar(partida, buffer));
+					hijos = nodo.consultarHijos();
+				}
+				if (hijos.length == 0) {
+					break;
+				}
+				
+				nodo = nodo.seleccionar(constanteExploracion);
+				nodo.visitar();
+				partida.aplicarJugada(nodo.consultarJugada());
+				aplicadas[numAplicadas++] = nodo.consultarJugada();
+				camino[numAplicadas] = nodo;
+			}
+			
+			int profundidad = numAplicadas;
+			int ultima = jugarAlAzar();
+			
+			// Gana quien hace la última jugada, así que gana cada nodo del camino cuya jugada
+			// está a un número par de jugadas de ella.
+			for (int i = profundidad; i > 0; i--) {
+				
+				if (((ultima - i) & 1) == 0) {
+					camino[i].ganar();
+				}
+			}
+			
+			for (int i = numAplicadas - 1; i >= 0; i--) {
+				partida.revertirJugada(aplicadas[i]);
+			}
+		}
+		
+		/**
+		 * Juega al azar desde la posición actual hasta el final.
+		 * <p>
+		 * Si el jugador con el turno puede completar un grupo, no se aplica la jugada: basta con
+		 * saber que será la última.
+		 * 
+		 * @return número, contado desde la raíz, de la última jugada de la partida
+		 */
+		private int jugarAlAzar() {
+			
+			if (partida.hayAlgunGrupoCompleto()) {
+				return numAplicadas;
+			}
+			
+			while (true) {
+				
+				long legales = partida.consultarJugadasLegalesEnTurnoActual();
+				
+				if (legales == 0) {
+					return numAplicadas;
+				}
+				if ((legales & bits.consultarCasillasGanadoras()) != 0) {
+					return numAplicadas + 1;
+				}
+				
+				int numJugadas = Movimiento.generar(legales, buffer, 0);
+				int jugada = buffer[aleatorio.nextInt(numJugadas)];
+				partida.aplicarJugada(jugada);
+				aplicadas[numAplicadas++] = jugada;
+			}
+		}
+	}
+}
@@ -0,0 +1,172 @@
+package quantik.ia;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import quantik.control.Partida;
+import quantik.modelo.Movimiento;
+
+/**
+ * Nodo del árbol de búsqueda de {@link MotorMcts}.
+ * <p>
+ * Cada nodo corresponde a la posición que resulta de aplicar su jugada a la del padre y guarda
+ * las visitas y las victorias del jugador que hizo esa jugada. Los contadores son atómicos y
+ * los hijos se crean todos a la vez bajo el cerrojo del nodo, de modo que varios hilos pueden
+ * recorrer y ampliar el mismo árbol.
+ * 
+ * @author <a href="apo1004@alu.ubu.es"> Amanda Pérez Olmos </a>
+ * @since 3.0
+ * @version 3.0
+ */
+final class NodoMcts {
+
+	/**
+	 * Hijos de un nodo cuya posición está acabada.
+	 */
+	private final static NodoMcts[] SIN_HIJOS = new NodoMcts[0];
+	
+	/**
+	 * Jugada empaquetada que lleva al nodo, o {@link Movimiento#NINGUNO} en la raíz.
+	 */
+	private final int jugada;
+	
+	/**
+	 * Número de simulaciones que han pasado por el nodo, incluidas las que están en curso.
+	 */
+	private final AtomicInteger visitas = new AtomicInteger();
+	
+	/**
+	 * Número de simulaciones acabadas que ha ganado el jugador que hizo la jugada del nodo.
+	 */
+	private final AtomicInteger victorias = new AtomicInteger();
+	
+	/**
+	 * Hijos del nodo, o null si todavía no se ha ampliado.
+	 */
+	private volatile NodoMcts[] hijos;
+	
+	/**
+	 * Crea un nodo sin visitas ni hijos.
+	 * 
+	 * @param jugada jugada empaquetada que lleva al nodo
+	 */
+	NodoMcts (int jugada) {
+		this.jugada = jugada;
+	}
+	
+	/**
+	 * Devuelve la jugada que lleva al nodo.
+	 * 
+	 * @return jugada empaquetada
+	 */
+	int consultarJugada() {
+		return jugada;
+	}
+	
+	/**
+	 * Devuelve el número de visitas.
+	 * 
+	 * @return visitas, incluidas las simulaciones en curso
+	 */
+	int consultarVisitas() {
+		return visitas.get();
+	}
+	
+	/**
+	 * Devuelve el número de victorias del jugador que hizo la jugada del nodo.
+	 * 
+	 * @return victorias
+	 */
+	int consultarVictorias() {
+		return victorias.get();
+	}
+	
+	/**
+	 * Devuelve los hijos del nodo.
+	 * 
+	 * @return hijos, vacío si la posición está acabada, o null si no se ha ampliado
+	 */
+	NodoMcts[] consultarHijos() {
+		return hijos;
+	}
+	
+	/**
+	 * Cuenta una visita al bajar por el nodo.
+	 */
+	void visitar() {
+		visitas.incrementAndGet();
+	}
+	
+	/**
+	 * Cuenta una victoria del jugador que hizo la jugada del nodo.
+	 */
+	void ganar() {
+		victorias.incrementAndGet();
+	}
+	
+	/**
+	 * Crea un hijo por cada jugada legal de la posición del nodo, si no lo ha hecho ya otro hilo.
+	 * 
+	 * @param partida partida en la posición del nodo
+	 * @param buffer buffer de jugadas de al menos {@value Movimiento#NUM_MOVIMIENTOS} posiciones
+	 * @return número de nodos creados
+	 */
+	int ampliar (Partida partida, int[] buffer) {
+		
+		if (hijos != null) {
+			return 0;
+		}
+		synchronized (this) {
+			
+			if (hijos != null) {
+				return 0;
+			}
+			if (partida.hayAlgunGrupoCompleto()) {
+				hijos = SIN_HIJOS;
+				return 0;
+			}
+			
+			int numJugadas = partida.generarJugadasLegalesEnTurnoActual(buffer);
+			NodoMcts[] nuevos = new NodoMcts[numJugadas];
+			
+			for (int i = 0; i < numJugadas; i++) {
+				nuevos[i] = new NodoMcts(buffer[i]);
+			}
+			hijos = nuevos;
+			return numJugadas;
+		}
+	}
+	
+	/**
+	 * Elige el hijo por el que seguir bajando según la fórmula UCT, desde el punto de vista del
+	 * jugador con el turno en el nodo, que es quien hace la jugada de los hijos.
+	 * <p>
+	 * Un hijo sin visitas se elige siempre antes que los demás.
+	 * 
+	 * @param constanteExploracion peso del término de exploración
+	 * @return hijo elegido
+	 */
+	NodoMcts seleccionar (double constanteExploracion) {
+		
+		NodoMcts[] actuales = hijos;
+		double factor = constanteExploracion * Math.sqrt(Math.log(Math.max(1, visitas.get())));
+		NodoMcts mejor = null;
+		double mejorValor = Double.NEGATIVE_INFINITY;
+		
+		for (NodoMcts hijo : actuales) {
+			
+			int visitasHijo = hijo.visitas.get();
+			
+			if (visitasHijo == 0) {
+				return hijo;
+			}
+			
+			double valor = (double) hijo.victorias.get() / visitasHijo + factor / Math.sqrt(visitasHijo);
+			
+			if (valor > mejorValor) {
+				mejorValor = valor;
+				mejor = hijo;
+			}
+		}
+		return mejor;
+	}
+}
@@ -0,0 +1,24 @@
+package quantik.ia;
+
+/**
+ * Enumeración de las formas de repartir la búsqueda de {@link MotorMcts} entre varios hilos.
+ * 
+ * @author <a href="apo1004@alu.ubu.es"> Amanda Pérez Olmos </a>
+ * @since 3.0
+ * @version 3.0
+ */
+public enum Paralelismo {
+
+	/**
+	 * Cada hilo construye su propio árbol desde la raíz y al final se suman las visitas de las
+	 * jugadas de la raíz de todos los árboles. No hay ninguna sincronización durante la búsqueda.
+	 */
+	RAIZ,
+	
+	/**
+	 * Todos los hilos comparten un único árbol. Cada nodo cuenta la visita al bajar por él y la
+	 * victoria al volver, así que mientras una simulación está en curso cuenta como derrota
+	 * (pérdida virtual) y aparta a los demás hilos de esa rama.
+	 */
+	ARBOL;
+}
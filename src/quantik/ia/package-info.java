@@ -0,0 +1,7 @@
+/**
+ * Conjunto de clases de jugadores artificiales del juego Quantik que juegan en tiempo real.
+ * 
+ * @author <a href="apo1004@alu.ubu.es"> Amanda Pérez Olmos </a>
+ * @version 3.0
+ */
+package quantik.ia;
@@ -0,0 +1,191 @@
+package quantik.lotes;
+
+import quantik.control.Partida;
+import quantik.modelo.Movimiento;
+import quantik.solucionador.ResultadoSolucion;
+import quantik.util.Color;
+
+/**
+ * Resultado de evaluar una posición de un lote: si la codificación es válida, si la partida
+ * está acabada y quién la ha ganado, cuántas jugadas legales tiene el turno actual y, si se ha
+ * pedido, su valor con juego perfecto y la mejor jugada.
+ * 
+ * @author <a href="apo1004@alu.ubu.es"> Amanda Pérez Olmos </a>
+ * @since 3.0
+ * @version 3.0
+ */
+public class EvaluacionPosicion {
+
+	/**
+	 * Codificación de partida evaluada.
+	 */
+	private final long codigo;
+	
+	/**
+	 * Indica si la codificación corresponde a una partida.
+	 */
+	private final boolean valida;
+	
+	/**
+	 * Indica si la partida está acabada.
+	 */
+	private final boolean acabada;
+	
+	/**
+	 * Color ganador si la partida está acabada, o null.
+	 */
+	private final Color ganador;
+	
+	/**
+	 * Número de jugadas legales del turno actual.
+	 */
+	private final int numJugadas;
+	
+	/**
+	 * Resultado de resolver la posición, o null si no se ha resuelto.
+	 */
+	private final ResultadoSolucion solucion;
+	
+	/**
+	 * Inicializa todos los atributos de la evaluación.
+	 * 
+	 * @param codigo codificación de partida evaluada
+	 * @param valida true si la codificación corresponde a una partida
+	 * @param acabada true si la partida está acabada
+	 * @param ganador color ganador o null
+	 * @param numJugadas número de jugadas legales del turno actual
+	 * @param solucion resultado de resolver la posición o null
+	 */
+	private EvaluacionPosicion (long codigo, boolean valida, boolean acabada, Color ganador, int numJugadas,
+			ResultadoSolucion solucion) {
+		
+		this.codigo = codigo;
+		this.valida = valida;
+		this.acabada = acabada;
+		this.ganador = ganador;
+		this.numJugadas = numJugadas;
+		this.solucion = solucion;
+	}
+	
+	/**
+	 * Crea la evaluación de una codificación que no corresponde a ninguna partida.
+	 * 
+	 * @param codigo codificación leída
+	 * @return evaluación inválida
+	 */
+	static EvaluacionPosicion crearInvalida (long codigo) {
+		return new EvaluacionPosicion(codigo, false, false, null, 0, null);
+	}
+	
+	/**
+	 * Crea la evaluación de una partida.
+	 * 
+	 * @param codigo codificación de la partida
+	 * @param partida partida decodificada
+	 * @param solucion resultado de resolver la posición, o null si no se ha resuelto
+	 * @return evaluación de la partida
+	 */
+	static EvaluacionPosicion crear (long codigo, Partida partida, ResultadoSolucion solucion) {
+		
+		boolean acabada = partida.estaAcabadaPartida();
+		
+		return new EvaluacionPosicion(codigo, true, acabada, partida.consultarGanador(),
+				acabada ? 0 : partida.contarJugadasLegalesEnTurnoActual(), solucion);
+	}
+	
+	/**
+	 * Devuelve la codificación de partida evaluada.
+	 * 
+	 * @return codificación leída de la entrada
+	 */
+	public long consultarCodigo() {
+		return codigo;
+	}
+	
+	/**
+	 * Comprueba si la codificación corresponde a una partida.
+	 * 
+	 * @return true si es válida y false en caso contrario
+	 */
+	public boolean esValida() {
+		return valida;
+	}
+	
+	/**
+	 * Comprueba si la partida está acabada.
+	 * 
+	 * @return true si está acabada y false si no o si la codificación no es válida
+	 */
+	public boolean estaAcabada() {
+		return acabada;
+	}
+	
+	/**
+	 * Devuelve el color que ha ganado la partida.
+	 * 
+	 * @return color ganador, o null si la partida no está acabada
+	 */
+	public Color consultarGanador() {
+		return ganador;
+	}
+	
+	/**
+	 * Devuelve el número de jugadas legales del turno actual.
+	 * 
+	 * @return número de jugadas, 0 si la partida está acabada
+	 */
+	public int consultarNumeroJugadas() {
+		return numJugadas;
+	}
+	
+	/**
+	 * Comprueba si se ha resuelto la posición.
+	 * 
+	 * @return true si hay valor con juego perfecto y false en caso contrario
+	 */
+	public boolean estaResuelta() {
+		return solucion != null;
+	}
+	
+	/**
+	 * Devuelve el resultado de resolver la posición.
+	 * 
+	 * @return resultado del solucionador, o null si no se ha resuelto
+	 */
+	public ResultadoSolucion consultarSolucion() {
+		return solucion;
+	}
+	
+	/**
+	 * Escribe la evaluación como una línea de texto con campos separados por tabuladores:
+	 * codificación, estado ({@code jugando}, {@code acabada} o {@code invalida}), letra del
+	 * color ganador o {@code -}, número de jugadas legales y, si se ha resuelto, {@code gana} o
+	 * {@code pierde} para el jugador con el turno y la mejor jugada.
+	 * 
+	 * @param destino texto al que se añade la línea, sin salto de línea
+	 * @return el mismo texto recibido
+	 */
+	public StringBuilder aTexto (StringBuilder destino) {
+		
+		destino.append(codigo).append('\t');
+		
+		if (!valida) {
+			return destino.append("invalida");
+		}
+		
+		destino.append(acabada ? "acabada" : "jugando").append('\t');
+		destino.append(ganador == null ? '-' : ganador.toChar()).append('\t');
+		destino.append(numJugadas);
+		
+		if (solucion != null) {
+			destino.append('\t').append(solucion.esVictoria() ? "gana" : "pierde");
+			destino.append('\t').append(Movimiento.aTexto(solucion.consultarMejorJugada()));
+		}
+		return destino;
+	}
+	
+	@Override
+	public String toString() {
+		return aTexto(new StringBuilder()).toString();
+	}
+}
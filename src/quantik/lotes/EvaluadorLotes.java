@@ -0,0 +1,211 @@
+package quantik.lotes;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Consumer;
+
+import quantik.control.Partida;
+import quantik.solucionador.Solucionador;
+import quantik.transposicion.TablaTransposicion;
+
+/**
+ * Evaluación en paralelo de un flujo de posiciones, con los resultados en el orden de entrada.
+ * <p>
+ * Las posiciones se leen por bloques de {@value #TAMAÑO_BLOQUE} y cada bloque se evalúa en una
+ * tarea de un {@link ForkJoinPool}, mientras el hilo que llama sigue leyendo. Los resultados
+ * se entregan bloque a bloque en el mismo orden en que se leyeron, y como nunca hay más de
+ * {@link #consultarMaxBloquesEnCurso()} bloques leídos y sin entregar, la memoria no depende
+ * del tamaño de la entrada. Si la entrega se retrasa respecto a la evaluación, la lectura se
+ * detiene hasta que se libera un hueco.
+ * <p>
+ * Si se pide resolver las posiciones, cada tarea usa su propio {@link Solucionador} y todas
+ * comparten una {@link TablaTransposicion}, de modo que las posiciones de un lote que
+ * comparten sucesoras se benefician de las ya resueltas.
+ * <p>
+ * Un evaluador no debe usarse desde varios hilos a la vez.
+ * 
+ * @author <a href="apo1004@alu.ubu.es"> Amanda Pérez Olmos </a>
+ * @since 3.0
+ * @version 3.0
+ */
+public class EvaluadorLotes {
+
+	/**
+	 * Número de posiciones de cada bloque.
+	 */
+	public final static int TAMAÑO_BLOQUE = 1024;
+	
+	/**
+	 * Número de bloques en curso por cada hilo, para que ninguno se quede sin trabajo mientras
+	 * se entregan los resultados.
+	 */
+	private final static int BLOQUES_POR_HILO = 4;
+	
+	/**
+	 * Pool de hilos en el que se evalúan los bloques.
+	 */
+	private final ForkJoinPool pool;
+	
+	/**
+	 * Tabla de transposición compartida por los solucionadores, o null si no se resuelven las
+	 * posiciones.
+	 */
+	private final TablaTransposicion tabla;
+	
+	/**
+	 * Número máximo de bloques leídos y sin entregar.
+	 */
+	private final int maxBloquesEnCurso;
+	
+	/**
+	 * Crea un evaluador que no resuelve las posiciones.
+	 * 
+	 * @param hilos número de hilos
+	 */
+	public EvaluadorLotes (int hilos) {
+		this(hilos, 0);
+	}
+	
+	/**
+	 * Crea un evaluador.
+	 * 
+	 * @param hilos número de hilos
+	 * @param bytesTabla tamaño en bytes de la tabla de transposición con la que se resuelven
+	 * las posiciones, o 0 para no resolverlas
+	 */
+	public EvaluadorLotes (int hilos, long bytesTabla) {
+		
+		pool = new ForkJoinPool(hilos);
+		tabla = (bytesTabla > 0 ? new TablaTransposicion(bytesTabla) : null);
+		maxBloquesEnCurso = hilos * BLOQUES_POR_HILO;
+	}
+	
+	/**
+	 * Indica si el evaluador resuelve las posiciones.
+	 * 
+	 * @return true si calcula el valor con juego perfecto y false en caso contrario
+	 */
+	public boolean resuelvePosiciones() {
+		return tabla != null;
+	}
+	
+	/**
+	 * Devuelve el número máximo de bloques leídos cuyos resultados no se han entregado todavía.
+	 * 
+	 * @return número de bloques
+	 */
+	public int consultarMaxBloquesEnCurso() {
+		return maxBloquesEnCurso;
+	}
+	
+	/**
+	 * Evalúa todas las posiciones de una entrada y entrega los resultados en el mismo orden.
+	 * 
+	 * @param entrada lector de las posiciones
+	 * @param salida destino de los resultados, al que se llama siempre desde el hilo actual
+	 * @return número de posiciones evaluadas
+	 * @throws IOException si no se puede leer la entrada
+	 */
+	public long evaluar (LectorPosiciones entrada, Consumer<EvaluacionPosicion> salida) throws IOException {
+		
+		Deque<ForkJoinTask<EvaluacionPosicion[]>> enCurso = new ArrayDeque<>();
+		long numPosiciones = 0;
+		
+		if (tabla != null) {
+			tabla.iniciarBusqueda();
+		}
+		
+		try {
+			while (true) {
+				
+				long[] codigos = new long[TAMAÑO_BLOQUE];
+				int leidas = entrada.leer(codigos);
+				
+				if (leidas == 0) {
+					break;
+				}
+				if (enCurso.size() == maxBloquesEnCurso) {
+					numPosiciones += entregar(enCurso.removeFirst(), salida);
+				}
+				enCurso.addLast(pool.submit(() -> evaluarBloque(codigos, leidas)));
+			}
+			
+			while (!enCurso.isEmpty()) {
+				numPosiciones += entregar(enCurso.removeFirst(), salida);
+			}
+		}
+		finally {
+			for (ForkJoinTask<EvaluacionPosicion[]> tarea : enCurso) {
+				tarea.cancel(false);
+			}
+		}
+		return numPosiciones;
+	}
+	
+	/**
+	 * Espera a que acabe un bloque y entrega sus resultados.
+	 * 
+	 * @param tarea tarea del bloque
+	 * @param salida destino de los resultados
+	 * @return número de resultados entregados
+	 */
+	private static int entregar (ForkJoinTask<EvaluacionPosicion[]> tarea, Consumer<EvaluacionPosicion> salida) {
+		
+		EvaluacionPosicion[] resultados = tarea.join();
+		
+		for (EvaluacionPosicion resultado : resultados) {
+			salida.accept(resultado);
+		}
+		return resultados.length;
+	}
+	
+	/**
+	 * Evalúa un bloque de posiciones.
+	 * 
+	 * @param codigos codificaciones del bloque
+	 * @param numCodigos número de codificaciones leídas
+	 * @return evaluaciones en el mismo orden
+	 */
+	private EvaluacionPosicion[] evaluarBloque (long[] codigos, int numCodigos) {
+		
+		Solucionador solucionador = (tabla != null ? new Solucionador(tabla) : null);
+		EvaluacionPosicion[] resultados = new EvaluacionPosicion[numCodigos];
+		
+		for (int i = 0; i < numCodigos; i++) {
+			resultados[i] = evaluarPosicion(codigos[i], solucionador);
+		}
+		return resultados;
+	}
+	
+	/**
+	 * Evalúa una posición.
+	 * 
+	 * @param codigo codificación de la partida
+	 * @param solucionador solucionador con el que se resuelve la posición si no está acabada, o
+	 * null para no resolverla
+	 * @return evaluación de la posición, inválida si la codificación no corresponde a ninguna partida
+	 */
+	public static EvaluacionPosicion evaluarPosicion (long codigo, Solucionador solucionador) {
+		
+		Partida partida;
+		
+		try {
+			partida = Partida.decodificar(codigo);
+		}
+		catch (IllegalArgumentException ex) {
+			return EvaluacionPosicion.crearInvalida(codigo);
+		}
+		return EvaluacionPosicion.crear(codigo, partida,
+				solucionador != null && !partida.estaAcabadaPartida() ? solucionador.resolver(partida) : null);
+	}
+	
+	/**
+	 * Detiene los hilos del evaluador. No se debe usar después.
+	 */
+	public void cerrar() {
+		pool.shutdown();
+	}
+}
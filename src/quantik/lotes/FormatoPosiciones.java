@@ -0,0 +1,21 @@
+package quantik.lotes;
+
+/**
+ * Enumeración de los formatos en los que {@link LectorPosiciones} lee las posiciones.
+ * 
+ * @author <a href="apo1004@alu.ubu.es"> Amanda Pérez Olmos </a>
+ * @since 3.0
+ * @version 3.0
+ */
+public enum FormatoPosiciones {
+
+	/**
+	 * Una codificación de partida por línea, en decimal. Las líneas en blanco se ignoran.
+	 */
+	TEXTO,
+	
+	/**
+	 * Codificaciones de partida seguidas, cada una en ocho bytes con el más significativo primero.
+	 */
+	BINARIO;
+}
@@ -0,0 +1,150 @@
+package quantik.lotes;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import quantik.control.Partida;
+
+/**
+ * Lectura por bloques de codificaciones de partida ({@link Partida#codificar()}) desde un flujo
+ * de entrada, en cualquiera de los {@link FormatoPosiciones}.
+ * <p>
+ * Una línea de texto que no es un número se lee como {@link #CODIGO_INVALIDO}, de modo que no
+ * interrumpe la lectura y su evaluación la marca como inválida. El lector no cierra el flujo.
+ * 
+ * @author <a href="apo1004@alu.ubu.es"> Amanda Pérez Olmos </a>
+ * @since 3.0
+ * @version 3.0
+ */
+public class LectorPosiciones {
+
+	/**
+	 * Codificación con la que se lee una línea de texto que no es un número. Es negativa, así
+	 * que no corresponde a ninguna partida.
+	 */
+	public final static long CODIGO_INVALIDO = -1L;
+	
+	/**
+	 * Formato de la entrada.
+	 */
+	private final FormatoPosiciones formato;
+	
+	/**
+	 * Lector de líneas de la entrada en formato de texto, o null en formato binario.
+	 */
+	private final BufferedReader lineas;
+	
+	/**
+	 * Flujo de la entrada en formato binario, o null en formato de texto.
+	 */
+	private final InputStream bytes;
+	
+	/**
+	 * Buffer de lectura de la entrada en formato binario, o null en formato de texto.
+	 */
+	private byte[] buffer;
+	
+	/**
+	 * Crea un lector sobre un flujo de entrada.
+	 * 
+	 * @param entrada flujo de entrada
+	 * @param formato formato de las posiciones
+	 */
+	public LectorPosiciones (InputStream entrada, FormatoPosiciones formato) {
+		
+		this.formato = formato;
+		
+		if (formato == FormatoPosiciones.TEXTO) {
+			lineas = new BufferedReader(new InputStreamReader(entrada, StandardCharsets.US_ASCII));
+			bytes = null;
+		}
+		else {
+			lineas = null;
+			bytes = entrada;
+		}
+	}
+	
+	/**
+	 * Devuelve el formato de la entrada.
+	 * 
+	 * @return formato de las posiciones
+	 */
+	public FormatoPosiciones consultarFormato() {
+		return formato;
+	}
+	
+	/**
+	 * Lee las siguientes posiciones de la entrada hasta llenar el buffer o acabarla.
+	 * 
+	 * @param codigos buffer donde se escriben las codificaciones desde la primera posición
+	 * @return número de posiciones leídas, 0 al final de la entrada
+	 * @throws IOException si no se puede leer la entrada o, en formato binario, acaba con una
+	 * codificación incompleta
+	 */
+	public int leer (long[] codigos) throws IOException {
+		return (formato == FormatoPosiciones.TEXTO ? leerTexto(codigos) : leerBinario(codigos));
+	}
+	
+	/**
+	 * Lee posiciones en formato de texto.
+	 * 
+	 * @param codigos buffer de codificaciones
+	 * @return número de posiciones leídas
+	 * @throws IOException si no se puede leer la entrada
+	 */
+	private int leerTexto (long[] codigos) throws IOException {
+		
+		int leidas = 0;
+		String linea;
+		
+		while (leidas < codigos.length && (linea = lineas.readLine()) != null) {
+			
+			linea = linea.trim();
+			
+			if (linea.isEmpty()) {
+				continue;
+			}
+			try {
+				codigos[leidas] = Long.parseLong(linea);
+			}
+			catch (NumberFormatException ex) {
+				codigos[leidas] = CODIGO_INVALIDO;
+			}
+			leidas++;
+		}
+		return leidas;
+	}
+	
+	/**
+	 * Lee posiciones en formato binario.
+	 * 
+	 * @param codigos buffer de codificaciones
+	 * @return número de posiciones leídas
+	 * @throws IOException si no se puede leer la entrada o acaba con una codificación incompleta
+	 */
+	private int leerBinario (long[] codigos) throws IOException {
+		
+		if (buffer == null || buffer.length != codigos.length * Long.BYTES) {
+			buffer = new byte[codigos.length * Long.BYTES];
+		}
+		
+		int numBytes = bytes.readNBytes(buffer, 0, buffer.length);
+		
+		if (numBytes % Long.BYTES != 0) {
+			throw new IOException("La entrada binaria acaba con una codificación incompleta de " + numBytes % Long.BYTES
+					+ " bytes.");
+		}
+		
+		ByteBuffer datos = ByteBuffer.wrap(buffer, 0, numBytes);
+		int leidas = numBytes / Long.BYTES;
+		
+		for (int i = 0; i < leidas; i++) {
+			codigos[i] = datos.getLong();
+		}
+		return leidas;
+	}
+}
@@ -0,0 +1,7 @@
+/**
+ * Conjunto de clases para evaluar en paralelo grandes lotes de posiciones del juego Quantik.
+ * 
+ * @author <a href="apo1004@alu.ubu.es"> Amanda Pérez Olmos </a>
+ * @version 3.0
+ */
+package quantik.lotes;
@@ -1,6 +1,7 @@
 package quantik.modelo;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Objects;
 
@@ -9,17 +10,30 @@ import quantik.util.Figura;
 
 /**
  * Caja que contiene las figuras de cada jugador.
+ * <p>
+ * En lugar de guardar las piezas se lleva la cuenta de las que quedan de cada figura, de
+ * forma que todas las consultas y la retirada de piezas son de coste constante.
  * 
  * @author <a href="apo1004@alu.ubu.es"> Amanda Pérez Olmos </a>
  * @since 1.0
- * @version 2.0
+ * @version 3.0
  */
-public class Caja {
+public class Caja implements VistaCaja {
 	
 	/**
-	 * Piezas que se encuentran en la caja.
+	 * Número de piezas de cada figura que quedan en la caja, indexado por el ordinal de la figura.
 	 */
-	private List<Pieza> piezas;
+	private int[] cantidades;
+	
+	/**
+	 * Número total de piezas que quedan en la caja.
+	 */
+	private int numPiezas;
+	
+	/**
+	 * Máscara de las figuras con alguna pieza en la caja, con un bit por ordinal de figura.
+	 */
+	private int figurasDisponibles;
 	
 	/**
 	 * Color de las piezas de la caja.
@@ -29,7 +43,17 @@ public class Caja {
 	/**
 	 * Número de figuras de cada tipo que se encuentran en la caja.
 	 */
-	private final static int NUM_FIGURAS_TIPO = 2;
+	public final static int NUM_FIGURAS_TIPO = 2;
+	
+	/**
+	 * Número de bits que ocupa en la codificación el número de piezas de cada figura.
+	 */
+	private final static int BITS_POR_CANTIDAD = 2;
+	
+	/**
+	 * Posición del bit del color en la codificación.
+	 */
+	private final static int BIT_COLOR = 8;
 	
 	/**
 	 * Carga la caja con piezas del color que corresponda.
@@ -38,15 +62,25 @@ public class Caja {
 	 */
 	public Caja (Color color) {
 		
-		piezas = new ArrayList<>();
+		cantidades = new int[Movimiento.FIGURAS.length];
 		this.color = color;
 		
-		for (Figura figuraActual : Figura.values()) {
-			
-			for (int i = 0; i < NUM_FIGURAS_TIPO; i++) {
-				piezas.add(new Pieza (figuraActual,color));
-			}
-		}
+		Arrays.fill(cantidades, NUM_FIGURAS_TIPO);
+		numPiezas = NUM_FIGURAS_TIPO * Movimiento.FIGURAS.length;
+		figurasDisponibles = (1 << Movimiento.FIGURAS.length) - 1;
+	}
+	
+	/**
+	 * Copia en profundidad otra caja, sin pasar por el llenado de una caja nueva.
+	 * 
+	 * @param original caja que se copia
+	 */
+	private Caja (Caja original) {
+		
+		cantidades = original.cantidades.clone();
+		color = original.color;
+		numPiezas = original.numPiezas;
+		figurasDisponibles = original.figurasDisponibles;
 	}
 	
 	/**
@@ -55,21 +89,19 @@ public class Caja {
 	 * @return clon de la caja
 	 */
 	public Caja clonar() {
-		
-		Caja cajaClon = new Caja(color);
-		List<Pieza> piezasClon = new ArrayList<>();
-		
-		for (Pieza piezaActual : piezas) {
-			
-			if (piezaActual != null) {
-				piezasClon.add(piezaActual.clonar());
-			}
-			else {
-				piezasClon.add(null);
-			}
-		}
-		cajaClon.piezas = piezasClon;
-		return cajaClon;
+		return new Caja(this);
+	}
+	
+	/**
+	 * Crea una vista de solo lectura de la caja.
+	 * <p>
+	 * La vista refleja los cambios posteriores de la caja, pero a diferencia de ella no se puede
+	 * convertir a {@link Caja} para modificarla.
+	 * 
+	 * @return vista de la caja
+	 */
+	public VistaCaja crearVista() {
+		return new Vista(this);
 	}
 	
 	/**
@@ -77,26 +109,46 @@ public class Caja {
 	 * 
 	 * @return color de las piezas
 	 */
+	@Override
 	public Color consultarColor() {
 		return color;
 	}
 	
 	/**
-	 * Devuelve una lista genérica con clones en profundidad de las piezas disponibles en la caja.
+	 * Consulta las figuras de las que queda alguna pieza en la caja.
+	 * 
+	 * @return máscara de 4 bits donde el bit de ordinal de cada figura indica si está disponible
+	 */
+	@Override
+	public int consultarFigurasDisponibles() {
+		return figurasDisponibles;
+	}
+	
+	@Override
+	public int consultarNumeroPiezas (Figura figura) {
+		return cantidades[figura.ordinal()];
+	}
+	
+	/**
+	 * Devuelve una lista genérica con las piezas disponibles en la caja, que son inmutables
+	 * y compartidas.
 	 * 
-	 * @return lista clon de las piezas disponibles
+	 * @return lista de las piezas disponibles
 	 */
+	@Override
 	public List<Pieza> consultarPiezasDisponibles() {
 		
-		List<Pieza> piezasClon = new ArrayList<>();
+		List<Pieza> piezasDisponibles = new ArrayList<>(numPiezas);
 		
-		for (Pieza piezaActual : piezas) {
+		for (Figura figuraActual : Movimiento.FIGURAS) {
 			
-			if (piezaActual != null) {
-				piezasClon.add(piezaActual.clonar());
+			Pieza pieza = Pieza.obtener(figuraActual, color);
+			
+			for (int i = 0; i < cantidades[figuraActual.ordinal()]; i++) {
+				piezasDisponibles.add(pieza);
 			}
 		}
-		return piezasClon;
+		return piezasDisponibles;
 	}
 	
 	/**
@@ -104,34 +156,93 @@ public class Caja {
 	 * 
 	 * @return número de piezas actuales en la caja
 	 */
+	@Override
 	public int contarPiezasActuales() {
+		return numPiezas;
+	}
+	
+	/**
+	 * Consulta si existe una pieza disponible con la figura dada.
+	 * 
+	 * @param figura tipo de la figura que debe ser la pieza
+	 * @return true si está disponible y false si no lo está
+	 */
+	@Override
+	public boolean estaDisponible (Figura figura) {
+		return figura != null && (figurasDisponibles & (1 << figura.ordinal())) != 0;
+	}
+	
+	/**
+	 * Codifica el contenido de la caja en un long.
+	 * <p>
+	 * Los bits {@code [2 * f, 2 * f + 1]} guardan el número de piezas de la figura de ordinal
+	 * {@code f} y el bit 8 el ordinal del color.
+	 * 
+	 * @return codificación de la caja
+	 */
+	public long codificar() {
+		
+		long codigo = (long) color.ordinal() << BIT_COLOR;
+		
+		for (int f = 0; f < cantidades.length; f++) {
+			codigo |= (long) cantidades[f] << (f * BITS_POR_CANTIDAD);
+		}
+		return codigo;
+	}
+	
+	/**
+	 * Crea una caja a partir de su codificación, de modo que
+	 * {@code Caja.decodificar(c.codificar())} es igual a {@code c}.
+	 * 
+	 * @param codigo codificación obtenida con {@link #codificar()}
+	 * @return caja con el contenido codificado
+	 * @throws IllegalArgumentException si el valor no es una codificación de caja
+	 */
+	public static Caja decodificar (long codigo) {
 		
-		int contador = 0;
+		if (codigo < 0 || codigo >>> (BIT_COLOR + 1) != 0) {
+			throw new IllegalArgumentException("Codificación de caja fuera de rango: " + codigo);
+		}
 		
-		for (Pieza piezaActual : piezas) {
+		Caja caja = new Caja(Color.values()[(int) (codigo >>> BIT_COLOR)]);
+		
+		for (Figura figuraActual : Movimiento.FIGURAS) {
+			
+			int cantidad = (int) (codigo >>> (figuraActual.ordinal() * BITS_POR_CANTIDAD)) & ((1 << BITS_POR_CANTIDAD) - 1);
 			
-			if (piezaActual != null) {
-				contador++;
+			if (cantidad > NUM_FIGURAS_TIPO) {
+				throw new IllegalArgumentException("Codificación de caja con demasiadas piezas: " + codigo);
+			}
+			for (int i = cantidad; i < NUM_FIGURAS_TIPO; i++) {
+				caja.retirar(figuraActual);
 			}
 		}
-		return contador;
+		return caja;
 	}
 	
 	/**
-	 * Consulta si existe una pieza disponible con la figura dada.
+	 * Devuelve a la caja una pieza con la figura indicada, retirada previamente.
 	 * 
-	 * @param figura tipo de la figura que debe ser la pieza
-	 * @return true si está disponible y false si no lo está
+	 * @param figura figura de la pieza que se devuelve
+	 * @throws IllegalStateException si la caja ya tiene todas las piezas de esa figura
 	 */
-	public boolean estaDisponible (Figura figura) {
-		return piezas.contains(new Pieza(figura,color));
+	public void devolver (Figura figura) {
+		
+		int ordinal = figura.ordinal();
+		
+		if (cantidades[ordinal] == NUM_FIGURAS_TIPO) {
+			throw new IllegalStateException("La caja ya contiene todas las piezas de la figura " + figura + ".");
+		}
+		cantidades[ordinal]++;
+		numPiezas++;
+		figurasDisponibles |= 1 << ordinal;
 	}
 	
 	/**
 	 * Extrae una pieza con la figura indicada de la caja.
 	 * 
 	 * @param figura pieza que se quiere retirar
-	 * @return clon de la pieza extraída o null si no está disponible
+	 * @return pieza extraída o null si no está disponible
 	 */
 	public Pieza retirar (Figura figura) {
 		
@@ -139,22 +250,22 @@ public class Caja {
 		
 		if (estaDisponible(figura)) {
 			
-			for (int i = 0; i < piezas.size(); i++) {
-				
-				if (piezas.get(i) != null && piezas.get(i).consultarFigura() == figura) {
-
-					piezaExtraida = piezas.get(i);
-					piezas.set(i, null);
-					return piezaExtraida;
-				}
+			int ordinal = figura.ordinal();
+			
+			cantidades[ordinal]--;
+			numPiezas--;
+			
+			if (cantidades[ordinal] == 0) {
+				figurasDisponibles &= ~(1 << ordinal);
 			}
+			piezaExtraida = Pieza.obtener(figura, color);
 		}
 		return piezaExtraida;
 	}
 
 	@Override
 	public int hashCode() {
-		return Objects.hash(color, piezas);
+		return Objects.hash(color, Arrays.hashCode(cantidades));
 	}
 
 	@Override
@@ -166,11 +277,66 @@ public class Caja {
 		if (getClass() != obj.getClass())
 			return false;
 		Caja other = (Caja) obj;
-		return color == other.color && Objects.equals(piezas, other.piezas);
+		return color == other.color && Arrays.equals(cantidades, other.cantidades);
 	}
 
 	@Override
 	public String toString() {
-		return "Caja [piezas=" + piezas + ", color=" + color + "]";
+		return "Caja [cantidades=" + Arrays.toString(cantidades) + ", color=" + color + "]";
+	}
+	
+	/**
+	 * Vista de solo lectura de una caja, que delega todas las consultas en ella.
+	 */
+	private final static class Vista implements VistaCaja {
+		
+		/**
+		 * Caja observada.
+		 */
+		private final Caja caja;
+		
+		/**
+		 * Crea la vista de una caja.
+		 * 
+		 * @param caja caja observada
+		 */
+		Vista (Caja caja) {
+			this.caja = caja;
+		}
+		
+		@Override
+		public Color consultarColor() {
+			return caja.consultarColor();
+		}
+		
+		@Override
+		public int consultarFigurasDisponibles() {
+			return caja.consultarFigurasDisponibles();
+		}
+		
+		@Override
+		public int consultarNumeroPiezas (Figura figura) {
+			return caja.consultarNumeroPiezas(figura);
+		}
+		
+		@Override
+		public List<Pieza> consultarPiezasDisponibles() {
+			return caja.consultarPiezasDisponibles();
+		}
+		
+		@Override
+		public int contarPiezasActuales() {
+			return caja.contarPiezasActuales();
+		}
+		
+		@Override
+		public boolean estaDisponible (Figura figura) {
+			return caja.estaDisponible(figura);
+		}
+		
+		@Override
+		public String toString() {
+			return caja.toString();
+		}
 	}
 }
@@ -6,7 +6,8 @@ import java.util.Objects;
  * Representa una celda del tablero.
  * 
  * @author <a href="apo1004@alu.ubu.es"> Amanda Pérez Olmos </a>
- * @version 1.0
+ * @since 1.0
+ * @version 3.0
  */
 public class Celda {
 
@@ -38,18 +39,15 @@ public class Celda {
 	
 	/**
 	 * Clona en profundidad una celda.
+	 * <p>
+	 * La pieza, al ser inmutable, se comparte con el clon.
 	 * 
 	 * @return clon de la celda
 	 */
 	public Celda clonar() {
 		
 		Celda celdaClon = new Celda (fila, columna);
-		Pieza piezaClon = null;
-		
-		if (!estaVacia()) {
-			piezaClon = pieza.clonar();
-		}
-		celdaClon.colocar(piezaClon);
+		celdaClon.colocar(pieza);
 		return celdaClon;
 	}
 	
@@ -81,12 +79,12 @@ public class Celda {
 	}
 	
 	/**
-	 * Devuelve un clon de la pieza que se encuentra en la celda.
+	 * Devuelve la pieza que se encuentra en la celda, que es inmutable y compartida.
 	 * 
-	 * @return pieza de la celda
+	 * @return pieza de la celda o null si está vacía
 	 */
 	public Pieza consultarPieza() {
-		return (pieza == null) ? pieza : pieza.clonar();
+		return pieza;
 	}
 	
 	/**
@@ -95,7 +93,7 @@ public class Celda {
 	 * @return true en caso de estar vacía y false en caso contrario.
 	 */
 	public boolean estaVacia() {
-		return consultarPieza() == null;
+		return pieza == null;
 	}
 
 	@Override
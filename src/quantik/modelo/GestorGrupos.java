@@ -10,117 +10,232 @@ import quantik.util.Figura;
 
 /**
  * Gestión de los grupos del tablero.
+ * <p>
+ * La disposición de los grupos (filas, columnas y cuadrados) es la misma para cualquier
+ * tablero, por lo que se calcula una sola vez y se comparte entre todos los gestores. Cada
+ * casilla se identifica por su índice {@code fila * 4 + columna}.
  * 
  * @author <a href="apo1004@alu.ubu.es"> Amanda Pérez Olmos </a>
  * @since 1.0
- * @version 2.0
+ * @version 3.0
  */
 public class GestorGrupos {
 
 	/**
-	 * Grupos que hay en el tablero.
+	 * Valor constante del número de grupos del tablero.
+	 */
+	public final static int NUM_GRUPOS = 12;
+	
+	/**
+	 * Valor constante del número de grupos a los que pertenece cada casilla.
+	 */
+	public final static int NUM_GRUPOS_POR_CASILLA = 3;
+	
+	/**
+	 * Índices de las casillas de cada grupo: primero las filas, luego las columnas y
+	 * por último los cuadrados.
+	 */
+	final static int[][] CASILLAS_DE_GRUPO = generarCasillasDeGrupo();
+	
+	/**
+	 * Índices de los grupos a los que pertenece cada casilla.
+	 */
+	final static int[][] GRUPOS_DE_CASILLA = generarGruposDeCasilla();
+	
+	/**
+	 * Máscaras de bits de las casillas de cada grupo.
+	 */
+	final static int[] MASCARAS_GRUPOS = generarMascarasGrupos();
+	
+	/**
+	 * Para cada casilla, máscara con la unión de las casillas de todos sus grupos.
+	 */
+	final static int[] MASCARAS_VECINAS = generarMascarasVecinas();
+	
+	/**
+	 * Grupos que hay en el tablero, creados solo cuando se consultan.
 	 */
 	private List<Grupo> grupos;
 	
 	/**
-	 * Crea los grupos con las respectivas celdas contenidas en el tablero pasado como argumento.
+	 * Tablero donde se encuentran las celdas de los grupos.
+	 */
+	private Tablero tablero;
+	
+	/**
+	 * Representación en bits del tablero cuyos grupos se gestionan.
+	 */
+	private TableroDeBits bits;
+	
+	/**
+	 * Asocia el gestor al tablero pasado como argumento.
+	 * <p>
+	 * No se reconstruye la disposición de los grupos, que es compartida.
 	 * 
 	 * @param tablero tablero donde se encuentran las celdas pertenecientes a los grupos
 	 */
 	public GestorGrupos (Tablero tablero) {
 		
-		grupos = new ArrayList<>();
+		this.tablero = tablero;
+		bits = tablero.consultarTableroDeBits();
+	}
+	
+	/**
+	 * Genera los índices de las casillas de todos los grupos del tablero.
+	 * 
+	 * @return casillas de cada grupo
+	 */
+	private static int[][] generarCasillasDeGrupo() {
+		
+		List<int[]> casillasDeGrupo = new ArrayList<>();
+		
+		generarGruposHorizontales(casillasDeGrupo);
+		generarGruposVerticales(casillasDeGrupo);
+		generarGruposCuadrados(casillasDeGrupo);
 		
-		generarGruposHorizontales(tablero);
-		generarGruposVerticales(tablero);
-		generarGruposCuadrados(tablero);
+		return casillasDeGrupo.toArray(new int[NUM_GRUPOS][]);
 	}
 	
 	/**
-	 * Genera grupos horizontales en un tablero.
+	 * Genera los grupos horizontales del tablero.
 	 * 
-	 * @param tablero tablero donde se encuentran las celdas pertenecientes a los grupos
+	 * @param casillasDeGrupo lista donde se añaden las casillas de cada grupo
+	 */
+	private static void generarGruposHorizontales (List<int[]> casillasDeGrupo) {
+		
+		for (int fila = 0; fila < TableroDeBits.NUM_FILAS; fila++) {
+			
+			int[] casillas = new int[TableroDeBits.NUM_COLUMNAS];
+			
+			for (int columna = 0; columna < TableroDeBits.NUM_COLUMNAS; columna++) {
+				casillas[columna] = TableroDeBits.calcularCasilla(fila, columna);
+			}
+			casillasDeGrupo.add(casillas);
+		}
+	}
+	
+	/**
+	 * Genera los grupos verticales del tablero.
+	 * 
+	 * @param casillasDeGrupo lista donde se añaden las casillas de cada grupo
 	 */
-	private void generarGruposHorizontales (Tablero tablero) {
+	private static void generarGruposVerticales (List<int[]> casillasDeGrupo) {
 		
-		List<Celda> celdasActuales = new ArrayList<>();
-		int numFilas = tablero.consultarNumeroFilas();
-		int numColumnas = tablero.consultarNumeroColumnas();
+		for (int columna = 0; columna < TableroDeBits.NUM_COLUMNAS; columna++) {
+			
+			int[] casillas = new int[TableroDeBits.NUM_FILAS];
+			
+			for (int fila = 0; fila < TableroDeBits.NUM_FILAS; fila++) {
+				casillas[fila] = TableroDeBits.calcularCasilla(fila, columna);
+			}
+			casillasDeGrupo.add(casillas);
+		}
+	}
+	
+	/**
+	 * Genera los grupos cuadrados del tablero.
+	 * 
+	 * @param casillasDeGrupo lista donde se añaden las casillas de cada grupo
+	 */
+	private static void generarGruposCuadrados (List<int[]> casillasDeGrupo) {
 		
-		for (int fila = 0; fila < numFilas; fila++) {
-			for (int columna = 0; columna < numColumnas; columna++) {
+		for (int filaStart = 0; filaStart < TableroDeBits.NUM_FILAS; filaStart += 2) {
+			for (int columnaStart = 0; columnaStart < TableroDeBits.NUM_COLUMNAS; columnaStart += 2) {
 				
-				try {
-					celdasActuales.add(tablero.obtenerCelda(fila, columna));
-				}
-				catch (CoordenadasIncorrectasException ex) {
-					throw new RuntimeException("Error grave en el código.",ex);
+				int[] casillas = new int[4];
+				int indice = 0;
+				
+				for (int fila = filaStart; fila < filaStart + 2; fila++) {
+					for (int columna = columnaStart; columna < columnaStart + 2; columna++) {
+						casillas[indice++] = TableroDeBits.calcularCasilla(fila, columna);
+					}
 				}
+				casillasDeGrupo.add(casillas);
 			}
-			grupos.add(new Grupo(celdasActuales));
-			celdasActuales.clear();
 		}
 	}
 	
 	/**
-	 * Genera grupos verticales en un tablero.
+	 * Genera, para cada casilla, los índices de los grupos que la contienen.
 	 * 
-	 * @param tablero tablero donde se encuentran las celdas pertenecientes a los grupos
+	 * @return grupos de cada casilla
 	 */
-	private void generarGruposVerticales (Tablero tablero) {
+	private static int[][] generarGruposDeCasilla() {
 		
-		List<Celda> celdasActuales = new ArrayList<>();
-		int numFilas = tablero.consultarNumeroFilas();
-		int numColumnas = tablero.consultarNumeroColumnas();
+		int[][] gruposDeCasilla = new int[TableroDeBits.NUM_CASILLAS][NUM_GRUPOS_POR_CASILLA];
+		int[] contadores = new int[TableroDeBits.NUM_CASILLAS];
 		
-		for (int columna = 0; columna < numColumnas; columna++) {
-			for (int fila = 0; fila < numFilas; fila++) {
-				
-				try {
-					celdasActuales.add(tablero.obtenerCelda(fila, columna));
-				}
-				catch (CoordenadasIncorrectasException ex) {
-					throw new RuntimeException("Error grave en el código.",ex);
-				}
+		for (int grupo = 0; grupo < NUM_GRUPOS; grupo++) {
+			for (int casilla : CASILLAS_DE_GRUPO[grupo]) {
+				gruposDeCasilla[casilla][contadores[casilla]++] = grupo;
 			}
-			grupos.add(new Grupo(celdasActuales));
-			celdasActuales.clear();
 		}
+		return gruposDeCasilla;
 	}
 	
 	/**
-	 * Genera grupos cuadrados en un tablero.
+	 * Genera las máscaras de bits de cada grupo.
 	 * 
-	 * @param tablero tablero donde se encuentran las celdas pertenecientes a los grupos
+	 * @return máscaras de los grupos
 	 */
-	private void generarGruposCuadrados (Tablero tablero) {
+	private static int[] generarMascarasGrupos() {
 		
-		List<Celda> celdasActuales = new ArrayList<>();
-		int numFilas = tablero.consultarNumeroFilas();
-		int numColumnas = tablero.consultarNumeroColumnas();
-		int limiteFila, limiteCol;
+		int[] mascaras = new int[NUM_GRUPOS];
 		
-		for (int filaStart = 0; filaStart < numFilas; filaStart += 2) {
-			for (int columnaStart = 0; columnaStart < numColumnas; columnaStart += 2) {
-				
-				limiteFila = filaStart + 2;
-				limiteCol = columnaStart + 2;
-								
-				for (int fila = filaStart; fila < limiteFila; fila++) {
-					for (int columna = columnaStart; columna < limiteCol; columna++) {
-						
-						try {
-							celdasActuales.add(tablero.obtenerCelda(fila, columna));
-						}
-						catch (CoordenadasIncorrectasException ex) {
-							throw new RuntimeException("Error grave en el código.",ex);
-						}
+		for (int grupo = 0; grupo < NUM_GRUPOS; grupo++) {
+			for (int casilla : CASILLAS_DE_GRUPO[grupo]) {
+				mascaras[grupo] |= 1 << casilla;
+			}
+		}
+		return mascaras;
+	}
+	
+	/**
+	 * Genera, para cada casilla, la unión de las casillas de los grupos a los que pertenece.
+	 * 
+	 * @return máscaras de casillas vecinas
+	 */
+	private static int[] generarMascarasVecinas() {
+		
+		int[] mascaras = new int[TableroDeBits.NUM_CASILLAS];
+		
+		for (int casilla = 0; casilla < TableroDeBits.NUM_CASILLAS; casilla++) {
+			for (int grupo : GRUPOS_DE_CASILLA[casilla]) {
+				mascaras[casilla] |= MASCARAS_GRUPOS[grupo];
+			}
+		}
+		return mascaras;
+	}
+	
+	/**
+	 * Crea los grupos con las celdas del tablero a partir de la disposición compartida.
+	 * 
+	 * @return grupos del tablero
+	 */
+	private List<Grupo> obtenerGrupos() {
+		
+		if (grupos == null) {
+			
+			List<Grupo> gruposNuevos = new ArrayList<>();
+			List<Celda> celdasActuales = new ArrayList<>();
+			
+			for (int grupo = 0; grupo < NUM_GRUPOS; grupo++) {
+				for (int casilla : CASILLAS_DE_GRUPO[grupo]) {
+					
+					try {
+						celdasActuales.add(tablero.obtenerCelda(casilla / TableroDeBits.NUM_COLUMNAS,
+								casilla % TableroDeBits.NUM_COLUMNAS));
+					}
+					catch (CoordenadasIncorrectasException ex) {
+						throw new RuntimeException("Error grave en el código.",ex);
 					}
 				}
-				grupos.add(new Grupo(celdasActuales));
+				gruposNuevos.add(new Grupo(celdasActuales, bits, grupo));
 				celdasActuales.clear();
 			}
+			grupos = gruposNuevos;
 		}
+		return grupos;
 	}
 	
 	/**
@@ -136,13 +251,8 @@ public class GestorGrupos {
 	 */
 	public boolean hayConflictoEnGruposDeCelda (Celda celda, Figura figura, Color turno) {
 		
-		for (Grupo grupoActual : obtenerGruposConteniendoCelda(celda)) {
-			
-			if (grupoActual.existeMismaPiezaDelColorContrario(figura, turno)) {
-				return true;
-			}
-		}
-		return false;
+		int casilla = TableroDeBits.calcularCasilla(celda.consultarFila(), celda.consultarColumna());
+		return bits.hayConflicto(casilla, figura, turno);
 	}
 	
 	/**
@@ -151,40 +261,38 @@ public class GestorGrupos {
 	 * @return true si hay un grupo y false si no hay ninguno
 	 */
 	public boolean hayGrupoGanador() {
-		
-		for (Grupo grupoActual : grupos) {
-			
-			if (grupoActual.estaCompletoConFigurasDiferentes()) {
-				return true;
-			}
-		}
-		return false;
+		return bits.hayGrupoGanador();
 	}
 	
 	/**
 	 * Obtiene los grupos que contienen a la celda pasada como argumento.
+	 * <p>
+	 * Los grupos se localizan por las coordenadas de la celda mediante el índice de grupos
+	 * por casilla, sin recorrer el resto de grupos.
 	 * 
 	 * @param celda celda que deben contener los grupos
-	 * @return grupos con esa celda
+	 * @return grupos con esa celda, o lista vacía si está fuera del tablero
 	 */
 	public List<Grupo> obtenerGruposConteniendoCelda (Celda celda) {
 		
 		List<Grupo> gruposContienen = new ArrayList<>();
 		
-		for (Grupo grupoActual : grupos) {
+		if (tablero.estaEnTablero(celda.consultarFila(), celda.consultarColumna())) {
+			
+			int casilla = TableroDeBits.calcularCasilla(celda.consultarFila(), celda.consultarColumna());
 			
-			if (grupoActual.contieneCelda(celda)) {
-				gruposContienen.add(grupoActual);
+			for (int grupo : GRUPOS_DE_CASILLA[casilla]) {
+				gruposContienen.add(obtenerGrupos().get(grupo));
 			}
 		}
 		return gruposContienen;
 	}
-
+	
 	@Override
 	public int hashCode() {
-		return Objects.hash(grupos);
+		return Objects.hash(tablero);
 	}
-
+	
 	@Override
 	public boolean equals(Object obj) {
 		if (this == obj)
@@ -194,11 +302,11 @@ public class GestorGrupos {
 		if (getClass() != obj.getClass())
 			return false;
 		GestorGrupos other = (GestorGrupos) obj;
-		return Objects.equals(grupos, other.grupos);
+		return Objects.equals(tablero, other.tablero);
 	}
-
+	
 	@Override
 	public String toString() {
-		return "GestorGrupos [grupos=" + grupos + "]";
+		return "GestorGrupos [grupos=" + obtenerGrupos() + "]";
 	}
 }
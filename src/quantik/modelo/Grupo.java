@@ -9,10 +9,13 @@ import quantik.util.Figura;
 
 /**
  * Cuatro celdas del tablero que representan un grupo.
+ * <p>
+ * Los grupos creados por {@link GestorGrupos} consultan el número de piezas y las figuras
+ * presentes en el estado incremental del tablero de bits, en lugar de recorrer sus celdas.
  * 
  * @author <a href="apo1004@alu.ubu.es"> Amanda Pérez Olmos </a>
  * @since 1.0
- * @version 2.0
+ * @version 3.0
  */
 public class Grupo {
 
@@ -26,6 +29,16 @@ public class Grupo {
 	 */
 	private final static int NUM_CELDAS_EN_GRUPO = 4;
 	
+	/**
+	 * Tablero de bits que mantiene el estado del grupo, o null si el grupo es independiente.
+	 */
+	private TableroDeBits bits;
+	
+	/**
+	 * Índice del grupo en el tablero de bits.
+	 */
+	private int indice;
+	
 	/**
 	 * Inicializa un grupo con las referencias a las celdas del tablero que lo conforman.
 	 * 
@@ -40,6 +53,20 @@ public class Grupo {
 		}
 	}
 	
+	/**
+	 * Inicializa un grupo del tablero cuyo estado se mantiene en el tablero de bits.
+	 * 
+	 * @param celdas celdas que pertenecen al grupo
+	 * @param bits tablero de bits del tablero al que pertenecen las celdas
+	 * @param indice índice del grupo según {@link GestorGrupos}
+	 */
+	Grupo (List<Celda> celdas, TableroDeBits bits, int indice) {
+		
+		this(celdas);
+		this.bits = bits;
+		this.indice = indice;
+	}
+	
 	/**
 	 * Clona en profundidad el grupo actual.
 	 * 
@@ -71,6 +98,10 @@ public class Grupo {
 	 */
 	public int consultarNumeroPiezas() {
 		
+		if (bits != null) {
+			return bits.consultarNumeroPiezasGrupo(indice);
+		}
+		
 		int contador = 0;
 		
 		for (Celda celdaActual : celdas) {
@@ -99,19 +130,21 @@ public class Grupo {
 	 */
 	public boolean estaCompletoConFigurasDiferentes() {
 		
-		if (consultarNumeroPiezas() == NUM_CELDAS_EN_GRUPO) {
+		if (bits != null) {
+			return bits.esGrupoGanador(indice);
+		}
+		
+		// Se acumula una máscara con un bit por figura, sin comparar las piezas dos a dos.
+		int figuras = 0;
+		
+		for (Celda celdaActual : celdas) {
 			
-			for (int i = 0; i < celdas.size() - 1; i++) {
-				for (int j = i + 1; j < celdas.size(); j++) {
-					
-					if (celdas.get(i).consultarPieza().consultarFigura() == celdas.get(j).consultarPieza().consultarFigura()) {
-						return false;
-					}
-				}
+			if (celdaActual.estaVacia()) {
+				return false;
 			}
-			return true;
+			figuras |= 1 << celdaActual.consultarPieza().consultarFigura().ordinal();
 		}
-		return false;
+		return celdas.size() == NUM_CELDAS_EN_GRUPO && Integer.bitCount(figuras) == NUM_CELDAS_EN_GRUPO;
 	}
 	
 	/**
@@ -125,7 +158,7 @@ public class Grupo {
 
 		for (Celda celdaActual : celdas) {
 			
-			if (!celdaActual.estaVacia() && celdaActual.consultarPieza().equals(new Pieza(figura,color.obtenerContrario()))) {
+			if (!celdaActual.estaVacia() && celdaActual.consultarPieza().equals(Pieza.obtener(figura,color.obtenerContrario()))) {
 				return true;
 			}
 		}
@@ -0,0 +1,152 @@
+package quantik.modelo;
+
+import quantik.util.Figura;
+
+/**
+ * Operaciones sobre jugadas empaquetadas en un int.
+ * <p>
+ * Una jugada es el valor {@code casilla * 4 + figura}, donde la casilla es
+ * {@code fila * 4 + columna} y la figura es su ordinal. Ocupa 6 bits, así que todas las
+ * jugadas posibles están entre 0 y {@value #NUM_MOVIMIENTOS} - 1 y se pueden guardar en
+ * arrays de enteros sin crear objetos. La clase solo contiene métodos estáticos.
+ * 
+ * @author <a href="apo1004@alu.ubu.es"> Amanda Pérez Olmos </a>
+ * @since 3.0
+ * @version 3.0
+ */
+public final class Movimiento {
+
+	/**
+	 * Número de jugadas distintas, que es el tamaño suficiente de cualquier buffer de jugadas.
+	 */
+	public final static int NUM_MOVIMIENTOS = TableroDeBits.NUM_CASILLAS * 4;
+	
+	/**
+	 * Valor que indica la ausencia de jugada.
+	 */
+	public final static int NINGUNO = -1;
+	
+	/**
+	 * Figuras del juego indexadas por su ordinal, que es el código de figura de las jugadas.
+	 * Se comparte para no crear un array en cada recorrido y no debe modificarse.
+	 */
+	public final static Figura[] FIGURAS = Figura.values();
+	
+	/**
+	 * Impide crear instancias.
+	 */
+	private Movimiento() {
+	}
+	
+	/**
+	 * Empaqueta una jugada a partir de su casilla y su figura.
+	 * 
+	 * @param casilla índice de la casilla
+	 * @param figura figura de la pieza
+	 * @return jugada empaquetada
+	 */
+	public static int empaquetar (int casilla, Figura figura) {
+		return casilla << 2 | figura.ordinal();
+	}
+	
+	/**
+	 * Empaqueta una jugada a partir de sus coordenadas y su figura.
+	 * 
+	 * @param fila fila de la celda
+	 * @param columna columna de la celda
+	 * @param figura figura de la pieza
+	 * @return jugada empaquetada
+	 */
+	public static int empaquetar (int fila, int columna, Figura figura) {
+		return empaquetar(TableroDeBits.calcularCasilla(fila, columna), figura);
+	}
+	
+	/**
+	 * Comprueba si un valor es una jugada empaquetada.
+	 * 
+	 * @param movimiento valor a comprobar
+	 * @return true si es una jugada y false en caso contrario
+	 */
+	public static boolean esValido (int movimiento) {
+		return movimiento >= 0 && movimiento < NUM_MOVIMIENTOS;
+	}
+	
+	/**
+	 * Obtiene la casilla de una jugada.
+	 * 
+	 * @param movimiento jugada empaquetada
+	 * @return índice de la casilla
+	 */
+	public static int consultarCasilla (int movimiento) {
+		return movimiento >>> 2;
+	}
+	
+	/**
+	 * Obtiene la fila de una jugada.
+	 * 
+	 * @param movimiento jugada empaquetada
+	 * @return fila de la celda
+	 */
+	public static int consultarFila (int movimiento) {
+		return consultarCasilla(movimiento) / TableroDeBits.NUM_COLUMNAS;
+	}
+	
+	/**
+	 * Obtiene la columna de una jugada.
+	 * 
+	 * @param movimiento jugada empaquetada
+	 * @return columna de la celda
+	 */
+	public static int consultarColumna (int movimiento) {
+		return consultarCasilla(movimiento) % TableroDeBits.NUM_COLUMNAS;
+	}
+	
+	/**
+	 * Obtiene la figura de una jugada.
+	 * 
+	 * @param movimiento jugada empaquetada
+	 * @return figura de la pieza
+	 */
+	public static Figura consultarFigura (int movimiento) {
+		return FIGURAS[movimiento & 3];
+	}
+	
+	/**
+	 * Rellena un buffer con las jugadas de unas máscaras de casillas legales por figura, como
+	 * las de {@link TableroDeBits#consultarCasillasLegales(quantik.util.Color, int)}.
+	 * <p>
+	 * Las jugadas quedan ordenadas por figura y, dentro de cada figura, por casilla. No crea
+	 * ningún objeto.
+	 * 
+	 * @param legales máscaras de 16 bits de casillas legales de cada figura
+	 * @param buffer array donde se escriben las jugadas, de al menos {@code Long.bitCount(legales)} posiciones
+	 * @param inicio primera posición del buffer que se escribe
+	 * @return número de jugadas escritas
+	 */
+	public static int generar (long legales, int[] buffer, int inicio) {
+		
+		int numJugadas = 0;
+		
+		while (legales != 0) {
+			
+			int bit = Long.numberOfTrailingZeros(legales);
+			buffer[inicio + numJugadas++] = (bit % TableroDeBits.BITS_POR_FIGURA) << 2 | bit / TableroDeBits.BITS_POR_FIGURA;
+			legales &= legales - 1;
+		}
+		return numJugadas;
+	}
+	
+	/**
+	 * Obtiene el texto de una jugada como figura y coordenadas.
+	 * 
+	 * @param movimiento jugada empaquetada
+	 * @return texto de la jugada
+	 */
+	public static String aTexto (int movimiento) {
+		
+		if (!esValido(movimiento)) {
+			return "-";
+		}
+		return consultarFigura(movimiento).aTexto() + " (" + consultarFila(movimiento) + "," + consultarColumna(movimiento) + ")";
+	}
+}
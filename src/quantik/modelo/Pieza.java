@@ -7,21 +7,30 @@ import quantik.util.Figura;
 
 /**
  * Representa una pieza del juego.
+ * <p>
+ * Las piezas son inmutables y solo existen ocho, una por cada combinación de figura y color,
+ * que se obtienen con {@link #obtener(Figura, Color)} y se comparten en todo el juego.
  * 
  * @author <a href="apo1004@alu.ubu.es"> Amanda Pérez Olmos </a>
- * @version 1.0
+ * @since 1.0
+ * @version 3.0
  */
-public class Pieza {
+public final class Pieza {
 
+	/**
+	 * Piezas compartidas, indexadas por ordinal de figura y de color.
+	 */
+	private final static Pieza[][] PIEZAS = generarPiezas();
+	
 	/**
 	 * Figura que representa la pieza.
 	 */
-	private Figura figura;
+	private final Figura figura;
 	
 	/**
 	 * Color de la pieza.
 	 */
-	private Color color;
+	private final Color color;
 	
 	/**
 	 * Constructor que inicializa la figura y el color de la pieza.
@@ -29,11 +38,39 @@ public class Pieza {
 	 * @param figura figura que tendrá la nueva pieza
 	 * @param color color de la nueva pieza
 	 */
-	public Pieza (Figura figura, Color color) {
+	private Pieza (Figura figura, Color color) {
 		this.figura = figura;
 		this.color = color;
 	}
 	
+	/**
+	 * Crea las ocho piezas compartidas.
+	 * 
+	 * @return piezas indexadas por ordinal de figura y de color
+	 */
+	private static Pieza[][] generarPiezas() {
+		
+		Pieza[][] piezas = new Pieza[Figura.values().length][Color.values().length];
+		
+		for (Figura figuraActual : Figura.values()) {
+			for (Color colorActual : Color.values()) {
+				piezas[figuraActual.ordinal()][colorActual.ordinal()] = new Pieza(figuraActual, colorActual);
+			}
+		}
+		return piezas;
+	}
+	
+	/**
+	 * Obtiene la pieza compartida con la figura y el color indicados.
+	 * 
+	 * @param figura figura de la pieza
+	 * @param color color de la pieza
+	 * @return pieza con esa figura y color
+	 */
+	public static Pieza obtener (Figura figura, Color color) {
+		return PIEZAS[figura.ordinal()][color.ordinal()];
+	}
+	
 	/**
 	 * Concatenación del texto asociado a la figura y el texto asociado al color.
 	 * 
@@ -45,11 +82,13 @@ public class Pieza {
 	
 	/**
 	 * Clona una pieza.
+	 * <p>
+	 * Al ser inmutable, la propia pieza hace de clon.
 	 * 
-	 * @return clon de la pieza actual
+	 * @return la pieza actual
 	 */
 	public Pieza clonar() {
-		return new Pieza(this.figura, this.color);
+		return this;
 	}
 	
 	/**
@@ -0,0 +1,436 @@
+package quantik.modelo;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+import quantik.util.Color;
+import quantik.util.Figura;
+
+/**
+ * Transformación que conserva las reglas del juego, usada para reducir cada posición a una
+ * forma canónica.
+ * <p>
+ * Combina tres simetrías independientes:
+ * <ul>
+ * <li>Una de las {@value #NUM_TRANSFORMACIONES_TABLERO} transformaciones del tablero que
+ * llevan grupos en grupos: intercambiar las dos filas de una misma mitad, intercambiar las
+ * mitades superior e inferior, lo mismo con las columnas y, por último, trasponer.</li>
+ * <li>Una permutación de las cuatro figuras.</li>
+ * <li>El intercambio de colores, que se aplica cuando el turno es de las negras para que la
+ * forma canónica siempre tenga el turno de las blancas.</li>
+ * </ul>
+ * La forma canónica de una posición es la de menor codificación ({@link TableroDeBits#codificar()})
+ * entre todas sus transformadas, y es la misma para todas las posiciones equivalentes. Las
+ * jugadas, empaquetadas según {@link Movimiento}, se pueden llevar a la forma
+ * canónica y traer de vuelta con {@link #transformarJugada(int)} y {@link #deshacerJugada(int)}.
+ * 
+ * @author <a href="apo1004@alu.ubu.es"> Amanda Pérez Olmos </a>
+ * @since 3.0
+ * @version 3.0
+ */
+public final class Simetria {
+
+	/**
+	 * Número de transformaciones del tablero que conservan los grupos.
+	 */
+	public final static int NUM_TRANSFORMACIONES_TABLERO = 128;
+	
+	/**
+	 * Casilla de destino de cada casilla para cada transformación del tablero.
+	 */
+	private final static int[][] DESTINOS = generarDestinos();
+	
+	/**
+	 * Casilla de origen de cada casilla para cada transformación del tablero.
+	 */
+	private final static int[][] ORIGENES = generarOrigenes();
+	
+	/**
+	 * Índice de la transformación del tablero.
+	 */
+	private final int transformacion;
+	
+	/**
+	 * Ordinal de la figura en la que se transforma cada figura.
+	 */
+	private final int[] figuras;
+	
+	/**
+	 * Ordinal de la figura de la que procede cada figura transformada.
+	 */
+	private final int[] figurasInversas;
+	
+	/**
+	 * Indica si se intercambian los colores.
+	 */
+	private final boolean cambioColor;
+	
+	/**
+	 * Crea una simetría a partir de sus tres componentes.
+	 * 
+	 * @param transformacion índice de la transformación del tablero
+	 * @param figuras ordinal de la figura en la que se transforma cada figura
+	 * @param cambioColor true si se intercambian los colores
+	 */
+	private Simetria (int transformacion, int[] figuras, boolean cambioColor) {
+		
+		this.transformacion = transformacion;
+		this.figuras = figuras;
+		this.cambioColor = cambioColor;
+		figurasInversas = new int[figuras.length];
+		
+		for (int f = 0; f < figuras.length; f++) {
+			figurasInversas[figuras[f]] = f;
+		}
+	}
+	
+	/**
+	 * Transforma una fila o columna según tres bits: el primero intercambia las dos de la
+	 * primera mitad, el segundo las dos de la segunda mitad y el tercero intercambia las mitades.
+	 * 
+	 * @param linea índice de la fila o columna
+	 * @param bits bits de la transformación
+	 * @return índice transformado
+	 */
+	private static int transformarLinea (int linea, int bits) {
+		
+		int mitad = linea / 2;
+		int posicion = linea % 2;
+		
+		if ((bits & (1 << mitad)) != 0) {
+			posicion ^= 1;
+		}
+		if ((bits & 4) != 0) {
+			mitad ^= 1;
+		}
+		return mitad * 2 + posicion;
+	}
+	
+	/**
+	 * Genera la casilla de destino de cada casilla en cada transformación del tablero.
+	 * <p>
+	 * Los tres bits menores del índice transforman las columnas, los tres siguientes las filas
+	 * y el último traspone el tablero. El índice 0 es la identidad.
+	 * 
+	 * @return destinos indexados por transformación y casilla
+	 */
+	private static int[][] generarDestinos() {
+		
+		int[][] destinos = new int[NUM_TRANSFORMACIONES_TABLERO][TableroDeBits.NUM_CASILLAS];
+		
+		for (int t = 0; t < NUM_TRANSFORMACIONES_TABLERO; t++) {
+			for (int casilla = 0; casilla < TableroDeBits.NUM_CASILLAS; casilla++) {
+				
+				int fila = transformarLinea(casilla / TableroDeBits.NUM_COLUMNAS, (t >> 3) & 7);
+				int columna = transformarLinea(casilla % TableroDeBits.NUM_COLUMNAS, t & 7);
+				
+				destinos[t][casilla] = ((t & 64) == 0 ? TableroDeBits.calcularCasilla(fila, columna)
+						: TableroDeBits.calcularCasilla(columna, fila));
+			}
+		}
+		return destinos;
+	}
+	
+	/**
+	 * Genera la inversa de cada transformación del tablero.
+	 * 
+	 * @return orígenes indexados por transformación y casilla
+	 */
+	private static int[][] generarOrigenes() {
+		
+		int[][] origenes = new int[NUM_TRANSFORMACIONES_TABLERO][TableroDeBits.NUM_CASILLAS];
+		
+		for (int t = 0; t < NUM_TRANSFORMACIONES_TABLERO; t++) {
+			for (int casilla = 0; casilla < TableroDeBits.NUM_CASILLAS; casilla++) {
+				origenes[t][DESTINOS[t][casilla]] = casilla;
+			}
+		}
+		return origenes;
+	}
+	
+	/**
+	 * Obtiene el contenido de cada casilla de un tablero, en el formato de la codificación.
+	 * 
+	 * @param bits tablero de bits
+	 * @return contenidos indexados por casilla
+	 */
+	private static int[] obtenerContenidos (TableroDeBits bits) {
+		
+		int[] contenidos = new int[TableroDeBits.NUM_CASILLAS];
+		
+		for (Figura figura : Movimiento.FIGURAS) {
+			for (Color color : Color.values()) {
+				
+				int mascara = bits.consultarMascara(figura, color);
+				
+				while (mascara != 0) {
+					contenidos[Integer.numberOfTrailingZeros(mascara)] = TableroDeBits.calcularContenido(figura, color);
+					mascara &= mascara - 1;
+				}
+			}
+		}
+		return contenidos;
+	}
+	
+	/**
+	 * Codifica un tablero tras aplicarle una transformación y renombrar las figuras por orden
+	 * de aparición, empezando por la casilla más significativa de la codificación.
+	 * <p>
+	 * Como las cifras ya calculadas no cambian, en cuanto la codificación parcial supera a la
+	 * cota se sabe que la completa también lo hará y se abandona.
+	 * 
+	 * @param contenidos contenido de cada casilla del tablero original
+	 * @param transformacion índice de la transformación del tablero
+	 * @param cambioColor 1 si se intercambian los colores y 0 si no
+	 * @param figuras array donde se deja la figura asignada a cada figura original, o -1 si no aparece
+	 * @param cota codificación que se quiere mejorar
+	 * @return codificación del tablero transformado, o {@link Long#MAX_VALUE} si supera a la cota
+	 */
+	private static long codificarTransformado (int[] contenidos, int transformacion, int cambioColor, int[] figuras,
+			long cota) {
+		
+		Arrays.fill(figuras, -1);
+		int siguiente = 0;
+		long codigo = 0;
+		
+		for (int casilla = TableroDeBits.NUM_CASILLAS - 1; casilla >= 0; casilla--) {
+			
+			int contenido = contenidos[ORIGENES[transformacion][casilla]];
+			codigo *= TableroDeBits.NUM_CONTENIDOS;
+			
+			if (contenido != 0) {
+				
+				int figura = (contenido - 1) / 2;
+				
+				if (figuras[figura] < 0) {
+					figuras[figura] = siguiente++;
+				}
+				codigo += 1 + figuras[figura] * 2 + (((contenido - 1) % 2) ^ cambioColor);
+				
+				if (codigo * TableroDeBits.calcularPotencia(casilla) > cota) {
+					return Long.MAX_VALUE;
+				}
+			}
+		}
+		return codigo;
+	}
+	
+	/**
+	 * Obtiene la simetría que lleva una posición a su forma canónica.
+	 * 
+	 * @param bits tablero de la posición
+	 * @param turno color del jugador con el turno
+	 * @return simetría que transforma la posición en su forma canónica
+	 */
+	public static Simetria obtenerCanonica (TableroDeBits bits, Color turno) {
+		
+		int[] contenidos = obtenerContenidos(bits);
+		int cambioColor = (turno == Color.NEGRO ? 1 : 0);
+		int[] figuras = new int[Movimiento.FIGURAS.length];
+		int mejorTransformacion = 0;
+		long mejorCodigo = Long.MAX_VALUE;
+		
+		for (int t = 0; t < NUM_TRANSFORMACIONES_TABLERO; t++) {
+			
+			long codigo = codificarTransformado(contenidos, t, cambioColor, figuras, mejorCodigo);
+			
+			if (codigo < mejorCodigo) {
+				mejorCodigo = codigo;
+				mejorTransformacion = t;
+			}
+		}
+		
+		codificarTransformado(contenidos, mejorTransformacion, cambioColor, figuras, Long.MAX_VALUE);
+		completarFiguras(figuras);
+		return new Simetria(mejorTransformacion, figuras, cambioColor == 1);
+	}
+	
+	/**
+	 * Calcula la codificación de la forma canónica de una posición, que es la misma para todas
+	 * las posiciones equivalentes por simetría.
+	 * 
+	 * @param bits tablero de la posición
+	 * @param turno color del jugador con el turno
+	 * @return codificación del tablero canónico, con el turno de las blancas
+	 */
+	public static long calcularCodigoCanonico (TableroDeBits bits, Color turno) {
+		
+		int[] contenidos = obtenerContenidos(bits);
+		int cambioColor = (turno == Color.NEGRO ? 1 : 0);
+		int[] figuras = new int[Movimiento.FIGURAS.length];
+		long mejorCodigo = Long.MAX_VALUE;
+		
+		for (int t = 0; t < NUM_TRANSFORMACIONES_TABLERO; t++) {
+			mejorCodigo = Math.min(mejorCodigo, codificarTransformado(contenidos, t, cambioColor, figuras, mejorCodigo));
+		}
+		return mejorCodigo;
+	}
+	
+	/**
+	 * Asigna a las figuras que no aparecen en el tablero las figuras libres, en orden.
+	 * 
+	 * @param figuras figura asignada a cada figura original, o -1 si no tiene
+	 */
+	private static void completarFiguras (int[] figuras) {
+		
+		int usadas = 0;
+		
+		for (int figura : figuras) {
+			if (figura >= 0) {
+				usadas |= 1 << figura;
+			}
+		}
+		for (int f = 0; f < figuras.length; f++) {
+			if (figuras[f] < 0) {
+				figuras[f] = Integer.numberOfTrailingZeros(~usadas);
+				usadas |= 1 << figuras[f];
+			}
+		}
+	}
+	
+	/**
+	 * Transforma una casilla.
+	 * 
+	 * @param casilla índice de la casilla original
+	 * @return índice de la casilla transformada
+	 */
+	public int transformarCasilla (int casilla) {
+		return DESTINOS[transformacion][casilla];
+	}
+	
+	/**
+	 * Deshace la transformación de una casilla.
+	 * 
+	 * @param casilla índice de la casilla transformada
+	 * @return índice de la casilla original
+	 */
+	public int deshacerCasilla (int casilla) {
+		return ORIGENES[transformacion][casilla];
+	}
+	
+	/**
+	 * Transforma una figura.
+	 * 
+	 * @param figura figura original
+	 * @return figura transformada
+	 */
+	public Figura transformarFigura (Figura figura) {
+		return Movimiento.FIGURAS[figuras[figura.ordinal()]];
+	}
+	
+	/**
+	 * Deshace la transformación de una figura.
+	 * 
+	 * @param figura figura transformada
+	 * @return figura original
+	 */
+	public Figura deshacerFigura (Figura figura) {
+		return Movimiento.FIGURAS[figurasInversas[figura.ordinal()]];
+	}
+	
+	/**
+	 * Transforma un color. La transformación es su propia inversa.
+	 * 
+	 * @param color color original
+	 * @return color transformado
+	 */
+	public Color transformarColor (Color color) {
+		return (cambioColor ? color.obtenerContrario() : color);
+	}
+	
+	/**
+	 * Transforma una jugada empaquetada según {@link Movimiento}.
+	 * 
+	 * @param jugada jugada original
+	 * @return jugada transformada
+	 */
+	public int transformarJugada (int jugada) {
+		return DESTINOS[transformacion][jugada >>> 2] << 2 | figuras[jugada & 3];
+	}
+	
+	/**
+	 * Deshace la transformación de una jugada empaquetada según {@link Movimiento}.
+	 * 
+	 * @param jugada jugada transformada
+	 * @return jugada original
+	 */
+	public int deshacerJugada (int jugada) {
+		return ORIGENES[transformacion][jugada >>> 2] << 2 | figurasInversas[jugada & 3];
+	}
+	
+	/**
+	 * Codifica un tablero tras aplicarle la simetría.
+	 * 
+	 * @param bits tablero original
+	 * @return codificación del tablero transformado, según {@link TableroDeBits#codificar()}
+	 */
+	public long transformar (TableroDeBits bits) {
+		
+		long codigo = 0;
+		
+		for (Figura figura : Movimiento.FIGURAS) {
+			for (Color color : Color.values()) {
+				
+				int mascara = bits.consultarMascara(figura, color);
+				int contenido = TableroDeBits.calcularContenido(transformarFigura(figura), transformarColor(color));
+				
+				while (mascara != 0) {
+					
+					int casilla = transformarCasilla(Integer.numberOfTrailingZeros(mascara));
+					codigo += contenido * TableroDeBits.calcularPotencia(casilla);
+					mascara &= mascara - 1;
+				}
+			}
+		}
+		return codigo;
+	}
+	
+	/**
+	 * Crea un tablero nuevo con la simetría aplicada a otro.
+	 * 
+	 * @param tablero tablero original
+	 * @return tablero transformado
+	 */
+	public Tablero transformar (VistaTablero tablero) {
+		return Tablero.decodificar(transformar(tablero.consultarTableroDeBits()));
+	}
+	
+	/**
+	 * Comprueba si la simetría no modifica nada.
+	 * 
+	 * @return true si es la identidad y false en caso contrario
+	 */
+	public boolean esIdentidad() {
+		
+		for (int f = 0; f < figuras.length; f++) {
+			if (figuras[f] != f) {
+				return false;
+			}
+		}
+		return transformacion == 0 && !cambioColor;
+	}
+	
+	@Override
+	public int hashCode() {
+		return Objects.hash(transformacion, Arrays.hashCode(figuras), cambioColor);
+	}
+	
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj)
+			return true;
+		if (obj == null)
+			return false;
+		if (getClass() != obj.getClass())
+			return false;
+		Simetria other = (Simetria) obj;
+		return transformacion == other.transformacion && Arrays.equals(figuras, other.figuras)
+				&& cambioColor == other.cambioColor;
+	}
+	
+	@Override
+	public String toString() {
+		return "Simetria [transformacion=" + transformacion + ", figuras=" + Arrays.toString(figuras)
+				+ ", cambioColor=" + cambioColor + "]";
+	}
+}
@@ -5,30 +5,42 @@ import java.util.List;
 import java.util.Objects;
 
 import quantik.excepcion.CoordenadasIncorrectasException;
+import quantik.util.Color;
+import quantik.util.Figura;
 
 /**
  * Tablero del juego Quantik.
  * 
  * @author <a href="apo1004@alu.ubu.es"> Amanda Pérez Olmos </a>
  * @since 1.0
- * @version 2.0
+ * @version 3.0
  */
-public class Tablero {
+public class Tablero implements VistaTablero {
 
 	/**
 	 * Celdas del tablero.
 	 */
 	private List<List<Celda>> matriz;
 	
+	/**
+	 * Representación en máscaras de bits de las piezas colocadas, sincronizada con la matriz.
+	 */
+	private TableroDeBits bits;
+	
 	/**
 	 * Valor constante del número de filas del tablero.
 	 */
-	private final static int NUM_FILAS = 4;
+	private final static int NUM_FILAS = TableroDeBits.NUM_FILAS;
 	
 	/**
 	 * Valor constante del número de columnas del tablero.
 	 */
-	private final static int NUM_COLUMNAS = 4;
+	private final static int NUM_COLUMNAS = TableroDeBits.NUM_COLUMNAS;
+	
+	/**
+	 * Capacidad inicial del texto generado por {@link #aTexto()}.
+	 */
+	private final static int TAMAÑO_TEXTO = 160;
 	
 	/**
 	 * Crea un tablero.
@@ -36,6 +48,7 @@ public class Tablero {
 	public Tablero() {
 		
 		matriz = new ArrayList<>();
+		bits = new TableroDeBits();
 		
 		for (int i = 0; i < NUM_FILAS; i++) {
 			
@@ -52,34 +65,32 @@ public class Tablero {
 	 * 
 	 * @return representación en formato texto del tablero actual
 	 */
+	@Override
 	public String aTexto() {
 
-		String texto = "\t 0\t 1\t 2\t 3\n0\t";
+		// Se reserva de una vez el tamaño aproximado del texto para no concatenar cadenas intermedias.
+		StringBuilder texto = new StringBuilder(TAMAÑO_TEXTO);
 		int contadorLinea = 0;
 		
-		for (int fila = 0; fila < matriz.size(); fila++) {
-			for (int columna = 0; columna < matriz.get(0).size(); columna++) {
+		texto.append("\t 0\t 1\t 2\t 3\n0\t");
+		
+		for (List<Celda> filaActual : matriz) {
+			for (Celda celda : filaActual) {
 				
-				try {
-					if (obtenerCelda(fila,columna).estaVacia()) {
-						texto += "-----\t";
-					}
-					else {
-						Celda celda = obtenerCelda(fila,columna);
-						Pieza pieza = celda.consultarPieza();
-						
-						String elemento = pieza.aTexto();
-						texto += "-" + elemento + "-\t";
-					}
+				Pieza pieza = celda.consultarPieza();
+				
+				if (pieza == null) {
+					texto.append("-----\t");
 				}
-				catch (CoordenadasIncorrectasException ex) {
-					throw new RuntimeException("Error grave en el código.",ex);
+				else {
+					texto.append('-').append(pieza.aTexto()).append("-\t");
 				}
 			}
 			contadorLinea++;
-			texto += "\n\n" + contadorLinea + "\t";
+			texto.append("\n\n").append(contadorLinea).append('\t');
 		}
-		return texto.substring(0,texto.length()-2);
+		texto.setLength(texto.length() - 2);
+		return texto.toString();
 	}
 	
 	/**
@@ -102,9 +113,69 @@ public class Tablero {
 				}
 			}
 		}
+		tableroClon.bits = bits.clonar();
 		return tableroClon;
 	}
 	
+	/**
+	 * Crea una vista de solo lectura del tablero.
+	 * <p>
+	 * La vista refleja los cambios posteriores del tablero, pero a diferencia de él no se puede
+	 * convertir a {@link Tablero} para modificarlo.
+	 * 
+	 * @return vista del tablero
+	 */
+	public VistaTablero crearVista() {
+		return new Vista(this);
+	}
+	
+	/**
+	 * Codifica las piezas del tablero en un long, según {@link TableroDeBits#codificar()}.
+	 * 
+	 * @return codificación del tablero
+	 */
+	public long codificar() {
+		return bits.codificar();
+	}
+	
+	/**
+	 * Crea un tablero a partir de su codificación, de modo que
+	 * {@code Tablero.decodificar(t.codificar())} es igual a {@code t}.
+	 * 
+	 * @param codigo codificación obtenida con {@link #codificar()}
+	 * @return tablero con las piezas codificadas
+	 * @throws IllegalArgumentException si el valor no es una codificación de tablero
+	 */
+	public static Tablero decodificar (long codigo) {
+		
+		if (!TableroDeBits.esCodificacionValida(codigo)) {
+			throw new IllegalArgumentException("Codificación de tablero fuera de rango: " + codigo);
+		}
+		
+		Tablero tablero = new Tablero();
+		Figura[] figuras = Figura.values();
+		Color[] colores = Color.values();
+		
+		for (int casilla = 0; casilla < TableroDeBits.NUM_CASILLAS; casilla++) {
+			
+			int contenido = (int) (codigo % TableroDeBits.NUM_CONTENIDOS);
+			codigo /= TableroDeBits.NUM_CONTENIDOS;
+			
+			if (contenido != 0) {
+				
+				Pieza pieza = Pieza.obtener(figuras[(contenido - 1) / 2], colores[(contenido - 1) % 2]);
+				
+				try {
+					tablero.colocar(casilla / NUM_COLUMNAS, casilla % NUM_COLUMNAS, pieza);
+				}
+				catch (CoordenadasIncorrectasException ex) {
+					throw new RuntimeException("Error grave en el código.",ex);
+				}
+			}
+		}
+		return tablero;
+	}
+	
 	/**
 	 * Coloca en la posición indicada del tablero la pieza pasada como argumento.
 	 * 
@@ -123,10 +194,32 @@ public class Tablero {
 					&& pieza != null) {
 				
 				obtenerCelda(fila,columna).colocar(pieza);
+				bits.colocar(TableroDeBits.calcularCasilla(fila, columna), pieza.consultarFigura(), pieza.consultarColor());
 			}
 		}
 	}
 	
+	/**
+	 * Retira la pieza colocada en la posición indicada del tablero, dejando la celda vacía.
+	 * 
+	 * @param fila fila del tablero
+	 * @param columna columna del tablero
+	 * @return pieza retirada o null si la celda estaba vacía
+	 * @throws CoordenadasIncorrectasException si las coordenadas están fuera del tablero
+	 */
+	public Pieza retirar (int fila, int columna) throws CoordenadasIncorrectasException {
+		
+		Celda celda = obtenerCelda(fila,columna);
+		Pieza pieza = celda.consultarPieza();
+		
+		if (pieza != null) {
+			
+			celda.colocar(null);
+			bits.retirar(TableroDeBits.calcularCasilla(fila, columna), pieza.consultarFigura(), pieza.consultarColor());
+		}
+		return pieza;
+	}
+	
 	/**
 	 * Obtiene un clon en profundidad de una celda en una determinada posición.
 	 * 
@@ -143,11 +236,39 @@ public class Tablero {
 		return matriz.get(fila).get(columna).clonar();
 	}
 	
+	@Override
+	public Pieza consultarPieza (int fila, int columna) throws CoordenadasIncorrectasException {
+		return obtenerCelda(fila,columna).consultarPieza();
+	}
+	
+	/**
+	 * Devuelve la representación en máscaras de bits del tablero, que se mantiene
+	 * actualizada con cada pieza colocada.
+	 * <p>
+	 * Fuera del paquete solo ofrece consultas, por lo que no permite modificar el tablero.
+	 * 
+	 * @return tablero de bits asociado
+	 */
+	@Override
+	public TableroDeBits consultarTableroDeBits() {
+		return bits;
+	}
+	
+	/**
+	 * Devuelve la clave de Zobrist de las piezas del tablero, actualizada con cada pieza colocada.
+	 * 
+	 * @return clave de 64 bits del tablero
+	 */
+	public long consultarClave() {
+		return bits.consultarClave();
+	}
+	
 	/**
 	 * Obtiene el número de columnas del tablero.
 	 * 
 	 * @return número de columnas
 	 */
+	@Override
 	public int consultarNumeroColumnas() {
 		return matriz.get(0).size();
 	}
@@ -157,6 +278,7 @@ public class Tablero {
 	 * 
 	 * @return número de filas
 	 */
+	@Override
 	public int consultarNumeroFilas() {
 		return matriz.size();
 	}
@@ -169,6 +291,7 @@ public class Tablero {
 	 * @return true si las coordenadas pertenecen a los límites del tablero y false en
 	 * caso contrario
 	 */
+	@Override
 	public boolean estaEnTablero (int fila, int columna) {
 		return (fila >= 0 && fila < matriz.size() && columna >= 0 && columna < matriz.get(0).size());
 	}
@@ -191,7 +314,7 @@ public class Tablero {
 
 	@Override
 	public int hashCode() {
-		return Objects.hash(matriz);
+		return bits.hashCode();
 	}
 
 	@Override
@@ -210,4 +333,59 @@ public class Tablero {
 	public String toString() {
 		return "Tablero [matriz=" + matriz + "]";
 	}
+	
+	/**
+	 * Vista de solo lectura de un tablero, que delega todas las consultas en él.
+	 */
+	private final static class Vista implements VistaTablero {
+		
+		/**
+		 * Tablero observado.
+		 */
+		private final Tablero tablero;
+		
+		/**
+		 * Crea la vista de un tablero.
+		 * 
+		 * @param tablero tablero observado
+		 */
+		Vista (Tablero tablero) {
+			this.tablero = tablero;
+		}
+		
+		@Override
+		public String aTexto() {
+			return tablero.aTexto();
+		}
+		
+		@Override
+		public int consultarNumeroColumnas() {
+			return tablero.consultarNumeroColumnas();
+		}
+		
+		@Override
+		public int consultarNumeroFilas() {
+			return tablero.consultarNumeroFilas();
+		}
+		
+		@Override
+		public Pieza consultarPieza (int fila, int columna) throws CoordenadasIncorrectasException {
+			return tablero.consultarPieza(fila, columna);
+		}
+		
+		@Override
+		public TableroDeBits consultarTableroDeBits() {
+			return tablero.consultarTableroDeBits();
+		}
+		
+		@Override
+		public boolean estaEnTablero (int fila, int columna) {
+			return tablero.estaEnTablero(fila, columna);
+		}
+		
+		@Override
+		public String toString() {
+			return tablero.toString();
+		}
+	}
 }
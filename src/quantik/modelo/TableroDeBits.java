@@ -0,0 +1,662 @@
+package quantik.modelo;
+
+import java.util.SplittableRandom;
+
+import quantik.util.Color;
+import quantik.util.Figura;
+
+/**
+ * Representación del tablero mediante máscaras de bits.
+ * <p>
+ * Cada casilla se identifica por su índice {@code fila * 4 + columna}. Para cada color se
+ * guarda un long con cuatro máscaras de 16 bits, una por figura, donde la figura de ordinal
+ * {@code f} ocupa los bits {@code [16 * f, 16 * f + 15]}. Las consultas y la colocación de
+ * piezas se resuelven con operaciones de bits sin crear objetos.
+ * <p>
+ * Además, cada grupo lleva su número de piezas y una máscara de las figuras que contiene,
+ * actualizados al colocar, de modo que saber si hay un grupo ganador no requiere recorrerlos.
+ * Del mismo modo se mantienen, por color y figura, las casillas donde esa figura está prohibida
+ * por tener en alguno de sus grupos la misma figura del color contrario.
+ * <p>
+ * También se mantiene de forma incremental una clave de Zobrist de las piezas colocadas,
+ * que sirve para indexar posiciones en tablas con un long.
+ * 
+ * @author <a href="apo1004@alu.ubu.es"> Amanda Pérez Olmos </a>
+ * @since 3.0
+ * @version 3.0
+ */
+public final class TableroDeBits {
+
+	/**
+	 * Valor constante del número de filas del tablero.
+	 */
+	public final static int NUM_FILAS = 4;
+	
+	/**
+	 * Valor constante del número de columnas del tablero.
+	 */
+	public final static int NUM_COLUMNAS = 4;
+	
+	/**
+	 * Valor constante del número de casillas del tablero.
+	 */
+	public final static int NUM_CASILLAS = NUM_FILAS * NUM_COLUMNAS;
+	
+	/**
+	 * Máscara con todas las casillas del tablero.
+	 */
+	public final static int TODAS_LAS_CASILLAS = (1 << NUM_CASILLAS) - 1;
+	
+	/**
+	 * Número de contenidos posibles de una casilla: vacía o una de las ocho piezas.
+	 */
+	public final static int NUM_CONTENIDOS = 9;
+	
+	/**
+	 * Número de bits que ocupa la codificación del tablero en base {@value #NUM_CONTENIDOS}.
+	 */
+	public final static int BITS_CODIFICACION = 51;
+	
+	/**
+	 * Número de bits que ocupa la máscara de cada figura en los valores empaquetados.
+	 */
+	public final static int BITS_POR_FIGURA = NUM_CASILLAS;
+	
+	/**
+	 * Potencias de {@value #NUM_CONTENIDOS} correspondientes a cada casilla en la codificación.
+	 */
+	private final static long[] POTENCIAS = generarPotencias();
+	
+	/**
+	 * Máscara de figuras de un grupo que contiene las cuatro figuras diferentes.
+	 */
+	private final static int TODAS_LAS_FIGURAS = (1 << Movimiento.FIGURAS.length) - 1;
+	
+	/**
+	 * Multiplicador que replica una máscara de 16 bits en las cuatro posiciones de figura.
+	 */
+	private final static long REPLICAR_EN_FIGURAS = 0x0001_0001_0001_0001L;
+	
+	/**
+	 * Para cada máscara de figuras de 4 bits, máscara de 64 bits con las cuatro posiciones de
+	 * figura activas completas.
+	 */
+	private final static long[] EXPANSION_FIGURAS = generarExpansionFiguras();
+	
+	/**
+	 * Semilla fija de las claves de Zobrist, para que sean las mismas en todas las ejecuciones.
+	 */
+	private final static long SEMILLA_ZOBRIST = 0x5155_414E_5449_4BL;
+	
+	/**
+	 * Claves de Zobrist de cada pieza en cada casilla, indexadas como el bit de la pieza en
+	 * los valores empaquetados más {@code 64} si la pieza es negra.
+	 */
+	private final static long[] CLAVES_ZOBRIST = generarClavesZobrist();
+	
+	/**
+	 * Clave de Zobrist que se combina con la del tablero cuando el turno es de las negras.
+	 */
+	public final static long CLAVE_TURNO_NEGRAS = CLAVES_ZOBRIST[CLAVES_ZOBRIST.length - 1];
+	
+	/**
+	 * Máscaras por figura de las piezas blancas colocadas.
+	 */
+	private long blancas;
+	
+	/**
+	 * Máscaras por figura de las piezas negras colocadas.
+	 */
+	private long negras;
+	
+	/**
+	 * Máscara de las casillas ocupadas por cualquier pieza.
+	 */
+	private int ocupadas;
+	
+	/**
+	 * Máscaras por figura de las casillas prohibidas para las piezas blancas.
+	 */
+	private long prohibidasBlancas;
+	
+	/**
+	 * Máscaras por figura de las casillas prohibidas para las piezas negras.
+	 */
+	private long prohibidasNegras;
+	
+	/**
+	 * Número de piezas colocadas en cada grupo.
+	 */
+	private int[] piezasGrupo;
+	
+	/**
+	 * Máscara de las figuras presentes en cada grupo, con un bit por ordinal de figura.
+	 */
+	private int[] figurasGrupo;
+	
+	/**
+	 * Número de grupos completos con las cuatro figuras diferentes.
+	 */
+	private int numGruposGanadores;
+	
+	/**
+	 * Clave de Zobrist de las piezas colocadas.
+	 */
+	private long clave;
+	
+	/**
+	 * Crea un tablero de bits vacío.
+	 */
+	public TableroDeBits() {
+		
+		piezasGrupo = new int[GestorGrupos.NUM_GRUPOS];
+		figurasGrupo = new int[GestorGrupos.NUM_GRUPOS];
+	}
+	
+	/**
+	 * Genera la tabla de expansión de máscaras de figuras.
+	 * 
+	 * @return máscaras expandidas indexadas por máscara de figuras
+	 */
+	private static long[] generarExpansionFiguras() {
+		
+		long[] expansion = new long[1 << Movimiento.FIGURAS.length];
+		
+		for (int figuras = 0; figuras < expansion.length; figuras++) {
+			for (int f = 0; f < Movimiento.FIGURAS.length; f++) {
+				
+				if ((figuras & (1 << f)) != 0) {
+					expansion[figuras] |= (long) TODAS_LAS_CASILLAS << (f * BITS_POR_FIGURA);
+				}
+			}
+		}
+		return expansion;
+	}
+	
+	/**
+	 * Genera las claves de Zobrist de todas las piezas en todas las casillas, más una última
+	 * para el turno.
+	 * 
+	 * @return claves pseudoaleatorias generadas con la semilla fija
+	 */
+	private static long[] generarClavesZobrist() {
+		
+		SplittableRandom generador = new SplittableRandom(SEMILLA_ZOBRIST);
+		long[] claves = new long[2 * Movimiento.FIGURAS.length * BITS_POR_FIGURA + 1];
+		
+		for (int i = 0; i < claves.length; i++) {
+			claves[i] = generador.nextLong();
+		}
+		return claves;
+	}
+	
+	/**
+	 * Obtiene la clave de Zobrist de una pieza en una casilla.
+	 * 
+	 * @param casilla índice de la casilla
+	 * @param figura figura de la pieza
+	 * @param color color de la pieza
+	 * @return clave de la pieza en esa casilla
+	 */
+	public static long consultarClaveZobrist (int casilla, Figura figura, Color color) {
+		return CLAVES_ZOBRIST[(color.ordinal() * Movimiento.FIGURAS.length + figura.ordinal()) * BITS_POR_FIGURA + casilla];
+	}
+	
+	/**
+	 * Obtiene las jugadas que el color contrario deja de tener al colocar una pieza: la misma
+	 * figura en todas las casillas de los grupos de la casilla y cualquier figura en la propia
+	 * casilla.
+	 * 
+	 * @param casilla índice de la casilla
+	 * @param figura figura de la pieza
+	 * @return máscaras por figura, con el mismo formato que las casillas legales
+	 */
+	public static long calcularCasillasAnuladas (int casilla, Figura figura) {
+		return (long) GestorGrupos.MASCARAS_VECINAS[casilla] << (figura.ordinal() * BITS_POR_FIGURA) | REPLICAR_EN_FIGURAS << casilla;
+	}
+	
+	/**
+	 * Genera las potencias de la base de codificación para cada casilla.
+	 * 
+	 * @return potencias indexadas por casilla
+	 */
+	private static long[] generarPotencias() {
+		
+		long[] potencias = new long[NUM_CASILLAS + 1];
+		potencias[0] = 1;
+		
+		for (int casilla = 1; casilla <= NUM_CASILLAS; casilla++) {
+			potencias[casilla] = potencias[casilla - 1] * NUM_CONTENIDOS;
+		}
+		return potencias;
+	}
+	
+	/**
+	 * Calcula el contenido de una casilla en la codificación del tablero.
+	 * 
+	 * @param figura figura de la pieza de la casilla
+	 * @param color color de la pieza de la casilla
+	 * @return contenido entre 1 y 8
+	 */
+	public static int calcularContenido (Figura figura, Color color) {
+		return 1 + figura.ordinal() * 2 + color.ordinal();
+	}
+	
+	/**
+	 * Obtiene el peso de una casilla en la codificación del tablero.
+	 * 
+	 * @param casilla índice de la casilla
+	 * @return potencia de {@value #NUM_CONTENIDOS} correspondiente a la casilla
+	 */
+	public static long calcularPotencia (int casilla) {
+		return POTENCIAS[casilla];
+	}
+	
+	/**
+	 * Comprueba si un valor es una codificación de tablero válida.
+	 * 
+	 * @param codigo valor a comprobar
+	 * @return true si está en el rango de las codificaciones y false en caso contrario
+	 */
+	public static boolean esCodificacionValida (long codigo) {
+		return codigo >= 0 && codigo < POTENCIAS[NUM_CASILLAS];
+	}
+	
+	/**
+	 * Calcula el índice de casilla correspondiente a unas coordenadas.
+	 * 
+	 * @param fila fila de la casilla
+	 * @param columna columna de la casilla
+	 * @return índice de la casilla
+	 */
+	public static int calcularCasilla (int fila, int columna) {
+		return fila * NUM_COLUMNAS + columna;
+	}
+	
+	/**
+	 * Clona el tablero de bits actual.
+	 * 
+	 * @return clon del tablero de bits
+	 */
+	public TableroDeBits clonar() {
+		
+		TableroDeBits clon = new TableroDeBits();
+		clon.blancas = blancas;
+		clon.negras = negras;
+		clon.ocupadas = ocupadas;
+		clon.prohibidasBlancas = prohibidasBlancas;
+		clon.prohibidasNegras = prohibidasNegras;
+		clon.piezasGrupo = piezasGrupo.clone();
+		clon.figurasGrupo = figurasGrupo.clone();
+		clon.numGruposGanadores = numGruposGanadores;
+		clon.clave = clave;
+		return clon;
+	}
+	
+	/**
+	 * Coloca una pieza en una casilla vacía.
+	 * <p>
+	 * Solo puede invocarse desde el tablero, que es quien valida las coordenadas y mantiene
+	 * ambas representaciones sincronizadas. Actualiza también el estado de los tres grupos
+	 * de la casilla y prohíbe la figura al color contrario en todos ellos.
+	 * 
+	 * @param casilla índice de la casilla
+	 * @param figura figura de la pieza
+	 * @param color color de la pieza
+	 */
+	void colocar (int casilla, Figura figura, Color color) {
+		
+		int desplazamiento = figura.ordinal() * BITS_POR_FIGURA;
+		long bit = 1L << (desplazamiento + casilla);
+		long vecinas = (long) GestorGrupos.MASCARAS_VECINAS[casilla] << desplazamiento;
+		
+		if (color == Color.BLANCO) {
+			blancas |= bit;
+			prohibidasNegras |= vecinas;
+		}
+		else {
+			negras |= bit;
+			prohibidasBlancas |= vecinas;
+		}
+		ocupadas |= 1 << casilla;
+		clave ^= consultarClaveZobrist(casilla, figura, color);
+		
+		for (int grupo : GestorGrupos.GRUPOS_DE_CASILLA[casilla]) {
+			
+			boolean eraGanador = esGrupoGanador(grupo);
+			
+			piezasGrupo[grupo]++;
+			figurasGrupo[grupo] |= 1 << figura.ordinal();
+			
+			if (!eraGanador && esGrupoGanador(grupo)) {
+				numGruposGanadores++;
+			}
+		}
+	}
+	
+	/**
+	 * Retira la pieza de una casilla ocupada, dejando el estado exactamente como estaba
+	 * antes de colocarla.
+	 * <p>
+	 * Solo puede invocarse desde el tablero, que es quien conoce la pieza de la casilla. Las
+	 * casillas prohibidas de la figura y las figuras de los grupos afectados se recalculan a
+	 * partir de las piezas que quedan, ya que no se pueden deshacer con una operación de bits.
+	 * 
+	 * @param casilla índice de la casilla
+	 * @param figura figura de la pieza colocada en la casilla
+	 * @param color color de la pieza colocada en la casilla
+	 */
+	void retirar (int casilla, Figura figura, Color color) {
+		
+		int desplazamiento = figura.ordinal() * BITS_POR_FIGURA;
+		long bit = 1L << (desplazamiento + casilla);
+		long franja = (long) TODAS_LAS_CASILLAS << desplazamiento;
+		
+		if (color == Color.BLANCO) {
+			blancas &= ~bit;
+			long vecinas = (long) calcularVecinas(consultarMascara(figura, color)) << desplazamiento;
+			prohibidasNegras = (prohibidasNegras & ~franja) | vecinas;
+		}
+		else {
+			negras &= ~bit;
+			long vecinas = (long) calcularVecinas(consultarMascara(figura, color)) << desplazamiento;
+			prohibidasBlancas = (prohibidasBlancas & ~franja) | vecinas;
+		}
+		ocupadas &= ~(1 << casilla);
+		clave ^= consultarClaveZobrist(casilla, figura, color);
+		
+		for (int grupo : GestorGrupos.GRUPOS_DE_CASILLA[casilla]) {
+			
+			boolean eraGanador = esGrupoGanador(grupo);
+			
+			piezasGrupo[grupo]--;
+			figurasGrupo[grupo] = calcularFigurasGrupo(grupo);
+			
+			if (eraGanador && !esGrupoGanador(grupo)) {
+				numGruposGanadores--;
+			}
+		}
+	}
+	
+	/**
+	 * Calcula la unión de las casillas de los grupos de todas las casillas de una máscara.
+	 * 
+	 * @param mascara máscara de 16 bits de casillas
+	 * @return máscara de 16 bits de casillas vecinas
+	 */
+	private static int calcularVecinas (int mascara) {
+		
+		int vecinas = 0;
+		
+		while (mascara != 0) {
+			vecinas |= GestorGrupos.MASCARAS_VECINAS[Integer.numberOfTrailingZeros(mascara)];
+			mascara &= mascara - 1;
+		}
+		return vecinas;
+	}
+	
+	/**
+	 * Calcula la máscara de figuras presentes en un grupo a partir de las piezas colocadas.
+	 * 
+	 * @param grupo índice del grupo según {@link GestorGrupos}
+	 * @return máscara de 4 bits, uno por ordinal de figura
+	 */
+	private int calcularFigurasGrupo (int grupo) {
+		
+		long piezas = blancas | negras;
+		int figuras = 0;
+		
+		for (int f = 0; f < Movimiento.FIGURAS.length; f++) {
+			
+			if (((piezas >>> (f * BITS_POR_FIGURA)) & GestorGrupos.MASCARAS_GRUPOS[grupo]) != 0) {
+				figuras |= 1 << f;
+			}
+		}
+		return figuras;
+	}
+	
+	/**
+	 * Devuelve la clave de Zobrist de las piezas colocadas.
+	 * <p>
+	 * Es la combinación con o exclusivo de las claves de cada pieza en su casilla y se actualiza
+	 * al colocar o retirar, sin recorrer el tablero. No incluye el turno, que se añade con
+	 * {@link #CLAVE_TURNO_NEGRAS}.
+	 * 
+	 * @return clave de 64 bits del tablero
+	 */
+	public long consultarClave() {
+		return clave;
+	}
+	
+	/**
+	 * Codifica las piezas colocadas en un long.
+	 * <p>
+	 * El valor es un número en base {@value #NUM_CONTENIDOS} con una cifra por casilla, siendo
+	 * la casilla 0 la menos significativa. Cada cifra vale 0 si la casilla está vacía o
+	 * {@code 1 + 2 * figura + color} (ordinales) si tiene pieza, tal como devuelve
+	 * {@link #calcularContenido(Figura, Color)}. Ocupa {@value #BITS_CODIFICACION} bits.
+	 * 
+	 * @return codificación del tablero
+	 */
+	public long codificar() {
+		
+		long codigo = 0;
+		
+		for (Figura figura : Movimiento.FIGURAS) {
+			
+			codigo += sumarCifras(consultarMascara(figura, Color.BLANCO), calcularContenido(figura, Color.BLANCO));
+			codigo += sumarCifras(consultarMascara(figura, Color.NEGRO), calcularContenido(figura, Color.NEGRO));
+		}
+		return codigo;
+	}
+	
+	/**
+	 * Suma a la codificación la cifra indicada en cada una de las casillas de una máscara.
+	 * 
+	 * @param mascara máscara de 16 bits de casillas
+	 * @param cifra contenido de esas casillas
+	 * @return valor que aportan esas casillas a la codificación
+	 */
+	private static long sumarCifras (int mascara, int cifra) {
+		
+		long suma = 0;
+		
+		while (mascara != 0) {
+			suma += cifra * POTENCIAS[Integer.numberOfTrailingZeros(mascara)];
+			mascara &= mascara - 1;
+		}
+		return suma;
+	}
+	
+	/**
+	 * Obtiene la máscara de las casillas ocupadas por una figura de un color.
+	 * 
+	 * @param figura figura de las piezas
+	 * @param color color de las piezas
+	 * @return máscara de 16 bits con las casillas ocupadas
+	 */
+	public int consultarMascara (Figura figura, Color color) {
+		
+		long piezas = (color == Color.BLANCO ? blancas : negras);
+		return (int) (piezas >>> (figura.ordinal() * BITS_POR_FIGURA)) & TODAS_LAS_CASILLAS;
+	}
+	
+	/**
+	 * Obtiene la máscara de las figuras presentes en un grupo.
+	 * 
+	 * @param grupo índice del grupo según {@link GestorGrupos}
+	 * @return máscara de 4 bits, uno por ordinal de figura
+	 */
+	public int consultarFigurasGrupo (int grupo) {
+		return figurasGrupo[grupo];
+	}
+	
+	/**
+	 * Obtiene el número de piezas colocadas en un grupo.
+	 * 
+	 * @param grupo índice del grupo según {@link GestorGrupos}
+	 * @return número de piezas del grupo
+	 */
+	public int consultarNumeroPiezasGrupo (int grupo) {
+		return piezasGrupo[grupo];
+	}
+	
+	/**
+	 * Obtiene la máscara de las casillas ocupadas.
+	 * 
+	 * @return máscara de 16 bits con las casillas ocupadas
+	 */
+	public int consultarOcupadas() {
+		return ocupadas;
+	}
+	
+	/**
+	 * Obtiene la máscara de casillas donde es legal colocar una figura de un color.
+	 * <p>
+	 * Una casilla es legal si está vacía y ninguno de sus grupos contiene la misma figura
+	 * del color contrario. No tiene en cuenta la disponibilidad de piezas en la caja.
+	 * 
+	 * @param figura figura que se quiere colocar
+	 * @param color color de la pieza que se quiere colocar
+	 * @return máscara de 16 bits con las casillas legales
+	 */
+	public int consultarCasillasLegales (Figura figura, Color color) {
+		return (int) (consultarCasillasLegales(color) >>> (figura.ordinal() * BITS_POR_FIGURA)) & TODAS_LAS_CASILLAS;
+	}
+	
+	/**
+	 * Obtiene las casillas legales de las cuatro figuras de un color.
+	 * <p>
+	 * El resultado sigue el mismo formato que las piezas: la máscara de la figura de ordinal
+	 * {@code f} ocupa los bits {@code [16 * f, 16 * f + 15]}. No tiene en cuenta la
+	 * disponibilidad de piezas en la caja.
+	 * 
+	 * @param color color de las piezas que se quieren colocar
+	 * @return máscaras de casillas legales de cada figura
+	 */
+	public long consultarCasillasLegales (Color color) {
+		
+		long prohibidas = (color == Color.BLANCO ? prohibidasBlancas : prohibidasNegras);
+		return ~(prohibidas | ocupadas * REPLICAR_EN_FIGURAS);
+	}
+	
+	/**
+	 * Obtiene las casillas legales de las figuras indicadas de un color.
+	 * <p>
+	 * Igual que {@link #consultarCasillasLegales(Color)}, pero dejando a cero las máscaras
+	 * de las figuras que no estén disponibles.
+	 * 
+	 * @param color color de las piezas que se quieren colocar
+	 * @param figurasDisponibles máscara de 4 bits de las figuras disponibles, como la de
+	 * {@link Caja#consultarFigurasDisponibles()}
+	 * @return máscaras de casillas legales de cada figura disponible
+	 */
+	public long consultarCasillasLegales (Color color, int figurasDisponibles) {
+		return consultarCasillasLegales(color) & EXPANSION_FIGURAS[figurasDisponibles];
+	}
+	
+	/**
+	 * Comprueba si la casilla está vacía.
+	 * 
+	 * @param casilla índice de la casilla
+	 * @return true si está vacía y false en caso contrario
+	 */
+	public boolean estaVacia (int casilla) {
+		return (ocupadas & (1 << casilla)) == 0;
+	}
+	
+	/**
+	 * Comprueba si la casilla está vacía y sin conflicto en sus grupos para la figura y color dados.
+	 * 
+	 * @param casilla índice de la casilla
+	 * @param figura figura de la pieza que se espera colocar
+	 * @param color color de la pieza que se espera colocar
+	 * @return true si se puede colocar y false en caso contrario
+	 */
+	public boolean esColocable (int casilla, Figura figura, Color color) {
+		return estaVacia(casilla) && !hayConflicto(casilla, figura, color);
+	}
+	
+	/**
+	 * Comprueba si algún grupo de la casilla contiene la misma figura del color contrario.
+	 * 
+	 * @param casilla índice de la casilla
+	 * @param figura figura de la pieza que se espera colocar
+	 * @param color color de la pieza que se espera colocar
+	 * @return true si hay conflicto y false en caso contrario
+	 */
+	public boolean hayConflicto (int casilla, Figura figura, Color color) {
+		
+		long prohibidas = (color == Color.BLANCO ? prohibidasBlancas : prohibidasNegras);
+		return (prohibidas & (1L << (figura.ordinal() * BITS_POR_FIGURA + casilla))) != 0;
+	}
+	
+	/**
+	 * Comprueba si un grupo está completo con las cuatro figuras diferentes.
+	 * <p>
+	 * Como un grupo tiene cuatro casillas, basta con que contenga alguna pieza de cada figura.
+	 * 
+	 * @param grupo índice del grupo según {@link GestorGrupos}
+	 * @return true si el grupo es ganador y false en caso contrario
+	 */
+	public boolean esGrupoGanador (int grupo) {
+		return figurasGrupo[grupo] == TODAS_LAS_FIGURAS;
+	}
+	
+	/**
+	 * Comprueba si algún grupo está completo con las cuatro figuras diferentes.
+	 * 
+	 * @return true si hay un grupo ganador y false si no hay ninguno
+	 */
+	public boolean hayGrupoGanador() {
+		return numGruposGanadores > 0;
+	}
+	
+	/**
+	 * Obtiene las jugadas que completarían un grupo con cuatro figuras diferentes.
+	 * <p>
+	 * Son, para cada grupo con tres figuras distintas, la figura que falta en su casilla vacía.
+	 * No se tiene en cuenta la legalidad, que depende del color y de su caja, por lo que el
+	 * resultado se combina con {@link #consultarCasillasLegales(Color, int)}.
+	 * 
+	 * @return máscaras de 16 bits de casillas ganadoras por figura, con el mismo formato que
+	 * las casillas legales
+	 */
+	public long consultarCasillasGanadoras() {
+		
+		long ganadoras = 0;
+		
+		for (int grupo = 0; grupo < GestorGrupos.NUM_GRUPOS; grupo++) {
+			
+			if (piezasGrupo[grupo] == Movimiento.FIGURAS.length - 1 && Integer.bitCount(figurasGrupo[grupo]) == Movimiento.FIGURAS.length - 1) {
+				
+				int figuraQueFalta = Integer.numberOfTrailingZeros(~figurasGrupo[grupo]);
+				long casilla = GestorGrupos.MASCARAS_GRUPOS[grupo] & ~ocupadas;
+				ganadoras |= casilla << (figuraQueFalta * BITS_POR_FIGURA);
+			}
+		}
+		return ganadoras;
+	}
+	
+	@Override
+	public int hashCode() {
+		return Long.hashCode(clave);
+	}
+	
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj)
+			return true;
+		if (obj == null)
+			return false;
+		if (getClass() != obj.getClass())
+			return false;
+		TableroDeBits other = (TableroDeBits) obj;
+		return blancas == other.blancas && negras == other.negras;
+	}
+	
+	@Override
+	public String toString() {
+		return "TableroDeBits [blancas=" + Long.toHexString(blancas) + ", negras=" + Long.toHexString(negras) + "]";
+	}
+}
@@ -0,0 +1,64 @@
+package quantik.modelo;
+
+import java.util.List;
+
+import quantik.util.Color;
+import quantik.util.Figura;
+
+/**
+ * Vista de solo lectura de una caja.
+ * <p>
+ * Permite consultar las piezas disponibles sin clonar la caja. Las vistas de
+ * {@link Caja#crearVista()} reflejan los cambios de la caja pero no se pueden convertir a ella
+ * para modificarla; para obtener una copia modificable se dispone de {@link Caja#clonar()}.
+ * 
+ * @author <a href="apo1004@alu.ubu.es"> Amanda Pérez Olmos </a>
+ * @since 3.0
+ * @version 3.0
+ */
+public interface VistaCaja {
+
+	/**
+	 * Consulta el color de las piezas de la caja.
+	 * 
+	 * @return color de las piezas
+	 */
+	public Color consultarColor();
+	
+	/**
+	 * Consulta las figuras de las que queda alguna pieza en la caja.
+	 * 
+	 * @return máscara de 4 bits donde el bit de ordinal de cada figura indica si está disponible
+	 */
+	public int consultarFigurasDisponibles();
+	
+	/**
+	 * Devuelve el número de piezas de una figura que quedan en la caja.
+	 * 
+	 * @param figura figura de las piezas
+	 * @return número de piezas de esa figura
+	 */
+	public int consultarNumeroPiezas (Figura figura);
+	
+	/**
+	 * Devuelve una lista genérica con las piezas disponibles en la caja.
+	 * 
+	 * @return lista de las piezas disponibles
+	 */
+	public List<Pieza> consultarPiezasDisponibles();
+	
+	/**
+	 * Devuelve el número de piezas que se encuentran actualmente en la caja.
+	 * 
+	 * @return número de piezas actuales en la caja
+	 */
+	public int contarPiezasActuales();
+	
+	/**
+	 * Consulta si existe una pieza disponible con la figura dada.
+	 * 
+	 * @param figura tipo de la figura que debe ser la pieza
+	 * @return true si está disponible y false si no lo está
+	 */
+	public boolean estaDisponible (Figura figura);
+}
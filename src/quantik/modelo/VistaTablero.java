@@ -0,0 +1,66 @@
+package quantik.modelo;
+
+import quantik.excepcion.CoordenadasIncorrectasException;
+
+/**
+ * Vista de solo lectura de un tablero.
+ * <p>
+ * Permite inspeccionar y mostrar el tablero sin clonarlo. Las vistas de
+ * {@link Tablero#crearVista()} reflejan los cambios del tablero pero no se pueden convertir a
+ * él para modificarlo; para obtener una copia modificable se dispone de
+ * {@link Tablero#clonar()}.
+ * 
+ * @author <a href="apo1004@alu.ubu.es"> Amanda Pérez Olmos </a>
+ * @since 3.0
+ * @version 3.0
+ */
+public interface VistaTablero {
+
+	/**
+	 * Devuelve el estado del tablero con las piezas actualmente colocadas.
+	 * 
+	 * @return representación en formato texto del tablero actual
+	 */
+	public String aTexto();
+	
+	/**
+	 * Obtiene el número de columnas del tablero.
+	 * 
+	 * @return número de columnas
+	 */
+	public int consultarNumeroColumnas();
+	
+	/**
+	 * Obtiene el número de filas del tablero.
+	 * 
+	 * @return número de filas
+	 */
+	public int consultarNumeroFilas();
+	
+	/**
+	 * Obtiene la pieza colocada en una determinada posición, sin clonar la celda.
+	 * 
+	 * @param fila fila de la celda
+	 * @param columna columna de la celda
+	 * @return pieza de la celda o null si está vacía
+	 * @throws CoordenadasIncorrectasException si las coordenadas están fuera del tablero
+	 */
+	public Pieza consultarPieza (int fila, int columna) throws CoordenadasIncorrectasException;
+	
+	/**
+	 * Devuelve la representación en máscaras de bits del tablero.
+	 * 
+	 * @return tablero de bits asociado
+	 */
+	public TableroDeBits consultarTableroDeBits();
+	
+	/**
+	 * Comprueba si la fila y la columna están dentro del tablero.
+	 * 
+	 * @param fila fila a buscar
+	 * @param columna columna a buscar
+	 * @return true si las coordenadas pertenecen a los límites del tablero y false en
+	 * caso contrario
+	 */
+	public boolean estaEnTablero (int fila, int columna);
+}
@@ -0,0 +1,160 @@
+package quantik.ordenacion;
+
+/**
+ * Estadísticas de la ordenación de jugadas de una o varias búsquedas, para ajustar las
+ * heurísticas.
+ * <p>
+ * Cada jugada probada se atribuye a la heurística que decidió su posición en la lista, o a
+ * ninguna si ninguna la adelantó. La tasa de corte de una heurística es la proporción de sus
+ * jugadas probadas que provocaron un corte. Cuanto mejor es la ordenación, más cortes se
+ * producen con la primera jugada.
+ * 
+ * @author <a href="apo1004@alu.ubu.es"> Amanda Pérez Olmos </a>
+ * @since 3.0
+ * @version 3.0
+ */
+public class EstadisticasOrdenacion {
+
+	/**
+	 * Heurísticas de la ordenación, cacheadas para no crear un array en cada consulta.
+	 */
+	private final static Heuristica[] HEURISTICAS = Heuristica.values();
+	
+	/**
+	 * Jugadas probadas por heurística, con una última posición para las que no adelantó ninguna.
+	 */
+	private final long[] probadas;
+	
+	/**
+	 * Cortes provocados por heurística, con el mismo formato que las jugadas probadas.
+	 */
+	private final long[] cortes;
+	
+	/**
+	 * Número de nodos ordenados cuyo resultado se ha anotado.
+	 */
+	private final long nodos;
+	
+	/**
+	 * Número de cortes provocados por la primera jugada probada.
+	 */
+	private final long cortesPrimera;
+	
+	/**
+	 * Inicializa las estadísticas con copias de los contadores.
+	 * 
+	 * @param probadas jugadas probadas por heurística y sin heurística
+	 * @param cortes cortes por heurística y sin heurística
+	 * @param nodos número de nodos anotados
+	 * @param cortesPrimera número de cortes con la primera jugada
+	 */
+	EstadisticasOrdenacion (long[] probadas, long[] cortes, long nodos, long cortesPrimera) {
+		
+		this.probadas = probadas.clone();
+		this.cortes = cortes.clone();
+		this.nodos = nodos;
+		this.cortesPrimera = cortesPrimera;
+	}
+	
+	/**
+	 * Devuelve el número de jugadas probadas que adelantó una heurística.
+	 * 
+	 * @param heuristica heurística, o null para las jugadas que no adelantó ninguna
+	 * @return jugadas probadas
+	 */
+	public long consultarProbadas (Heuristica heuristica) {
+		return probadas[calcularIndice(heuristica)];
+	}
+	
+	/**
+	 * Devuelve el número de cortes provocados por jugadas que adelantó una heurística.
+	 * 
+	 * @param heuristica heurística, o null para las jugadas que no adelantó ninguna
+	 * @return número de cortes
+	 */
+	public long consultarCortes (Heuristica heuristica) {
+		return cortes[calcularIndice(heuristica)];
+	}
+	
+	/**
+	 * Devuelve la proporción de jugadas probadas de una heurística que provocaron un corte.
+	 * 
+	 * @param heuristica heurística, o null para las jugadas que no adelantó ninguna
+	 * @return tasa de corte entre 0 y 1
+	 */
+	public double consultarTasaCorte (Heuristica heuristica) {
+		
+		int indice = calcularIndice(heuristica);
+		return (probadas[indice] == 0 ? 0.0 : (double) cortes[indice] / probadas[indice]);
+	}
+	
+	/**
+	 * Devuelve el número de nodos ordenados cuyo resultado se ha anotado.
+	 * 
+	 * @return número de nodos
+	 */
+	public long consultarNodos() {
+		return nodos;
+	}
+	
+	/**
+	 * Devuelve el número total de cortes.
+	 * 
+	 * @return número de nodos con corte
+	 */
+	public long consultarCortes() {
+		
+		long total = 0;
+		
+		for (long numero : cortes) {
+			total += numero;
+		}
+		return total;
+	}
+	
+	/**
+	 * Devuelve la proporción de nodos en los que se ha producido un corte.
+	 * 
+	 * @return tasa de corte entre 0 y 1
+	 */
+	public double consultarTasaCorte() {
+		return (nodos == 0 ? 0.0 : (double) consultarCortes() / nodos);
+	}
+	
+	/**
+	 * Devuelve el porcentaje de cortes que se han producido con la primera jugada probada.
+	 * 
+	 * @return porcentaje entre 0 y 100
+	 */
+	public double consultarPorcentajeCortePrimera() {
+		
+		long total = consultarCortes();
+		return (total == 0 ? 0.0 : 100.0 * cortesPrimera / total);
+	}
+	
+	/**
+	 * Calcula la posición de los contadores de una heurística.
+	 * 
+	 * @param heuristica heurística o null
+	 * @return índice en los arrays de contadores
+	 */
+	private static int calcularIndice (Heuristica heuristica) {
+		return (heuristica == null ? HEURISTICAS.length : heuristica.ordinal());
+	}
+	
+	@Override
+	public String toString() {
+		
+		StringBuilder texto = new StringBuilder();
+		texto.append(String.format("nodos=%d, cortes=%d (%.1f%%), cortes con la primera jugada=%.1f%%%n", nodos,
+				consultarCortes(), consultarTasaCorte() * 100, consultarPorcentajeCortePrimera()));
+		
+		for (int i = 0; i <= HEURISTICAS.length; i++) {
+			
+			Heuristica heuristica = (i < HEURISTICAS.length ? HEURISTICAS[i] : null);
+			texto.append(String.format("  %-18s probadas=%d, cortes=%d (%.1f%%)%n",
+					heuristica == null ? "NINGUNA" : heuristica, probadas[i], cortes[i], consultarTasaCorte(heuristica) * 100));
+		}
+		return texto.toString();
+	}
+}
@@ -0,0 +1,40 @@
+package quantik.ordenacion;
+
+/**
+ * Enumeración de las heurísticas con las que {@link OrdenadorJugadas} adelanta jugadas, en
+ * orden de prioridad.
+ * 
+ * @author <a href="apo1004@alu.ubu.es"> Amanda Pérez Olmos </a>
+ * @since 3.0
+ * @version 3.0
+ */
+public enum Heuristica {
+
+	/**
+	 * Jugadas que completan un grupo y ganan la partida.
+	 */
+	VICTORIA_INMEDIATA,
+	
+	/**
+	 * Mejor jugada guardada para la posición, normalmente en una tabla de transposición.
+	 */
+	JUGADA_TABLA,
+	
+	/**
+	 * Jugadas asesinas: las últimas que provocaron un corte en otra posición con el mismo
+	 * número de piezas.
+	 */
+	ASESINA,
+	
+	/**
+	 * Jugadas ordenadas por el número de jugadas que le quitan al rival, porque colocar una
+	 * figura se la prohíbe en todos los grupos de la casilla.
+	 */
+	BLOQUEO,
+	
+	/**
+	 * Jugadas ordenadas por los cortes que han provocado en toda la búsqueda, según la casilla,
+	 * la figura y el color.
+	 */
+	HISTORIA;
+}
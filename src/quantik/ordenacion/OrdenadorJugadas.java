@@ -0,0 +1,394 @@
+package quantik.ordenacion;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+import quantik.control.Partida;
+import quantik.modelo.Movimiento;
+import quantik.modelo.TableroDeBits;
+import quantik.util.Color;
+import quantik.util.Figura;
+
+/**
+ * Ordenación de las jugadas de una búsqueda para probar antes las que más probablemente
+ * provocan un corte.
+ * <p>
+ * No depende de ninguna búsqueda concreta: cualquiera que recorra el árbol aplicando y
+ * revirtiendo jugadas sobre una {@link Partida} ordena en cada nodo su lista de jugadas con
+ * {@link #ordenar(Partida, int[], int, int)} y, al acabar con el nodo, anota si hubo corte con
+ * {@link #anotarCorte(Partida, int, int, int)} o {@link #anotarSinCorte(Partida, int)}. Una
+ * búsqueda que comprueba las victorias inmediatas antes de ordenar anota esos nodos con
+ * {@link #anotarVictoriaInmediata()}, para que las estadísticas los incluyan. Las jugadas se
+ * colocan según las {@link Heuristica} activas, por este orden:
+ * <ol>
+ * <li>Las que ganan completando un grupo.</li>
+ * <li>La jugada guardada en la tabla de transposición, que indica la búsqueda.</li>
+ * <li>Las dos jugadas asesinas del nivel, que es el número de piezas del tablero.</li>
+ * <li>El resto, de más a menos jugadas que le quitan al rival y, a igualdad, de más a menos
+ * valor en la tabla de historia, indexada por casilla, figura y color.</li>
+ * </ol>
+ * La ordenación es estable, así que las jugadas empatadas conservan el orden en que llegan.
+ * Las jugadas asesinas y la historia se actualizan con cada corte y se conservan entre
+ * búsquedas; {@link #envejecer()} reduce su peso al empezar una nueva.
+ * <p>
+ * Un ordenador no debe usarse desde varios hilos a la vez.
+ * 
+ * @author <a href="apo1004@alu.ubu.es"> Amanda Pérez Olmos </a>
+ * @since 3.0
+ * @version 3.0
+ */
+public class OrdenadorJugadas {
+
+	/**
+	 * Número de jugadas asesinas que se guardan por nivel.
+	 */
+	private final static int NUM_ASESINAS = 2;
+	
+	/**
+	 * Número de niveles: de ninguna pieza en el tablero a todas las casillas ocupadas.
+	 */
+	private final static int NUM_NIVELES = TableroDeBits.NUM_CASILLAS + 1;
+	
+	/**
+	 * Valor de la historia a partir del cual se reducen a la mitad todos los valores, para que
+	 * quepan en la puntuación.
+	 */
+	private final static int MAX_HISTORIA = 0xFFFF;
+	
+	/**
+	 * Puntuación de una jugada que gana inmediatamente.
+	 */
+	private final static int PUNTOS_VICTORIA = 4 << 24;
+	
+	/**
+	 * Puntuación de la jugada de la tabla de transposición.
+	 */
+	private final static int PUNTOS_TABLA = 3 << 24;
+	
+	/**
+	 * Puntuación de la primera jugada asesina; la segunda vale uno menos.
+	 */
+	private final static int PUNTOS_ASESINA = 2 << 24;
+	
+	/**
+	 * Desplazamiento del número de jugadas anuladas al rival en la puntuación.
+	 */
+	private final static int DESPLAZAMIENTO_BLOQUEO = 16;
+	
+	/**
+	 * Heurísticas de la ordenación, cacheadas para no crear un array en cada anotación.
+	 */
+	private final static Heuristica[] HEURISTICAS = Heuristica.values();
+	
+	/**
+	 * Índice de los contadores de las jugadas que no adelanta ninguna heurística.
+	 */
+	private final static int SIN_HEURISTICA = HEURISTICAS.length;
+	
+	/**
+	 * Heurísticas activas.
+	 */
+	private final Set<Heuristica> heuristicas;
+	
+	/**
+	 * Indica si se adelantan las jugadas que ganan inmediatamente.
+	 */
+	private final boolean usarVictorias;
+	
+	/**
+	 * Indica si se adelanta la jugada de la tabla de transposición.
+	 */
+	private final boolean usarTabla;
+	
+	/**
+	 * Indica si se adelantan las jugadas asesinas.
+	 */
+	private final boolean usarAsesinas;
+	
+	/**
+	 * Indica si se ordena por el número de jugadas que se le quitan al rival.
+	 */
+	private final boolean usarBloqueo;
+	
+	/**
+	 * Indica si se ordena por la tabla de historia.
+	 */
+	private final boolean usarHistoria;
+	
+	/**
+	 * Jugadas asesinas de cada nivel, la más reciente primero.
+	 */
+	private final int[][] asesinas = new int[NUM_NIVELES][NUM_ASESINAS];
+	
+	/**
+	 * Tabla de historia, indexada por el ordinal del color por {@value Movimiento#NUM_MOVIMIENTOS}
+	 * más la jugada empaquetada, que ya combina casilla y figura.
+	 */
+	private final int[] historia = new int[Color.values().length * Movimiento.NUM_MOVIMIENTOS];
+	
+	/**
+	 * Puntuación de cada jugada de la última lista ordenada en cada nivel.
+	 */
+	private final int[][] puntuaciones = new int[NUM_NIVELES][Movimiento.NUM_MOVIMIENTOS];
+	
+	/**
+	 * Índice de los contadores de la heurística que colocó cada jugada de la última lista
+	 * ordenada en cada nivel.
+	 */
+	private final int[][] origenes = new int[NUM_NIVELES][Movimiento.NUM_MOVIMIENTOS];
+	
+	/**
+	 * Jugadas probadas por heurística, con una última posición para las que no adelantó ninguna.
+	 */
+	private final long[] probadas = new long[HEURISTICAS.length + 1];
+	
+	/**
+	 * Cortes provocados por heurística, con el mismo formato que las jugadas probadas.
+	 */
+	private final long[] cortes = new long[HEURISTICAS.length + 1];
+	
+	/**
+	 * Número de nodos cuyo resultado se ha anotado.
+	 */
+	private long nodos;
+	
+	/**
+	 * Número de cortes provocados por la primera jugada probada.
+	 */
+	private long cortesPrimera;
+	
+	/**
+	 * Crea un ordenador con todas las heurísticas activas.
+	 */
+	public OrdenadorJugadas() {
+		this(EnumSet.allOf(Heuristica.class));
+	}
+	
+	/**
+	 * Crea un ordenador con las heurísticas indicadas.
+	 * 
+	 * @param heuristicas heurísticas activas
+	 */
+	public OrdenadorJugadas (Set<Heuristica> heuristicas) {
+		
+		this.heuristicas = (heuristicas.isEmpty() ? EnumSet.noneOf(Heuristica.class) : EnumSet.copyOf(heuristicas));
+		usarVictorias = heuristicas.contains(Heuristica.VICTORIA_INMEDIATA);
+		usarTabla = heuristicas.contains(Heuristica.JUGADA_TABLA);
+		usarAsesinas = heuristicas.contains(Heuristica.ASESINA);
+		usarBloqueo = heuristicas.contains(Heuristica.BLOQUEO);
+		usarHistoria = heuristicas.contains(Heuristica.HISTORIA);
+		limpiar();
+	}
+	
+	/**
+	 * Comprueba si una heurística está activa.
+	 * 
+	 * @param heuristica heurística
+	 * @return true si el ordenador la usa y false en caso contrario
+	 */
+	public boolean estaActiva (Heuristica heuristica) {
+		return heuristicas.contains(heuristica);
+	}
+	
+	/**
+	 * Ordena las jugadas de la posición actual de una partida.
+	 * 
+	 * @param partida partida en la posición del nodo, que no se modifica
+	 * @param jugadas jugadas empaquetadas según {@link Movimiento}, que se reordenan
+	 * @param numJugadas número de jugadas de la lista
+	 * @param jugadaTabla jugada guardada en la tabla de transposición, o
+	 * {@link Movimiento#NINGUNO}
+	 */
+	public void ordenar (Partida partida, int[] jugadas, int numJugadas, int jugadaTabla) {
+		
+		TableroDeBits bits = partida.consultarVistaTablero().consultarTableroDeBits();
+		int nivel = Integer.bitCount(bits.consultarOcupadas());
+		Color turno = partida.consultarTurno();
+		Color rival = turno.obtenerContrario();
+		long ganadoras = (usarVictorias ? bits.consultarCasillasGanadoras() : 0);
+		long legalesRival = (usarBloqueo
+				? bits.consultarCasillasLegales(rival, (rival == Color.BLANCO ? partida.consultarVistaCajaBlancas()
+						: partida.consultarVistaCajaNegras()).consultarFigurasDisponibles())
+				: 0);
+		int[] puntos = puntuaciones[nivel];
+		int[] origen = origenes[nivel];
+		int base = turno.ordinal() * Movimiento.NUM_MOVIMIENTOS;
+		
+		for (int i = 0; i < numJugadas; i++) {
+			
+			int jugada = jugadas[i];
+			int casilla = Movimiento.consultarCasilla(jugada);
+			Figura figura = Movimiento.consultarFigura(jugada);
+			
+			if ((ganadoras >>> (figura.ordinal() * TableroDeBits.BITS_POR_FIGURA + casilla) & 1) != 0) {
+				puntos[i] = PUNTOS_VICTORIA;
+				origen[i] = Heuristica.VICTORIA_INMEDIATA.ordinal();
+			}
+			else if (usarTabla && jugada == jugadaTabla) {
+				puntos[i] = PUNTOS_TABLA;
+				origen[i] = Heuristica.JUGADA_TABLA.ordinal();
+			}
+			else if (usarAsesinas && jugada == asesinas[nivel][0]) {
+				puntos[i] = PUNTOS_ASESINA;
+				origen[i] = Heuristica.ASESINA.ordinal();
+			}
+			else if (usarAsesinas && jugada == asesinas[nivel][1]) {
+				puntos[i] = PUNTOS_ASESINA - 1;
+				origen[i] = Heuristica.ASESINA.ordinal();
+			}
+			else {
+				int bloqueo = (usarBloqueo
+						? Long.bitCount(legalesRival & TableroDeBits.calcularCasillasAnuladas(casilla, figura))
+						: 0);
+				int valorHistoria = (usarHistoria ? historia[base + jugada] : 0);
+				puntos[i] = bloqueo << DESPLAZAMIENTO_BLOQUEO | valorHistoria;
+				origen[i] = (bloqueo > 0 ? Heuristica.BLOQUEO.ordinal()
+						: valorHistoria > 0 ? Heuristica.HISTORIA.ordinal() : SIN_HEURISTICA);
+			}
+		}
+		
+		// Ordenación por inserción, estable y sin crear objetos; las listas son cortas.
+		for (int i = 1; i < numJugadas; i++) {
+			
+			int jugada = jugadas[i];
+			int puntosJugada = puntos[i];
+			int origenJugada = origen[i];
+			int j = i - 1;
+			
+			while (j >= 0 && puntos[j] < puntosJugada) {
+				
+				jugadas[j + 1] = jugadas[j];
+				puntos[j + 1] = puntos[j];
+				origen[j + 1] = origen[j];
+				j--;
+			}
+			jugadas[j + 1] = jugada;
+			puntos[j + 1] = puntosJugada;
+			origen[j + 1] = origenJugada;
+		}
+	}
+	
+	/**
+	 * Anota que una jugada de la última lista ordenada en la posición ha provocado un corte,
+	 * después de probar sin éxito las anteriores, y la recuerda como asesina y en la historia.
+	 * 
+	 * @param partida partida en la posición del nodo
+	 * @param jugada jugada que ha provocado el corte
+	 * @param indice posición de la jugada en la lista ordenada
+	 * @param restante profundidad que quedaba por explorar en el nodo, que da más peso en la
+	 * historia a los cortes cercanos a la raíz
+	 */
+	public void anotarCorte (Partida partida, int jugada, int indice, int restante) {
+		
+		int nivel = Integer.bitCount(partida.consultarVistaTablero().consultarTableroDeBits().consultarOcupadas());
+		int[] origen = origenes[nivel];
+		
+		contarProbadas(origen, indice + 1);
+		cortes[origen[indice]]++;
+		nodos++;
+		
+		if (indice == 0) {
+			cortesPrimera++;
+		}
+		
+		// Una victoria inmediata corta siempre y no dice nada de las demás posiciones.
+		if (origen[indice] == Heuristica.VICTORIA_INMEDIATA.ordinal()) {
+			return;
+		}
+		
+		if (asesinas[nivel][0] != jugada) {
+			asesinas[nivel][1] = asesinas[nivel][0];
+			asesinas[nivel][0] = jugada;
+		}
+		
+		int posicion = partida.consultarTurno().ordinal() * Movimiento.NUM_MOVIMIENTOS + jugada;
+		historia[posicion] += restante * restante;
+		
+		if (historia[posicion] > MAX_HISTORIA) {
+			envejecer();
+		}
+	}
+	
+	/**
+	 * Anota un nodo en el que la búsqueda ha encontrado una victoria inmediata sin llegar a
+	 * ordenar las jugadas, como el corte de la primera jugada que habría colocado
+	 * {@link Heuristica#VICTORIA_INMEDIATA}. Si esa heurística no está activa, la jugada se
+	 * cuenta entre las que no adelanta ninguna.
+	 */
+	public void anotarVictoriaInmediata() {
+		
+		int origen = (usarVictorias ? Heuristica.VICTORIA_INMEDIATA.ordinal() : SIN_HEURISTICA);
+		
+		probadas[origen]++;
+		cortes[origen]++;
+		nodos++;
+		cortesPrimera++;
+	}
+	
+	/**
+	 * Anota que se han probado jugadas de la última lista ordenada en la posición sin que
+	 * ninguna provocara un corte.
+	 * 
+	 * @param partida partida en la posición del nodo
+	 * @param numProbadas número de jugadas probadas, desde la primera
+	 */
+	public void anotarSinCorte (Partida partida, int numProbadas) {
+		
+		int nivel = Integer.bitCount(partida.consultarVistaTablero().consultarTableroDeBits().consultarOcupadas());
+		contarProbadas(origenes[nivel], numProbadas);
+		nodos++;
+	}
+	
+	/**
+	 * Suma las jugadas probadas a los contadores de la heurística que colocó cada una.
+	 * 
+	 * @param origen heurística que colocó cada jugada de la lista
+	 * @param numProbadas número de jugadas probadas, desde la primera
+	 */
+	private void contarProbadas (int[] origen, int numProbadas) {
+		
+		for (int i = 0; i < numProbadas; i++) {
+			probadas[origen[i]]++;
+		}
+	}
+	
+	/**
+	 * Reduce a la mitad los valores de la historia, para que pesen más los cortes recientes.
+	 * Conviene llamarlo al empezar cada búsqueda.
+	 */
+	public void envejecer() {
+		
+		for (int i = 0; i < historia.length; i++) {
+			historia[i] >>= 1;
+		}
+	}
+	
+	/**
+	 * Olvida las jugadas asesinas y la historia y pone a cero las estadísticas.
+	 */
+	public void limpiar() {
+		
+		for (int[] nivel : asesinas) {
+			nivel[0] = Movimiento.NINGUNO;
+			nivel[1] = Movimiento.NINGUNO;
+		}
+		for (int i = 0; i < historia.length; i++) {
+			historia[i] = 0;
+		}
+		for (int i = 0; i < probadas.length; i++) {
+			probadas[i] = 0;
+			cortes[i] = 0;
+		}
+		nodos = 0;
+		cortesPrimera = 0;
+	}
+	
+	/**
+	 * Obtiene las estadísticas acumuladas desde la creación o la última limpieza.
+	 * 
+	 * @return copia de las estadísticas actuales
+	 */
+	public EstadisticasOrdenacion consultarEstadisticas() {
+		return new EstadisticasOrdenacion(probadas, cortes, nodos, cortesPrimera);
+	}
+}
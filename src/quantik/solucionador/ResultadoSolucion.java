@@ -0,0 +1,169 @@
+package quantik.solucionador;
+
+import quantik.modelo.Movimiento;
+import quantik.modelo.TableroDeBits;
+
+/**
+ * Resultado de resolver una posición: su valor, la mejor jugada y las estadísticas de la
+ * búsqueda.
+ * 
+ * @author <a href="apo1004@alu.ubu.es"> Amanda Pérez Olmos </a>
+ * @since 3.0
+ * @version 3.0
+ */
+public class ResultadoSolucion {
+
+	/**
+	 * Valor de la posición para el jugador con el turno.
+	 */
+	private final int valor;
+	
+	/**
+	 * Mejor jugada empaquetada, o {@link Movimiento#NINGUNO} si la partida está acabada.
+	 */
+	private final int mejorJugada;
+	
+	/**
+	 * Número de posiciones visitadas.
+	 */
+	private final long nodos;
+	
+	/**
+	 * Duración de la búsqueda en nanosegundos.
+	 */
+	private final long nanosegundos;
+	
+	/**
+	 * Número de consultas a la tabla de transposición que encontraron la posición.
+	 */
+	private final long aciertos;
+	
+	/**
+	 * Número total de consultas a la tabla de transposición.
+	 */
+	private final long consultas;
+	
+	/**
+	 * Número de jugadas por delante que se han explorado por completo.
+	 */
+	private final int profundidad;
+	
+	/**
+	 * Inicializa todos los atributos del resultado de una búsqueda completa.
+	 * 
+	 * @param valor valor de la posición para el jugador con el turno
+	 * @param mejorJugada mejor jugada empaquetada o {@link Movimiento#NINGUNO}
+	 * @param nodos número de posiciones visitadas
+	 * @param nanosegundos duración de la búsqueda
+	 * @param aciertos consultas a la tabla que encontraron la posición
+	 * @param consultas consultas totales a la tabla
+	 */
+	public ResultadoSolucion (int valor, int mejorJugada, long nodos, long nanosegundos, long aciertos, long consultas) {
+		this(valor, mejorJugada, nodos, nanosegundos, aciertos, consultas, TableroDeBits.NUM_CASILLAS);
+	}
+	
+	/**
+	 * Inicializa todos los atributos del resultado de una búsqueda que puede estar limitada.
+	 * 
+	 * @param valor valor de la posición para el jugador con el turno
+	 * @param mejorJugada mejor jugada empaquetada o {@link Movimiento#NINGUNO}
+	 * @param nodos número de posiciones visitadas
+	 * @param nanosegundos duración de la búsqueda
+	 * @param aciertos consultas a la tabla que encontraron la posición
+	 * @param consultas consultas totales a la tabla
+	 * @param profundidad número de jugadas por delante exploradas por completo
+	 */
+	public ResultadoSolucion (int valor, int mejorJugada, long nodos, long nanosegundos, long aciertos, long consultas,
+			int profundidad) {
+		
+		this.valor = valor;
+		this.mejorJugada = mejorJugada;
+		this.nodos = nodos;
+		this.nanosegundos = nanosegundos;
+		this.aciertos = aciertos;
+		this.consultas = consultas;
+		this.profundidad = profundidad;
+	}
+	
+	/**
+	 * Devuelve el valor de la posición para el jugador con el turno: positivo si gana,
+	 * negativo si pierde y, en búsquedas limitadas, intermedio si no se ha llegado a saber.
+	 * 
+	 * @return valor de la posición
+	 */
+	public int consultarValor() {
+		return valor;
+	}
+	
+	/**
+	 * Comprueba si el jugador con el turno gana con juego perfecto.
+	 * 
+	 * @return true si gana y false en caso contrario
+	 */
+	public boolean esVictoria() {
+		return valor >= Solucionador.VICTORIA;
+	}
+	
+	/**
+	 * Comprueba si el jugador con el turno pierde con juego perfecto del rival.
+	 * 
+	 * @return true si pierde y false en caso contrario
+	 */
+	public boolean esDerrota() {
+		return valor <= -Solucionador.VICTORIA;
+	}
+	
+	/**
+	 * Devuelve la mejor jugada encontrada.
+	 * 
+	 * @return jugada empaquetada según {@link Movimiento} o {@link Movimiento#NINGUNO} si la
+	 * partida está acabada
+	 */
+	public int consultarMejorJugada() {
+		return mejorJugada;
+	}
+	
+	/**
+	 * Devuelve el número de posiciones visitadas.
+	 * 
+	 * @return número de nodos
+	 */
+	public long consultarNodos() {
+		return nodos;
+	}
+	
+	/**
+	 * Devuelve la duración de la búsqueda.
+	 * 
+	 * @return nanosegundos empleados
+	 */
+	public long consultarNanosegundos() {
+		return nanosegundos;
+	}
+	
+	/**
+	 * Devuelve el número de jugadas por delante que se han explorado por completo. En una
+	 * búsqueda completa es {@value TableroDeBits#NUM_CASILLAS}, más de las que pueden quedar.
+	 * 
+	 * @return profundidad alcanzada
+	 */
+	public int consultarProfundidad() {
+		return profundidad;
+	}
+	
+	/**
+	 * Devuelve la proporción de consultas a la tabla de transposición que encontraron la posición.
+	 * 
+	 * @return tasa de aciertos entre 0 y 1
+	 */
+	public double consultarTasaAciertos() {
+		return (consultas == 0 ? 0.0 : (double) aciertos / consultas);
+	}
+	
+	@Override
+	public String toString() {
+		return String.format("valor=%d (%s), jugada=%s, profundidad=%d, nodos=%d, tiempo=%.3f s, aciertos en tabla=%.1f%%",
+				valor, esVictoria() ? "gana" : esDerrota() ? "pierde" : "sin resolver", Movimiento.aTexto(mejorJugada),
+				profundidad, nodos, nanosegundos / 1e9, consultarTasaAciertos() * 100);
+	}
+}
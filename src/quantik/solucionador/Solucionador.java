@@ -0,0 +1,599 @@
+package quantik.solucionador;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import quantik.control.Partida;
+import quantik.modelo.Movimiento;
+import quantik.modelo.Simetria;
+import quantik.modelo.TableroDeBits;
+import quantik.ordenacion.OrdenadorJugadas;
+import quantik.transposicion.Cota;
+import quantik.transposicion.TablaTransposicion;
+
+/**
+ * Resolución exacta de posiciones mediante negamax con poda alfa-beta.
+ * <p>
+ * En Quantik no hay tablas: quien hace la última jugada gana, ya sea completando un grupo o
+ * dejando al rival sin jugadas. Por eso el valor de una posición es {@link #VICTORIA} si el
+ * jugador con el turno gana con juego perfecto y {@code -VICTORIA} si pierde. La búsqueda:
+ * <ul>
+ * <li>Detecta la victoria inmediata antes de generar jugadas, con las casillas que completan
+ * un grupo.</li>
+ * <li>Guarda en una {@link TablaTransposicion} el valor y la mejor jugada de cada posición,
+ * identificada por su clave de Zobrist.</li>
+ * <li>Ordena las jugadas de cada nodo con un {@link OrdenadorJugadas}, que prueba primero la
+ * jugada guardada en la tabla.</li>
+ * <li>Recorre el árbol aplicando y revirtiendo jugadas sobre una única partida, con un buffer
+ * de jugadas por nivel, sin crear objetos.</li>
+ * </ul>
+ * Cuando no hay tiempo para resolver la posición, {@link #resolverConLimite(Partida, long)}
+ * hace una búsqueda por profundización iterativa que respeta un plazo.
+ * <p>
+ * Un solucionador no debe usarse desde varios hilos a la vez, pero la tabla sí se puede
+ * compartir entre varios, como hace {@link SolucionadorParalelo}.
+ * 
+ * @author <a href="apo1004@alu.ubu.es"> Amanda Pérez Olmos </a>
+ * @since 3.0
+ * @version 3.0
+ */
+public class Solucionador {
+
+	/**
+	 * Valor de una posición ganada por el jugador con el turno.
+	 */
+	public final static int VICTORIA = 1000;
+	
+	/**
+	 * Tamaño en megabytes de la tabla de transposición que se crea por defecto.
+	 */
+	public final static int MEGAS_TABLA_POR_DEFECTO = 64;
+	
+	/**
+	 * Tamaño en bytes de la tabla de transposición que se crea por defecto.
+	 */
+	public final static long TAMAÑO_TABLA_POR_DEFECTO = (long) MEGAS_TABLA_POR_DEFECTO << 20;
+	
+	/**
+	 * Cota que ningún valor alcanza, usada como ventana inicial.
+	 */
+	final static int INFINITO = VICTORIA + 1;
+	
+	/**
+	 * Número máximo de piezas en el tablero para guardar la posición por su forma canónica,
+	 * compartiendo así la entrada con todas sus simétricas.
+	 */
+	private final static int MAX_PIEZAS_CANONICAS = 6;
+	
+	/**
+	 * Bit que distingue las claves canónicas de las claves de Zobrist en la tabla.
+	 */
+	private final static long MARCA_CANONICA = 1L << 62;
+	
+	/**
+	 * Máscara del número de nodos entre dos comprobaciones de la señal de parada y del plazo.
+	 * Al principio de la partida cada nodo calcula la forma canónica, así que el intervalo es
+	 * corto para no pasarse del plazo, aunque consultar el reloj cueste algo.
+	 */
+	private final static long MASCARA_COMPROBACION_PARADA = 0x1F;
+	
+	/**
+	 * Nanosegundos antes del plazo en los que se detiene la búsqueda con límite, para que haya
+	 * tiempo de deshacer la recursión y devolver el resultado sin pasarse. Nunca es más de la
+	 * mitad del tiempo disponible.
+	 */
+	private final static long MARGEN_PLAZO = 500_000;
+	
+	/**
+	 * Plazo de una búsqueda sin límite de tiempo.
+	 */
+	private final static long SIN_PLAZO = Long.MAX_VALUE;
+	
+	/**
+	 * Tabla de transposición donde se guardan los resultados.
+	 */
+	private final TablaTransposicion tabla;
+	
+	/**
+	 * Variación del orden de las jugadas, 0 para el orden normal.
+	 */
+	private final int variante;
+	
+	/**
+	 * Señal con la que otro hilo detiene la búsqueda, o null si no se puede detener.
+	 */
+	private final AtomicBoolean parada;
+	
+	/**
+	 * Ordenador de las jugadas de cada nodo, o null si solo se adelanta la de la tabla.
+	 */
+	private final OrdenadorJugadas ordenador;
+	
+	/**
+	 * Buffers de jugadas, uno por nivel de profundidad restante.
+	 */
+	private final int[][] buffers = new int[TableroDeBits.NUM_CASILLAS + 1][Movimiento.NUM_MOVIMIENTOS];
+	
+	/**
+	 * Partida sobre la que se realiza la búsqueda actual.
+	 */
+	private Partida partida;
+	
+	/**
+	 * Tablero de bits de la partida de la búsqueda actual.
+	 */
+	private TableroDeBits bits;
+	
+	/**
+	 * Número de posiciones visitadas en la búsqueda actual.
+	 */
+	private long nodos;
+	
+	/**
+	 * Instante, según {@link System#nanoTime()}, en el que se detiene la búsqueda actual, o
+	 * {@link #SIN_PLAZO}.
+	 */
+	private long plazo = SIN_PLAZO;
+	
+	/**
+	 * Crea un solucionador con una tabla de transposición propia del tamaño por defecto.
+	 */
+	public Solucionador() {
+		this(new TablaTransposicion(TAMAÑO_TABLA_POR_DEFECTO));
+	}
+	
+	/**
+	 * Crea un solucionador que usa la tabla de transposición indicada, que puede estar
+	 * compartida con otros solucionadores, y un ordenador de jugadas propio con todas las
+	 * heurísticas.
+	 * 
+	 * @param tabla tabla de transposición
+	 */
+	public Solucionador (TablaTransposicion tabla) {
+		this(tabla, new OrdenadorJugadas());
+	}
+	
+	/**
+	 * Crea un solucionador que usa la tabla de transposición indicada y ordena las jugadas de
+	 * cada nodo con un ordenador, que no se debe compartir con otras búsquedas simultáneas.
+	 * 
+	 * @param tabla tabla de transposición
+	 * @param ordenador ordenador de jugadas, o null para adelantar solo la jugada de la tabla
+	 */
+	public Solucionador (TablaTransposicion tabla, OrdenadorJugadas ordenador) {
+		this(tabla, 0, null, ordenador);
+	}
+	
+	/**
+	 * Crea un solucionador para una búsqueda en paralelo.
+	 * <p>
+	 * La variante rota el orden de las jugadas que no vienen de la tabla, para que cada hilo
+	 * explore primero una parte distinta del árbol.
+	 * 
+	 * @param tabla tabla de transposición compartida
+	 * @param variante variación del orden de las jugadas, 0 para el orden normal
+	 * @param parada señal que detiene la búsqueda al activarse
+	 * @param ordenador ordenador de jugadas propio del hilo, o null
+	 */
+	Solucionador (TablaTransposicion tabla, int variante, AtomicBoolean parada, OrdenadorJugadas ordenador) {
+		
+		this.tabla = tabla;
+		this.variante = variante;
+		this.parada = parada;
+		this.ordenador = ordenador;
+	}
+	
+	/**
+	 * Devuelve el ordenador de jugadas del solucionador, con sus estadísticas.
+	 * 
+	 * @return ordenador de jugadas, o null si no tiene
+	 */
+	public OrdenadorJugadas consultarOrdenador() {
+		return ordenador;
+	}
+	
+	/**
+	 * Devuelve la tabla de transposición del solucionador.
+	 * 
+	 * @return tabla de transposición
+	 */
+	public TablaTransposicion consultarTabla() {
+		return tabla;
+	}
+	
+	/**
+	 * Resuelve la posición actual de una partida.
+	 * 
+	 * @param partida partida a resolver, que no se modifica
+	 * @return valor de la posición para el jugador con el turno, mejor jugada y estadísticas
+	 */
+	public ResultadoSolucion resolver (Partida partida) {
+		
+		tabla.iniciarBusqueda();
+		
+		if (ordenador != null) {
+			ordenador.envejecer();
+		}
+		return buscar(partida);
+	}
+	
+	/**
+	 * Resuelve la posición actual de una partida sin empezar una nueva búsqueda en la tabla,
+	 * ya que otros solucionadores pueden estar usándola para la misma posición.
+	 * 
+	 * @param partida partida a resolver, que no se modifica
+	 * @return resultado de la búsqueda o null si se ha detenido antes de acabar
+	 */
+	ResultadoSolucion buscar (Partida partida) {
+		
+		long inicio = System.nanoTime();
+		long aciertosIniciales = tabla.consultarAciertos();
+		long consultasIniciales = aciertosIniciales + tabla.consultarFallos();
+		
+		this.partida = partida.clonar();
+		bits = this.partida.consultarVistaTablero().consultarTableroDeBits();
+		nodos = 0;
+		
+		int valor;
+		int mejorJugada = Movimiento.NINGUNO;
+		
+		try {
+			valor = negamax(-INFINITO, INFINITO, TableroDeBits.NUM_CASILLAS);
+			
+			if (!this.partida.estaAcabadaPartida()) {
+				mejorJugada = buscarJugadaRaiz(valor);
+			}
+		}
+		catch (BusquedaDetenida ex) {
+			return null;
+		}
+		
+		long aciertos = tabla.consultarAciertos() - aciertosIniciales;
+		long consultas = tabla.consultarAciertos() + tabla.consultarFallos() - consultasIniciales;
+		return new ResultadoSolucion(valor, mejorJugada, nodos, System.nanoTime() - inicio, aciertos, consultas);
+	}
+	
+	/**
+	 * Busca la mejor jugada de la posición actual de una partida sin pasarse de un plazo.
+	 * <p>
+	 * Explora la posición a profundidad 1, 2, 3... hasta resolverla, agotar las casillas o
+	 * acabar el plazo, probando primero en cada iteración la mejor jugada de la anterior. Las
+	 * posiciones del horizonte valen 0, de modo que el valor es {@link #VICTORIA} o
+	 * {@code -VICTORIA} si se ha resuelto y 0 si no. Siempre hay una jugada que devolver: la de
+	 * la última iteración completa, o una que gane encontrada en la que se interrumpe, o la
+	 * primera legal si no ha dado tiempo a nada. El plazo se comprueba cada pocos nodos, así que
+	 * la búsqueda se detiene un poco antes para devolver el resultado a tiempo.
+	 * 
+	 * @param partida partida a resolver, que no se modifica
+	 * @param milisegundos tiempo máximo de búsqueda
+	 * @return valor, mejor jugada, profundidad completada y estadísticas de la búsqueda
+	 */
+	public ResultadoSolucion resolverConLimite (Partida partida, long milisegundos) {
+		
+		long inicio = System.nanoTime();
+		long aciertosIniciales = tabla.consultarAciertos();
+		long consultasIniciales = aciertosIniciales + tabla.consultarFallos();
+		
+		tabla.iniciarBusqueda();
+		
+		if (ordenador != null) {
+			ordenador.envejecer();
+		}
+		this.partida = partida.clonar();
+		bits = this.partida.consultarVistaTablero().consultarTableroDeBits();
+		nodos = 0;
+		
+		int[] jugadas = new int[Movimiento.NUM_MOVIMIENTOS];
+		int numJugadas = (this.partida.estaAcabadaPartida() ? 0 : this.partida.generarJugadasLegalesEnTurnoActual(jugadas));
+		int vacias = TableroDeBits.NUM_CASILLAS - Integer.bitCount(bits.consultarOcupadas());
+		int valor = 0;
+		int mejorJugada = Movimiento.NINGUNO;
+		int profundidad = 0;
+		
+		if (numJugadas == 0) {
+			valor = -VICTORIA;
+			profundidad = TableroDeBits.NUM_CASILLAS;
+		}
+		else {
+			mejorJugada = jugadas[0];
+		}
+		
+		long disponible = milisegundos * 1_000_000;
+		plazo = inicio + disponible - Math.min(MARGEN_PLAZO, disponible / 2);
+		
+		try {
+			for (int restante = 1; restante <= vacias && valor == 0; restante++) {
+				
+				priorizar(jugadas, numJugadas, mejorJugada);
+				
+				int mejorValor = -INFINITO;
+				int mejorIteracion = Movimiento.NINGUNO;
+				
+				for (int i = 0; i < numJugadas && mejorValor < VICTORIA; i++) {
+					
+					this.partida.aplicarJugada(jugadas[i]);
+					int valorJugada = -negamax(-INFINITO, -mejorValor, restante - 1);
+					this.partida.revertirJugada(jugadas[i]);
+					
+					if (valorJugada > mejorValor) {
+						mejorValor = valorJugada;
+						mejorIteracion = jugadas[i];
+					}
+				}
+				
+				// Una victoria acaba la iteración, así que también se conserva si llega antes del plazo.
+				valor = mejorValor;
+				mejorJugada = mejorIteracion;
+				profundidad = (valor == 0 ? restante : TableroDeBits.NUM_CASILLAS);
+			}
+		}
+		catch (BusquedaDetenida ex) {
+			// Se devuelve lo obtenido en las iteraciones completas.
+		}
+		finally {
+			plazo = SIN_PLAZO;
+		}
+		
+		long aciertos = tabla.consultarAciertos() - aciertosIniciales;
+		long consultas = tabla.consultarAciertos() + tabla.consultarFallos() - consultasIniciales;
+		return new ResultadoSolucion(valor, mejorJugada, nodos, System.nanoTime() - inicio, aciertos, consultas, profundidad);
+	}
+	
+	/**
+	 * Devuelve el número de posiciones visitadas en la última búsqueda, aunque se haya detenido.
+	 * 
+	 * @return número de nodos
+	 */
+	long consultarNodos() {
+		return nodos;
+	}
+	
+	/**
+	 * Obtiene la jugada de la raíz que consigue el valor calculado.
+	 * <p>
+	 * Normalmente está en la tabla; si otra posición la ha reemplazado, se busca entre las
+	 * jugadas de la raíz la que alcanza ese valor.
+	 * 
+	 * @param valor valor de la raíz
+	 * @return mejor jugada empaquetada
+	 */
+	private int buscarJugadaRaiz (int valor) {
+		
+		Simetria simetria = obtenerSimetria();
+		long datos = tabla.consultar(calcularClave(simetria));
+		
+		if (datos != TablaTransposicion.SIN_DATOS && TablaTransposicion.consultarCota(datos) == Cota.EXACTA
+				&& TablaTransposicion.consultarJugada(datos) != Movimiento.NINGUNO) {
+			
+			int jugada = TablaTransposicion.consultarJugada(datos);
+			return (simetria != null ? simetria.deshacerJugada(jugada) : jugada);
+		}
+		
+		int[] jugadas = new int[Movimiento.NUM_MOVIMIENTOS];
+		int numJugadas = partida.generarJugadasLegalesEnTurnoActual(jugadas);
+		
+		for (int i = 0; i < numJugadas; i++) {
+			
+			partida.aplicarJugada(jugadas[i]);
+			int valorJugada = -negamax(-INFINITO, INFINITO, TableroDeBits.NUM_CASILLAS);
+			partida.revertirJugada(jugadas[i]);
+			
+			if (valorJugada >= valor) {
+				return jugadas[i];
+			}
+		}
+		return jugadas[0];
+	}
+	
+	/**
+	 * Calcula el valor de la posición actual para el jugador con el turno.
+	 * 
+	 * @param alfa valor que el jugador con el turno ya tiene asegurado
+	 * @param beta valor a partir del cual el rival evitará esta posición
+	 * @param restante número máximo de jugadas que se exploran
+	 * @return valor de la posición, exacto si queda dentro de la ventana y una cota en caso contrario
+	 */
+	private int negamax (int alfa, int beta, int restante) {
+		
+		if ((++nodos & MASCARA_COMPROBACION_PARADA) == 0 && debeDetenerse()) {
+			throw BusquedaDetenida.INSTANCIA;
+		}
+		if (bits.hayGrupoGanador()) {
+			return -VICTORIA;
+		}
+		
+		long legales = partida.consultarJugadasLegalesEnTurnoActual();
+		
+		if (legales == 0) {
+			return -VICTORIA;
+		}
+		if ((legales & bits.consultarCasillasGanadoras()) != 0) {
+			
+			if (ordenador != null) {
+				ordenador.anotarVictoriaInmediata();
+			}
+			return VICTORIA;
+		}
+		
+		Simetria simetria = obtenerSimetria();
+		long clave = calcularClave(simetria);
+		long datos = tabla.consultar(clave);
+		int jugadaTabla = Movimiento.NINGUNO;
+		
+		if (datos != TablaTransposicion.SIN_DATOS) {
+			
+			jugadaTabla = TablaTransposicion.consultarJugada(datos);
+			
+			if (simetria != null && jugadaTabla != Movimiento.NINGUNO) {
+				jugadaTabla = simetria.deshacerJugada(jugadaTabla);
+			}
+			
+			if (TablaTransposicion.consultarProfundidad(datos) >= restante) {
+				
+				int valorTabla = TablaTransposicion.consultarValor(datos);
+				Cota cota = TablaTransposicion.consultarCota(datos);
+				
+				if (cota == Cota.EXACTA || (cota == Cota.INFERIOR && valorTabla >= beta)
+						|| (cota == Cota.SUPERIOR && valorTabla <= alfa)) {
+					return valorTabla;
+				}
+			}
+		}
+		
+		if (restante == 0) {
+			return 0;
+		}
+		
+		int[] jugadas = buffers[restante];
+		int numJugadas = Movimiento.generar(legales, jugadas, 0);
+		
+		if (variante != 0) {
+			rotar(jugadas, numJugadas, variante % numJugadas);
+		}
+		if (ordenador != null) {
+			ordenador.ordenar(partida, jugadas, numJugadas, jugadaTabla);
+		}
+		else {
+			priorizar(jugadas, numJugadas, jugadaTabla);
+		}
+		
+		int alfaInicial = alfa;
+		int mejorValor = -INFINITO;
+		int mejorJugada = Movimiento.NINGUNO;
+		int i = 0;
+		
+		for (; i < numJugadas && alfa < beta; i++) {
+			
+			partida.aplicarJugada(jugadas[i]);
+			int valor = -negamax(-beta, -alfa, restante - 1);
+			partida.revertirJugada(jugadas[i]);
+			
+			if (valor > mejorValor) {
+				
+				mejorValor = valor;
+				mejorJugada = jugadas[i];
+				alfa = Math.max(alfa, valor);
+			}
+		}
+		
+		if (ordenador != null) {
+			
+			if (alfa >= beta) {
+				ordenador.anotarCorte(partida, jugadas[i - 1], i - 1, restante);
+			}
+			else {
+				ordenador.anotarSinCorte(partida, i);
+			}
+		}
+		
+		Cota cota = (mejorValor <= alfaInicial ? Cota.SUPERIOR : mejorValor >= beta ? Cota.INFERIOR : Cota.EXACTA);
+		int profundidad = (Math.abs(mejorValor) == VICTORIA ? TablaTransposicion.MAX_PROFUNDIDAD : restante);
+		tabla.guardar(clave, mejorValor, cota, simetria != null ? simetria.transformarJugada(mejorJugada) : mejorJugada, profundidad);
+		return mejorValor;
+	}
+	
+	/**
+	 * Comprueba si otro hilo ha pedido detener la búsqueda o se ha cumplido el plazo.
+	 * 
+	 * @return true si hay que abandonar la búsqueda
+	 */
+	private boolean debeDetenerse() {
+		return (parada != null && parada.get()) || (plazo != SIN_PLAZO && System.nanoTime() - plazo >= 0);
+	}
+	
+	/**
+	 * Obtiene la simetría que lleva la posición actual a su forma canónica, si tiene pocas piezas.
+	 * <p>
+	 * Cerca del principio de la partida muchas posiciones son simétricas entre sí, y guardarlas
+	 * por su forma canónica evita resolver cada una por separado. Más adelante apenas se repiten
+	 * y calcular la forma canónica cuesta más de lo que ahorra.
+	 * 
+	 * @return simetría canónica o null si se usa la clave de Zobrist
+	 */
+	private Simetria obtenerSimetria() {
+		return (Integer.bitCount(bits.consultarOcupadas()) <= MAX_PIEZAS_CANONICAS ? partida.consultarSimetriaCanonica() : null);
+	}
+	
+	/**
+	 * Calcula la clave con la que se guarda la posición actual en la tabla.
+	 * 
+	 * @param simetria simetría canónica de la posición o null
+	 * @return codificación canónica marcada o clave de Zobrist
+	 */
+	private long calcularClave (Simetria simetria) {
+		return (simetria != null ? simetria.transformar(bits) | MARCA_CANONICA : partida.consultarClave());
+	}
+	
+	/**
+	 * Rota las jugadas de la lista hacia la izquierda.
+	 * 
+	 * @param jugadas jugadas empaquetadas
+	 * @param numJugadas número de jugadas de la lista
+	 * @param posiciones número de posiciones que se rota, menor que el de jugadas
+	 */
+	private static void rotar (int[] jugadas, int numJugadas, int posiciones) {
+		
+		invertir(jugadas, 0, posiciones);
+		invertir(jugadas, posiciones, numJugadas);
+		invertir(jugadas, 0, numJugadas);
+	}
+	
+	/**
+	 * Invierte el orden de un tramo de la lista de jugadas.
+	 * 
+	 * @param jugadas jugadas empaquetadas
+	 * @param desde primera posición del tramo
+	 * @param hasta posición siguiente a la última del tramo
+	 */
+	private static void invertir (int[] jugadas, int desde, int hasta) {
+		
+		for (int i = desde, j = hasta - 1; i < j; i++, j--) {
+			
+			int jugada = jugadas[i];
+			jugadas[i] = jugadas[j];
+			jugadas[j] = jugada;
+		}
+	}
+	
+	/**
+	 * Pasa una jugada al principio de la lista, desplazando las anteriores.
+	 * 
+	 * @param jugadas jugadas empaquetadas
+	 * @param numJugadas número de jugadas de la lista
+	 * @param jugada jugada que se adelanta, o {@link Movimiento#NINGUNO}
+	 */
+	private static void priorizar (int[] jugadas, int numJugadas, int jugada) {
+		
+		for (int i = 0; i < numJugadas; i++) {
+			
+			if (jugadas[i] == jugada) {
+				System.arraycopy(jugadas, 0, jugadas, 1, i);
+				jugadas[0] = jugada;
+				return;
+			}
+		}
+	}
+	
+	/**
+	 * Excepción con la que se abandona una búsqueda detenida desde otro hilo, sin guardar en la
+	 * tabla los valores incompletos de los niveles que se deshacen.
+	 */
+	private final static class BusquedaDetenida extends RuntimeException {
+		
+		/**
+		 * Identificador de versión de la serialización.
+		 */
+		private static final long serialVersionUID = 1L;
+		
+		/**
+		 * Instancia única, sin traza de pila para que lanzarla no cueste nada.
+		 */
+		private final static BusquedaDetenida INSTANCIA = new BusquedaDetenida();
+		
+		/**
+		 * Crea la excepción sin mensaje ni traza de pila.
+		 */
+		private BusquedaDetenida() {
+			super(null, null, false, false);
+		}
+	}
+}
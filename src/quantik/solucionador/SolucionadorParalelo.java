@@ -0,0 +1,217 @@
+package quantik.solucionador;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import quantik.control.Partida;
+import quantik.ordenacion.OrdenadorJugadas;
+import quantik.transposicion.TablaTransposicion;
+
+/**
+ * Resolución exacta de posiciones repartida entre los hilos de un {@link ForkJoinPool}.
+ * <p>
+ * Sigue el esquema de búsqueda perezosa en paralelo: cada hilo resuelve la misma posición con
+ * su propio {@link Solucionador}, todos ellos compartiendo una {@link TablaTransposicion}.
+ * Cada hilo salvo el primero rota el orden de las jugadas, de modo que empiezan por partes
+ * distintas del árbol y se aprovechan de lo que los demás ya han guardado en la tabla. En
+ * cuanto uno acaba, el resto se detiene.
+ * <p>
+ * El hilo que acaba primero ha hecho una búsqueda completa, así que el valor es el mismo que
+ * el de {@link Solucionador#resolver(Partida)}. La mejor jugada puede ser otra ganadora si
+ * hay varias.
+ * 
+ * @author <a href="apo1004@alu.ubu.es"> Amanda Pérez Olmos </a>
+ * @since 3.0
+ * @version 3.0
+ */
+public class SolucionadorParalelo {
+
+	/**
+	 * Pool de hilos en el que se reparte la búsqueda.
+	 */
+	private final ForkJoinPool pool;
+	
+	/**
+	 * Indica si el pool lo ha creado el propio solucionador y debe cerrarlo.
+	 */
+	private final boolean poolPropio;
+	
+	/**
+	 * Tabla de transposición compartida por todos los hilos.
+	 */
+	private final TablaTransposicion tabla;
+	
+	/**
+	 * Crea un solucionador con su propio pool del número de hilos indicado y una tabla de
+	 * transposición del tamaño por defecto.
+	 * 
+	 * @param hilos número de hilos
+	 */
+	public SolucionadorParalelo (int hilos) {
+		this(hilos, new TablaTransposicion(Solucionador.TAMAÑO_TABLA_POR_DEFECTO));
+	}
+	
+	/**
+	 * Crea un solucionador con su propio pool del número de hilos indicado y la tabla de
+	 * transposición dada.
+	 * 
+	 * @param hilos número de hilos
+	 * @param tabla tabla de transposición
+	 */
+	public SolucionadorParalelo (int hilos, TablaTransposicion tabla) {
+		this(new ForkJoinPool(hilos), tabla, true);
+	}
+	
+	/**
+	 * Crea un solucionador que usa un pool y una tabla de transposición existentes.
+	 * 
+	 * @param pool pool de hilos, cuyo paralelismo determina el número de búsquedas simultáneas
+	 * @param tabla tabla de transposición
+	 */
+	public SolucionadorParalelo (ForkJoinPool pool, TablaTransposicion tabla) {
+		this(pool, tabla, false);
+	}
+	
+	/**
+	 * Inicializa todos los atributos del solucionador.
+	 * 
+	 * @param pool pool de hilos
+	 * @param tabla tabla de transposición
+	 * @param poolPropio true si el pool debe cerrarse en {@link #cerrar()}
+	 */
+	private SolucionadorParalelo (ForkJoinPool pool, TablaTransposicion tabla, boolean poolPropio) {
+		
+		this.pool = pool;
+		this.tabla = tabla;
+		this.poolPropio = poolPropio;
+	}
+	
+	/**
+	 * Devuelve el número de búsquedas que se lanzan a la vez.
+	 * 
+	 * @return paralelismo del pool
+	 */
+	public int consultarNumeroHilos() {
+		return pool.getParallelism();
+	}
+	
+	/**
+	 * Devuelve la tabla de transposición compartida.
+	 * 
+	 * @return tabla de transposición
+	 */
+	public TablaTransposicion consultarTabla() {
+		return tabla;
+	}
+	
+	/**
+	 * Resuelve la posición actual de una partida con todos los hilos del pool.
+	 * <p>
+	 * El número de nodos del resultado es la suma de los visitados por todos los hilos, incluidos
+	 * los que se han detenido.
+	 * 
+	 * @param partida partida a resolver, que no se modifica
+	 * @return valor de la posición para el jugador con el turno, mejor jugada y estadísticas
+	 */
+	public ResultadoSolucion resolver (Partida partida) {
+		
+		long inicio = System.nanoTime();
+		long aciertosIniciales = tabla.consultarAciertos();
+		long consultasIniciales = aciertosIniciales + tabla.consultarFallos();
+		
+		tabla.iniciarBusqueda();
+		
+		AtomicBoolean parada = new AtomicBoolean();
+		AtomicReference<ResultadoSolucion> primero = new AtomicReference<>();
+		TareaSolucion[] tareas = new TareaSolucion[pool.getParallelism()];
+		
+		for (int i = 0; i < tareas.length; i++) {
+			tareas[i] = new TareaSolucion(new Solucionador(tabla, i, parada, new OrdenadorJugadas()), partida, parada, primero);
+			pool.execute(tareas[i]);
+		}
+		
+		long nodos = 0;
+		
+		for (TareaSolucion tarea : tareas) {
+			nodos += tarea.join();
+		}
+		
+		ResultadoSolucion resultado = primero.get();
+		long aciertos = tabla.consultarAciertos() - aciertosIniciales;
+		long consultas = tabla.consultarAciertos() + tabla.consultarFallos() - consultasIniciales;
+		return new ResultadoSolucion(resultado.consultarValor(), resultado.consultarMejorJugada(), nodos,
+				System.nanoTime() - inicio, aciertos, consultas);
+	}
+	
+	/**
+	 * Cierra el pool de hilos si lo ha creado el propio solucionador.
+	 */
+	public void cerrar() {
+		
+		if (poolPropio) {
+			pool.shutdown();
+		}
+	}
+	
+	/**
+	 * Tarea fork/join que resuelve la posición en uno de los hilos y, si acaba la primera,
+	 * detiene al resto.
+	 */
+	private static class TareaSolucion extends RecursiveTask<Long> {
+		
+		/**
+		 * Identificador de versión de la serialización.
+		 */
+		private static final long serialVersionUID = 1L;
+		
+		/**
+		 * Solucionador del hilo.
+		 */
+		private final Solucionador solucionador;
+		
+		/**
+		 * Partida a resolver.
+		 */
+		private final Partida partida;
+		
+		/**
+		 * Señal de parada compartida por todas las tareas.
+		 */
+		private final AtomicBoolean parada;
+		
+		/**
+		 * Resultado de la primera tarea que acaba.
+		 */
+		private final AtomicReference<ResultadoSolucion> primero;
+		
+		/**
+		 * Constructor que inicializa todos los atributos de la tarea.
+		 * 
+		 * @param solucionador solucionador del hilo
+		 * @param partida partida a resolver
+		 * @param parada señal de parada compartida
+		 * @param primero resultado de la primera tarea que acaba
+		 */
+		TareaSolucion (Solucionador solucionador, Partida partida, AtomicBoolean parada,
+				AtomicReference<ResultadoSolucion> primero) {
+			
+			this.solucionador = solucionador;
+			this.partida = partida;
+			this.parada = parada;
+			this.primero = primero;
+		}
+		
+		@Override
+		protected Long compute() {
+			
+			ResultadoSolucion resultado = solucionador.buscar(partida);
+			
+			if (resultado != null && primero.compareAndSet(null, resultado)) {
+				parada.set(true);
+			}
+			return solucionador.consultarNodos();
+		}
+	}
+}
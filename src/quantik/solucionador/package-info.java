@@ -0,0 +1,7 @@
+/**
+ * Conjunto de clases para resolver posiciones del juego Quantik con juego perfecto.
+ * 
+ * @author <a href="apo1004@alu.ubu.es"> Amanda Pérez Olmos </a>
+ * @version 3.0
+ */
+package quantik.solucionador;
\ No newline at end of file
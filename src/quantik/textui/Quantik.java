@@ -8,6 +8,7 @@ import quantik.excepcion.CoordenadasIncorrectasException;
 import quantik.modelo.Caja;
 import quantik.modelo.Pieza;
 import quantik.modelo.Tablero;
+import quantik.modelo.VistaCaja;
 import quantik.undo.MaquinaDelTiempoConJugadas;
 import quantik.undo.MaquinaDelTiempoConPartidas;
 import quantik.undo.MecanismoDeDeshacer;
@@ -35,16 +36,6 @@ public class Quantik {
 	 */
 	private static Partida partida;
 
-	/**
-	 * Caja blancas.
-	 */
-	private static Caja cajaBlancas;
-
-	/**
-	 * Caja negras.
-	 */
-	private static Caja cajaNegras;
-
 	/**
 	 * Lector por teclado.
 	 */
@@ -187,7 +178,7 @@ public class Quantik {
 	 */
 	private static void mostrarTableroEnFormatoTexto() {
 		System.out.println();
-		System.out.println(partida.consultarTablero().aTexto());
+		System.out.println(partida.consultarVistaTablero().aTexto());
 	}
 
 	/**
@@ -228,7 +219,7 @@ public class Quantik {
 	 * @param color color de la caja a mostrar
 	 */
 	private static void mostrarPiezasDisponibles(Color color) {
-		Caja caja = color == Color.BLANCO ? cajaBlancas : cajaNegras;
+		VistaCaja caja = color == Color.BLANCO ? partida.consultarVistaCajaBlancas() : partida.consultarVistaCajaNegras();
 		System.out.print("Piezas disponibles para caja de color " + color + ": ");
 		StringBuilder sb = new StringBuilder();
 		for (Pieza pieza : caja.consultarPiezasDisponibles()) {
@@ -305,10 +296,8 @@ public class Quantik {
 	 */
 	private static void inicializarPartida(String configuracion) {
 		// Inicializaciones de objetos
-		cajaBlancas = new Caja(Color.BLANCO);
-		cajaNegras = new Caja(Color.NEGRO);
 		Tablero tablero = new Tablero();
-		partida = new Partida(tablero, cajaBlancas, cajaNegras);
+		partida = new Partida(tablero, new Caja(Color.BLANCO), new Caja(Color.NEGRO));
 		// inicializamos mecanismo de deshacer
 		seleccionarMecanismoDeshacer(configuracion, tablero);
 		// Abrimos la lectura desde teclado
@@ -0,0 +1,401 @@
+package quantik.torneo;
+
+import java.util.Arrays;
+import java.util.List;
+
+import quantik.util.Color;
+import quantik.util.Estadistica;
+
+/**
+ * Resultados de un torneo: victorias de cada participante contra cada rival, estimación de la
+ * diferencia de fuerza en puntos Elo, partidas por segundo y distribución del tiempo que tarda
+ * cada participante en elegir sus jugadas.
+ * <p>
+ * En Quantik no hay tablas, así que la puntuación de un participante es la proporción de
+ * partidas que gana. Con una puntuación {@code p}, la diferencia Elo respecto al rival es
+ * {@code -400 * log10(1 / p - 1)}. El intervalo de confianza se obtiene transformando del mismo
+ * modo el intervalo de Wilson al {@value #CONFIANZA}% de la proporción de victorias, que a
+ * diferencia del de la aproximación normal no se anula cuando un participante lo gana o lo
+ * pierde todo. En ese caso el extremo correspondiente es infinito.
+ * <p>
+ * Las estadísticas se actualizan desde un único hilo según acaban las partidas.
+ * 
+ * @author <a href="apo1004@alu.ubu.es"> Amanda Pérez Olmos </a>
+ * @since 3.0
+ * @version 3.0
+ */
+public class EstadisticasTorneo {
+
+	/**
+	 * Nivel de confianza de los intervalos, en porcentaje.
+	 */
+	public final static int CONFIANZA = 95;
+	
+	/**
+	 * Cuantil de la normal estándar correspondiente al nivel de confianza, a dos colas.
+	 */
+	private final static double Z = 1.959963984540054;
+	
+	/**
+	 * Nombres de los participantes.
+	 */
+	private final String[] nombres;
+	
+	/**
+	 * Victorias de cada participante contra cada rival, por filas.
+	 */
+	private final long[][] victorias;
+	
+	/**
+	 * Número de partidas ganadas por las blancas.
+	 */
+	private long victoriasBlancas;
+	
+	/**
+	 * Número de partidas anotadas.
+	 */
+	private long numPartidas;
+	
+	/**
+	 * Tiempo de cada jugada elegida por cada participante, en nanosegundos.
+	 */
+	private final long[][] tiempos;
+	
+	/**
+	 * Número de tiempos anotados de cada participante.
+	 */
+	private final int[] numTiempos;
+	
+	/**
+	 * Tiempo de reloj del torneo en nanosegundos.
+	 */
+	private long nanosegundos;
+	
+	/**
+	 * Crea unas estadísticas vacías.
+	 * 
+	 * @param participantes participantes del torneo
+	 */
+	EstadisticasTorneo (List<Participante> participantes) {
+		
+		int numParticipantes = participantes.size();
+		
+		nombres = new String[numParticipantes];
+		victorias = new long[numParticipantes][numParticipantes];
+		tiempos = new long[numParticipantes][16];
+		numTiempos = new int[numParticipantes];
+		
+		for (int i = 0; i < numParticipantes; i++) {
+			nombres[i] = participantes.get(i).consultarNombre();
+		}
+	}
+	
+	/**
+	 * Anota el resultado y los tiempos de una partida.
+	 * 
+	 * @param registro registro de la partida
+	 */
+	void anotar (RegistroPartida registro) {
+		
+		Color ganador = registro.consultarGanador();
+		victorias[registro.consultarParticipante(ganador)][registro.consultarParticipante(ganador.obtenerContrario())]++;
+		numPartidas++;
+		
+		if (ganador == Color.BLANCO) {
+			victoriasBlancas++;
+		}
+		
+		for (int i = registro.consultarNumeroAperturas(); i < registro.consultarNumeroJugadas(); i++) {
+			
+			int participante = registro.consultarParticipante(registro.consultarColor(i));
+			
+			if (numTiempos[participante] == tiempos[participante].length) {
+				tiempos[participante] = Arrays.copyOf(tiempos[participante], tiempos[participante].length * 2);
+			}
+			tiempos[participante][numTiempos[participante]++] = registro.consultarNanosegundos(i);
+		}
+	}
+	
+	/**
+	 * Fija el tiempo de reloj que ha durado el torneo.
+	 * 
+	 * @param nanosegundos tiempo en nanosegundos
+	 */
+	void fijarNanosegundos (long nanosegundos) {
+		this.nanosegundos = nanosegundos;
+	}
+	
+	/**
+	 * Devuelve el número de participantes.
+	 * 
+	 * @return número de participantes
+	 */
+	public int consultarNumeroParticipantes() {
+		return nombres.length;
+	}
+	
+	/**
+	 * Devuelve el nombre de un participante.
+	 * 
+	 * @param participante índice del participante
+	 * @return nombre
+	 */
+	public String consultarNombre (int participante) {
+		return nombres[participante];
+	}
+	
+	/**
+	 * Devuelve el número de partidas jugadas.
+	 * 
+	 * @return número de partidas
+	 */
+	public long consultarNumeroPartidas() {
+		return numPartidas;
+	}
+	
+	/**
+	 * Devuelve el número de partidas ganadas por las blancas.
+	 * 
+	 * @return número de partidas
+	 */
+	public long consultarVictoriasBlancas() {
+		return victoriasBlancas;
+	}
+	
+	/**
+	 * Devuelve el número de partidas que un participante ha ganado a un rival.
+	 * 
+	 * @param participante índice del participante
+	 * @param rival índice del rival
+	 * @return número de victorias
+	 */
+	public long consultarVictorias (int participante, int rival) {
+		return victorias[participante][rival];
+	}
+	
+	/**
+	 * Devuelve el número de partidas que ha jugado un participante contra un rival.
+	 * 
+	 * @param participante índice del participante
+	 * @param rival índice del rival
+	 * @return número de partidas
+	 */
+	public long consultarPartidas (int participante, int rival) {
+		return victorias[participante][rival] + victorias[rival][participante];
+	}
+	
+	/**
+	 * Devuelve el número de partidas que ha ganado un participante contra todos sus rivales.
+	 * 
+	 * @param participante índice del participante
+	 * @return número de victorias
+	 */
+	public long consultarVictorias (int participante) {
+		return Arrays.stream(victorias[participante]).sum();
+	}
+	
+	/**
+	 * Devuelve el número de partidas que ha jugado un participante contra todos sus rivales.
+	 * 
+	 * @param participante índice del participante
+	 * @return número de partidas
+	 */
+	public long consultarPartidas (int participante) {
+		
+		long partidas = 0;
+		
+		for (int rival = 0; rival < nombres.length; rival++) {
+			partidas += consultarPartidas(participante, rival);
+		}
+		return partidas;
+	}
+	
+	/**
+	 * Estima la diferencia Elo de un participante respecto a un rival y su intervalo de confianza.
+	 * 
+	 * @param participante índice del participante
+	 * @param rival índice del rival
+	 * @return diferencia estimada y extremos inferior y superior del intervalo, o NaN si no
+	 * han jugado entre sí
+	 */
+	public double[] estimarElo (int participante, int rival) {
+		return estimarElo(consultarVictorias(participante, rival), consultarPartidas(participante, rival));
+	}
+	
+	/**
+	 * Estima la diferencia Elo de un participante respecto a la media de sus rivales y su
+	 * intervalo de confianza, a partir de todas sus partidas.
+	 * 
+	 * @param participante índice del participante
+	 * @return diferencia estimada y extremos inferior y superior del intervalo, o NaN si no ha
+	 * jugado ninguna partida
+	 */
+	public double[] estimarElo (int participante) {
+		return estimarElo(consultarVictorias(participante), consultarPartidas(participante));
+	}
+	
+	/**
+	 * Estima una diferencia Elo y su intervalo de confianza a partir de un número de victorias.
+	 * 
+	 * @param victorias número de partidas ganadas
+	 * @param partidas número de partidas jugadas
+	 * @return diferencia estimada y extremos inferior y superior del intervalo, o NaN si no
+	 * hay partidas
+	 */
+	public static double[] estimarElo (long victorias, long partidas) {
+		
+		if (partidas == 0) {
+			return new double[] {Double.NaN, Double.NaN, Double.NaN};
+		}
+		
+		double p = (double) victorias / partidas;
+		double z2 = Z * Z / partidas;
+		double centro = (p + z2 / 2) / (1 + z2);
+		double radio = Z * Math.sqrt(p * (1 - p) / partidas + z2 / (4 * partidas)) / (1 + z2);
+		
+		return new double[] {convertirAElo(p), convertirAElo(centro - radio), convertirAElo(centro + radio)};
+	}
+	
+	/**
+	 * Convierte una puntuación en diferencia Elo.
+	 * 
+	 * @param puntuacion proporción de partidas ganadas
+	 * @return diferencia Elo, infinita si la puntuación es 0 o 1
+	 */
+	public static double convertirAElo (double puntuacion) {
+		
+		if (puntuacion <= 0) {
+			return Double.NEGATIVE_INFINITY;
+		}
+		if (puntuacion >= 1) {
+			return Double.POSITIVE_INFINITY;
+		}
+		return -400 * Math.log10(1 / puntuacion - 1);
+	}
+	
+	/**
+	 * Devuelve el número de jugadas elegidas por un participante, sin las de la apertura.
+	 * 
+	 * @param participante índice del participante
+	 * @return número de jugadas
+	 */
+	public int consultarNumeroJugadas (int participante) {
+		return numTiempos[participante];
+	}
+	
+	/**
+	 * Calcula un percentil del tiempo que tarda un participante en elegir una jugada.
+	 * 
+	 * @param participante índice del participante
+	 * @param percentil percentil entre 0 y 100
+	 * @return menor tiempo en nanosegundos que no supera el porcentaje indicado de las jugadas,
+	 * o 0 si no ha elegido ninguna
+	 */
+	public long calcularPercentilTiempo (int participante, double percentil) {
+		
+		if (numTiempos[participante] == 0) {
+			return 0;
+		}
+		
+		long[] ordenados = Arrays.copyOf(tiempos[participante], numTiempos[participante]);
+		Arrays.sort(ordenados);
+		return Estadistica.calcularPercentil(ordenados, percentil);
+	}
+	
+	/**
+	 * Calcula el tiempo medio que tarda un participante en elegir una jugada.
+	 * 
+	 * @param participante índice del participante
+	 * @return tiempo medio en nanosegundos, o 0 si no ha elegido ninguna
+	 */
+	public double calcularTiempoMedio (int participante) {
+		
+		int num = numTiempos[participante];
+		return (num == 0 ? 0.0 : (double) Arrays.stream(tiempos[participante], 0, num).sum() / num);
+	}
+	
+	/**
+	 * Devuelve el tiempo de reloj que ha durado el torneo.
+	 * 
+	 * @return tiempo en nanosegundos
+	 */
+	public long consultarNanosegundos() {
+		return nanosegundos;
+	}
+	
+	/**
+	 * Calcula el número de partidas jugadas por segundo.
+	 * 
+	 * @return partidas por segundo, o 0 si no se conoce la duración
+	 */
+	public double calcularPartidasPorSegundo() {
+		return (nanosegundos == 0 ? 0.0 : numPartidas * 1e9 / nanosegundos);
+	}
+	
+	/**
+	 * Da formato a una diferencia Elo.
+	 * 
+	 * @param elo diferencia Elo
+	 * @return texto con el signo y sin decimales
+	 */
+	private static String formatearElo (double elo) {
+		
+		if (Double.isInfinite(elo)) {
+			return (elo > 0 ? "+inf" : "-inf");
+		}
+		return String.format("%+d", Math.round(elo));
+	}
+	
+	/**
+	 * Da formato a una estimación Elo con su intervalo.
+	 * 
+	 * @param estimacion diferencia estimada y extremos del intervalo
+	 * @return texto de la estimación
+	 */
+	private static String formatearEstimacion (double[] estimacion) {
+		return formatearElo(estimacion[0]) + " [" + formatearElo(estimacion[1]) + ", " + formatearElo(estimacion[2]) + "]";
+	}
+	
+	@Override
+	public String toString() {
+		
+		StringBuilder texto = new StringBuilder();
+		int ancho = Arrays.stream(nombres).mapToInt(String::length).max().orElse(0);
+		String columna = "%-" + ancho + "s";
+		
+		texto.append(String.format("%d partidas en %.2f s: %.1f partidas/s, %.1f%% ganadas por las blancas%n", numPartidas,
+				nanosegundos / 1e9, calcularPartidasPorSegundo(), numPartidas == 0 ? 0.0 : 100.0 * victoriasBlancas / numPartidas));
+		
+		texto.append(String.format("%nclasificación (Elo respecto a la media de los rivales, intervalo al %d%%):%n", CONFIANZA));
+		
+		for (int i = 0; i < nombres.length; i++) {
+			
+			long partidas = consultarPartidas(i);
+			long ganadas = consultarVictorias(i);
+			texto.append(String.format("  " + columna + "  %6d/%-6d %5.1f%%  %s%n", nombres[i], ganadas, partidas,
+					partidas == 0 ? 0.0 : 100.0 * ganadas / partidas, formatearEstimacion(estimarElo(i))));
+		}
+		
+		texto.append(String.format("%nenfrentamientos (Elo del primero respecto al segundo):%n"));
+		
+		for (int i = 0; i < nombres.length; i++) {
+			for (int j = i + 1; j < nombres.length; j++) {
+				
+				long partidas = consultarPartidas(i, j);
+				texto.append(String.format("  " + columna + " - " + columna + "  %6d-%-6d %5.1f%%  %s%n", nombres[i], nombres[j],
+						victorias[i][j], victorias[j][i], partidas == 0 ? 0.0 : 100.0 * victorias[i][j] / partidas,
+						formatearEstimacion(estimarElo(i, j))));
+			}
+		}
+		
+		texto.append(String.format("%ntiempo por jugada en ms (media, p50, p90, p99, máximo):%n"));
+		
+		for (int i = 0; i < nombres.length; i++) {
+			texto.append(String.format("  " + columna + "  %8d jugadas  %8.2f %8.2f %8.2f %8.2f %8.2f%n", nombres[i],
+					numTiempos[i], calcularTiempoMedio(i) / 1e6, calcularPercentilTiempo(i, 50) / 1e6,
+					calcularPercentilTiempo(i, 90) / 1e6, calcularPercentilTiempo(i, 99) / 1e6,
+					calcularPercentilTiempo(i, 100) / 1e6));
+		}
+		return texto.toString();
+	}
+}
@@ -0,0 +1,32 @@
+package quantik.torneo;
+
+import quantik.control.Partida;
+import quantik.modelo.Movimiento;
+
+/**
+ * Jugador de un torneo, que elige la jugada del turno actual de una partida.
+ * <p>
+ * Un jugador puede guardar estado entre jugadas y entre partidas, como una tabla de
+ * transposición, así que no debe usarse desde varios hilos a la vez: cada hilo del torneo
+ * crea los suyos con {@link Participante#crearJugador(long)}.
+ * 
+ * @author <a href="apo1004@alu.ubu.es"> Amanda Pérez Olmos </a>
+ * @since 3.0
+ * @version 3.0
+ */
+public interface Jugador {
+
+	/**
+	 * Elige la jugada del turno actual.
+	 * 
+	 * @param partida partida no acabada, que no se modifica
+	 * @return jugada legal empaquetada según {@link Movimiento}
+	 */
+	int elegirJugada (Partida partida);
+	
+	/**
+	 * Libera los recursos del jugador. No se debe usar después.
+	 */
+	default void cerrar() {
+	}
+}
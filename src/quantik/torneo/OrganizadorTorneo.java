@@ -0,0 +1,320 @@
+package quantik.torneo;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import quantik.control.Partida;
+import quantik.modelo.Caja;
+import quantik.modelo.Movimiento;
+import quantik.modelo.Tablero;
+import quantik.modelo.TableroDeBits;
+import quantik.util.Color;
+
+/**
+ * Organizador de un torneo de todos contra todos entre participantes.
+ * <p>
+ * En cada ronda cada pareja de participantes juega dos partidas que empiezan con la misma
+ * apertura al azar de {@link #consultarNumeroAperturas()} jugadas, una con cada color, de modo
+ * que la ventaja del color y de la apertura se compensa. Las aperturas cambian de una ronda a
+ * otra y dependen solo de la semilla, así que dos torneos con la misma semilla juegan las
+ * mismas aperturas.
+ * <p>
+ * Las partidas se reparten entre los hilos de un {@link ForkJoinPool}: cada hilo toma el
+ * número de la siguiente partida pendiente, la juega sobre su propia {@link Partida} con sus
+ * propios jugadores, creados la primera vez que los necesita, y entrega el registro al hilo que
+ * organiza el torneo. Los hilos solo comparten el contador de partidas y la cola de registros;
+ * las estadísticas y el archivo de partidas los actualiza únicamente el hilo que organiza.
+ * <p>
+ * Un organizador no debe usarse desde varios hilos a la vez.
+ * 
+ * @author <a href="apo1004@alu.ubu.es"> Amanda Pérez Olmos </a>
+ * @since 3.0
+ * @version 3.0
+ */
+public class OrganizadorTorneo {
+
+	/**
+	 * Número por defecto de jugadas de la apertura al azar.
+	 */
+	public final static int APERTURAS_POR_DEFECTO = 2;
+	
+	/**
+	 * Tiempo en milisegundos que se espera un registro antes de comprobar si algún hilo ha fallado.
+	 */
+	private final static long ESPERA_REGISTRO = 100;
+	
+	/**
+	 * Participantes del torneo.
+	 */
+	private final List<Participante> participantes;
+	
+	/**
+	 * Parejas de participantes por índice, en el orden en que se juegan en cada ronda.
+	 */
+	private final int[][] parejas;
+	
+	/**
+	 * Número de rondas.
+	 */
+	private final int rondas;
+	
+	/**
+	 * Número de jugadas de la apertura al azar.
+	 */
+	private final int numAperturas;
+	
+	/**
+	 * Número de hilos.
+	 */
+	private final int hilos;
+	
+	/**
+	 * Semilla de las aperturas y de los jugadores.
+	 */
+	private final long semilla;
+	
+	/**
+	 * Crea un organizador.
+	 * 
+	 * @param participantes participantes del torneo, al menos dos
+	 * @param rondas número de rondas, en cada una de las cuales cada pareja juega dos partidas
+	 * @param numAperturas número de jugadas de la apertura al azar
+	 * @param hilos número de partidas simultáneas
+	 * @param semilla semilla de las aperturas y de los jugadores
+	 * @throws IllegalArgumentException si hay menos de dos participantes, o el número de rondas,
+	 * de jugadas de apertura o de hilos no es válido
+	 */
+	public OrganizadorTorneo (List<Participante> participantes, int rondas, int numAperturas, int hilos, long semilla) {
+		
+		int numParticipantes = participantes.size();
+		
+		if (numParticipantes < 2 || rondas < 1 || numAperturas < 0 || hilos < 1
+				|| (long) rondas * numParticipantes * (numParticipantes - 1) > Integer.MAX_VALUE) {
+			throw new IllegalArgumentException("Configuración del torneo no válida.");
+		}
+		this.participantes = List.copyOf(participantes);
+		this.rondas = rondas;
+		this.numAperturas = numAperturas;
+		this.hilos = hilos;
+		this.semilla = semilla;
+		
+		parejas = new int[numParticipantes * (numParticipantes - 1) / 2][];
+		
+		for (int i = 0, n = 0; i < numParticipantes; i++) {
+			for (int j = i + 1; j < numParticipantes; j++) {
+				parejas[n++] = new int[] {i, j};
+			}
+		}
+	}
+	
+	/**
+	 * Devuelve los participantes del torneo.
+	 * 
+	 * @return lista no modificable de participantes
+	 */
+	public List<Participante> consultarParticipantes() {
+		return participantes;
+	}
+	
+	/**
+	 * Devuelve el número de jugadas de la apertura al azar.
+	 * 
+	 * @return número de jugadas
+	 */
+	public int consultarNumeroAperturas() {
+		return numAperturas;
+	}
+	
+	/**
+	 * Devuelve el número total de partidas del torneo.
+	 * 
+	 * @return número de partidas
+	 */
+	public int consultarNumeroPartidas() {
+		return rondas * parejas.length * Color.values().length;
+	}
+	
+	/**
+	 * Juega todas las partidas del torneo.
+	 * 
+	 * @param archivo destino de los registros de las partidas, al que se llama desde el hilo
+	 * actual según acaban, que no tiene por qué ser el orden de sus números
+	 * @return estadísticas del torneo
+	 * @throws IllegalStateException si falla algún jugador o se interrumpe el hilo actual
+	 */
+	public EstadisticasTorneo jugar (Consumer<RegistroPartida> archivo) {
+		
+		int numPartidas = consultarNumeroPartidas();
+		AtomicInteger siguiente = new AtomicInteger();
+		BlockingQueue<RegistroPartida> registros = new LinkedBlockingQueue<>();
+		List<Callable<Void>> tareas = new ArrayList<>();
+		List<Future<Void>> resultados = new ArrayList<>();
+		EstadisticasTorneo estadisticas = new EstadisticasTorneo(participantes);
+		
+		for (int i = 0; i < hilos; i++) {
+			
+			long semillaHilo = semilla + (long) i * participantes.size();
+			tareas.add(() -> jugarPartidas(siguiente, registros, semillaHilo));
+		}
+		
+		ForkJoinPool pool = new ForkJoinPool(hilos);
+		long inicio = System.nanoTime();
+		
+		try {
+			for (Callable<Void> tarea : tareas) {
+				resultados.add(pool.submit(tarea));
+			}
+			
+			for (int recibidos = 0; recibidos < numPartidas; ) {
+				
+				RegistroPartida registro = registros.poll(ESPERA_REGISTRO, TimeUnit.MILLISECONDS);
+				
+				if (registro != null) {
+					estadisticas.anotar(registro);
+					archivo.accept(registro);
+					recibidos++;
+				}
+				else {
+					comprobarFallos(resultados);
+				}
+			}
+			comprobarFallos(resultados);
+		}
+		catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Torneo interrumpido", ex);
+		}
+		finally {
+			// Si se sale antes de tiempo, los hilos acaban la partida en curso y no empiezan otra.
+			siguiente.set(numPartidas);
+			pool.shutdown();
+		}
+		estadisticas.fijarNanosegundos(System.nanoTime() - inicio);
+		return estadisticas;
+	}
+	
+	/**
+	 * Comprueba si alguno de los hilos ha acabado por un error.
+	 * 
+	 * @param resultados resultados de las tareas de los hilos
+	 * @throws InterruptedException si se interrumpe el hilo actual
+	 * @throws IllegalStateException si alguna tarea ha fallado
+	 */
+	private static void comprobarFallos (List<Future<Void>> resultados) throws InterruptedException {
+		
+		for (Future<Void> resultado : resultados) {
+			
+			if (resultado.isDone()) {
+				try {
+					resultado.get();
+				}
+				catch (ExecutionException ex) {
+					throw new IllegalStateException("Error al jugar las partidas", ex.getCause());
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Juega partidas pendientes hasta que no quede ninguna. Se ejecuta en cada hilo del torneo.
+	 * 
+	 * @param siguiente contador con el número de la siguiente partida pendiente
+	 * @param registros cola en la que se entregan los registros de las partidas
+	 * @param semillaHilo semilla de los jugadores del hilo
+	 * @return null
+	 * @throws InterruptedException si se interrumpe el hilo
+	 */
+	private Void jugarPartidas (AtomicInteger siguiente, BlockingQueue<RegistroPartida> registros, long semillaHilo)
+			throws InterruptedException {
+		
+		Jugador[] jugadores = new Jugador[participantes.size()];
+		int numPartidas = consultarNumeroPartidas();
+		
+		try {
+			for (int n = siguiente.getAndIncrement(); n < numPartidas; n = siguiente.getAndIncrement()) {
+				
+				int[] pareja = parejas[n / 2 % parejas.length];
+				int blancas = pareja[n % 2];
+				int negras = pareja[1 - n % 2];
+				
+				for (int participante : pareja) {
+					if (jugadores[participante] == null) {
+						jugadores[participante] = participantes.get(participante).crearJugador(semillaHilo + participante);
+					}
+				}
+				registros.put(jugarPartida(n, blancas, negras, jugadores));
+			}
+		}
+		finally {
+			for (Jugador jugador : jugadores) {
+				if (jugador != null) {
+					jugador.cerrar();
+				}
+			}
+		}
+		return null;
+	}
+	
+	/**
+	 * Juega una partida.
+	 * <p>
+	 * Las dos partidas de una pareja en una ronda tienen números consecutivos que solo se
+	 * diferencian en el bit más bajo, así que la apertura se obtiene de la semilla y del resto
+	 * de bits.
+	 * 
+	 * @param numero número de la partida
+	 * @param blancas índice del participante con las piezas blancas
+	 * @param negras índice del participante con las piezas negras
+	 * @param jugadores jugadores del hilo, por índice de participante
+	 * @return registro de la partida
+	 */
+	private RegistroPartida jugarPartida (int numero, int blancas, int negras, Jugador[] jugadores) {
+		
+		Partida partida = new Partida(new Tablero(), new Caja(Color.BLANCO), new Caja(Color.NEGRO));
+		Random aleatorio = new Random(semilla ^ (numero >>> 1));
+		int[] legales = new int[Movimiento.NUM_MOVIMIENTOS];
+		int[] jugadas = new int[TableroDeBits.NUM_CASILLAS];
+		long[] nanosegundos = new long[TableroDeBits.NUM_CASILLAS];
+		int numJugadas = 0;
+		int aperturas = 0;
+		
+		while (aperturas < numAperturas && !partida.estaAcabadaPartida()) {
+			
+			int jugada = legales[aleatorio.nextInt(partida.generarJugadasLegalesEnTurnoActual(legales))];
+			
+			partida.aplicarJugada(jugada);
+			jugadas[numJugadas++] = jugada;
+			aperturas++;
+		}
+		
+		while (!partida.estaAcabadaPartida()) {
+			
+			int participante = (partida.consultarTurno() == Color.BLANCO ? blancas : negras);
+			long inicio = System.nanoTime();
+			int jugada = jugadores[participante].elegirJugada(partida);
+			nanosegundos[numJugadas] = System.nanoTime() - inicio;
+			
+			if (!partida.esJugadaLegalEnTurnoActual(jugada)) {
+				throw new IllegalStateException(participantes.get(participante).consultarNombre()
+						+ " ha elegido una jugada ilegal en la partida " + numero + ": " + jugada);
+			}
+			partida.aplicarJugada(jugada);
+			jugadas[numJugadas++] = jugada;
+		}
+		
+		return new RegistroPartida(numero, blancas, negras, participantes.get(blancas).consultarNombre(),
+				participantes.get(negras).consultarNombre(), partida.consultarGanador(),
+				Arrays.copyOf(jugadas, numJugadas), aperturas, Arrays.copyOf(nanosegundos, numJugadas));
+	}
+}
@@ -0,0 +1,141 @@
+package quantik.torneo;
+
+import java.util.SplittableRandom;
+import java.util.function.LongFunction;
+
+import quantik.aperturas.LibroAperturas;
+import quantik.control.Partida;
+import quantik.ia.MotorMcts;
+import quantik.ia.Paralelismo;
+import quantik.modelo.Movimiento;
+import quantik.solucionador.Solucionador;
+import quantik.transposicion.TablaTransposicion;
+
+/**
+ * Participante de un torneo: un nombre y la forma de crear jugadores con su configuración.
+ * <p>
+ * El participante no juega: cada hilo del torneo crea sus propios jugadores a partir de él, de
+ * modo que los hilos no comparten ningún estado mutable. Lo único que se puede compartir es lo
+ * que no cambia, como un {@link LibroAperturas}.
+ * 
+ * @author <a href="apo1004@alu.ubu.es"> Amanda Pérez Olmos </a>
+ * @since 3.0
+ * @version 3.0
+ */
+public class Participante {
+
+	/**
+	 * Nombre del participante.
+	 */
+	private final String nombre;
+	
+	/**
+	 * Función que crea un jugador a partir de una semilla.
+	 */
+	private final LongFunction<Jugador> fabrica;
+	
+	/**
+	 * Crea un participante.
+	 * 
+	 * @param nombre nombre del participante, sin tabuladores ni saltos de línea
+	 * @param fabrica función que crea un jugador nuevo a partir de una semilla
+	 * @throws IllegalArgumentException si el nombre está vacío o contiene tabuladores o saltos de línea
+	 */
+	public Participante (String nombre, LongFunction<Jugador> fabrica) {
+		
+		if (nombre.isEmpty() || nombre.chars().anyMatch(c -> c == '\t' || c == '\n' || c == '\r')) {
+			throw new IllegalArgumentException("Nombre de participante no válido: " + nombre);
+		}
+		this.nombre = nombre;
+		this.fabrica = fabrica;
+	}
+	
+	/**
+	 * Crea un participante que juega al azar entre las jugadas legales.
+	 * 
+	 * @param nombre nombre del participante
+	 * @return participante
+	 */
+	public static Participante crearAleatorio (String nombre) {
+		
+		return new Participante(nombre, semilla -> {
+			
+			SplittableRandom aleatorio = new SplittableRandom(semilla);
+			int[] jugadas = new int[Movimiento.NUM_MOVIMIENTOS];
+			
+			return partida -> jugadas[aleatorio.nextInt(partida.generarJugadasLegalesEnTurnoActual(jugadas))];
+		});
+	}
+	
+	/**
+	 * Crea un participante que juega con {@link MotorMcts} en un solo hilo.
+	 * 
+	 * @param nombre nombre del participante
+	 * @param milisegundos tiempo de búsqueda de cada jugada
+	 * @param libro libro de aperturas que consulta el motor, o null para no usar ninguno
+	 * @return participante
+	 */
+	public static Participante crearMcts (String nombre, long milisegundos, LibroAperturas libro) {
+		
+		return new Participante(nombre, semilla -> {
+			
+			MotorMcts motor = new MotorMcts(1, Paralelismo.ARBOL, MotorMcts.CONSTANTE_EXPLORACION_POR_DEFECTO, semilla);
+			motor.fijarLibro(libro);
+			
+			return new Jugador() {
+				
+				@Override
+				public int elegirJugada (Partida partida) {
+					return motor.elegirJugada(partida, milisegundos);
+				}
+				
+				@Override
+				public void cerrar() {
+					motor.cerrar();
+				}
+			};
+		});
+	}
+	
+	/**
+	 * Crea un participante que juega con la búsqueda con plazo de {@link Solucionador}.
+	 * 
+	 * @param nombre nombre del participante
+	 * @param milisegundos plazo de cada jugada
+	 * @param bytesTabla tamaño en bytes de la tabla de transposición de cada jugador
+	 * @return participante
+	 */
+	public static Participante crearSolucionador (String nombre, long milisegundos, long bytesTabla) {
+		
+		return new Participante(nombre, semilla -> {
+			
+			Solucionador solucionador = new Solucionador(new TablaTransposicion(bytesTabla));
+			
+			return partida -> solucionador.resolverConLimite(partida, milisegundos).consultarMejorJugada();
+		});
+	}
+	
+	/**
+	 * Devuelve el nombre del participante.
+	 * 
+	 * @return nombre
+	 */
+	public String consultarNombre() {
+		return nombre;
+	}
+	
+	/**
+	 * Crea un jugador nuevo con la configuración del participante.
+	 * 
+	 * @param semilla semilla de las decisiones al azar del jugador, si las tiene
+	 * @return jugador que no comparte estado mutable con ningún otro
+	 */
+	public Jugador crearJugador (long semilla) {
+		return fabrica.apply(semilla);
+	}
+	
+	@Override
+	public String toString() {
+		return nombre;
+	}
+}
@@ -0,0 +1,214 @@
+package quantik.torneo;
+
+import java.util.Arrays;
+
+import quantik.modelo.Movimiento;
+import quantik.util.Color;
+
+/**
+ * Registro de una partida de un torneo: quién ha jugado con cada color, quién ha ganado, las
+ * jugadas en orden y el tiempo que ha tardado cada jugador en elegir las suyas.
+ * <p>
+ * Las primeras {@link #consultarNumeroAperturas()} jugadas son la apertura al azar con la que
+ * empieza la partida y no las ha elegido ningún jugador. Las demás las eligen por turnos las
+ * blancas, que empiezan, y las negras.
+ * 
+ * @author <a href="apo1004@alu.ubu.es"> Amanda Pérez Olmos </a>
+ * @since 3.0
+ * @version 3.0
+ */
+public class RegistroPartida {
+
+	/**
+	 * Cabecera de las líneas escritas con {@link #aTexto(StringBuilder)}.
+	 */
+	public final static String CABECERA = "partida\tblancas\tnegras\tganador\tapertura\tjugadas";
+	
+	/**
+	 * Número de la partida dentro del torneo.
+	 */
+	private final int numero;
+	
+	/**
+	 * Índice del participante con las piezas blancas.
+	 */
+	private final int blancas;
+	
+	/**
+	 * Índice del participante con las piezas negras.
+	 */
+	private final int negras;
+	
+	/**
+	 * Nombres de los participantes con las piezas blancas y negras, en ese orden.
+	 */
+	private final String[] nombres;
+	
+	/**
+	 * Color ganador.
+	 */
+	private final Color ganador;
+	
+	/**
+	 * Jugadas de la partida empaquetadas según {@link Movimiento}.
+	 */
+	private final int[] jugadas;
+	
+	/**
+	 * Número de jugadas de la apertura al azar.
+	 */
+	private final int numAperturas;
+	
+	/**
+	 * Tiempo de reloj en nanosegundos que se ha tardado en elegir cada jugada, 0 en las de la
+	 * apertura.
+	 */
+	private final long[] nanosegundos;
+	
+	/**
+	 * Crea el registro de una partida acabada.
+	 * 
+	 * @param numero número de la partida dentro del torneo
+	 * @param blancas índice del participante con las piezas blancas
+	 * @param negras índice del participante con las piezas negras
+	 * @param nombreBlancas nombre del participante con las piezas blancas
+	 * @param nombreNegras nombre del participante con las piezas negras
+	 * @param ganador color ganador
+	 * @param jugadas jugadas de la partida, que pasan a ser del registro
+	 * @param numAperturas número de jugadas de la apertura al azar
+	 * @param nanosegundos tiempo de cada jugada, que pasa a ser del registro
+	 */
+	RegistroPartida (int numero, int blancas, int negras, String nombreBlancas, String nombreNegras, Color ganador,
+			int[] jugadas, int numAperturas, long[] nanosegundos) {
+		
+		this.numero = numero;
+		this.blancas = blancas;
+		this.negras = negras;
+		this.nombres = new String[] {nombreBlancas, nombreNegras};
+		this.ganador = ganador;
+		this.jugadas = jugadas;
+		this.numAperturas = numAperturas;
+		this.nanosegundos = nanosegundos;
+	}
+	
+	/**
+	 * Devuelve el número de la partida dentro del torneo.
+	 * 
+	 * @return número de la partida, desde 0
+	 */
+	public int consultarNumero() {
+		return numero;
+	}
+	
+	/**
+	 * Devuelve el índice del participante que ha jugado con un color.
+	 * 
+	 * @param color color de las piezas
+	 * @return índice del participante en el torneo
+	 */
+	public int consultarParticipante (Color color) {
+		return (color == Color.BLANCO ? blancas : negras);
+	}
+	
+	/**
+	 * Devuelve el nombre del participante que ha jugado con un color.
+	 * 
+	 * @param color color de las piezas
+	 * @return nombre del participante
+	 */
+	public String consultarNombre (Color color) {
+		return nombres[color == Color.BLANCO ? 0 : 1];
+	}
+	
+	/**
+	 * Devuelve el color ganador.
+	 * 
+	 * @return color ganador
+	 */
+	public Color consultarGanador() {
+		return ganador;
+	}
+	
+	/**
+	 * Devuelve el número de jugadas de la partida, incluidas las de la apertura.
+	 * 
+	 * @return número de jugadas
+	 */
+	public int consultarNumeroJugadas() {
+		return jugadas.length;
+	}
+	
+	/**
+	 * Devuelve el número de jugadas de la apertura al azar.
+	 * 
+	 * @return número de jugadas de la apertura
+	 */
+	public int consultarNumeroAperturas() {
+		return numAperturas;
+	}
+	
+	/**
+	 * Devuelve una jugada de la partida.
+	 * 
+	 * @param indice posición de la jugada, desde 0
+	 * @return jugada empaquetada según {@link Movimiento}
+	 */
+	public int consultarJugada (int indice) {
+		return jugadas[indice];
+	}
+	
+	/**
+	 * Devuelve una copia de las jugadas de la partida.
+	 * 
+	 * @return jugadas empaquetadas según {@link Movimiento}
+	 */
+	public int[] obtenerJugadas() {
+		return Arrays.copyOf(jugadas, jugadas.length);
+	}
+	
+	/**
+	 * Devuelve el color que ha hecho una jugada.
+	 * 
+	 * @param indice posición de la jugada, desde 0
+	 * @return color del jugador
+	 */
+	public Color consultarColor (int indice) {
+		return (indice % 2 == 0 ? Color.BLANCO : Color.NEGRO);
+	}
+	
+	/**
+	 * Devuelve el tiempo que se ha tardado en elegir una jugada.
+	 * 
+	 * @param indice posición de la jugada, desde 0
+	 * @return tiempo de reloj en nanosegundos, 0 si es de la apertura
+	 */
+	public long consultarNanosegundos (int indice) {
+		return nanosegundos[indice];
+	}
+	
+	/**
+	 * Escribe el registro como una línea de texto con los campos de {@link #CABECERA}
+	 * separados por tabuladores. La letra del ganador es la de {@link Color#toChar()} y las
+	 * jugadas se escriben con {@link Movimiento#aTexto(int)} separadas por puntos y comas.
+	 * 
+	 * @param destino texto al que se añade la línea, sin salto de línea
+	 * @return el mismo texto recibido
+	 */
+	public StringBuilder aTexto (StringBuilder destino) {
+		
+		destino.append(numero).append('\t');
+		destino.append(nombres[0]).append('\t').append(nombres[1]).append('\t');
+		destino.append(ganador.toChar()).append('\t');
+		destino.append(numAperturas).append('\t');
+		
+		for (int i = 0; i < jugadas.length; i++) {
+			destino.append(i == 0 ? "" : ";").append(Movimiento.aTexto(jugadas[i]));
+		}
+		return destino;
+	}
+	
+	@Override
+	public String toString() {
+		return aTexto(new StringBuilder()).toString();
+	}
+}
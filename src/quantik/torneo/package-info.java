@@ -0,0 +1,8 @@
+/**
+ * Conjunto de clases para jugar torneos entre jugadores artificiales del juego Quantik y
+ * comparar su fuerza.
+ * 
+ * @author <a href="apo1004@alu.ubu.es"> Amanda Pérez Olmos </a>
+ * @version 3.0
+ */
+package quantik.torneo;
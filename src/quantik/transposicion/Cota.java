@@ -0,0 +1,26 @@
+package quantik.transposicion;
+
+/**
+ * Enumeración del tipo de cota que representa un valor guardado en la tabla de transposición.
+ * 
+ * @author <a href="apo1004@alu.ubu.es"> Amanda Pérez Olmos </a>
+ * @since 3.0
+ * @version 3.0
+ */
+public enum Cota {
+
+	/**
+	 * El valor es el exacto de la posición.
+	 */
+	EXACTA,
+	
+	/**
+	 * El valor real de la posición es mayor o igual que el guardado.
+	 */
+	INFERIOR,
+	
+	/**
+	 * El valor real de la posición es menor o igual que el guardado.
+	 */
+	SUPERIOR;
+}
@@ -0,0 +1,291 @@
+package quantik.transposicion;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import quantik.control.Partida;
+import quantik.modelo.TableroDeBits;
+
+/**
+ * Tabla de posiciones resueltas guardada en un fichero y proyectada en memoria, con el formato
+ * común de las tablas de finales y de los libros de aperturas.
+ * <p>
+ * El fichero empieza con una cabecera de {@value #BYTES_CABECERA} bytes: el número mágico que
+ * identifica el formato y su versión, un parámetro propio de cada formato, el número de
+ * entradas y el número de posiciones de la tabla, en longs. Después contiene una tabla hash de
+ * direccionamiento abierto con sondeo lineal, cuyo tamaño es una potencia de dos, y en la que
+ * cada entrada ocupa un long:
+ * <ul>
+ * <li>Los {@value TableroDeBits#BITS_CODIFICACION} bits inferiores contienen la
+ * codificación canónica de la posición ({@link Partida#calcularCodigoCanonico()}).</li>
+ * <li>El siguiente bit vale 1 si gana el jugador con el turno.</li>
+ * <li>Los siguientes guardan un dato propio de cada formato que nunca es cero, así que una
+ * entrada nunca vale 0, que marca las posiciones libres.</li>
+ * </ul>
+ * Al abrir el fichero no se lee nada: el sistema operativo trae cada página la primera vez que
+ * se consulta y el contenido no ocupa el montón de Java. Las consultas hacen un número de
+ * accesos acotado por la ocupación de la tabla, por lo que su coste es constante, y se pueden
+ * hacer desde varios hilos a la vez.
+ * 
+ * @author <a href="apo1004@alu.ubu.es"> Amanda Pérez Olmos </a>
+ * @since 3.0
+ * @version 3.0
+ */
+public final class TablaProyectada {
+
+	/**
+	 * Valor devuelto por las consultas cuando la posición no está en la tabla.
+	 */
+	public final static long SIN_DATOS = 0L;
+	
+	/**
+	 * Tamaño de la cabecera en bytes.
+	 */
+	public final static int BYTES_CABECERA = 4 * Long.BYTES;
+	
+	/**
+	 * Número máximo de posiciones de la tabla, para que se pueda proyectar de una vez.
+	 */
+	public final static long MAX_POSICIONES = 1L << 27;
+	
+	/**
+	 * Máscara de la codificación canónica en una entrada.
+	 */
+	private final static long MASCARA_CODIGO = (1L << TableroDeBits.BITS_CODIFICACION) - 1;
+	
+	/**
+	 * Bit de una entrada que indica que gana el jugador con el turno.
+	 */
+	private final static int BIT_VICTORIA = TableroDeBits.BITS_CODIFICACION;
+	
+	/**
+	 * Desplazamiento del dato propio del formato en una entrada.
+	 */
+	private final static int DESPLAZAMIENTO_DATO = BIT_VICTORIA + 1;
+	
+	/**
+	 * Proyección en memoria del fichero.
+	 */
+	private final MappedByteBuffer datos;
+	
+	/**
+	 * Parámetro propio del formato guardado en la cabecera.
+	 */
+	private final int parametro;
+	
+	/**
+	 * Número de posiciones guardadas.
+	 */
+	private final long numEntradas;
+	
+	/**
+	 * Máscara del índice de posición en la tabla.
+	 */
+	private final long mascara;
+	
+	/**
+	 * Crea una tabla sobre un fichero ya proyectado y validado.
+	 * 
+	 * @param datos proyección del fichero
+	 * @param parametro parámetro propio del formato
+	 * @param numEntradas número de posiciones guardadas
+	 * @param numPosiciones tamaño de la tabla, potencia de dos
+	 */
+	private TablaProyectada (MappedByteBuffer datos, int parametro, long numEntradas, long numPosiciones) {
+		
+		this.datos = datos;
+		this.parametro = parametro;
+		this.numEntradas = numEntradas;
+		this.mascara = numPosiciones - 1;
+	}
+	
+	/**
+	 * Abre un fichero y lo proyecta en memoria en modo de solo lectura, comprobando su cabecera.
+	 * 
+	 * @param fichero ruta del fichero
+	 * @param magia número mágico del formato
+	 * @param minParametro valor mínimo del parámetro del formato
+	 * @param maxParametro valor máximo del parámetro del formato
+	 * @param descripcion nombre del tipo de fichero en los mensajes de error
+	 * @return tabla proyectada
+	 * @throws IOException si el fichero no se puede leer o no tiene el formato esperado
+	 */
+	public static TablaProyectada abrir (Path fichero, long magia, int minParametro, int maxParametro, String descripcion)
+			throws IOException {
+		
+		try (FileChannel canal = FileChannel.open(fichero, StandardOpenOption.READ)) {
+			
+			long tamaño = canal.size();
+			
+			if (tamaño < BYTES_CABECERA || tamaño > BYTES_CABECERA + MAX_POSICIONES * Long.BYTES) {
+				throw new IOException("Tamaño de " + descripcion + " no válido: " + fichero);
+			}
+			
+			MappedByteBuffer datos = canal.map(FileChannel.MapMode.READ_ONLY, 0, tamaño);
+			long parametro = datos.getLong(Long.BYTES);
+			long numEntradas = datos.getLong(2 * Long.BYTES);
+			long numPosiciones = datos.getLong(3 * Long.BYTES);
+			
+			if (datos.getLong(0) != magia || parametro < minParametro || parametro > maxParametro
+					|| Long.bitCount(numPosiciones) != 1 || numEntradas >= numPosiciones
+					|| tamaño != BYTES_CABECERA + numPosiciones * Long.BYTES) {
+				throw new IOException("Cabecera de " + descripcion + " no válida: " + fichero);
+			}
+			return new TablaProyectada(datos, (int) parametro, numEntradas, numPosiciones);
+		}
+	}
+	
+	/**
+	 * Escribe un fichero con unas entradas, con el doble de posiciones que de entradas
+	 * redondeado a una potencia de dos para que los sondeos sean cortos.
+	 * 
+	 * @param fichero ruta del fichero que se crea o sobrescribe
+	 * @param magia número mágico del formato
+	 * @param parametro parámetro propio del formato
+	 * @param entradas entradas empaquetadas con {@link #empaquetar(long, boolean, int)},
+	 * agrupadas en arrays, que pueden ser null, y con codificaciones distintas
+	 * @param descripcion nombre del tipo de fichero en los mensajes de error
+	 * @return número de entradas escritas
+	 * @throws IOException si no se puede escribir el fichero
+	 * @throws IllegalArgumentException si las entradas no caben en un fichero proyectable
+	 */
+	public static long escribir (Path fichero, long magia, int parametro, long[][] entradas, String descripcion)
+			throws IOException {
+		
+		long numEntradas = 0;
+		
+		for (long[] grupo : entradas) {
+			numEntradas += (grupo != null ? grupo.length : 0);
+		}
+		
+		long numPosiciones = Long.highestOneBit(Math.max(1, numEntradas * 2 - 1)) << 1;
+		
+		if (numPosiciones > MAX_POSICIONES) {
+			throw new IllegalArgumentException("Demasiadas posiciones para un " + descripcion + ": " + numEntradas);
+		}
+		
+		long mascara = numPosiciones - 1;
+		
+		try (FileChannel canal = FileChannel.open(fichero, StandardOpenOption.CREATE, StandardOpenOption.READ,
+				StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+			
+			MappedByteBuffer datos = canal.map(FileChannel.MapMode.READ_WRITE, 0, BYTES_CABECERA + numPosiciones * Long.BYTES);
+			datos.putLong(0, magia);
+			datos.putLong(Long.BYTES, parametro);
+			datos.putLong(2 * Long.BYTES, numEntradas);
+			datos.putLong(3 * Long.BYTES, numPosiciones);
+			
+			for (long[] grupo : entradas) {
+				if (grupo != null) {
+					for (long entrada : grupo) {
+						
+						long posicion = calcularPosicion(consultarCodigo(entrada), mascara);
+						
+						while (datos.getLong(BYTES_CABECERA + (int) posicion * Long.BYTES) != 0) {
+							posicion = (posicion + 1) & mascara;
+						}
+						datos.putLong(BYTES_CABECERA + (int) posicion * Long.BYTES, entrada);
+					}
+				}
+			}
+			datos.force();
+		}
+		return numEntradas;
+	}
+	
+	/**
+	 * Calcula la posición inicial de la búsqueda de una codificación en la tabla, mezclando sus
+	 * bits porque las codificaciones de posiciones parecidas se parecen.
+	 * 
+	 * @param codigo codificación canónica
+	 * @param mascara máscara del índice de posición
+	 * @return índice de la primera posición a comprobar
+	 */
+	private static long calcularPosicion (long codigo, long mascara) {
+		
+		long mezcla = (codigo ^ (codigo >>> 33)) * 0xFF51AFD7ED558CCDL;
+		mezcla = (mezcla ^ (mezcla >>> 33)) * 0xC4CEB9FE1A85EC53L;
+		return (mezcla ^ (mezcla >>> 33)) & mascara;
+	}
+	
+	/**
+	 * Empaqueta una entrada de la tabla.
+	 * 
+	 * @param codigo codificación canónica de la posición
+	 * @param victoria true si gana el jugador con el turno
+	 * @param dato dato propio del formato, mayor que cero
+	 * @return entrada empaquetada
+	 */
+	public static long empaquetar (long codigo, boolean victoria, int dato) {
+		return codigo | (victoria ? 1L : 0L) << BIT_VICTORIA | (long) dato << DESPLAZAMIENTO_DATO;
+	}
+	
+	/**
+	 * Obtiene la codificación canónica guardada en una entrada.
+	 * 
+	 * @param entrada entrada empaquetada
+	 * @return codificación canónica de la posición
+	 */
+	public static long consultarCodigo (long entrada) {
+		return entrada & MASCARA_CODIGO;
+	}
+	
+	/**
+	 * Comprueba si una entrada corresponde a una posición ganada por el jugador con el turno.
+	 * 
+	 * @param entrada entrada empaquetada
+	 * @return true si gana el jugador con el turno y false si pierde
+	 */
+	public static boolean esVictoria (long entrada) {
+		return (entrada >>> BIT_VICTORIA & 1) != 0;
+	}
+	
+	/**
+	 * Obtiene el dato propio del formato guardado en una entrada.
+	 * 
+	 * @param entrada entrada empaquetada
+	 * @return dato de la entrada
+	 */
+	public static int consultarDato (long entrada) {
+		return (int) (entrada >>> DESPLAZAMIENTO_DATO);
+	}
+	
+	/**
+	 * Devuelve el parámetro propio del formato guardado en la cabecera.
+	 * 
+	 * @return parámetro del formato
+	 */
+	public int consultarParametro() {
+		return parametro;
+	}
+	
+	/**
+	 * Devuelve el número de posiciones guardadas.
+	 * 
+	 * @return número de entradas
+	 */
+	public long consultarNumeroEntradas() {
+		return numEntradas;
+	}
+	
+	/**
+	 * Busca una posición por su codificación canónica.
+	 * 
+	 * @param codigo codificación canónica de la posición
+	 * @return entrada de la posición o {@link #SIN_DATOS} si no está en la tabla
+	 */
+	public long consultar (long codigo) {
+		
+		for (long i = calcularPosicion(codigo, mascara); ; i = (i + 1) & mascara) {
+			
+			long entrada = datos.getLong(BYTES_CABECERA + (int) i * Long.BYTES);
+			
+			if (entrada == 0 || consultarCodigo(entrada) == codigo) {
+				return entrada;
+			}
+		}
+	}
+}
@@ -0,0 +1,387 @@
+package quantik.transposicion;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+
+import quantik.control.Partida;
+import quantik.modelo.Movimiento;
+
+/**
+ * Tabla de transposición de tamaño fijo para guardar resultados del análisis de posiciones.
+ * <p>
+ * Las posiciones se identifican por su clave de Zobrist ({@link Partida#consultarClave()}).
+ * Cada entrada ocupa dos long de un único array reservado al crear la tabla: los datos
+ * empaquetados (valor, cota, mejor jugada, profundidad y generación) y la clave combinada
+ * con o exclusivo con esos datos. Así, si dos hilos escriben a la vez la misma entrada, la
+ * lectura de una mezcla de ambas no supera la comprobación de la clave y se trata como un
+ * fallo, por lo que lecturas y escrituras se hacen sin bloqueos.
+ * <p>
+ * Las entradas se agrupan por parejas. La primera conserva el resultado de mayor profundidad
+ * de la búsqueda actual y la segunda se reemplaza siempre, de modo que los resultados
+ * recientes tienen sitio sin perder los más costosos de calcular.
+ * 
+ * @author <a href="apo1004@alu.ubu.es"> Amanda Pérez Olmos </a>
+ * @since 3.0
+ * @version 3.0
+ */
+public final class TablaTransposicion {
+
+	/**
+	 * Número de bytes que ocupa cada entrada.
+	 */
+	public final static int BYTES_POR_ENTRADA = 2 * Long.BYTES;
+	
+	/**
+	 * Valor devuelto por las consultas cuando la posición no está en la tabla.
+	 */
+	public final static long SIN_DATOS = 0L;
+	
+	/**
+	 * Jugada que indica que no se conoce la mejor jugada de la posición.
+	 */
+	public final static int SIN_JUGADA = Movimiento.NINGUNO;
+	
+	/**
+	 * Mayor profundidad que se puede guardar.
+	 */
+	public final static int MAX_PROFUNDIDAD = 0xFF;
+	
+	/**
+	 * Número de entradas de cada grupo de reemplazo.
+	 */
+	private final static int ENTRADAS_POR_GRUPO = 2;
+	
+	/**
+	 * Cotas, cacheadas para no crear un array en cada consulta.
+	 */
+	private final static Cota[] COTAS = Cota.values();
+	
+	/**
+	 * Posición en los datos del tipo de cota más uno, que nunca es cero en una entrada ocupada.
+	 */
+	private final static int DESPLAZAMIENTO_COTA = 16;
+	
+	/**
+	 * Posición en los datos de la mejor jugada más uno.
+	 */
+	private final static int DESPLAZAMIENTO_JUGADA = 18;
+	
+	/**
+	 * Posición en los datos de la profundidad.
+	 */
+	private final static int DESPLAZAMIENTO_PROFUNDIDAD = 25;
+	
+	/**
+	 * Posición en los datos de la generación.
+	 */
+	private final static int DESPLAZAMIENTO_GENERACION = 33;
+	
+	/**
+	 * Máscara de la mejor jugada una vez desplazada.
+	 */
+	private final static int MASCARA_JUGADA = 0x7F;
+	
+	/**
+	 * Máscara de la generación una vez desplazada.
+	 */
+	private final static int MASCARA_GENERACION = 0xFF;
+	
+	/**
+	 * Entradas de la tabla: en la posición par la clave combinada con los datos y en la
+	 * siguiente los datos.
+	 */
+	private final long[] entradas;
+	
+	/**
+	 * Máscara que transforma una clave en el índice de su grupo de entradas.
+	 */
+	private final int mascaraGrupos;
+	
+	/**
+	 * Generación de la búsqueda actual, que se guarda con cada entrada.
+	 */
+	private volatile int generacion;
+	
+	/**
+	 * Número de consultas que han encontrado la posición.
+	 */
+	private final LongAdder aciertos = new LongAdder();
+	
+	/**
+	 * Número de consultas que no han encontrado la posición.
+	 */
+	private final LongAdder fallos = new LongAdder();
+	
+	/**
+	 * Número de consultas fallidas cuyo grupo estaba ocupado por otras posiciones.
+	 */
+	private final LongAdder colisiones = new LongAdder();
+	
+	/**
+	 * Crea una tabla vacía que ocupa como mucho el número de bytes indicado.
+	 * <p>
+	 * El número de grupos de entradas se redondea a la potencia de dos inferior.
+	 * 
+	 * @param bytes tamaño máximo de la tabla en bytes
+	 * @throws IllegalArgumentException si el tamaño no admite al menos un grupo de entradas o
+	 * supera el de un array
+	 */
+	public TablaTransposicion (long bytes) {
+		
+		long grupos = bytes / (BYTES_POR_ENTRADA * ENTRADAS_POR_GRUPO);
+		
+		if (grupos < 1 || grupos * ENTRADAS_POR_GRUPO * 2 > Integer.MAX_VALUE - 8) {
+			throw new IllegalArgumentException("Tamaño de tabla de transposición no válido: " + bytes);
+		}
+		
+		int numGrupos = Integer.highestOneBit((int) grupos);
+		entradas = new long[numGrupos * ENTRADAS_POR_GRUPO * 2];
+		mascaraGrupos = numGrupos - 1;
+	}
+	
+	/**
+	 * Empaqueta los datos de una entrada.
+	 * 
+	 * @param valor valor de la posición
+	 * @param cota tipo de cota del valor
+	 * @param jugada mejor jugada o {@link #SIN_JUGADA}
+	 * @param profundidad profundidad del análisis
+	 * @param generacion generación de la búsqueda
+	 * @return datos empaquetados, nunca iguales a {@link #SIN_DATOS}
+	 */
+	private static long empaquetar (int valor, Cota cota, int jugada, int profundidad, int generacion) {
+		
+		return (valor & 0xFFFFL)
+				| (long) (cota.ordinal() + 1) << DESPLAZAMIENTO_COTA
+				| (long) (jugada + 1) << DESPLAZAMIENTO_JUGADA
+				| (long) profundidad << DESPLAZAMIENTO_PROFUNDIDAD
+				| (long) generacion << DESPLAZAMIENTO_GENERACION;
+	}
+	
+	/**
+	 * Extrae el valor de unos datos devueltos por {@link #consultar(long)}.
+	 * 
+	 * @param datos datos de una entrada
+	 * @return valor de la posición
+	 */
+	public static int consultarValor (long datos) {
+		return (short) datos;
+	}
+	
+	/**
+	 * Extrae el tipo de cota de unos datos devueltos por {@link #consultar(long)}.
+	 * 
+	 * @param datos datos de una entrada
+	 * @return tipo de cota del valor
+	 */
+	public static Cota consultarCota (long datos) {
+		return COTAS[(int) (datos >>> DESPLAZAMIENTO_COTA & 0x3) - 1];
+	}
+	
+	/**
+	 * Extrae la mejor jugada de unos datos devueltos por {@link #consultar(long)}.
+	 * 
+	 * @param datos datos de una entrada
+	 * @return jugada empaquetada según {@link Movimiento} o {@link #SIN_JUGADA}
+	 */
+	public static int consultarJugada (long datos) {
+		return (int) (datos >>> DESPLAZAMIENTO_JUGADA & MASCARA_JUGADA) - 1;
+	}
+	
+	/**
+	 * Extrae la profundidad de unos datos devueltos por {@link #consultar(long)}.
+	 * 
+	 * @param datos datos de una entrada
+	 * @return profundidad del análisis
+	 */
+	public static int consultarProfundidad (long datos) {
+		return (int) (datos >>> DESPLAZAMIENTO_PROFUNDIDAD & MAX_PROFUNDIDAD);
+	}
+	
+	/**
+	 * Extrae la generación de unos datos.
+	 * 
+	 * @param datos datos de una entrada
+	 * @return generación de la búsqueda que los guardó
+	 */
+	private static int consultarGeneracion (long datos) {
+		return (int) (datos >>> DESPLAZAMIENTO_GENERACION & MASCARA_GENERACION);
+	}
+	
+	/**
+	 * Calcula la posición en el array de la primera entrada del grupo de una clave.
+	 * 
+	 * @param clave clave de la posición
+	 * @return índice de la primera entrada del grupo
+	 */
+	private int calcularIndice (long clave) {
+		return ((int) (clave ^ clave >>> 32) & mascaraGrupos) * ENTRADAS_POR_GRUPO * 2;
+	}
+	
+	/**
+	 * Busca una posición en la tabla.
+	 * 
+	 * @param clave clave de Zobrist de la posición
+	 * @return datos de la entrada, que se leen con los métodos estáticos de consulta, o
+	 * {@link #SIN_DATOS} si la posición no está
+	 */
+	public long consultar (long clave) {
+		
+		int indice = calcularIndice(clave);
+		boolean ocupado = false;
+		
+		for (int i = indice; i < indice + ENTRADAS_POR_GRUPO * 2; i += 2) {
+			
+			long datos = entradas[i + 1];
+			
+			if ((entradas[i] ^ datos) == clave && datos != SIN_DATOS) {
+				aciertos.increment();
+				return datos;
+			}
+			ocupado |= datos != SIN_DATOS;
+		}
+		fallos.increment();
+		if (ocupado) {
+			colisiones.increment();
+		}
+		return SIN_DATOS;
+	}
+	
+	/**
+	 * Busca la posición actual de una partida en la tabla.
+	 * 
+	 * @param partida partida cuya posición se busca
+	 * @return datos de la entrada o {@link #SIN_DATOS} si la posición no está
+	 */
+	public long consultar (Partida partida) {
+		return consultar(partida.consultarClave());
+	}
+	
+	/**
+	 * Guarda el resultado del análisis de una posición.
+	 * <p>
+	 * Si la posición ya está en su grupo se sustituye cuando el nuevo análisis es al menos igual
+	 * de profundo, es exacto o el anterior es de otra búsqueda. Si no, ocupa la primera entrada
+	 * cuando supera su profundidad o esta es de otra búsqueda, y la segunda en caso contrario.
+	 * 
+	 * @param clave clave de Zobrist de la posición
+	 * @param valor valor de la posición, en el rango de un short
+	 * @param cota tipo de cota del valor
+	 * @param jugada mejor jugada empaquetada según {@link Movimiento} o {@link #SIN_JUGADA}
+	 * @param profundidad profundidad del análisis, entre 0 y {@value #MAX_PROFUNDIDAD}
+	 * @throws IllegalArgumentException si algún dato está fuera de rango
+	 */
+	public void guardar (long clave, int valor, Cota cota, int jugada, int profundidad) {
+		
+		if (valor < Short.MIN_VALUE || valor > Short.MAX_VALUE || cota == null || jugada < SIN_JUGADA
+				|| jugada >= MASCARA_JUGADA || profundidad < 0 || profundidad > MAX_PROFUNDIDAD) {
+			throw new IllegalArgumentException("Datos de la tabla de transposición fuera de rango.");
+		}
+		
+		int generacionActual = generacion;
+		long nuevos = empaquetar(valor, cota, jugada, profundidad, generacionActual);
+		int indice = calcularIndice(clave);
+		int destino = -1;
+		
+		for (int i = indice; i < indice + ENTRADAS_POR_GRUPO * 2 && destino < 0; i += 2) {
+			
+			long datos = entradas[i + 1];
+			
+			if ((entradas[i] ^ datos) == clave && datos != SIN_DATOS) {
+				
+				if (profundidad < consultarProfundidad(datos) && cota != Cota.EXACTA
+						&& consultarGeneracion(datos) == generacionActual) {
+					return;
+				}
+				destino = i;
+			}
+		}
+		
+		if (destino < 0) {
+			
+			long primeros = entradas[indice + 1];
+			boolean reemplazable = primeros == SIN_DATOS || profundidad >= consultarProfundidad(primeros)
+					|| consultarGeneracion(primeros) != generacionActual;
+			destino = (reemplazable ? indice : indice + 2);
+		}
+		entradas[destino] = clave ^ nuevos;
+		entradas[destino + 1] = nuevos;
+	}
+	
+	/**
+	 * Guarda el resultado del análisis de la posición actual de una partida.
+	 * 
+	 * @param partida partida cuya posición se guarda
+	 * @param valor valor de la posición, en el rango de un short
+	 * @param cota tipo de cota del valor
+	 * @param jugada mejor jugada empaquetada o {@link #SIN_JUGADA}
+	 * @param profundidad profundidad del análisis
+	 * @throws IllegalArgumentException si algún dato está fuera de rango
+	 */
+	public void guardar (Partida partida, int valor, Cota cota, int jugada, int profundidad) {
+		guardar(partida.consultarClave(), valor, cota, jugada, profundidad);
+	}
+	
+	/**
+	 * Empieza una nueva búsqueda, de modo que las entradas anteriores pasan a ser reemplazables.
+	 */
+	public void iniciarBusqueda() {
+		generacion = (generacion + 1) & MASCARA_GENERACION;
+	}
+	
+	/**
+	 * Vacía la tabla y pone a cero los contadores.
+	 * <p>
+	 * No debe llamarse mientras otros hilos la están usando.
+	 */
+	public void limpiar() {
+		
+		Arrays.fill(entradas, 0L);
+		aciertos.reset();
+		fallos.reset();
+		colisiones.reset();
+	}
+	
+	/**
+	 * Devuelve el número de entradas de la tabla.
+	 * 
+	 * @return número de entradas
+	 */
+	public int consultarNumeroEntradas() {
+		return entradas.length / 2;
+	}
+	
+	/**
+	 * Devuelve el número de consultas que han encontrado la posición.
+	 * 
+	 * @return número de aciertos
+	 */
+	public long consultarAciertos() {
+		return aciertos.sum();
+	}
+	
+	/**
+	 * Devuelve el número de consultas que no han encontrado la posición.
+	 * 
+	 * @return número de fallos
+	 */
+	public long consultarFallos() {
+		return fallos.sum();
+	}
+	
+	/**
+	 * Devuelve el número de consultas fallidas cuyo grupo de entradas estaba ocupado por otras
+	 * posiciones.
+	 * 
+	 * @return número de colisiones
+	 */
+	public long consultarColisiones() {
+		return colisiones.sum();
+	}
+	
+	@Override
+	public String toString() {
+		return "TablaTransposicion [entradas=" + consultarNumeroEntradas() + ", aciertos=" + consultarAciertos()
+				+ ", fallos=" + consultarFallos() + ", colisiones=" + consultarColisiones() + "]";
+	}
+}
@@ -0,0 +1,7 @@
+/**
+ * Conjunto de clases para guardar y reutilizar resultados del análisis de posiciones del juego Quantik.
+ * 
+ * @author <a href="apo1004@alu.ubu.es"> Amanda Pérez Olmos </a>
+ * @version 3.0
+ */
+package quantik.transposicion;
\ No newline at end of file
@@ -82,7 +82,7 @@ public class MaquinaDelTiempoConJugadas extends MaquinaDelTiempoAbstracta {
 	@Override
 	public void hacerJugada(int fila, int columna, Figura figura, Color color) throws CoordenadasIncorrectasException {
 		
-		if (!partidaInicial.consultarTablero().estaEnTablero(fila,columna)){
+		if (!partidaInicial.consultarVistaTablero().estaEnTablero(fila,columna)){
 			throw new CoordenadasIncorrectasException("Coordenadas fuera de los límites del tablero.");
 		}
 		jugadas.add(new Jugada(fila,columna,figura,color));		
@@ -1,9 +1,8 @@
 package quantik.undo;
 
-import java.util.ArrayList;
 import java.util.Date;
-import java.util.List;
 
+import quantik.control.EstadoPartida;
 import quantik.control.Partida;
 import quantik.excepcion.CoordenadasIncorrectasException;
 import quantik.modelo.Caja;
@@ -12,17 +11,22 @@ import quantik.util.Color;
 import quantik.util.Figura;
 
 /**
- * Almacena el histórico de clones de las partidas según se vayan realizando jugadas.
+ * Almacena el histórico de estados de la partida según se vayan realizando jugadas.
+ * <p>
+ * Los estados son inmutables y cada uno apunta a su anterior, por lo que registrar una
+ * jugada solo crea un estado pequeño que comparte el resto del histórico, y deshacer
+ * consiste en volver al estado anterior.
  * 
  * @author <a href="apo1004@alu.ubu.es"> Amanda Pérez Olmos </a>
- * @version 1.0
+ * @since 1.0
+ * @version 3.0
  */
 public class MaquinaDelTiempoConPartidas extends MaquinaDelTiempoAbstracta {
 
 	/**
-	 * Histórico de clones de partidas.
+	 * Último estado del histórico.
 	 */
-	private List<Partida> partidas;
+	private EstadoPartida estadoActual;
 	
 	/**
 	 * Partida en un estado inicial.
@@ -39,69 +43,34 @@ public class MaquinaDelTiempoConPartidas extends MaquinaDelTiempoAbstracta {
 	public MaquinaDelTiempoConPartidas (Date fecha, int filas, int columnas) {
 		
 		super(fecha,filas,columnas);
-		partidas = new ArrayList<>();
+		estadoActual = EstadoPartida.obtenerInicial();
 		partidaInicial = new Partida(new Tablero(),new Caja (Color.BLANCO), new Caja (Color.NEGRO));
 	}
 
 	@Override
 	public int consultarNumeroJugadasEnHistorico() {
-		return partidas.size();
+		return estadoActual.consultarNumeroJugada();
 	}
 
 	@Override
 	public Partida consultarPartidaActual() {
-		
-		Partida partidaActual = new Partida(new Tablero(), new Caja(Color.BLANCO), new Caja(Color.NEGRO));
-		
-		if (!partidas.isEmpty()) {
-			
-			int indice = partidas.size() - 1;
-			partidaActual = partidas.get(indice);
-		}
-		return partidaActual;
+		return estadoActual.crearPartida();
 	}
 
 	@Override
 	public void deshacerJugada() {
 		
-		if (!partidas.isEmpty()) {
-			
-			int indice = partidas.size() - 1;
-			partidas.remove(indice);
+		if (estadoActual.consultarAnterior() != null) {
+			estadoActual = estadoActual.consultarAnterior();
 		}
 	}
 
 	@Override
 	public void hacerJugada(int fila, int columna, Figura figura, Color color) throws CoordenadasIncorrectasException {
 		
-		if (!partidaInicial.consultarTablero().estaEnTablero(fila,columna)){
+		if (!partidaInicial.consultarVistaTablero().estaEnTablero(fila,columna)){
 			throw new CoordenadasIncorrectasException("Coordenadas fuera de los límites del tablero.");
 		}
-
-		Partida partidaClon = clonarUltimaPartida();
-		
-		partidaClon.colocarPiezaEnTurnoActual(fila, columna, figura);
-		partidaClon.cambiarTurno();
-		partidas.add(partidaClon);
-	}
-	
-	/**
-	 * Devuelve un clon en profundidad de la partida actual.
-	 * 
-	 * @return clon profundo de la partida
-	 */
-	private Partida clonarUltimaPartida() {
-				
-		Partida partidaClon = null;
-		
-		if (!partidas.isEmpty()) {
-			
-			int indice = partidas.size() - 1;
-			partidaClon = partidas.get(indice).clonar();
-		}
-		else {
-			partidaClon = partidaInicial.clonar();
-		}
-		return partidaClon;
+		estadoActual = estadoActual.jugar(fila, columna, figura);
 	}
 }
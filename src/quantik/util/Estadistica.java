@@ -0,0 +1,31 @@
+package quantik.util;
+
+/**
+ * Cálculos estadísticos sobre las medidas de las herramientas y los torneos.
+ * 
+ * @author <a href="apo1004@alu.ubu.es"> Amanda Pérez Olmos </a>
+ * @since 3.0
+ * @version 3.0
+ */
+public final class Estadistica {
+
+	/**
+	 * Impide crear instancias.
+	 */
+	private Estadistica() {
+	}
+	
+	/**
+	 * Obtiene un percentil de una lista ordenada de valores por el método del rango más
+	 * cercano.
+	 * 
+	 * @param ordenados valores en orden creciente, al menos uno
+	 * @param percentil percentil entre 0 y 100
+	 * @return menor valor que no es superado por el porcentaje indicado de los valores
+	 */
+	public static long calcularPercentil (long[] ordenados, double percentil) {
+		
+		int indice = (int) Math.ceil(percentil / 100 * ordenados.length) - 1;
+		return ordenados[Math.max(0, Math.min(ordenados.length - 1, indice))];
+	}
+}